@@ -0,0 +1,59 @@
+package churilla.mark.toolrental.benchmarks;
+
+import churilla.mark.toolrental.journal.AgreementJournal;
+import churilla.mark.toolrental.journal.FsyncPolicy;
+import churilla.mark.toolrental.logic.ChargeableDayIndex;
+import churilla.mark.toolrental.logic.RentalProcessor;
+import churilla.mark.toolrental.model.RentalAgreement;
+import churilla.mark.toolrental.service.ToolService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link AgreementJournal#append(RentalAgreement)}, waiting for each append to complete. With more
+ * than one thread, concurrent appends share group commits, so the time per append with the {@code ALWAYS} policy
+ * drops well below the time of one force.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AgreementJournalBenchmarks {
+    private Path journalDirectory;
+    private AgreementJournal journal;
+    private RentalAgreement agreement;
+
+    @Param({"ALWAYS", "INTERVAL", "NONE"})
+    private FsyncPolicy.Mode fsyncMode;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        journalDirectory = Files.createTempDirectory("journal-benchmark");
+
+        FsyncPolicy policy = switch (fsyncMode) {
+            case ALWAYS -> FsyncPolicy.always();
+            case INTERVAL -> FsyncPolicy.every(Duration.ofMillis(10));
+            case NONE -> FsyncPolicy.none();
+        };
+
+        journal = AgreementJournal.open(journalDirectory, policy);
+        agreement = new RentalProcessor(new ToolService(), ChargeableDayIndex.getDefault())
+                .checkout("JAKR", LocalDate.of(2015, 7, 2), 9, 10);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        JournalRecoveryBenchmarks.deleteDirectory(journalDirectory);
+    }
+
+    @Benchmark
+    public Long append() {
+        return journal.append(agreement).join();
+    }
+}
@@ -0,0 +1,62 @@
+package churilla.mark.toolrental.benchmarks;
+
+import churilla.mark.toolrental.analytics.AgreementStore;
+import churilla.mark.toolrental.logic.ChargeableDayIndex;
+import churilla.mark.toolrental.logic.RentalProcessor;
+import churilla.mark.toolrental.model.RentalAgreement;
+import churilla.mark.toolrental.service.ToolService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares totaling the final prices of 1,000,000 agreements by brand with a sequential and a parallel scan of an
+ * {@link AgreementStore} against grouping the {@link RentalAgreement} objects with a stream.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AgreementStoreBenchmarks {
+    private static final int AGREEMENT_COUNT = 1_000_000;
+    private static final String[] TOOL_CODES = {"CHNS", "JAKD", "JAKR", "LADW"};
+
+    private List<RentalAgreement> agreements;
+    private AgreementStore store;
+
+    @Setup
+    public void setup() {
+        RentalProcessor processor = new RentalProcessor(new ToolService(), ChargeableDayIndex.getDefault());
+        LocalDate firstDate = LocalDate.of(2010, 1, 1);
+
+        agreements = new ArrayList<>(AGREEMENT_COUNT);
+        for (int i = 0; i < AGREEMENT_COUNT; i++) {
+            agreements.add(processor.quote(TOOL_CODES[i % TOOL_CODES.length], firstDate.plusDays(i % 3650), 1 + i % 30, i % 101));
+        }
+
+        store = new AgreementStore();
+        store.addAll(agreements);
+    }
+
+    @Benchmark
+    public List<AgreementStore.Group> storeScan() {
+        return store.aggregate(AgreementStore.GroupBy.BRAND, AgreementStore.Measure.FINAL_PRICE_CENTS);
+    }
+
+    @Benchmark
+    public List<AgreementStore.Group> storeParallelScan() {
+        return store.aggregate(AgreementStore.GroupBy.BRAND, AgreementStore.Measure.FINAL_PRICE_CENTS, ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public Map<String, Long> objectStream() {
+        return agreements.stream()
+                .collect(Collectors.groupingBy(agreement -> agreement.getTool().getBrandName(),
+                        Collectors.summingLong(RentalAgreement::getFinalPriceCents)));
+    }
+}
@@ -0,0 +1,36 @@
+package churilla.mark.toolrental.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar. Runs the selected benchmarks twice, once on a single thread and once with a
+ * thread per available processor, and reports allocation rates through the JMH GC profiler.
+ * <p>
+ * An optional regular expression can be passed as the first argument to select the benchmarks to run
+ * (e.g., {@code java -jar target/benchmarks.jar Checkout}). By default every benchmark in this package is run.
+ * </p>
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : BenchmarkRunner.class.getPackageName() + ".*";
+        int processors = Runtime.getRuntime().availableProcessors();
+
+        for (int threads : new int[] {1, processors}) {
+            Options options = new OptionsBuilder()
+                    .include(include)
+                    .threads(threads)
+                    .forks(1)
+                    .warmupIterations(3)
+                    .measurementIterations(5)
+                    .addProfiler(GCProfiler.class)
+                    .build();
+
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package churilla.mark.toolrental.benchmarks;
+
+import churilla.mark.toolrental.bulk.BulkRentalFileProcessor;
+import churilla.mark.toolrental.logic.ChargeableDayIndex;
+import churilla.mark.toolrental.logic.RentalProcessor;
+import churilla.mark.toolrental.service.ToolService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link BulkRentalFileProcessor}, pricing a JSON Lines file of 200,000 rental requests with one worker
+ * and with one worker per processor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BulkRentalFileBenchmarks {
+    private static final int LINE_COUNT = 200_000;
+    private static final String[] TOOL_CODES = {"CHNS", "JAKD", "JAKR", "LADW"};
+
+    private Path directory;
+    private Path input;
+    private Path output;
+    private ForkJoinPool pool;
+    private BulkRentalFileProcessor processor;
+
+    // Zero uses one worker per processor.
+    @Param({"1", "0"})
+    private int workers;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("bulk-benchmark");
+        input = directory.resolve("requests.jsonl");
+        output = directory.resolve("agreements.jsonl");
+
+        try (Writer writer = Files.newBufferedWriter(input, StandardCharsets.UTF_8)) {
+            LocalDate checkoutDate = LocalDate.of(2015, 1, 1);
+            for (int i = 0; i < LINE_COUNT; i++) {
+                writer.write(String.format("{\"toolCode\":\"%s\",\"checkoutDate\":\"%s\",\"rentalDuration\":%s,\"discount\":%s}%n",
+                        TOOL_CODES[i % TOOL_CODES.length], checkoutDate.plusDays(i % 3650), 1 + i % 30, i % 101));
+            }
+        }
+
+        pool = new ForkJoinPool(workers == 0 ? Runtime.getRuntime().availableProcessors() : workers);
+        processor = new BulkRentalFileProcessor(new RentalProcessor(new ToolService(), ChargeableDayIndex.getDefault()), pool);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        pool.shutdown();
+        Files.deleteIfExists(input);
+        Files.deleteIfExists(output);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public BulkRentalFileProcessor.Summary process() {
+        try {
+            return processor.process(input, output);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package churilla.mark.toolrental.benchmarks;
+
+import churilla.mark.toolrental.logic.ChargeableDayCalculator;
+import churilla.mark.toolrental.logic.ChargeableDayIndex;
+import churilla.mark.toolrental.model.ToolType;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the chargeable day calculation with short and very long rental durations. The day-by-day
+ * reference implementation is included to show how its cost grows with the duration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ChargeableDayBenchmarks {
+    private ToolType toolType;
+    private LocalDate checkoutDate;
+    private ChargeableDayIndex index;
+
+    @Param({"5", "30", "365", "3650"})
+    private int rentalDuration;
+
+    @Setup
+    public void setup() {
+        toolType = new ToolType("Jackhammer", BigDecimal.valueOf(2.99), true, false, false);
+        checkoutDate = LocalDate.of(2015, 7, 2);
+        index = ChargeableDayIndex.getDefault();
+    }
+
+    @Benchmark
+    public int calculate() {
+        return ChargeableDayCalculator.calculate(toolType, checkoutDate, rentalDuration);
+    }
+
+    @Benchmark
+    public int calculateByIteration() {
+        return ChargeableDayCalculator.calculateByIteration(toolType, checkoutDate, rentalDuration);
+    }
+
+    @Benchmark
+    public int indexLookup() {
+        return index.getChargeableDays(toolType.getChargeMask(), checkoutDate, rentalDuration);
+    }
+}
@@ -0,0 +1,71 @@
+package churilla.mark.toolrental.benchmarks;
+
+import churilla.mark.toolrental.exception.FatalException;
+import churilla.mark.toolrental.logic.ChargeableDayIndex;
+import churilla.mark.toolrental.logic.QuoteCache;
+import churilla.mark.toolrental.logic.RentalProcessor;
+import churilla.mark.toolrental.metrics.CheckoutMetrics;
+import churilla.mark.toolrental.model.CheckoutResult;
+import churilla.mark.toolrental.model.RentalAgreement;
+import churilla.mark.toolrental.service.ToolService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link RentalProcessor#checkout(String, LocalDate, int, int)}, covering the tool lookup, the
+ * chargeable day calculation and the creation of the {@link RentalAgreement}. {@code meteredCheckout} measures the
+ * same checkout with the latency and counters of {@link CheckoutMetrics} being recorded, and {@code cachedCheckout}
+ * with the price answered from a {@link QuoteCache}. {@code rejectedCheckout} and
+ * {@code rejectedTryCheckout} compare rejecting a discount of 101 with an exception and with a {@link CheckoutResult}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CheckoutBenchmarks {
+    private RentalProcessor rentalProcessor;
+    private RentalProcessor meteredRentalProcessor;
+    private RentalProcessor cachedRentalProcessor;
+    private LocalDate checkoutDate;
+
+    @Param({"5", "365"})
+    private int rentalDuration;
+
+    @Setup
+    public void setup() throws FatalException {
+        rentalProcessor = new RentalProcessor();
+        meteredRentalProcessor = new RentalProcessor(new ToolService(), ChargeableDayIndex.getDefault(), RentalProcessor.Options.NONE.withCheckoutMetrics(new CheckoutMetrics()));
+        cachedRentalProcessor = new RentalProcessor(new ToolService(), ChargeableDayIndex.getDefault(), RentalProcessor.Options.NONE.withQuoteCache(new QuoteCache(1024)));
+        checkoutDate = LocalDate.of(2015, 7, 2);
+    }
+
+    @Benchmark
+    public RentalAgreement checkout() {
+        return rentalProcessor.checkout("JAKR", checkoutDate, rentalDuration, 10);
+    }
+
+    @Benchmark
+    public RentalAgreement meteredCheckout() {
+        return meteredRentalProcessor.checkout("JAKR", checkoutDate, rentalDuration, 10);
+    }
+
+    @Benchmark
+    public RentalAgreement cachedCheckout() {
+        return cachedRentalProcessor.checkout("JAKR", checkoutDate, rentalDuration, 10);
+    }
+
+    @Benchmark
+    public Object rejectedCheckout() {
+        try {
+            return rentalProcessor.checkout("JAKR", checkoutDate, rentalDuration, 101);
+        } catch (RuntimeException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    public CheckoutResult rejectedTryCheckout() {
+        return rentalProcessor.tryCheckout("JAKR", checkoutDate, rentalDuration, 101);
+    }
+}
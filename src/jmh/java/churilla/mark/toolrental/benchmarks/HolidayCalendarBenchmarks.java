@@ -0,0 +1,54 @@
+package churilla.mark.toolrental.benchmarks;
+
+import churilla.mark.toolrental.model.HolidayRule;
+import churilla.mark.toolrental.utility.HolidayCalendar;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link HolidayCalendar} with the two default holidays and with a store calendar of eight holidays,
+ * to show that checking and counting holidays costs the same however many rules are configured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HolidayCalendarBenchmarks {
+    private static final List<HolidayRule> STORE_RULES = List.of(
+            new HolidayRule.FixedDate("New Year's Day", Month.JANUARY, 1, true),
+            new HolidayRule.NthWeekdayOfMonth("Martin Luther King Jr. Day", Month.JANUARY, DayOfWeek.MONDAY, 3),
+            new HolidayRule.LastWeekdayOfMonth("Memorial Day", Month.MAY, DayOfWeek.MONDAY),
+            new HolidayRule.FixedDate("Independence Day", Month.JULY, 4, true),
+            new HolidayRule.NthWeekdayOfMonth("Labor Day", Month.SEPTEMBER, DayOfWeek.MONDAY, 1),
+            new HolidayRule.NthWeekdayOfMonth("Thanksgiving", Month.NOVEMBER, DayOfWeek.THURSDAY, 4),
+            new HolidayRule.FixedDate("Christmas Eve", Month.DECEMBER, 24, false),
+            new HolidayRule.FixedDate("Christmas Day", Month.DECEMBER, 25, true));
+
+    private HolidayCalendar calendar;
+    private long firstEpochDay;
+    private long lastEpochDay;
+
+    @Param({"2", "8"})
+    private int ruleCount;
+
+    @Setup
+    public void setup() {
+        calendar = ruleCount == 2 ? HolidayCalendar.getDefault() : new HolidayCalendar(1900, 2399, STORE_RULES);
+        firstEpochDay = LocalDate.of(2015, 3, 15).toEpochDay();
+        lastEpochDay = LocalDate.of(2016, 3, 14).toEpochDay();
+    }
+
+    @Benchmark
+    public boolean isHoliday() {
+        return calendar.isHoliday(firstEpochDay);
+    }
+
+    @Benchmark
+    public int countHolidays() {
+        return calendar.countHolidays(firstEpochDay, lastEpochDay);
+    }
+}
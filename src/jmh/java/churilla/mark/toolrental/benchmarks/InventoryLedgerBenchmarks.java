@@ -0,0 +1,47 @@
+package churilla.mark.toolrental.benchmarks;
+
+import churilla.mark.toolrental.logic.InventoryLedger;
+import churilla.mark.toolrental.model.Reservation;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Benchmarks for {@link InventoryLedger} reservations. Each benchmark thread rents its own tool, so running with more
+ * threads shows how the ledger scales when checkouts of different tools do not conflict.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class InventoryLedgerBenchmarks {
+    private static final AtomicInteger NEXT_TOOL = new AtomicInteger();
+
+    private InventoryLedger ledger;
+
+    @State(Scope.Thread)
+    public static class ThreadTool {
+        private Reservation reservation;
+
+        @Setup
+        public void setup() {
+            String toolCode = "T" + NEXT_TOOL.getAndIncrement();
+            LocalDate checkoutDate = LocalDate.of(2015, 7, 2);
+
+            reservation = new Reservation(toolCode, checkoutDate, checkoutDate.plusDays(5));
+        }
+    }
+
+    @Setup
+    public void setup() {
+        ledger = new InventoryLedger();
+    }
+
+    @Benchmark
+    public boolean reserveAndRelease(final ThreadTool tool) {
+        ledger.reserve(tool.reservation);
+
+        return ledger.release(tool.reservation);
+    }
+}
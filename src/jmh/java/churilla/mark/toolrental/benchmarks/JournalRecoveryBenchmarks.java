@@ -0,0 +1,82 @@
+package churilla.mark.toolrental.benchmarks;
+
+import churilla.mark.toolrental.journal.AgreementJournal;
+import churilla.mark.toolrental.journal.FsyncPolicy;
+import churilla.mark.toolrental.logic.ChargeableDayIndex;
+import churilla.mark.toolrental.logic.RentalProcessor;
+import churilla.mark.toolrental.model.RentalAgreement;
+import churilla.mark.toolrental.model.Reservation;
+import churilla.mark.toolrental.service.ToolService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks for opening an {@link AgreementJournal} after a long rental history, in which most rentals have been
+ * returned. With snapshots, opening reads the last snapshot and the records after it; without them, it replays the
+ * whole history.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JournalRecoveryBenchmarks {
+    private static final int RENTAL_COUNT = 100_000;
+    private static final long SEGMENT_SIZE = 1024 * 1024;
+
+    private Path journalDirectory;
+    private long snapshotInterval;
+
+    @Param({"true", "false"})
+    private boolean snapshots;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        journalDirectory = Files.createTempDirectory("journal-recovery-benchmark");
+        snapshotInterval = snapshots ? 20_000 : Long.MAX_VALUE;
+
+        RentalProcessor rentalProcessor = new RentalProcessor(new ToolService(), ChargeableDayIndex.getDefault());
+        String[] toolCodes = {"CHNS", "JAKD", "JAKR", "LADW"};
+        LocalDate checkoutDate = LocalDate.of(2015, 7, 2);
+
+        try (AgreementJournal journal = AgreementJournal.open(journalDirectory, FsyncPolicy.none(), SEGMENT_SIZE, snapshotInterval)) {
+            for (int i = 0; i < RENTAL_COUNT; i++) {
+                RentalAgreement agreement = rentalProcessor.checkout(toolCodes[i % toolCodes.length], checkoutDate.plusDays(i % 3650), 5, 0);
+                journal.append(agreement);
+
+                // All but the last few hundred rentals have been returned.
+                if (i < RENTAL_COUNT - 500) {
+                    journal.appendReturn(Reservation.of(agreement));
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        deleteDirectory(journalDirectory);
+    }
+
+    @Benchmark
+    public int open() throws IOException {
+        try (AgreementJournal journal = AgreementJournal.open(journalDirectory, FsyncPolicy.none(), SEGMENT_SIZE, snapshotInterval)) {
+            return journal.getActiveAgreements().size();
+        }
+    }
+
+    /**
+     * Deletes a benchmark's journal directory and the files in it.
+     */
+    static void deleteDirectory(final Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package churilla.mark.toolrental.benchmarks;
+
+import churilla.mark.toolrental.utility.LocalDateUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the holiday checks in {@link LocalDateUtils}, using a holiday and a regular day.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LocalDateUtilsBenchmarks {
+    private LocalDate date;
+
+    @Param({"2015-07-03", "2015-03-15"})
+    private String dateText;
+
+    @Setup
+    public void setup() {
+        date = LocalDate.parse(dateText);
+    }
+
+    @Benchmark
+    public boolean isHoliday() {
+        return LocalDateUtils.isHoliday(date);
+    }
+
+    @Benchmark
+    public boolean isLaborDayHoliday() {
+        return LocalDateUtils.isLaborDayHoliday(date);
+    }
+
+    @Benchmark
+    public boolean isIndependenceDayHoliday() {
+        return LocalDateUtils.isIndependenceDayHoliday(date);
+    }
+}
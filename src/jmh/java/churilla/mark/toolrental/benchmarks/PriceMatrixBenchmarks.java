@@ -0,0 +1,51 @@
+package churilla.mark.toolrental.benchmarks;
+
+import churilla.mark.toolrental.logic.ChargeableDayIndex;
+import churilla.mark.toolrental.logic.RentalProcessor;
+import churilla.mark.toolrental.model.PriceMatrix;
+import churilla.mark.toolrental.model.RentableTool;
+import churilla.mark.toolrental.service.ToolService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares pricing every tool of the catalog for durations of 1 - 30 days with
+ * {@link RentalProcessor#quotePrices(LocalDate, int, int)} against quoting each cell of the same matrix with
+ * {@link RentalProcessor#quote(String, LocalDate, int, int)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PriceMatrixBenchmarks {
+    private static final int MAX_DURATION = 30;
+
+    private RentalProcessor rentalProcessor;
+    private List<String> toolCodes;
+    private LocalDate checkoutDate;
+
+    @Setup
+    public void setup() {
+        ToolService toolService = new ToolService();
+        rentalProcessor = new RentalProcessor(toolService, ChargeableDayIndex.getDefault());
+        toolCodes = toolService.getRentableTools().stream().map(RentableTool::getToolCode).toList();
+        checkoutDate = LocalDate.of(2020, 7, 2);
+    }
+
+    @Benchmark
+    public PriceMatrix quotePrices() {
+        return rentalProcessor.quotePrices(checkoutDate, MAX_DURATION, 10);
+    }
+
+    @Benchmark
+    public void quoteEachCell(final Blackhole blackhole) {
+        for (String toolCode : toolCodes) {
+            for (int rentalDuration = 1; rentalDuration <= MAX_DURATION; rentalDuration++) {
+                blackhole.consume(rentalProcessor.quote(toolCode, checkoutDate, rentalDuration, 10).getFinalPrice());
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package churilla.mark.toolrental.benchmarks;
+
+import churilla.mark.toolrental.exception.FatalException;
+import churilla.mark.toolrental.logic.RentalProcessor;
+import churilla.mark.toolrental.model.RentalAgreement;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for rendering a {@link RentalAgreement} as text.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RentalAgreementBenchmarks {
+    private RentalAgreement agreement;
+
+    @Setup
+    public void setup() throws FatalException {
+        agreement = new RentalProcessor().checkout("CHNS", LocalDate.of(2015, 7, 2), 5, 25);
+    }
+
+    @Benchmark
+    public String toStringReceipt() {
+        return agreement.toString();
+    }
+}
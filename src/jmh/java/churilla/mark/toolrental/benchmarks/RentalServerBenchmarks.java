@@ -0,0 +1,114 @@
+package churilla.mark.toolrental.benchmarks;
+
+import churilla.mark.toolrental.logic.ChargeableDayIndex;
+import churilla.mark.toolrental.logic.RentalProcessor;
+import churilla.mark.toolrental.model.CheckoutRequest;
+import churilla.mark.toolrental.server.RentalJsonCodec;
+import churilla.mark.toolrental.server.RentalServer;
+import churilla.mark.toolrental.service.ToolService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Throughput and latency of {@code POST /quote} requests to a {@link RentalServer}, comparing an executor that
+ * starts a virtual thread per request with a fixed pool of platform threads.
+ * <p>
+ * Each operation sends one request asynchronously, and at most {@code concurrency} requests are in flight at once,
+ * so the executors are compared under a steady load of that many concurrent clients rather than one request at a
+ * time. With a concurrency of 1 the average time is the latency of a request; with more, it is the time per request
+ * at that load, and the mean latency of a request is {@code concurrency} times the average time (Little's law).
+ * </p><p>
+ * Virtual threads need Java 21. On an earlier runtime {@link RentalServer#newVirtualThreadExecutor()} falls back to
+ * pooled platform threads, so the {@code VIRTUAL} trial fails instead of reporting a mislabeled result.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@Fork(jvmArgsAppend = "-D" + RentalServer.NODELAY_PROPERTY + "=true")
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RentalServerBenchmarks {
+    private RentalServer server;
+    private HttpClient httpClient;
+    private HttpRequest quoteRequest;
+    private Semaphore inFlight;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    @Param({"VIRTUAL", "PLATFORM"})
+    private String executor;
+
+    @Param({"1", "64", "512"})
+    private int concurrency;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        if (executor.equals("VIRTUAL") && !RentalServer.isVirtualThreadExecutorAvailable()) {
+            throw new IllegalStateException(String.format(
+                    "Virtual threads are not available on Java %s; the VIRTUAL executor would use platform threads.",
+                    Runtime.version().feature()));
+        }
+
+        ExecutorService serverExecutor = executor.equals("VIRTUAL")
+                ? RentalServer.newVirtualThreadExecutor()
+                : RentalServer.newPlatformThreadExecutor(Runtime.getRuntime().availableProcessors());
+        RentalProcessor rentalProcessor = new RentalProcessor(new ToolService(), ChargeableDayIndex.getDefault());
+
+        server = new RentalServer(rentalProcessor, new InetSocketAddress("127.0.0.1", 0), serverExecutor);
+        server.start();
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        RentalJsonCodec.writeCheckoutRequest(new CheckoutRequest("JAKR", LocalDate.of(2015, 7, 2), 9, 10), body);
+
+        httpClient = HttpClient.newHttpClient();
+        quoteRequest = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + "/quote"))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build();
+        inFlight = new Semaphore(concurrency);
+    }
+
+    /**
+     * Waits for the requests still in flight, so they are not counted in the next iteration.
+     */
+    @TearDown(Level.Iteration)
+    public void drain() throws InterruptedException {
+        inFlight.acquire(concurrency);
+        inFlight.release(concurrency);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public CompletableFuture<HttpResponse<byte[]>> quote() throws InterruptedException {
+        Throwable error = failure.get();
+        if (error != null) {
+            throw new IllegalStateException("A quote request failed.", error);
+        }
+
+        inFlight.acquire();
+
+        return httpClient.sendAsync(quoteRequest, HttpResponse.BodyHandlers.ofByteArray())
+                .whenComplete((response, ex) -> {
+                    inFlight.release();
+                    if (ex != null) {
+                        failure.compareAndSet(null, ex);
+                    } else if (response.statusCode() != 200) {
+                        failure.compareAndSet(null, new IOException("Unexpected status " + response.statusCode() + "."));
+                    }
+                });
+    }
+}
@@ -0,0 +1,107 @@
+package churilla.mark.toolrental.benchmarks;
+
+import churilla.mark.toolrental.model.RentableTool;
+import churilla.mark.toolrental.model.ToolType;
+import churilla.mark.toolrental.repository.ToolJsonModule;
+import churilla.mark.toolrental.repository.ToolJsonReader;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for reading a catalog of tools in the ToolDb.json format. A new databind mapper for every read and a
+ * shared databind mapper, which both bind the tools reflectively through annotated mix-ins (the model classes are not
+ * annotated), are compared with the shared mapper of {@link ToolJsonModule} and with {@link ToolJsonReader}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ToolJsonBenchmarks {
+    private static final TypeReference<List<RentableTool>> TOOL_LIST = new TypeReference<>() {};
+    private static final String[] TOOL_TYPES = {
+            "{\"name\":\"Chainsaw\",\"dailyCharge\":1.49,\"hasWeekdayCharge\":true,\"hasWeekendCharge\":false,\"hasHolidayCharge\":true}",
+            "{\"name\":\"Jackhammer\",\"dailyCharge\":2.99,\"hasWeekdayCharge\":true,\"hasWeekendCharge\":false,\"hasHolidayCharge\":false}",
+            "{\"name\":\"Ladder\",\"dailyCharge\":1.99,\"hasWeekdayCharge\":true,\"hasWeekendCharge\":true,\"hasHolidayCharge\":false}"
+    };
+
+    private final ObjectMapper sharedDatabindMapper = createDatabindMapper();
+    private byte[] catalog;
+
+    @Param({"4", "1000"})
+    private int toolCount;
+
+    @Setup
+    public void setup() {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < toolCount; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(String.format("{\"toolCode\":\"T%05d\",\"toolType\":%s,\"brandName\":\"Brand %s\"}",
+                    i, TOOL_TYPES[i % TOOL_TYPES.length], i % 7));
+        }
+        catalog = json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<RentableTool> newDatabindMapper() throws IOException {
+        return createDatabindMapper().readValue(catalog, TOOL_LIST);
+    }
+
+    @Benchmark
+    public List<RentableTool> sharedDatabindMapper() throws IOException {
+        return sharedDatabindMapper.readValue(catalog, TOOL_LIST);
+    }
+
+    @Benchmark
+    public List<RentableTool> toolJsonModuleMapper() throws IOException {
+        return ToolJsonModule.getMapper().readValue(catalog, TOOL_LIST);
+    }
+
+    @Benchmark
+    public List<RentableTool> toolJsonReader() throws IOException {
+        List<RentableTool> tools = new ArrayList<>(toolCount);
+        ToolJsonReader.readTools(new ByteArrayInputStream(catalog), tools::add);
+
+        return tools;
+    }
+
+    /**
+     * Creates a mapper that binds the model through its constructors by reflection.
+     */
+    private static ObjectMapper createDatabindMapper() {
+        return JsonMapper.builder()
+                .addMixIn(ToolType.class, ToolTypeMixIn.class)
+                .addMixIn(RentableTool.class, RentableToolMixIn.class)
+                .build();
+    }
+
+    private abstract static class ToolTypeMixIn {
+        @JsonCreator
+        ToolTypeMixIn(@JsonProperty("name") final String name,
+                      @JsonProperty("dailyCharge") final BigDecimal dailyCharge,
+                      @JsonProperty("hasWeekdayCharge") final boolean hasWeekdayCharge,
+                      @JsonProperty("hasWeekendCharge") final boolean hasWeekendCharge,
+                      @JsonProperty("hasHolidayCharge") final boolean hasHolidayCharge) {
+        }
+    }
+
+    private abstract static class RentableToolMixIn {
+        @JsonCreator
+        RentableToolMixIn(@JsonProperty("toolCode") final String toolCode,
+                          @JsonProperty("toolType") final ToolType toolType,
+                          @JsonProperty("brandName") final String brandName) {
+        }
+    }
+}
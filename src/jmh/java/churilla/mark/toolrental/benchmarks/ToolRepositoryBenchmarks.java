@@ -0,0 +1,31 @@
+package churilla.mark.toolrental.benchmarks;
+
+import churilla.mark.toolrental.model.RentableTool;
+import churilla.mark.toolrental.repository.ToolRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link ToolRepository} lookups of known and unknown tool codes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ToolRepositoryBenchmarks {
+    private ToolRepository repository;
+
+    @Param({"CHNS", "BOBC"})
+    private String toolCode;
+
+    @Setup
+    public void setup() {
+        repository = new ToolRepository();
+    }
+
+    @Benchmark
+    public Optional<RentableTool> getRentableToolByCode() {
+        return repository.getRentableToolByCode(toolCode);
+    }
+}
@@ -0,0 +1,57 @@
+package churilla.mark.toolrental.benchmarks;
+
+import churilla.mark.toolrental.model.RentableTool;
+import churilla.mark.toolrental.repository.SimulatedLatencyToolRepository;
+import churilla.mark.toolrental.repository.ToolRepository;
+import churilla.mark.toolrental.service.ToolService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link ToolService} lookups against a repository with simulated latency, with and without the
+ * read-through cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ToolServiceCacheBenchmarks {
+    private static final String[] TOOL_CODES = {"CHNS", "JAKD", "JAKR", "LADW", "BOBC"};
+
+    private ToolService uncachedService;
+    private ToolService cachedService;
+
+    @Param({"50"})
+    private long latencyMicros;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        String nextToolCode() {
+            next = (next + 1) % TOOL_CODES.length;
+            return TOOL_CODES[next];
+        }
+    }
+
+    @Setup
+    public void setup() {
+        SimulatedLatencyToolRepository backend =
+                new SimulatedLatencyToolRepository(new ToolRepository(), Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(latencyMicros)));
+
+        uncachedService = new ToolService(backend);
+        cachedService = new ToolService(backend, 1024, Duration.ofMinutes(5));
+    }
+
+    @Benchmark
+    public Optional<RentableTool> uncachedLookup(final Cursor cursor) {
+        return uncachedService.getRentableTool(cursor.nextToolCode());
+    }
+
+    @Benchmark
+    public Optional<RentableTool> cachedLookup(final Cursor cursor) {
+        return cachedService.getRentableTool(cursor.nextToolCode());
+    }
+}
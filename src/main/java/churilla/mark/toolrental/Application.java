@@ -1,14 +1,69 @@
 package churilla.mark.toolrental;
 
+import churilla.mark.toolrental.bulk.BulkRentalFileProcessor;
+import churilla.mark.toolrental.logic.ChargeableDayIndex;
+import churilla.mark.toolrental.logic.InventoryLedger;
+import churilla.mark.toolrental.logic.RentalProcessor;
+import churilla.mark.toolrental.metrics.CheckoutMetrics;
+import churilla.mark.toolrental.server.RentalServer;
+import churilla.mark.toolrental.service.ToolService;
+
+import javax.management.JMException;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+
 /**
  * The Application class is the entry-point to the program and contains the main() method.
  */
 public class Application {
+    private static final int DEFAULT_PORT = 8080;
 
     /**
      * This application is not meant to be run as a console application. Output is done through the test suite.
+     * <p>
+     * When started with {@code server [port]}, the checkout and quote endpoints of {@link RentalServer} are served on
+     * the given port (8080 by default) until the process is stopped. Checkout metrics are published over JMX as
+     * {@value CheckoutMetrics#OBJECT_NAME}.
+     * </p><p>
+     * When started with {@code bulk <input> <output>}, every rental request of the input file (JSON Lines, or CSV for
+     * a {@code .csv} file) is priced with {@link BulkRentalFileProcessor} and the results are written to the output
+     * file.
+     * </p>
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException, JMException {
+        if (args.length > 0 && args[0].equals("server")) {
+            // Enables TCP_NODELAY for the JDK server, unless the property was given on the command line.
+            if (System.getProperty(RentalServer.NODELAY_PROPERTY) == null) {
+                System.setProperty(RentalServer.NODELAY_PROPERTY, "true");
+            }
+
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+            CheckoutMetrics checkoutMetrics = new CheckoutMetrics();
+            checkoutMetrics.register(ManagementFactory.getPlatformMBeanServer());
+            RentalProcessor.Options options = RentalProcessor.Options.NONE
+                    .withInventoryLedger(new InventoryLedger())
+                    .withCheckoutMetrics(checkoutMetrics);
+            RentalProcessor rentalProcessor = new RentalProcessor(new ToolService(), ChargeableDayIndex.getDefault(), options);
+
+            RentalServer server = new RentalServer(rentalProcessor, new InetSocketAddress(port), RentalServer.newVirtualThreadExecutor());
+            Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+            server.start();
+
+            System.out.printf("Listening for rental requests on port %s.%n", server.getPort());
+            return;
+        }
+
+        if (args.length == 3 && args[0].equals("bulk")) {
+            BulkRentalFileProcessor processor = new BulkRentalFileProcessor(new RentalProcessor(new ToolService(), ChargeableDayIndex.getDefault()));
+            BulkRentalFileProcessor.Summary summary = processor.process(Path.of(args[1]), Path.of(args[2]));
+
+            System.out.printf("Read %s lines: %s agreements and %s errors written to %s.%n",
+                    summary.lineCount(), summary.agreementCount(), summary.errorCount(), args[2]);
+            return;
+        }
+
         System.out.println("This application does not have a user interface and does not process any user interactions. Please run the test suite for relevant output.");
     }
 }
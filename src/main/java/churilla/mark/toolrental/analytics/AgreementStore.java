@@ -0,0 +1,391 @@
+package churilla.mark.toolrental.analytics;
+
+import churilla.mark.toolrental.model.RentableTool;
+import churilla.mark.toolrental.model.RentalAgreement;
+import churilla.mark.toolrental.utility.ValidationUtils;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * An in-memory store of historical rental agreements for revenue analytics, held as columns of primitives rather than
+ * as {@link RentalAgreement} objects.
+ * <p>
+ * Each agreement is a row. Dates are stored as epoch days and months as {@code year * 12 + month - 1} in {@code int}
+ * columns, prices as cents in {@code long} columns, and the tool code, tool type and brand as {@code int} ids into a
+ * dictionary of the distinct values (see {@link StringDictionary}). A row takes 56 bytes, against several hundred for
+ * an agreement with its {@link java.math.BigDecimal} prices and {@link LocalDate}s.
+ * </p><p>
+ * {@link #aggregate(GroupBy, Measure)} groups the rows by one column and returns the count, sum and average of a
+ * measure for each group. The scan reads two arrays in a tight loop and adds into a pair of arrays indexed by the group,
+ * so it does not allocate per row. {@link #aggregate(GroupBy, Measure, ForkJoinPool)} splits the rows into ranges that
+ * are scanned in parallel and merges their totals.
+ * </p><p>
+ * Agreements can be added while the store is being aggregated. A scan covers the rows that had been added when it
+ * started.
+ * </p>
+ */
+public class AgreementStore {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // Ranges of rows smaller than this are scanned by a single task.
+    private static final int PARALLEL_SCAN_THRESHOLD = 1 << 16;
+
+    // Discounts are grouped in bands of ten percent: 0 - 9%, 10 - 19%, ..., 90 - 99% and 100%.
+    private static final int DISCOUNT_BAND_WIDTH = 10;
+    private static final int DISCOUNT_BAND_COUNT = RentalAgreement.MAX_DISCOUNT / DISCOUNT_BAND_WIDTH + 1;
+
+    private final StringDictionary toolCodes = new StringDictionary();
+    private final StringDictionary toolTypes = new StringDictionary();
+    private final StringDictionary brands = new StringDictionary();
+
+    private int size;
+    private int minMonth = Integer.MAX_VALUE;
+    private int maxMonth = Integer.MIN_VALUE;
+
+    private int[] toolCodeIds = new int[INITIAL_CAPACITY];
+    private int[] toolTypeIds = new int[INITIAL_CAPACITY];
+    private int[] brandIds = new int[INITIAL_CAPACITY];
+    private int[] checkoutDays = new int[INITIAL_CAPACITY];
+    private int[] checkoutMonths = new int[INITIAL_CAPACITY];
+    private int[] rentalDurations = new int[INITIAL_CAPACITY];
+    private int[] chargeableDays = new int[INITIAL_CAPACITY];
+    private int[] discounts = new int[INITIAL_CAPACITY];
+    private long[] preDiscountCents = new long[INITIAL_CAPACITY];
+    private long[] discountCents = new long[INITIAL_CAPACITY];
+    private long[] finalPriceCents = new long[INITIAL_CAPACITY];
+
+    /**
+     * The column that the rows are grouped by.
+     */
+    public enum GroupBy {
+        TOOL_CODE,
+        TOOL_TYPE,
+        BRAND,
+
+        /**
+         * The month of the checkout date, e.g. {@code 2015-07}.
+         */
+        CHECKOUT_MONTH,
+
+        /**
+         * The discount in bands of ten percent, e.g. {@code 10-19%}, with {@code 100%} as a band of its own.
+         */
+        DISCOUNT_BAND
+    }
+
+    /**
+     * The value that is summed and averaged for each group.
+     */
+    public enum Measure {
+        FINAL_PRICE_CENTS,
+        PRE_DISCOUNT_CENTS,
+        DISCOUNT_CENTS,
+        CHARGEABLE_DAYS,
+        RENTAL_DURATION
+    }
+
+    /**
+     * The totals of one group.
+     *
+     * @param key The value that the rows of the group share, e.g. the brand name or {@code 2015-07}.
+     * @param count The number of rows in the group.
+     * @param sum The sum of the measure over the rows of the group.
+     */
+    public record Group(String key, long count, long sum) {
+
+        /**
+         * Returns the average of the measure over the rows of the group.
+         *
+         * @return The sum divided by the count.
+         */
+        public double average() {
+            return (double) sum / count;
+        }
+    }
+
+    /**
+     * Adds an agreement to the store.
+     *
+     * @param agreement The {@link RentalAgreement} to add.
+     *
+     * @throws ArithmeticException if a price of the agreement is too large to be held in cents.
+     */
+    public synchronized void add(final RentalAgreement agreement) {
+        ValidationUtils.requireNonNull(agreement, "agreement");
+
+        RentableTool tool = agreement.getTool();
+        LocalDate checkoutDate = agreement.getCheckoutDate();
+        int month = checkoutDate.getYear() * 12 + checkoutDate.getMonthValue() - 1;
+
+        // Read the values that can throw before the row is started, so a failure does not leave a partial row.
+        long preDiscount = agreement.getPreDiscountCents();
+        long discount = agreement.getDiscountCents();
+        long finalPrice = agreement.getFinalPriceCents();
+        int checkoutDay = Math.toIntExact(checkoutDate.toEpochDay());
+
+        if (size == checkoutDays.length) {
+            grow();
+        }
+
+        toolCodeIds[size] = toolCodes.encode(tool.getToolCode());
+        toolTypeIds[size] = toolTypes.encode(tool.getToolType().getName());
+        brandIds[size] = brands.encode(tool.getBrandName());
+        checkoutDays[size] = checkoutDay;
+        checkoutMonths[size] = month;
+        rentalDurations[size] = agreement.getRentalDuration();
+        chargeableDays[size] = agreement.getChargeableDays();
+        discounts[size] = agreement.getDiscount();
+        preDiscountCents[size] = preDiscount;
+        discountCents[size] = discount;
+        finalPriceCents[size] = finalPrice;
+
+        minMonth = Math.min(minMonth, month);
+        maxMonth = Math.max(maxMonth, month);
+        size++;
+    }
+
+    /**
+     * Adds every agreement of the list to the store.
+     *
+     * @param agreements The agreements to add.
+     *
+     * @throws ArithmeticException if a price of an agreement is too large to be held in cents.
+     */
+    public synchronized void addAll(final List<RentalAgreement> agreements) {
+        for (RentalAgreement agreement : ValidationUtils.requireNonNull(agreements, "agreements")) {
+            add(agreement);
+        }
+    }
+
+    /**
+     * Returns the number of agreements in the store.
+     *
+     * @return The number of rows.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Groups the agreements by a column and totals a measure for each group, scanning the rows on the calling thread.
+     *
+     * @param groupBy The column to group by.
+     * @param measure The value to total.
+     *
+     * @return The groups that hold at least one agreement, ordered by key: dictionary columns in the order their values
+     *         were first added, months and discount bands in ascending order.
+     */
+    public List<Group> aggregate(final GroupBy groupBy, final Measure measure) {
+        Scan scan = startScan(groupBy, measure);
+        Totals totals = scan.scan(0, scan.size);
+
+        return groups(scan, totals);
+    }
+
+    /**
+     * Groups the agreements by a column and totals a measure for each group, scanning ranges of the rows in parallel
+     * on the given pool.
+     *
+     * @param groupBy The column to group by.
+     * @param measure The value to total.
+     * @param pool The {@link ForkJoinPool} that scans the rows.
+     *
+     * @return The groups that hold at least one agreement, in the same order as
+     *         {@link #aggregate(GroupBy, Measure)}.
+     */
+    public List<Group> aggregate(final GroupBy groupBy, final Measure measure, final ForkJoinPool pool) {
+        ValidationUtils.requireNonNull(pool, "pool");
+
+        Scan scan = startScan(groupBy, measure);
+        Totals totals = pool.invoke(new ScanTask(scan, 0, scan.size));
+
+        return groups(scan, totals);
+    }
+
+    /**
+     * Captures the columns of a scan and the number of rows, so the scan is not affected by rows added after it starts.
+     */
+    private synchronized Scan startScan(final GroupBy groupBy, final Measure measure) {
+        ValidationUtils.requireNonNull(groupBy, "groupBy");
+        ValidationUtils.requireNonNull(measure, "measure");
+
+        int[] keys;
+        int keyOffset = 0;
+        int keyDivisor = 1;
+        String[] labels;
+
+        switch (groupBy) {
+            case TOOL_CODE -> {
+                keys = toolCodeIds;
+                labels = labels(toolCodes);
+            }
+            case TOOL_TYPE -> {
+                keys = toolTypeIds;
+                labels = labels(toolTypes);
+            }
+            case BRAND -> {
+                keys = brandIds;
+                labels = labels(brands);
+            }
+            case CHECKOUT_MONTH -> {
+                keys = checkoutMonths;
+                keyOffset = size == 0 ? 0 : minMonth;
+                labels = new String[size == 0 ? 0 : maxMonth - minMonth + 1];
+                for (int i = 0; i < labels.length; i++) {
+                    int month = minMonth + i;
+                    labels[i] = YearMonth.of(Math.floorDiv(month, 12), Math.floorMod(month, 12) + 1).toString();
+                }
+            }
+            default -> {
+                keys = discounts;
+                keyDivisor = DISCOUNT_BAND_WIDTH;
+                labels = new String[DISCOUNT_BAND_COUNT];
+                for (int i = 0; i < labels.length; i++) {
+                    int low = i * DISCOUNT_BAND_WIDTH;
+                    labels[i] = low == RentalAgreement.MAX_DISCOUNT
+                            ? low + "%"
+                            : String.format("%s-%s%%", low, Math.min(low + DISCOUNT_BAND_WIDTH, RentalAgreement.MAX_DISCOUNT + 1) - 1);
+                }
+            }
+        }
+
+        return switch (measure) {
+            case FINAL_PRICE_CENTS -> new Scan(size, keys, keyOffset, keyDivisor, labels, finalPriceCents, null);
+            case PRE_DISCOUNT_CENTS -> new Scan(size, keys, keyOffset, keyDivisor, labels, preDiscountCents, null);
+            case DISCOUNT_CENTS -> new Scan(size, keys, keyOffset, keyDivisor, labels, discountCents, null);
+            case CHARGEABLE_DAYS -> new Scan(size, keys, keyOffset, keyDivisor, labels, null, chargeableDays);
+            case RENTAL_DURATION -> new Scan(size, keys, keyOffset, keyDivisor, labels, null, rentalDurations);
+        };
+    }
+
+    /**
+     * Returns the groups that hold at least one row.
+     */
+    private static List<Group> groups(final Scan scan, final Totals totals) {
+        List<Group> groups = new ArrayList<>();
+        for (int i = 0; i < scan.labels.length; i++) {
+            if (totals.counts[i] > 0) {
+                groups.add(new Group(scan.labels[i], totals.counts[i], totals.sums[i]));
+            }
+        }
+
+        return groups;
+    }
+
+    /**
+     * Returns the values of a dictionary, indexed by id.
+     */
+    private static String[] labels(final StringDictionary dictionary) {
+        String[] labels = new String[dictionary.size()];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = dictionary.decode(i);
+        }
+
+        return labels;
+    }
+
+    /**
+     * Doubles the capacity of every column.
+     */
+    private void grow() {
+        int capacity = checkoutDays.length * 2;
+
+        toolCodeIds = Arrays.copyOf(toolCodeIds, capacity);
+        toolTypeIds = Arrays.copyOf(toolTypeIds, capacity);
+        brandIds = Arrays.copyOf(brandIds, capacity);
+        checkoutDays = Arrays.copyOf(checkoutDays, capacity);
+        checkoutMonths = Arrays.copyOf(checkoutMonths, capacity);
+        rentalDurations = Arrays.copyOf(rentalDurations, capacity);
+        chargeableDays = Arrays.copyOf(chargeableDays, capacity);
+        discounts = Arrays.copyOf(discounts, capacity);
+        preDiscountCents = Arrays.copyOf(preDiscountCents, capacity);
+        discountCents = Arrays.copyOf(discountCents, capacity);
+        finalPriceCents = Arrays.copyOf(finalPriceCents, capacity);
+    }
+
+    /**
+     * The count and sum of each group over a range of rows.
+     */
+    private record Totals(long[] counts, long[] sums) {
+
+        /**
+         * Adds the totals of another range into these totals.
+         */
+        Totals merge(final Totals other) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+                sums[i] += other.sums[i];
+            }
+
+            return this;
+        }
+    }
+
+    /**
+     * The columns read by one aggregation. The group of a row is {@code keys[row] / keyDivisor - keyOffset}, and the
+     * measure is read from whichever of the two value columns is set.
+     */
+    private record Scan(int size, int[] keys, int keyOffset, int keyDivisor, String[] labels, long[] longValues, int[] intValues) {
+
+        /**
+         * Totals the rows from the start index (inclusive) to the end index (exclusive).
+         */
+        Totals scan(final int from, final int to) {
+            long[] counts = new long[labels.length];
+            long[] sums = new long[labels.length];
+
+            // The loops are kept separate for each type of value column, so the body of each is a few array reads
+            // and adds with no branches.
+            if (longValues != null) {
+                for (int row = from; row < to; row++) {
+                    int group = keys[row] / keyDivisor - keyOffset;
+                    counts[group]++;
+                    sums[group] += longValues[row];
+                }
+            } else {
+                for (int row = from; row < to; row++) {
+                    int group = keys[row] / keyDivisor - keyOffset;
+                    counts[group]++;
+                    sums[group] += intValues[row];
+                }
+            }
+
+            return new Totals(counts, sums);
+        }
+    }
+
+    /**
+     * Scans a range of rows, splitting it in half until it is below the threshold.
+     */
+    private static final class ScanTask extends RecursiveTask<Totals> {
+        private final Scan scan;
+        private final int from;
+        private final int to;
+
+        ScanTask(final Scan scan, final int from, final int to) {
+            this.scan = scan;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Totals compute() {
+            if (to - from <= PARALLEL_SCAN_THRESHOLD) {
+                return scan.scan(from, to);
+            }
+
+            int middle = (from + to) >>> 1;
+            ScanTask left = new ScanTask(scan, from, middle);
+            left.fork();
+            Totals right = new ScanTask(scan, middle, to).compute();
+
+            return left.join().merge(right);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package churilla.mark.toolrental.analytics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary encoding of the strings of a column, e.g. the brand names of the agreements in an {@link AgreementStore}.
+ * Each distinct string is stored once and is given the next id, starting at zero, so a column can hold an {@code int}
+ * id per row instead of a reference. Not thread-safe; the store guards it with its own lock.
+ */
+final class StringDictionary {
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    /**
+     * Returns the id of the string, adding it to the dictionary if it has not been seen before.
+     */
+    int encode(final String value) {
+        Integer id = ids.get(value);
+        if (id == null) {
+            id = values.size();
+            ids.put(value, id);
+            values.add(value);
+        }
+
+        return id;
+    }
+
+    /**
+     * Returns the string with the given id.
+     */
+    String decode(final int id) {
+        return values.get(id);
+    }
+
+    /**
+     * Returns the number of distinct strings.
+     */
+    int size() {
+        return values.size();
+    }
+}
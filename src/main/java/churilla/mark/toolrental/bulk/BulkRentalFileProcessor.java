@@ -0,0 +1,465 @@
+package churilla.mark.toolrental.bulk;
+
+import churilla.mark.toolrental.logic.RentalProcessor;
+import churilla.mark.toolrental.model.CheckoutRequest;
+import churilla.mark.toolrental.model.CheckoutResult;
+import churilla.mark.toolrental.server.RentalJsonCodec;
+import churilla.mark.toolrental.utility.ValidationUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Prices a file of rental requests, e.g. to reconcile invoices, and writes the agreement or the error of every request
+ * to an output file in the same order as the input.
+ * <p>
+ * The input holds one request per line, as JSON Lines or CSV (see {@link RecordFormat}), and may hold millions of
+ * lines. It is processed as a pipeline of three stages:
+ * </p>
+ * <ol>
+ *     <li>A reader thread reads the file through a {@link FileChannel} into a fixed buffer and cuts it into batches of
+ *     lines.</li>
+ *     <li>Each batch is parsed and priced with {@link RentalProcessor#tryQuote(String, java.time.LocalDate, int, int)}
+ *     on an {@link Executor}, the common {@link ForkJoinPool} unless another one is supplied, so batches are priced in
+ *     parallel and the tools are not reserved.</li>
+ *     <li>The calling thread writes the output of each batch through a {@link FileChannel} as soon as it and every
+ *     batch before it are done.</li>
+ * </ol>
+ * <p>
+ * The batches between the reader and the writer are held in a bounded queue. When the queue is full the reader waits
+ * for the writer, so at most a fixed number of batches are held in memory at once, and the peak memory use does not
+ * depend on the size of the file. A batch is full once it holds the maximum number of lines or 1 MiB of data; a line
+ * that is longer than the maximum line length is not kept and is reported as an error.
+ * </p><p>
+ * The output is JSON Lines. An accepted request is written as the agreement object of
+ * {@link RentalJsonCodec#writeAgreement}, and a rejected request as {@code {"line": 3, "error": "...", "message":
+ * "..."}}, where the error is the name of the {@link churilla.mark.toolrental.model.CheckoutError}, or
+ * {@code INVALID_RECORD} if the line cannot be parsed. Blank lines and a CSV header produce no output.
+ * </p>
+ */
+public class BulkRentalFileProcessor {
+    /**
+     * The default number of lines in a batch.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    /**
+     * The default length in bytes of the longest line that is processed.
+     */
+    public static final int DEFAULT_MAX_LINE_LENGTH = 8 * 1024;
+
+    // Each worker has up to two batches queued, so that a worker does not wait for the reader between batches.
+    private static final int BATCHES_IN_FLIGHT_PER_WORKER = 2;
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_BATCH_BYTES = 1024 * 1024;
+
+    // The typical size of an agreement written to the output.
+    private static final int OUTPUT_BYTES_PER_LINE = 320;
+
+    private static final String INVALID_RECORD = "INVALID_RECORD";
+
+    // Queued by the reader after the last batch.
+    private static final CompletableFuture<BatchOutput> END = CompletableFuture.completedFuture(null);
+
+    private final RentalProcessor rentalProcessor;
+    private final Executor executor;
+    private final int batchSize;
+    private final int maxBatchesInFlight;
+    private final int maxLineLength;
+
+    /**
+     * The outcome of processing a file.
+     *
+     * @param lineCount The number of lines read from the input file.
+     * @param agreementCount The number of agreements written to the output file.
+     * @param errorCount The number of errors written to the output file.
+     */
+    public record Summary(long lineCount, long agreementCount, long errorCount) {
+    }
+
+    /**
+     * Constructor that prices files on the common {@link ForkJoinPool}.
+     *
+     * @param rentalProcessor The {@link RentalProcessor} used to price each request.
+     */
+    public BulkRentalFileProcessor(final RentalProcessor rentalProcessor) {
+        this(rentalProcessor, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor that prices files on the given executor, with the default batch size and line length.
+     *
+     * @param rentalProcessor The {@link RentalProcessor} used to price each request.
+     * @param executor The {@link Executor} that prices the batches. When it is a {@link ForkJoinPool}, its parallelism
+     *                 determines how many batches are held in memory, otherwise the number of processors is used.
+     */
+    public BulkRentalFileProcessor(final RentalProcessor rentalProcessor, final Executor executor) {
+        this(rentalProcessor,
+                executor,
+                DEFAULT_BATCH_SIZE,
+                BATCHES_IN_FLIGHT_PER_WORKER * (executor instanceof ForkJoinPool pool ? pool.getParallelism() : Runtime.getRuntime().availableProcessors()),
+                DEFAULT_MAX_LINE_LENGTH);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param rentalProcessor The {@link RentalProcessor} used to price each request.
+     * @param executor The {@link Executor} that prices the batches.
+     * @param batchSize The maximum number of lines in a batch.
+     * @param maxBatchesInFlight The maximum number of batches that have been read but not yet written.
+     * @param maxLineLength The length in bytes of the longest line that is processed.
+     *
+     * @throws IllegalArgumentException if a size is less than one.
+     */
+    public BulkRentalFileProcessor(final RentalProcessor rentalProcessor,
+                                   final Executor executor,
+                                   final int batchSize,
+                                   final int maxBatchesInFlight,
+                                   final int maxLineLength) {
+        if (batchSize < 1 || maxBatchesInFlight < 1 || maxLineLength < 1) {
+            throw new IllegalArgumentException(String.format("The batch size (%s), batches in flight (%s) and line length (%s) must be at least one.",
+                    batchSize, maxBatchesInFlight, maxLineLength));
+        }
+
+        this.rentalProcessor = ValidationUtils.requireNonNull(rentalProcessor, "rentalProcessor");
+        this.executor = ValidationUtils.requireNonNull(executor, "executor");
+        this.batchSize = batchSize;
+        this.maxBatchesInFlight = maxBatchesInFlight;
+        this.maxLineLength = maxLineLength;
+    }
+
+    /**
+     * Prices every request of the input file and writes the results to the output file. The format of the input is
+     * chosen from its extension, see {@link RecordFormat#of(Path)}.
+     *
+     * @param input The file of rental requests.
+     * @param output The file that the results are written to. It is replaced if it exists.
+     *
+     * @return The {@link Summary} of the file.
+     *
+     * @throws IOException if a file cannot be read or written.
+     */
+    public Summary process(final Path input, final Path output) throws IOException {
+        return process(input, RecordFormat.of(input), output);
+    }
+
+    /**
+     * Prices every request of the input file and writes the results to the output file.
+     *
+     * @param input The file of rental requests.
+     * @param format The {@link RecordFormat} of the input file.
+     * @param output The file that the results are written to. It is replaced if it exists.
+     *
+     * @return The {@link Summary} of the file.
+     *
+     * @throws IOException if a file cannot be read or written.
+     */
+    public Summary process(final Path input, final RecordFormat format, final Path output) throws IOException {
+        ValidationUtils.requireNonNull(input, "input");
+        ValidationUtils.requireNonNull(format, "format");
+        ValidationUtils.requireNonNull(output, "output");
+
+        try (FileChannel inputChannel = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel outputChannel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            BlockingQueue<CompletableFuture<BatchOutput>> pending = new ArrayBlockingQueue<>(maxBatchesInFlight);
+            Reader reader = new Reader(inputChannel, format, pending);
+
+            Thread readerThread = new Thread(reader, "bulk-rental-reader");
+            readerThread.setDaemon(true);
+            readerThread.start();
+
+            try {
+                long agreementCount = 0;
+                long errorCount = 0;
+
+                for (CompletableFuture<BatchOutput> next = pending.take(); next != END; next = pending.take()) {
+                    BatchOutput batchOutput = next.join();
+
+                    ByteBuffer buffer = ByteBuffer.wrap(batchOutput.data(), 0, batchOutput.size());
+                    while (buffer.hasRemaining()) {
+                        outputChannel.write(buffer);
+                    }
+
+                    agreementCount += batchOutput.agreementCount();
+                    errorCount += batchOutput.errorCount();
+                }
+
+                readerThread.join();
+                if (reader.failure != null) {
+                    throw reader.failure;
+                }
+
+                return new Summary(reader.lineCount, agreementCount, errorCount);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while processing " + input);
+            } catch (CompletionException ex) {
+                throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+            } finally {
+                // Stops the reader if the writer failed, so that it does not wait for space in the queue forever.
+                readerThread.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Parses and prices the lines of a batch, and encodes the result of each line.
+     */
+    private BatchOutput price(final Batch batch, final RecordFormat format) {
+        Output output = new Output(batch.lineCount * OUTPUT_BYTES_PER_LINE);
+        int agreementCount = 0;
+        int errorCount = 0;
+
+        try {
+            for (int i = 0; i < batch.lineCount; i++) {
+                long lineNumber = batch.firstLineNumber + i;
+                int offset = batch.offsets[i];
+                int length = batch.lengths[i];
+
+                if (length < 0) {
+                    RentalJsonCodec.writeLineError(lineNumber, INVALID_RECORD, String.format("The line is longer than %s bytes.", maxLineLength), output);
+                    output.write('\n');
+                    errorCount++;
+                    continue;
+                }
+
+                if (isBlank(batch.data, offset, length) || (lineNumber == 1 && format.isHeader(batch.data, offset, length))) {
+                    continue;
+                }
+
+                CheckoutRequest request;
+                try {
+                    request = format.parse(batch.data, offset, length);
+                } catch (IOException ex) {
+                    String message = ex instanceof JsonProcessingException jsonException ? jsonException.getOriginalMessage() : ex.getMessage();
+                    RentalJsonCodec.writeLineError(lineNumber, INVALID_RECORD, message, output);
+                    output.write('\n');
+                    errorCount++;
+                    continue;
+                }
+
+                CheckoutResult result = rentalProcessor.tryQuote(request.toolCode(), request.checkoutDate(), request.rentalDuration(), request.discount());
+                if (result instanceof CheckoutResult.Success success) {
+                    RentalJsonCodec.writeAgreement(success.agreement(), output);
+                    agreementCount++;
+                } else {
+                    CheckoutResult.Failure failure = (CheckoutResult.Failure) result;
+                    RentalJsonCodec.writeLineError(lineNumber, failure.error().name(), failure.message(), output);
+                    errorCount++;
+                }
+                output.write('\n');
+            }
+        } catch (IOException ex) {
+            // Writing to memory does not fail, so this is only reached if the encoder itself fails.
+            throw new UncheckedIOException(ex);
+        }
+
+        return new BatchOutput(output.buffer(), output.size(), agreementCount, errorCount);
+    }
+
+    /**
+     * Determines if a line only holds whitespace.
+     */
+    private static boolean isBlank(final byte[] data, final int offset, final int length) {
+        for (int i = offset; i < offset + length; i++) {
+            if (data[i] != ' ' && data[i] != '\t') {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * The encoded results of a batch, ready to be written.
+     */
+    private record BatchOutput(byte[] data, int size, int agreementCount, int errorCount) {
+    }
+
+    /**
+     * A {@link ByteArrayOutputStream} whose buffer can be written without copying it.
+     */
+    private static final class Output extends ByteArrayOutputStream {
+        Output(final int size) {
+            super(size);
+        }
+
+        byte[] buffer() {
+            return buf;
+        }
+    }
+
+    /**
+     * The lines of a batch, stored one after another in a single array.
+     */
+    private static final class Batch {
+        private final long firstLineNumber;
+        private final int[] offsets;
+
+        // The length of each line, or -1 if the line was longer than the maximum line length.
+        private final int[] lengths;
+
+        private byte[] data = new byte[READ_BUFFER_SIZE];
+        private int size;
+        private int lineCount;
+
+        // Set when the line being read is longer than the maximum line length.
+        private boolean tooLong;
+
+        Batch(final long firstLineNumber, final int batchSize) {
+            this.firstLineNumber = firstLineNumber;
+            this.offsets = new int[batchSize];
+            this.lengths = new int[batchSize];
+        }
+
+        /**
+         * Adds bytes to the line being read. The bytes of a line that is too long are dropped.
+         */
+        void append(final byte[] source, final int offset, final int length, final int maxLineLength) {
+            if (tooLong || length == 0) {
+                return;
+            }
+
+            int lineStart = lineCount == 0 ? 0 : offsets[lineCount - 1] + Math.max(0, lengths[lineCount - 1]);
+            if (size - lineStart + length > maxLineLength) {
+                tooLong = true;
+                size = lineStart;
+                return;
+            }
+
+            if (size + length > data.length) {
+                data = Arrays.copyOf(data, Math.max(size + length, data.length * 2));
+            }
+            System.arraycopy(source, offset, data, size, length);
+            size += length;
+        }
+
+        /**
+         * Ends the line being read, dropping a trailing carriage return.
+         */
+        void endLine() {
+            int lineStart = lineCount == 0 ? 0 : offsets[lineCount - 1] + Math.max(0, lengths[lineCount - 1]);
+            int length = size - lineStart;
+            if (length > 0 && data[size - 1] == '\r') {
+                length--;
+                size--;
+            }
+
+            offsets[lineCount] = lineStart;
+            lengths[lineCount] = tooLong ? -1 : length;
+            lineCount++;
+            tooLong = false;
+        }
+
+        /**
+         * Determines if the line being read has any bytes or was dropped for being too long.
+         */
+        boolean hasPartialLine() {
+            int lineStart = lineCount == 0 ? 0 : offsets[lineCount - 1] + Math.max(0, lengths[lineCount - 1]);
+
+            return tooLong || size > lineStart;
+        }
+
+        boolean isFull() {
+            return lineCount == offsets.length || size >= MAX_BATCH_BYTES;
+        }
+    }
+
+    /**
+     * Reads the input file into batches and hands each batch to the executor, waiting while the queue of batches
+     * is full.
+     */
+    private final class Reader implements Runnable {
+        private final FileChannel channel;
+        private final RecordFormat format;
+        private final BlockingQueue<CompletableFuture<BatchOutput>> pending;
+
+        // Written by the reader thread before it queues the end marker, and read by the writer after it.
+        private volatile long lineCount;
+        private volatile IOException failure;
+
+        Reader(final FileChannel channel, final RecordFormat format, final BlockingQueue<CompletableFuture<BatchOutput>> pending) {
+            this.channel = channel;
+            this.format = format;
+            this.pending = pending;
+        }
+
+        @Override
+        public void run() {
+            try {
+                read();
+            } catch (IOException ex) {
+                failure = ex;
+            } catch (InterruptedException ex) {
+                // The writer has stopped, so nobody is waiting for the end marker.
+                return;
+            }
+
+            try {
+                pending.put(END);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void read() throws IOException, InterruptedException {
+            ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+            byte[] array = buffer.array();
+            long nextLineNumber = 1;
+            Batch batch = new Batch(nextLineNumber, batchSize);
+
+            while (channel.read(buffer) != -1) {
+                int limit = buffer.position();
+                int start = 0;
+
+                for (int i = 0; i < limit; i++) {
+                    if (array[i] == '\n') {
+                        batch.append(array, start, i - start, maxLineLength);
+                        batch.endLine();
+                        start = i + 1;
+
+                        if (batch.isFull()) {
+                            nextLineNumber += batch.lineCount;
+                            submit(batch);
+                            batch = new Batch(nextLineNumber, batchSize);
+                        }
+                    }
+                }
+
+                batch.append(array, start, limit - start, maxLineLength);
+                buffer.clear();
+            }
+
+            if (batch.hasPartialLine()) {
+                batch.endLine();
+            }
+
+            if (batch.lineCount > 0) {
+                nextLineNumber += batch.lineCount;
+                submit(batch);
+            }
+
+            lineCount = nextLineNumber - 1;
+        }
+
+        private void submit(final Batch batch) throws InterruptedException {
+            pending.put(CompletableFuture.supplyAsync(() -> price(batch, format), executor));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package churilla.mark.toolrental.bulk;
+
+import churilla.mark.toolrental.model.CheckoutRequest;
+import churilla.mark.toolrental.server.RentalJsonCodec;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * The format of the rental requests in a file read by {@link BulkRentalFileProcessor}. Every line of the file holds
+ * one request.
+ */
+public enum RecordFormat {
+    /**
+     * JSON Lines: one checkout request object per line, in the format read by
+     * {@link RentalJsonCodec#readCheckoutRequest(byte[], int, int)}.
+     */
+    JSONL {
+        @Override
+        CheckoutRequest parse(final byte[] data, final int offset, final int length) throws IOException {
+            return RentalJsonCodec.readCheckoutRequest(data, offset, length);
+        }
+
+        @Override
+        boolean isHeader(final byte[] data, final int offset, final int length) {
+            return false;
+        }
+    },
+
+    /**
+     * Comma-separated values: {@code toolCode,checkoutDate,rentalDuration[,discount]}, with the date in the ISO-8601
+     * format (e.g. {@code JAKR,2015-07-02,4,50}). The discount is optional and defaults to zero. The first line may be
+     * a header starting with {@code toolCode}, which is skipped.
+     */
+    CSV {
+        @Override
+        CheckoutRequest parse(final byte[] data, final int offset, final int length) throws IOException {
+            String[] fields = new String(data, offset, length, StandardCharsets.UTF_8).split(",", -1);
+            if (fields.length < 3 || fields.length > 4) {
+                throw new IOException(String.format("Expected 3 or 4 fields but found %s.", fields.length));
+            }
+
+            LocalDate checkoutDate;
+            try {
+                checkoutDate = LocalDate.parse(fields[1].trim());
+            } catch (DateTimeParseException ex) {
+                throw new IOException(String.format("Invalid date \"%s\". Please use the format yyyy-MM-dd.", fields[1].trim()), ex);
+            }
+
+            return new CheckoutRequest(fields[0].trim(),
+                    checkoutDate,
+                    parseInt(fields[2]),
+                    fields.length == 4 ? parseInt(fields[3]) : 0);
+        }
+
+        @Override
+        boolean isHeader(final byte[] data, final int offset, final int length) {
+            return new String(data, offset, length, StandardCharsets.UTF_8).trim().startsWith("toolCode");
+        }
+    };
+
+    /**
+     * Returns the format of a file from its extension: {@link #CSV} for {@code .csv} files and {@link #JSONL}
+     * otherwise.
+     *
+     * @param file The file to check.
+     *
+     * @return The {@link RecordFormat} of the file.
+     */
+    public static RecordFormat of(final Path file) {
+        return file.getFileName().toString().toLowerCase().endsWith(".csv") ? CSV : JSONL;
+    }
+
+    /**
+     * Parses the request on one line of a file.
+     *
+     * @param data The array holding the line.
+     * @param offset The index of the first byte of the line.
+     * @param length The number of bytes of the line, without the line terminator.
+     *
+     * @return The {@link CheckoutRequest} on the line.
+     *
+     * @throws IOException if the line is not a valid request.
+     */
+    abstract CheckoutRequest parse(byte[] data, int offset, int length) throws IOException;
+
+    /**
+     * Determines if the first line of a file is a header rather than a request.
+     */
+    abstract boolean isHeader(byte[] data, int offset, int length);
+
+    /**
+     * Parses a whole number that fits in an int.
+     */
+    private static int parseInt(final String text) throws IOException {
+        try {
+            return Integer.parseInt(text.trim());
+        } catch (NumberFormatException ex) {
+            throw new IOException(String.format("Expected a whole number but found \"%s\".", text.trim()), ex);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package churilla.mark.toolrental.exception;
+
+/**
+ * Exception thrown when the holiday rules cannot be loaded.
+ * <p>
+ * This exception typically occurs when the configured holiday rules file cannot be found or does not contain a
+ * valid list of rules.
+ * </p>
+ */
+public class HolidayDataInitializationException extends RuntimeException {
+    /**
+     * Constructor that takes a message and source exception.
+     *
+     * @param message A message detailing the problem that has occurred.
+     * @param cause The source exception.
+     */
+    public HolidayDataInitializationException(final String message, final Exception cause) {
+        super(message, cause);
+    }
+}
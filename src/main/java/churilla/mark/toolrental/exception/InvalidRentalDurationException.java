@@ -12,12 +12,24 @@ package churilla.mark.toolrental.exception;
 public class InvalidRentalDurationException extends RuntimeException {
 
     /**
-     * Constructor that takes a message.
+     * Constructor that takes a message. A stack trace is captured unless capture has been turned off with the
+     * {@code churilla.mark.toolrental.exception.stackTraces} system property.
      *
      * @param message A message detailing the problem that has occurred.
      */
     public InvalidRentalDurationException(final String message) {
-        super(message);
+        this(message, StackTraces.CAPTURE);
+    }
+
+    /**
+     * Constructor that takes a message and decides if a stack trace is captured. Skipping the stack trace makes the
+     * exception much cheaper to create when checkouts are rejected at a high rate.
+     *
+     * @param message A message detailing the problem that has occurred.
+     * @param writableStackTrace True to capture a stack trace, false to leave it empty.
+     */
+    public InvalidRentalDurationException(final String message, final boolean writableStackTrace) {
+        super(message, null, true, writableStackTrace);
     }
 
     /**
@@ -0,0 +1,29 @@
+package churilla.mark.toolrental.exception;
+
+/**
+ * Exception thrown when a rental agreement cannot be written to the agreement journal.
+ * <p>
+ * This exception typically occurs when the journal file cannot be written or forced to the storage device, or when
+ * the journal has already been closed.
+ * </p>
+ */
+public class JournalWriteException extends RuntimeException {
+    /**
+     * Constructor that takes a message.
+     *
+     * @param message A message detailing the problem that has occurred.
+     */
+    public JournalWriteException(final String message) {
+        super(message);
+    }
+
+    /**
+     * Constructor that takes a message and source exception.
+     *
+     * @param message A Message detailing the problem that has occurred.
+     * @param cause The source exception.
+     */
+    public JournalWriteException(final String message, final Exception cause) {
+        super(message, cause);
+    }
+}
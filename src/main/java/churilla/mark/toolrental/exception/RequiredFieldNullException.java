@@ -40,12 +40,25 @@ public class RequiredFieldNullException extends RuntimeException {
     }
 
     /**
-     * Constructor with the missing required field name and provides a default message containing the field name.
+     * Constructor with the missing required field name and provides a default message containing the field name. A
+     * stack trace is captured unless capture has been turned off with the
+     * {@code churilla.mark.toolrental.exception.stackTraces} system property.
      *
      * @param requiredFieldName The name of the missing required field.
      */
     public RequiredFieldNullException(final String requiredFieldName) {
-        super(String.format("Required field \"%s\" is null.", requiredFieldName));
+        this(requiredFieldName, StackTraces.CAPTURE);
+    }
+
+    /**
+     * Constructor with the missing required field name that decides if a stack trace is captured. A default message
+     * containing the field name is supplied.
+     *
+     * @param requiredFieldName The name of the missing required field.
+     * @param writableStackTrace True to capture a stack trace, false to leave it empty.
+     */
+    public RequiredFieldNullException(final String requiredFieldName, final boolean writableStackTrace) {
+        super("Required field \"" + requiredFieldName + "\" is null.", null, true, writableStackTrace);
         this.requiredFieldName = requiredFieldName;
     }
 
@@ -0,0 +1,25 @@
+package churilla.mark.toolrental.exception;
+
+/**
+ * Decides if the exceptions that reject a checkout capture a stack trace when they are created with a message only.
+ * <p>
+ * Filling in a stack trace is the most expensive part of creating an exception, and these exceptions report invalid
+ * input rather than a fault in the program, so their stack traces are rarely needed. Starting the JVM with
+ * {@code -Dchurilla.mark.toolrental.exception.stackTraces=false} turns capture off for all of them. The constructors
+ * that take a {@code writableStackTrace} flag decide for a single exception.
+ * </p>
+ */
+final class StackTraces {
+    /**
+     * The system property that turns stack trace capture off when set to {@code false}.
+     */
+    static final String PROPERTY = "churilla.mark.toolrental.exception.stackTraces";
+
+    /**
+     * True if exceptions created with a message only capture a stack trace.
+     */
+    static final boolean CAPTURE = !"false".equalsIgnoreCase(System.getProperty(PROPERTY));
+
+    private StackTraces() {
+    }
+}
@@ -0,0 +1,42 @@
+package churilla.mark.toolrental.exception;
+
+/**
+ * An exception class that is thrown when a tool cannot be checked out because it is already rented for part of the
+ * requested rental period.
+ * <p>
+ * This exception indicates that the rental period overlaps an active rental of the same tool in the
+ * inventory ledger.
+ * </p>
+ */
+public class ToolUnavailableException extends RuntimeException {
+    /**
+     * Constructor that takes a message. A stack trace is captured unless capture has been turned off with the
+     * {@code churilla.mark.toolrental.exception.stackTraces} system property.
+     *
+     * @param message A message detailing the problem that has occurred.
+     */
+    public ToolUnavailableException(final String message) {
+        this(message, StackTraces.CAPTURE);
+    }
+
+    /**
+     * Constructor that takes a message and decides if a stack trace is captured. Skipping the stack trace makes the
+     * exception much cheaper to create when checkouts are rejected at a high rate.
+     *
+     * @param message A message detailing the problem that has occurred.
+     * @param writableStackTrace True to capture a stack trace, false to leave it empty.
+     */
+    public ToolUnavailableException(final String message, final boolean writableStackTrace) {
+        super(message, null, true, writableStackTrace);
+    }
+
+    /**
+     * Constructor that takes a message and source exception.
+     *
+     * @param message A Message detailing the problem that has occurred.
+     * @param cause The source exception.
+     */
+    public ToolUnavailableException(final String message, final Exception cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,169 @@
+package churilla.mark.toolrental.journal;
+
+import churilla.mark.toolrental.model.RentableTool;
+import churilla.mark.toolrental.model.RentalAgreement;
+import churilla.mark.toolrental.model.Reservation;
+import churilla.mark.toolrental.model.ToolType;
+import churilla.mark.toolrental.model.ToolTypePool;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Encodes rental agreements and reservations into the compact binary form stored in the journal and its snapshots.
+ * <p>
+ * An agreement is stored with the full data of its tool, so it can be read back without the tool catalog it was
+ * checked out from. The prices are not stored; they are calculated again from the daily charge when the agreement
+ * is decoded. The layout (big-endian) is:
+ * </p>
+ * <pre>
+ * long checkoutEpochDay, int rentalDuration, int discount, int chargeableDays, byte chargeMask,
+ * short dailyChargeLength, dailyChargeLength bytes of the unscaled daily charge (two decimal places),
+ * string toolCode, string toolTypeName, string brandName
+ * </pre>
+ * <p>
+ * where each string is an unsigned short length followed by that many bytes of UTF-8. A reservation is stored as
+ * {@code string toolCode, long startEpochDay, long endEpochDay}.
+ * </p>
+ */
+class AgreementCodec {
+    private static final int MAX_STRING_LENGTH = 0xFFFF;
+    private static final int DAILY_CHARGE_SCALE = 2;
+
+    // The number of bytes needed to encode an agreement, not counting its strings and daily charge.
+    private static final int FIXED_SIZE = Long.BYTES + Integer.BYTES * 3 + Byte.BYTES + Short.BYTES + Short.BYTES * 3;
+
+    /**
+     * Encodes the agreement.
+     *
+     * @param agreement The agreement to encode.
+     *
+     * @return The encoded bytes.
+     *
+     * @throws IllegalArgumentException if a string of the tool is too long to be encoded.
+     */
+    static byte[] encode(final RentalAgreement agreement) {
+        RentableTool tool = agreement.getTool();
+        ToolType toolType = tool.getToolType();
+
+        byte[] dailyCharge = toolType.getDailyCharge().unscaledValue().toByteArray();
+        byte[] toolCode = encodeString(tool.getToolCode());
+        byte[] toolTypeName = encodeString(toolType.getName());
+        byte[] brandName = encodeString(tool.getBrandName());
+
+        ByteBuffer buffer = ByteBuffer.allocate(FIXED_SIZE + dailyCharge.length + toolCode.length + toolTypeName.length + brandName.length);
+        buffer.putLong(agreement.getCheckoutDate().toEpochDay());
+        buffer.putInt(agreement.getRentalDuration());
+        buffer.putInt(agreement.getDiscount());
+        buffer.putInt(agreement.getChargeableDays());
+        buffer.put((byte) toolType.getChargeMask());
+        buffer.putShort((short) dailyCharge.length).put(dailyCharge);
+        buffer.putShort((short) toolCode.length).put(toolCode);
+        buffer.putShort((short) toolTypeName.length).put(toolTypeName);
+        buffer.putShort((short) brandName.length).put(brandName);
+
+        return buffer.array();
+    }
+
+    /**
+     * Decodes an agreement from the buffer, starting at its position. The position is left after the agreement.
+     * A truncated buffer or values that do not form a valid agreement are reported as an {@link IOException}.
+     *
+     * @param buffer The buffer to read from.
+     * @param toolTypePool The pool that the tool types of the decoded agreements are interned in.
+     *
+     * @return The decoded agreement.
+     *
+     * @throws IOException if the bytes do not contain a valid agreement.
+     */
+    static RentalAgreement decode(final ByteBuffer buffer, final ToolTypePool toolTypePool) throws IOException {
+        try {
+            LocalDate checkoutDate = LocalDate.ofEpochDay(buffer.getLong());
+            int rentalDuration = buffer.getInt();
+            int discount = buffer.getInt();
+            int chargeableDays = buffer.getInt();
+            int chargeMask = buffer.get();
+
+            byte[] dailyCharge = new byte[Short.toUnsignedInt(buffer.getShort())];
+            buffer.get(dailyCharge);
+
+            String toolCode = decodeString(buffer);
+            String toolTypeName = decodeString(buffer);
+            String brandName = decodeString(buffer);
+
+            ToolType toolType = toolTypePool.intern(new ToolType(toolTypeName,
+                    new BigDecimal(new BigInteger(dailyCharge), DAILY_CHARGE_SCALE),
+                    (chargeMask & ToolType.WEEKDAY_CHARGE) != 0,
+                    (chargeMask & ToolType.WEEKEND_CHARGE) != 0,
+                    (chargeMask & ToolType.HOLIDAY_CHARGE) != 0));
+
+            return new RentalAgreement(new RentableTool(toolCode, toolType, brandName), rentalDuration, checkoutDate, chargeableDays, discount);
+        } catch (RuntimeException ex) {
+            throw new IOException("The journal contains an invalid rental agreement.", ex);
+        }
+    }
+
+    /**
+     * Encodes the reservation.
+     *
+     * @param reservation The reservation to encode.
+     *
+     * @return The encoded bytes.
+     *
+     * @throws IllegalArgumentException if the tool code is too long to be encoded.
+     */
+    static byte[] encode(final Reservation reservation) {
+        byte[] toolCode = encodeString(reservation.toolCode());
+
+        return ByteBuffer.allocate(Short.BYTES + toolCode.length + Long.BYTES * 2)
+                .putShort((short) toolCode.length).put(toolCode)
+                .putLong(reservation.startDate().toEpochDay())
+                .putLong(reservation.endDate().toEpochDay())
+                .array();
+    }
+
+    /**
+     * Decodes a reservation from the buffer, starting at its position. The position is left after the reservation.
+     *
+     * @param buffer The buffer to read from.
+     *
+     * @return The decoded reservation.
+     *
+     * @throws IOException if the bytes do not contain a valid reservation.
+     */
+    static Reservation decodeReservation(final ByteBuffer buffer) throws IOException {
+        try {
+            String toolCode = decodeString(buffer);
+
+            return new Reservation(toolCode, LocalDate.ofEpochDay(buffer.getLong()), LocalDate.ofEpochDay(buffer.getLong()));
+        } catch (RuntimeException ex) {
+            throw new IOException("The journal contains an invalid reservation.", ex);
+        }
+    }
+
+    /**
+     * Encodes a string as UTF-8, checking that its length fits in an unsigned short.
+     */
+    private static byte[] encodeString(final String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_LENGTH) {
+            throw new IllegalArgumentException(String.format("The value \"%.20s...\" is too long to be stored in the journal.", value));
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Decodes a string written by {@link #encodeString(String)} along with its length.
+     */
+    private static String decodeString(final ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
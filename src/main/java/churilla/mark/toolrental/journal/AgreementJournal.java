@@ -0,0 +1,680 @@
+package churilla.mark.toolrental.journal;
+
+import churilla.mark.toolrental.exception.JournalWriteException;
+import churilla.mark.toolrental.model.RentalAgreement;
+import churilla.mark.toolrental.model.Reservation;
+import churilla.mark.toolrental.model.ToolTypePool;
+import churilla.mark.toolrental.utility.ValidationUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * An append-only binary log of checked out and returned rentals, so that the active rentals survive a restart of the
+ * process.
+ * <p>
+ * Appends are handed to a single writer thread. While the writer is writing or forcing one batch, new appends queue
+ * up behind it, and the writer then writes the whole queue with one write and covers it with one
+ * {@link FileChannel#force(boolean) force} (a group commit). Under concurrent checkouts this amortizes each force over
+ * many agreements instead of forcing once per checkout. The {@link FsyncPolicy} decides when the journal is forced.
+ * </p><p>
+ * The journal is a directory of segment files (see {@link JournalFiles}). The writer starts a new segment once the
+ * current one reaches its maximum size, and after a set number of records it takes a snapshot of the active rentals
+ * in the background. Once a snapshot is written, the older snapshots and segments that are no longer needed are
+ * deleted; the previous snapshot and the segments after it are kept in case the newest snapshot cannot be read. When
+ * the journal is opened, it loads the newest valid snapshot, decodes the segments written after it in parallel and
+ * applies their records in sequence order, so the time to recover depends on the records since the last snapshot
+ * rather than on the whole rental history.
+ * </p><p>
+ * Each segment starts with an 8 byte header (int magic, int version), followed by the records. Each record
+ * (big-endian) is:
+ * </p>
+ * <pre>
+ * int payloadLength, int payloadCrc32c, payload: byte recordType, long sequence, encoded agreement or reservation
+ * </pre>
+ * <p>
+ * A crash can leave a partly written record at the end of the last segment. Its checksum does not match, so it is
+ * ignored when the journal is read, and it is cut off when the journal is opened again.
+ * </p>
+ */
+public class AgreementJournal implements AutoCloseable {
+    /**
+     * The default size in bytes after which a new segment is started.
+     */
+    public static final long DEFAULT_MAX_SEGMENT_SIZE = 64L * 1024 * 1024;
+
+    /**
+     * The default number of records written between snapshots.
+     */
+    public static final long DEFAULT_SNAPSHOT_INTERVAL = 100_000;
+
+    static final int MAGIC = 0x414A4E4C; // "AJNL"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    static final int RECORD_HEADER_SIZE = 8;
+    static final byte CHECKOUT_RECORD = 1;
+    static final byte RETURN_RECORD = 2;
+
+    // Queued by snapshot() in place of a record.
+    private static final byte SNAPSHOT_REQUEST = 0;
+
+    // The largest number of appends written in one group commit.
+    private static final int MAX_BATCH_SIZE = 4096;
+
+    private final Path directory;
+    private final FsyncPolicy fsyncPolicy;
+    private final long maxSegmentSize;
+    private final long snapshotInterval;
+    private final RentalState state;
+    private final BlockingQueue<PendingAppend> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private final ExecutorService snapshotWriter;
+    private final CRC32C crc = new CRC32C();
+
+    // The following fields are only used by the writer thread.
+    private FileChannel segment;
+    private ByteBuffer writeBuffer = ByteBuffer.allocateDirect(64 * 1024);
+    private long nextSequence;
+    private long recordsSinceSnapshot;
+    private boolean unforcedWrites;
+    private long nextForceNanos;
+
+    // Set once the journal is closed or a write has failed. Appends are rejected afterwards.
+    private volatile boolean closed;
+    private volatile JournalWriteException failure;
+
+    /**
+     * A record waiting to be written, the agreement or reservation it was encoded from, and the future completed
+     * once it has been written.
+     */
+    private record PendingAppend(byte recordType, byte[] payload, Object value, CompletableFuture<Long> future) {
+    }
+
+    // Queued by close() to stop the writer once every earlier append has been written.
+    private static final PendingAppend CLOSE = new PendingAppend(SNAPSHOT_REQUEST, new byte[0], null, new CompletableFuture<>());
+
+    private AgreementJournal(final Path directory,
+                             final FsyncPolicy fsyncPolicy,
+                             final long maxSegmentSize,
+                             final long snapshotInterval,
+                             final RentalState state,
+                             final FileChannel segment) {
+        this.directory = directory;
+        this.fsyncPolicy = fsyncPolicy;
+        this.maxSegmentSize = maxSegmentSize;
+        this.snapshotInterval = snapshotInterval;
+        this.state = state;
+        this.segment = segment;
+        this.nextSequence = state.getLastSequence() + 1;
+        this.nextForceNanos = System.nanoTime() + fsyncPolicy.interval().toNanos();
+        this.snapshotWriter = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "agreement-journal-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.writer = new Thread(this::runWriter, "agreement-journal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Opens a journal directory with the default segment size and snapshot interval.
+     *
+     * @see #open(Path, FsyncPolicy, long, long)
+     */
+    public static AgreementJournal open(final Path directory, final FsyncPolicy fsyncPolicy) throws IOException {
+        return open(directory, fsyncPolicy, DEFAULT_MAX_SEGMENT_SIZE, DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    /**
+     * Opens a journal directory for appending, creating it if it does not exist. The active rentals are recovered
+     * from the newest valid snapshot and the records written after it, and a partly written record at the end of the
+     * last segment is removed.
+     *
+     * @param directory The journal directory.
+     * @param fsyncPolicy When the journal forces its writes to the storage device.
+     * @param maxSegmentSize The size in bytes after which a new segment is started.
+     * @param snapshotInterval The number of records written between snapshots.
+     *
+     * @return The open journal.
+     *
+     * @throws IOException if the directory cannot be read, or a segment other than the last one is damaged.
+     * @throws IllegalArgumentException if the segment size or snapshot interval is less than one.
+     */
+    public static AgreementJournal open(final Path directory,
+                                        final FsyncPolicy fsyncPolicy,
+                                        final long maxSegmentSize,
+                                        final long snapshotInterval) throws IOException {
+        ValidationUtils.requireNonNull(directory, "directory");
+        ValidationUtils.requireNonNull(fsyncPolicy, "fsyncPolicy");
+
+        if (maxSegmentSize < 1 || snapshotInterval < 1) {
+            throw new IllegalArgumentException(String.format("The segment size %s and snapshot interval %s must be 1 or greater.", maxSegmentSize, snapshotInterval));
+        }
+
+        Files.createDirectories(directory);
+        ToolTypePool toolTypePool = new ToolTypePool();
+        RentalState state = JournalSnapshot.readLatest(directory, toolTypePool);
+
+        // A segment holds the records up to the first sequence number of the next one, so only the segments that
+        // end after the snapshot, and the last segment, need to be read.
+        List<Long> segments = JournalFiles.listSegments(directory);
+        List<Long> tail = new ArrayList<>();
+        for (int i = 0; i < segments.size(); i++) {
+            if (i == segments.size() - 1 || segments.get(i + 1) - 1 > state.getLastSequence()) {
+                tail.add(segments.get(i));
+            }
+        }
+
+        // Decoding is the expensive part of recovery and each segment is independent, so the segments are decoded
+        // in parallel. Their records are then applied in order.
+        List<SegmentContents> contents;
+        try {
+            contents = tail.parallelStream().map(firstSequence -> {
+                try {
+                    return readSegment(directory, firstSequence, toolTypePool);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }).toList();
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+
+        for (int i = 0; i < contents.size(); i++) {
+            SegmentContents segmentContents = contents.get(i);
+            if (i < contents.size() - 1 && !segmentContents.complete()) {
+                throw new IOException(String.format("The agreement journal segment %s is damaged.", segmentContents.firstSequence()));
+            }
+
+            for (JournalRecord record : segmentContents.records()) {
+                if (record.sequence() > state.getLastSequence()) {
+                    state.apply(record);
+                }
+            }
+        }
+
+        FileChannel segment;
+        if (contents.isEmpty()) {
+            segment = createSegment(directory, state.getLastSequence() + 1);
+        } else {
+            SegmentContents last = contents.get(contents.size() - 1);
+
+            if (last.validLength() < HEADER_SIZE) {
+                // The process stopped while the segment was being created.
+                segment = createSegment(directory, last.firstSequence());
+            } else {
+                segment = FileChannel.open(JournalFiles.segment(directory, last.firstSequence()), StandardOpenOption.READ, StandardOpenOption.WRITE);
+                segment.truncate(last.validLength());
+                segment.position(last.validLength());
+            }
+        }
+
+        return new AgreementJournal(directory, fsyncPolicy, maxSegmentSize, snapshotInterval, state, segment);
+    }
+
+    /**
+     * Reads every complete record in the segments of a journal directory, in the order they were appended. Records
+     * whose segments have been deleted after a snapshot are not included. A partly written record at the end of the
+     * last segment is ignored.
+     *
+     * @param directory The journal directory.
+     * @param consumer Receives each record.
+     *
+     * @return The number of records read.
+     *
+     * @throws IOException if the directory cannot be read or a segment is not a journal segment.
+     */
+    public static long read(final Path directory, final Consumer<JournalRecord> consumer) throws IOException {
+        ValidationUtils.requireNonNull(directory, "directory");
+        ValidationUtils.requireNonNull(consumer, "consumer");
+
+        ToolTypePool toolTypePool = new ToolTypePool();
+        long recordCount = 0;
+
+        for (long firstSequence : JournalFiles.listSegments(directory)) {
+            for (JournalRecord record : readSegment(directory, firstSequence, toolTypePool).records()) {
+                consumer.accept(record);
+                recordCount++;
+            }
+        }
+
+        return recordCount;
+    }
+
+    /**
+     * Appends a checked out agreement to the journal. The agreement is encoded on the calling thread and then
+     * written by the writer thread together with any other pending appends.
+     *
+     * @param agreement The agreement to append.
+     *
+     * @return A future completed with the sequence number of the record once it has been written, and forced if the
+     *         {@link FsyncPolicy} is {@link FsyncPolicy.Mode#ALWAYS}. The future completes exceptionally with a
+     *         {@link JournalWriteException} if the record cannot be written.
+     */
+    public CompletableFuture<Long> append(final RentalAgreement agreement) {
+        ValidationUtils.requireNonNull(agreement, "agreement");
+
+        return enqueue(CHECKOUT_RECORD, AgreementCodec.encode(agreement), agreement);
+    }
+
+    /**
+     * Appends the return of a rented tool to the journal.
+     *
+     * @param reservation The reservation of the rental that has ended.
+     *
+     * @return A future completed the same way as the future returned by {@link #append(RentalAgreement)}.
+     */
+    public CompletableFuture<Long> appendReturn(final Reservation reservation) {
+        ValidationUtils.requireNonNull(reservation, "reservation");
+
+        return enqueue(RETURN_RECORD, AgreementCodec.encode(reservation), reservation);
+    }
+
+    /**
+     * Takes a snapshot of the active rentals once every earlier append has been written, without waiting for the
+     * snapshot interval.
+     *
+     * @return A future completed with the sequence number of the last record included in the snapshot once the
+     *         snapshot has been written.
+     */
+    public CompletableFuture<Long> snapshot() {
+        return enqueue(SNAPSHOT_REQUEST, null, null);
+    }
+
+    /**
+     * Returns the rentals that are active after every record written so far: the agreements that have been checked
+     * out and not returned, in the order they were checked out. Right after the journal is opened, these are the
+     * rentals recovered from the directory.
+     *
+     * @return A copy of the active agreements.
+     */
+    public List<RentalAgreement> getActiveAgreements() {
+        return state.getActiveAgreements();
+    }
+
+    /**
+     * Returns the sequence number of the last record written, or zero if the journal is empty.
+     *
+     * @return The last sequence number.
+     */
+    public long getLastSequence() {
+        return state.getLastSequence();
+    }
+
+    /**
+     * Writes every pending append, waits for a snapshot that is being written, forces the journal and closes it.
+     * Appends made after this method is called fail with a {@link JournalWriteException}.
+     *
+     * @throws IOException if the journal cannot be forced or closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            queue.add(CLOSE);
+        }
+
+        try {
+            writer.join();
+            snapshotWriter.shutdown();
+            snapshotWriter.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (segment.isOpen()) {
+            try {
+                segment.force(true);
+            } finally {
+                segment.close();
+            }
+        }
+    }
+
+    /**
+     * Queues a record, or a snapshot request, for the writer thread.
+     */
+    private CompletableFuture<Long> enqueue(final byte recordType, final byte[] payload, final Object value) {
+        CompletableFuture<Long> future = new CompletableFuture<>();
+        if (closed) {
+            future.completeExceptionally(failure != null ? failure : new JournalWriteException("The agreement journal is closed."));
+            return future;
+        }
+
+        PendingAppend pending = new PendingAppend(recordType, payload, value, future);
+        queue.add(pending);
+
+        // The journal may have been closed while the append was being queued, after the writer's last drain of the
+        // queue. If the append is still queued, nothing else will complete it, so it is taken back and rejected.
+        // Otherwise the writer has taken it and completes it.
+        if (closed && queue.remove(pending)) {
+            future.completeExceptionally(failure != null ? failure : new JournalWriteException("The agreement journal is closed."));
+        }
+
+        return future;
+    }
+
+    /**
+     * The main loop of the writer thread. Takes every pending append, writes them as one batch and completes their
+     * futures once the batch is as durable as the {@link FsyncPolicy} requires.
+     */
+    private void runWriter() {
+        List<PendingAppend> batch = new ArrayList<>();
+        boolean stopping = false;
+
+        while (!stopping) {
+            try {
+                PendingAppend first = fsyncPolicy.mode() == FsyncPolicy.Mode.INTERVAL
+                        ? queue.poll(Math.max(0, nextForceNanos - System.nanoTime()), TimeUnit.NANOSECONDS)
+                        : queue.take();
+
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+                }
+            } catch (InterruptedException ex) {
+                stopping = true;
+            }
+
+            stopping |= batch.remove(CLOSE);
+
+            try {
+                writeBatch(batch);
+            } catch (IOException ex) {
+                fail(batch, ex);
+                return;
+            }
+
+            batch.clear();
+        }
+
+        // Appends that were queued after close() are rejected.
+        fail(new ArrayList<>(), null);
+    }
+
+    /**
+     * Writes a batch of appends. The records between snapshot requests are written with a single write, and each
+     * snapshot request is handled once the records queued before it have been written.
+     */
+    private void writeBatch(final List<PendingAppend> batch) throws IOException {
+        int start = 0;
+
+        do {
+            int end = start;
+            while (end < batch.size() && batch.get(end).recordType() != SNAPSHOT_REQUEST) {
+                end++;
+            }
+
+            writeRecords(batch.subList(start, end));
+
+            if (end < batch.size()) {
+                takeSnapshot(batch.get(end).future());
+                end++;
+            }
+
+            start = end;
+        } while (start < batch.size());
+    }
+
+    /**
+     * Writes records with a single write, forces the segment if the policy requires it, applies the records to the
+     * active rentals and completes their futures.
+     */
+    private void writeRecords(final List<PendingAppend> records) throws IOException {
+        if (!records.isEmpty()) {
+            if (segment.position() >= maxSegmentSize) {
+                rollSegment();
+            }
+
+            writeBuffer.clear();
+            long sequence = nextSequence;
+            for (PendingAppend append : records) {
+                putRecord(append.recordType(), append.payload(), sequence++);
+            }
+
+            writeBuffer.flip();
+            while (writeBuffer.hasRemaining()) {
+                segment.write(writeBuffer);
+            }
+            unforcedWrites = true;
+        }
+
+        switch (fsyncPolicy.mode()) {
+            case ALWAYS -> force();
+            case INTERVAL -> {
+                if (System.nanoTime() - nextForceNanos >= 0) {
+                    force();
+                    nextForceNanos = System.nanoTime() + fsyncPolicy.interval().toNanos();
+                }
+            }
+            case NONE -> { }
+        }
+
+        for (PendingAppend append : records) {
+            long sequence = nextSequence++;
+            state.apply(append.recordType() == CHECKOUT_RECORD
+                    ? new JournalRecord.Checkout(sequence, (RentalAgreement) append.value())
+                    : new JournalRecord.Return(sequence, (Reservation) append.value()));
+            append.future().complete(sequence);
+        }
+
+        recordsSinceSnapshot += records.size();
+        if (recordsSinceSnapshot >= snapshotInterval) {
+            takeSnapshot(null);
+        }
+    }
+
+    /**
+     * Copies the active rentals on the writer thread, where they match the records written so far, and writes the
+     * snapshot in the background so that appends are not held up. The current segment is closed first, so every
+     * segment before the next one is fully covered by the snapshot.
+     */
+    private void takeSnapshot(final CompletableFuture<Long> future) throws IOException {
+        long lastSequence = nextSequence - 1;
+        List<RentalAgreement> activeAgreements = state.getActiveAgreements();
+        recordsSinceSnapshot = 0;
+
+        if (segment.position() > HEADER_SIZE) {
+            rollSegment();
+        }
+
+        snapshotWriter.execute(() -> {
+            try {
+                JournalSnapshot.write(directory, lastSequence, activeAgreements);
+                deleteCoveredFiles(lastSequence);
+
+                if (future != null) {
+                    future.complete(lastSequence);
+                }
+            } catch (IOException | RuntimeException ex) {
+                // The segments are kept until a snapshot is written, so a failed snapshot loses nothing and appends
+                // carry on.
+                if (future != null) {
+                    future.completeExceptionally(new JournalWriteException("Failed to write a snapshot of the agreement journal.", ex));
+                }
+            }
+        });
+    }
+
+    /**
+     * Deletes the files that are no longer needed after a snapshot has been written. The snapshot before it is kept
+     * as a fallback, together with the segments after that snapshot.
+     */
+    private void deleteCoveredFiles(final long lastSequence) throws IOException {
+        long fallbackSequence = 0;
+        for (long snapshot : JournalFiles.listSnapshots(directory)) {
+            if (snapshot < lastSequence) {
+                fallbackSequence = snapshot;
+            }
+        }
+
+        if (fallbackSequence == 0) {
+            return;
+        }
+
+        JournalSnapshot.deleteOlder(directory, fallbackSequence);
+
+        List<Long> segments = JournalFiles.listSegments(directory);
+        for (int i = 0; i < segments.size() - 1; i++) {
+            if (segments.get(i + 1) - 1 <= fallbackSequence) {
+                Files.deleteIfExists(JournalFiles.segment(directory, segments.get(i)));
+            }
+        }
+    }
+
+    /**
+     * Forces and closes the current segment and starts a new one with the next sequence number.
+     */
+    private void rollSegment() throws IOException {
+        force();
+        segment.close();
+        segment = createSegment(directory, nextSequence);
+    }
+
+    /**
+     * Creates a segment that starts with the given sequence number and writes its header.
+     */
+    private static FileChannel createSegment(final Path directory, final long firstSequence) throws IOException {
+        FileChannel channel = FileChannel.open(JournalFiles.segment(directory, firstSequence),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            channel.force(true);
+
+            return channel;
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Adds a framed record to the write buffer, growing the buffer if needed.
+     */
+    private void putRecord(final byte recordType, final byte[] payload, final long sequence) {
+        int payloadLength = Byte.BYTES + Long.BYTES + payload.length;
+
+        if (writeBuffer.remaining() < RECORD_HEADER_SIZE + payloadLength) {
+            ByteBuffer larger = ByteBuffer.allocateDirect(Math.max(writeBuffer.capacity() * 2, writeBuffer.position() + RECORD_HEADER_SIZE + payloadLength));
+            writeBuffer.flip();
+            writeBuffer = larger.put(writeBuffer);
+        }
+
+        int recordStart = writeBuffer.position();
+        writeBuffer.putInt(payloadLength).putInt(0).put(recordType).putLong(sequence).put(payload);
+
+        crc.reset();
+        crc.update(writeBuffer.slice(recordStart + RECORD_HEADER_SIZE, payloadLength));
+        writeBuffer.putInt(recordStart + Integer.BYTES, (int) crc.getValue());
+    }
+
+    /**
+     * Forces the written records to the storage device if anything has been written since the last force.
+     */
+    private void force() throws IOException {
+        if (unforcedWrites) {
+            segment.force(false);
+            unforcedWrites = false;
+        }
+    }
+
+    /**
+     * Stops the journal after a failed write and fails the given appends and every append still queued.
+     */
+    private void fail(final List<PendingAppend> appends, final IOException cause) {
+        if (cause != null) {
+            failure = new JournalWriteException("Failed to write to the agreement journal.", cause);
+            closed = true;
+        }
+
+        JournalWriteException exception = failure != null ? failure : new JournalWriteException("The agreement journal is closed.");
+        queue.drainTo(appends);
+        for (PendingAppend append : appends) {
+            append.future().completeExceptionally(exception);
+        }
+    }
+
+    /**
+     * The complete records of a segment, the length of the segment up to the end of its last complete record, and
+     * whether the records reach the end of the file.
+     */
+    private record SegmentContents(long firstSequence, List<JournalRecord> records, long validLength, boolean complete) {
+    }
+
+    /**
+     * Reads the records of a segment from its start until the end of the file or the first record that is
+     * incomplete or fails its checksum.
+     */
+    private static SegmentContents readSegment(final Path directory,
+                                               final long firstSequence,
+                                               final ToolTypePool toolTypePool) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(JournalFiles.segment(directory, firstSequence), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.capacity() < HEADER_SIZE) {
+            return new SegmentContents(firstSequence, List.of(), 0, false);
+        }
+
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException(String.format("The agreement journal segment %s is not a journal segment.", firstSequence));
+        }
+
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException(String.format("Unsupported agreement journal version %s.", buffer.getInt(4)));
+        }
+
+        CRC32C checksum = new CRC32C();
+        List<JournalRecord> records = new ArrayList<>();
+        int position = HEADER_SIZE;
+
+        while (buffer.capacity() - position >= RECORD_HEADER_SIZE) {
+            int payloadLength = buffer.getInt(position);
+            if (payloadLength < Byte.BYTES + Long.BYTES || payloadLength > buffer.capacity() - position - RECORD_HEADER_SIZE) {
+                break;
+            }
+
+            ByteBuffer payload = buffer.slice(position + RECORD_HEADER_SIZE, payloadLength);
+            checksum.reset();
+            checksum.update(payload.duplicate());
+            if ((int) checksum.getValue() != buffer.getInt(position + Integer.BYTES)) {
+                break;
+            }
+
+            byte recordType = payload.get();
+            long sequence = payload.getLong();
+            if (recordType == CHECKOUT_RECORD) {
+                records.add(new JournalRecord.Checkout(sequence, AgreementCodec.decode(payload, toolTypePool)));
+            } else if (recordType == RETURN_RECORD) {
+                records.add(new JournalRecord.Return(sequence, AgreementCodec.decodeReservation(payload)));
+            } else {
+                throw new IOException(String.format("Unknown record type at offset %s of the agreement journal segment %s.", position, firstSequence));
+            }
+
+            position += RECORD_HEADER_SIZE + payloadLength;
+        }
+
+        return new SegmentContents(firstSequence, records, position, position == buffer.capacity());
+    }
+}
@@ -0,0 +1,77 @@
+package churilla.mark.toolrental.journal;
+
+import churilla.mark.toolrental.utility.ValidationUtils;
+
+import java.time.Duration;
+
+/**
+ * Determines when an {@link AgreementJournal} forces its writes to the storage device.
+ *
+ * @param mode When the journal is forced.
+ * @param interval The time between forces when the mode is {@link Mode#INTERVAL}, otherwise zero.
+ */
+public record FsyncPolicy(Mode mode, Duration interval) {
+
+    /**
+     * The ways a journal can force its writes.
+     */
+    public enum Mode {
+        /**
+         * Every group commit is forced before its appends complete, so a completed append survives a crash.
+         */
+        ALWAYS,
+        /**
+         * Appends complete once they are written to the operating system, and the journal is forced at a fixed
+         * interval. A crash can lose the appends made since the last force.
+         */
+        INTERVAL,
+        /**
+         * The journal is never forced while it is open. The operating system decides when the data reaches the
+         * device.
+         */
+        NONE
+    }
+
+    /**
+     * Constructor.
+     *
+     * @throws IllegalArgumentException if the interval is not positive for {@link Mode#INTERVAL}.
+     */
+    public FsyncPolicy {
+        ValidationUtils.requireNonNull(mode, "mode");
+        ValidationUtils.requireNonNull(interval, "interval");
+
+        if (mode == Mode.INTERVAL && (interval.isNegative() || interval.isZero())) {
+            throw new IllegalArgumentException(String.format("The fsync interval must be positive, but was %s.", interval));
+        }
+    }
+
+    /**
+     * Forces every group commit before its appends complete.
+     *
+     * @return The policy.
+     */
+    public static FsyncPolicy always() {
+        return new FsyncPolicy(Mode.ALWAYS, Duration.ZERO);
+    }
+
+    /**
+     * Forces the journal at a fixed interval.
+     *
+     * @param interval The time between forces.
+     *
+     * @return The policy.
+     */
+    public static FsyncPolicy every(final Duration interval) {
+        return new FsyncPolicy(Mode.INTERVAL, interval);
+    }
+
+    /**
+     * Never forces the journal while it is open.
+     *
+     * @return The policy.
+     */
+    public static FsyncPolicy none() {
+        return new FsyncPolicy(Mode.NONE, Duration.ZERO);
+    }
+}
@@ -0,0 +1,75 @@
+package churilla.mark.toolrental.journal;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Names and lists the files of a journal directory. Segment and snapshot files are named after a sequence number,
+ * zero padded so that the names sort in sequence order:
+ * <ul>
+ *     <li>{@code journal-<first sequence>.log}: a segment, holding the records from its first sequence number up to
+ *     the first sequence number of the next segment.</li>
+ *     <li>{@code snapshot-<last sequence>.snap}: a snapshot of the rentals after applying every record up to and
+ *     including its last sequence number.</li>
+ * </ul>
+ */
+class JournalFiles {
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+
+    /**
+     * Returns the path of the segment that starts with the given sequence number.
+     */
+    static Path segment(final Path directory, final long firstSequence) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Returns the path of the snapshot taken after the given sequence number.
+     */
+    static Path snapshot(final Path directory, final long lastSequence) {
+        return directory.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, lastSequence, SNAPSHOT_SUFFIX));
+    }
+
+    /**
+     * Returns the first sequence numbers of the segments in the directory, in ascending order.
+     */
+    static List<Long> listSegments(final Path directory) throws IOException {
+        return list(directory, SEGMENT_PREFIX, SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Returns the last sequence numbers of the snapshots in the directory, in ascending order.
+     */
+    static List<Long> listSnapshots(final Path directory) throws IOException {
+        return list(directory, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+    }
+
+    /**
+     * Lists the sequence numbers of the files with the given prefix and suffix. Other files are ignored.
+     */
+    private static List<Long> list(final Path directory, final String prefix, final String suffix) throws IOException {
+        List<Long> sequences = new ArrayList<>();
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*" + suffix)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    sequences.add(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())));
+                } catch (NumberFormatException ex) {
+                    // Not a file written by the journal.
+                }
+            }
+        }
+
+        Collections.sort(sequences);
+        return sequences;
+    }
+}
@@ -0,0 +1,36 @@
+package churilla.mark.toolrental.journal;
+
+import churilla.mark.toolrental.model.RentalAgreement;
+import churilla.mark.toolrental.model.Reservation;
+
+/**
+ * A record read back from an {@link AgreementJournal}. Sequence numbers start at one and increase by one with every
+ * record in the journal.
+ */
+public sealed interface JournalRecord {
+
+    /**
+     * Returns the sequence number assigned when the record was appended.
+     *
+     * @return The sequence number.
+     */
+    long sequence();
+
+    /**
+     * A tool was checked out.
+     *
+     * @param sequence The sequence number of the record.
+     * @param agreement The {@link RentalAgreement} that was checked out.
+     */
+    record Checkout(long sequence, RentalAgreement agreement) implements JournalRecord {
+    }
+
+    /**
+     * A tool was returned, ending the rental with the given reservation.
+     *
+     * @param sequence The sequence number of the record.
+     * @param reservation The {@link Reservation} of the rental that ended.
+     */
+    record Return(long sequence, Reservation reservation) implements JournalRecord {
+    }
+}
@@ -0,0 +1,140 @@
+package churilla.mark.toolrental.journal;
+
+import churilla.mark.toolrental.model.RentalAgreement;
+import churilla.mark.toolrental.model.ToolTypePool;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Writes and reads snapshots of the active rentals of a journal.
+ * <p>
+ * A snapshot (big-endian) is {@code int magic, int version, long lastSequence, int agreementCount}, followed by each
+ * agreement as an int length and its encoded bytes, and ends with the CRC32C of everything before it. A snapshot is
+ * written to a temporary file that is only renamed once it is complete, so a crash never leaves a partial snapshot
+ * under a snapshot name.
+ * </p>
+ */
+class JournalSnapshot {
+    private static final int MAGIC = 0x41534E50; // "ASNP"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 20;
+
+    /**
+     * Writes a snapshot of the given agreements into the directory.
+     *
+     * @param directory The journal directory.
+     * @param lastSequence The sequence number of the last record included in the snapshot.
+     * @param activeAgreements The agreements active after that record.
+     *
+     * @throws IOException if the snapshot cannot be written.
+     */
+    static void write(final Path directory, final long lastSequence, final List<RentalAgreement> activeAgreements) throws IOException {
+        List<byte[]> encoded = new ArrayList<>(activeAgreements.size());
+        int size = HEADER_SIZE + Integer.BYTES;
+        for (RentalAgreement agreement : activeAgreements) {
+            byte[] bytes = AgreementCodec.encode(agreement);
+            encoded.add(bytes);
+            size = Math.addExact(size, Integer.BYTES + bytes.length);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(lastSequence).putInt(encoded.size());
+        for (byte[] bytes : encoded) {
+            buffer.putInt(bytes.length).put(bytes);
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue()).flip();
+
+        Path temporaryFile = directory.resolve(JournalFiles.snapshot(directory, lastSequence).getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporaryFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+
+        Files.move(temporaryFile, JournalFiles.snapshot(directory, lastSequence), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Reads the newest valid snapshot in the directory. A snapshot that fails its checksum is skipped in favor of an
+     * older one.
+     *
+     * @param directory The journal directory.
+     * @param toolTypePool The pool that the tool types of the agreements are interned in.
+     *
+     * @return The state stored in the snapshot, or an empty state if the directory has no valid snapshot.
+     *
+     * @throws IOException if the directory cannot be read.
+     */
+    static RentalState readLatest(final Path directory, final ToolTypePool toolTypePool) throws IOException {
+        List<Long> snapshots = JournalFiles.listSnapshots(directory);
+
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            RentalState state = read(JournalFiles.snapshot(directory, snapshots.get(i)), toolTypePool);
+            if (state != null) {
+                return state;
+            }
+        }
+
+        return new RentalState();
+    }
+
+    /**
+     * Deletes the snapshots taken before the given sequence number.
+     *
+     * @param directory The journal directory.
+     * @param lastSequence The sequence number of the newest snapshot, which is kept.
+     *
+     * @throws IOException if a snapshot cannot be deleted.
+     */
+    static void deleteOlder(final Path directory, final long lastSequence) throws IOException {
+        for (long snapshot : JournalFiles.listSnapshots(directory)) {
+            if (snapshot < lastSequence) {
+                Files.deleteIfExists(JournalFiles.snapshot(directory, snapshot));
+            }
+        }
+    }
+
+    /**
+     * Reads a snapshot file, returning null if it is not a complete, valid snapshot.
+     */
+    private static RentalState read(final Path snapshotFile, final ToolTypePool toolTypePool) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(snapshotFile));
+        if (buffer.capacity() < HEADER_SIZE + Integer.BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            return null;
+        }
+
+        int crcOffset = buffer.capacity() - Integer.BYTES;
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, crcOffset);
+        if ((int) crc.getValue() != buffer.getInt(crcOffset)) {
+            return null;
+        }
+
+        long lastSequence = buffer.getLong(8);
+        int agreementCount = buffer.getInt(16);
+        List<RentalAgreement> agreements = new ArrayList<>(agreementCount);
+
+        buffer.position(HEADER_SIZE);
+        for (int i = 0; i < agreementCount; i++) {
+            int length = buffer.getInt();
+            agreements.add(AgreementCodec.decode(buffer.slice(buffer.position(), length), toolTypePool));
+            buffer.position(buffer.position() + length);
+        }
+
+        return new RentalState(lastSequence, agreements);
+    }
+}
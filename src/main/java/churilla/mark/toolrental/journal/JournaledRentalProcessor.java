@@ -0,0 +1,149 @@
+package churilla.mark.toolrental.journal;
+
+import churilla.mark.toolrental.exception.*;
+import churilla.mark.toolrental.logic.ChargeableDayIndex;
+import churilla.mark.toolrental.logic.InventoryLedger;
+import churilla.mark.toolrental.logic.RentalProcessor;
+import churilla.mark.toolrental.metrics.CheckoutMetrics;
+import churilla.mark.toolrental.model.RentableTool;
+import churilla.mark.toolrental.model.RentalAgreement;
+import churilla.mark.toolrental.model.Reservation;
+import churilla.mark.toolrental.service.ToolService;
+import churilla.mark.toolrental.utility.ValidationUtils;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletionException;
+
+/**
+ * A {@link RentalProcessor} that writes every rental agreement and return to an {@link AgreementJournal} before
+ * returning.
+ * <p>
+ * A checkout waits until its agreement has been written (and forced, depending on the {@link FsyncPolicy}) so that
+ * an agreement that has been handed to the customer is never lost. Concurrent checkouts, e.g. from a
+ * {@link churilla.mark.toolrental.logic.BatchRentalProcessor}, are written in the same group commit, so they share
+ * one force instead of forcing the journal once per checkout.
+ * </p><p>
+ * The rentals recovered when the journal was opened are reserved in the {@link InventoryLedger} when the processor
+ * is created, so a restarted process does not rent out tools that are still out.
+ * </p>
+ */
+public class JournaledRentalProcessor extends RentalProcessor {
+    private final InventoryLedger inventoryLedger;
+    private final AgreementJournal journal;
+
+    /**
+     * Constructor.
+     *
+     * @param toolService The {@link ToolService} that tools are read from.
+     * @param chargeableDayIndex The {@link ChargeableDayIndex} used to look up chargeable days.
+     * @param inventoryLedger The {@link InventoryLedger} that records active rentals.
+     * @param journal The {@link AgreementJournal} that every agreement is written to. Its active rentals are
+     *                reserved in the ledger.
+     *
+     * @throws churilla.mark.toolrental.exception.ToolUnavailableException if an active rental of the journal
+     *                                                                      overlaps a reservation already in the
+     *                                                                      ledger.
+     */
+    public JournaledRentalProcessor(final ToolService toolService,
+                                    final ChargeableDayIndex chargeableDayIndex,
+                                    final InventoryLedger inventoryLedger,
+                                    final AgreementJournal journal) {
+        this(toolService, chargeableDayIndex, journal, Options.NONE.withInventoryLedger(inventoryLedger));
+    }
+
+    /**
+     * Constructor. The options must include an {@link InventoryLedger}, since returns are checked against it. If they
+     * include {@link CheckoutMetrics}, the latency of every checkout, including the time taken to write it to the
+     * journal, is recorded there.
+     *
+     * @param toolService The {@link ToolService} that tools are read from.
+     * @param chargeableDayIndex The {@link ChargeableDayIndex} used to look up chargeable days.
+     * @param journal The {@link AgreementJournal} that every agreement is written to. Its active rentals are
+     *                reserved in the ledger.
+     * @param options The features of the processor (see {@link RentalProcessor.Options}).
+     *
+     * @throws RequiredFieldNullException if the options do not include an inventory ledger.
+     * @throws churilla.mark.toolrental.exception.ToolUnavailableException if an active rental of the journal
+     *                                                                      overlaps a reservation already in the
+     *                                                                      ledger.
+     */
+    public JournaledRentalProcessor(final ToolService toolService,
+                                    final ChargeableDayIndex chargeableDayIndex,
+                                    final AgreementJournal journal,
+                                    final Options options) {
+        super(toolService, chargeableDayIndex, requireInventoryLedger(options));
+        this.inventoryLedger = options.inventoryLedger();
+        this.journal = ValidationUtils.requireNonNull(journal, "journal");
+
+        for (RentalAgreement agreement : journal.getActiveAgreements()) {
+            inventoryLedger.reserve(Reservation.of(agreement));
+        }
+    }
+
+    /**
+     * Creates the rental agreement, reserves the tool and writes the agreement to the journal.
+     *
+     * @throws JournalWriteException if the agreement cannot be written to the journal. The tool is not reserved
+     *                               in that case.
+     *
+     * @see RentalProcessor#createAgreement(RentableTool, LocalDate, int, int)
+     */
+    @Override
+    protected RentalAgreement createAgreement(final RentableTool tool,
+                                              final LocalDate checkoutDate,
+                                              final int rentalDuration,
+                                              final int discount) {
+        RentalAgreement agreement = super.createAgreement(tool, checkoutDate, rentalDuration, discount);
+
+        try {
+            journal.append(agreement).join();
+        } catch (CompletionException ex) {
+            super.checkin(agreement);
+
+            if (ex.getCause() instanceof JournalWriteException writeException) {
+                throw writeException;
+            }
+            throw new JournalWriteException("Failed to write the rental agreement to the journal.", ex);
+        }
+
+        return agreement;
+    }
+
+    /**
+     * Returns a rented tool and writes the return to the journal.
+     *
+     * @throws JournalWriteException if the return cannot be written to the journal. The tool stays reserved in that
+     *                               case.
+     *
+     * @see RentalProcessor#checkin(RentalAgreement)
+     */
+    @Override
+    public boolean checkin(final RentalAgreement agreement) {
+        if (!super.checkin(agreement)) {
+            return false;
+        }
+
+        Reservation reservation = Reservation.of(agreement);
+        try {
+            journal.appendReturn(reservation).join();
+        } catch (CompletionException ex) {
+            inventoryLedger.reserve(reservation);
+
+            if (ex.getCause() instanceof JournalWriteException writeException) {
+                throw writeException;
+            }
+            throw new JournalWriteException("Failed to write the return of the rental to the journal.", ex);
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the options, once it has been checked that they include an inventory ledger.
+     */
+    private static Options requireInventoryLedger(final Options options) {
+        ValidationUtils.requireNonNull(ValidationUtils.requireNonNull(options, "options").inventoryLedger(), "inventoryLedger");
+
+        return options;
+    }
+}
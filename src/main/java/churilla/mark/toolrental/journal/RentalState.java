@@ -0,0 +1,70 @@
+package churilla.mark.toolrental.journal;
+
+import churilla.mark.toolrental.model.RentalAgreement;
+import churilla.mark.toolrental.model.Reservation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The rentals that are active after applying the journal up to a sequence number: every agreement that has been
+ * checked out and not returned, keyed by its reservation. This is the state stored in a snapshot and rebuilt by
+ * recovery.
+ */
+class RentalState {
+    private final Map<Reservation, RentalAgreement> activeAgreements = new LinkedHashMap<>();
+    private long lastSequence;
+
+    /**
+     * Constructor for the state of a journal with no records.
+     */
+    RentalState() {
+    }
+
+    /**
+     * Constructor for the state stored in a snapshot.
+     *
+     * @param lastSequence The sequence number of the last record included in the state.
+     * @param activeAgreements The agreements that were active at that point.
+     */
+    RentalState(final long lastSequence, final List<RentalAgreement> activeAgreements) {
+        this.lastSequence = lastSequence;
+        activeAgreements.forEach(agreement -> this.activeAgreements.put(Reservation.of(agreement), agreement));
+    }
+
+    /**
+     * Applies the next record of the journal.
+     *
+     * @throws IOException if the record does not directly follow the last record applied.
+     */
+    synchronized void apply(final JournalRecord record) throws IOException {
+        if (record.sequence() != lastSequence + 1) {
+            throw new IOException(String.format("The agreement journal is missing records %s to %s.", lastSequence + 1, record.sequence() - 1));
+        }
+
+        if (record instanceof JournalRecord.Checkout checkout) {
+            activeAgreements.put(Reservation.of(checkout.agreement()), checkout.agreement());
+        } else if (record instanceof JournalRecord.Return returned) {
+            activeAgreements.remove(returned.reservation());
+        }
+
+        lastSequence = record.sequence();
+    }
+
+    /**
+     * Returns the sequence number of the last record applied, or zero if no record has been applied.
+     */
+    synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Returns a copy of the active agreements, in the order they were checked out.
+     */
+    synchronized List<RentalAgreement> getActiveAgreements() {
+        return new ArrayList<>(activeAgreements.values());
+    }
+}
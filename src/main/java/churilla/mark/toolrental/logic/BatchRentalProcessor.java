@@ -0,0 +1,115 @@
+package churilla.mark.toolrental.logic;
+
+import churilla.mark.toolrental.exception.RequiredFieldNullException;
+import churilla.mark.toolrental.model.CheckoutError;
+import churilla.mark.toolrental.model.CheckoutRequest;
+import churilla.mark.toolrental.model.CheckoutResult;
+import churilla.mark.toolrental.utility.ValidationUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The BatchRentalProcessor class checks out many tools at once using a shared {@link RentalProcessor}.
+ * <p>
+ * The requests of a batch are split into chunks that are checked out in parallel on an {@link Executor}, which is
+ * the common {@link ForkJoinPool} unless another one is supplied. Each request produces a {@link CheckoutResult}
+ * in the same position as the request. A request that fails (e.g., because of an unknown tool code) is reported as a
+ * {@link CheckoutResult.Failure} and does not affect the rest of the batch. Requests are checked out with
+ * {@link RentalProcessor#tryCheckout(String, java.time.LocalDate, int, int)}, so invalid requests do not create
+ * exceptions.
+ * </p>
+ */
+public class BatchRentalProcessor {
+    // Each worker receives several chunks so that a slow chunk does not leave the other workers idle.
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    private final RentalProcessor rentalProcessor;
+    private final Executor executor;
+    private final int parallelism;
+
+    /**
+     * Constructor that checks out batches on the common {@link ForkJoinPool}.
+     *
+     * @param rentalProcessor The {@link RentalProcessor} used to check out each request.
+     */
+    public BatchRentalProcessor(final RentalProcessor rentalProcessor) {
+        this(rentalProcessor, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor that checks out batches on the given executor.
+     *
+     * @param rentalProcessor The {@link RentalProcessor} used to check out each request.
+     * @param executor The {@link Executor} that runs the chunks of a batch. When it is a {@link ForkJoinPool}, its
+     *                 parallelism determines how the batch is split, otherwise the number of processors is used.
+     */
+    public BatchRentalProcessor(final RentalProcessor rentalProcessor, final Executor executor) {
+        this.rentalProcessor = ValidationUtils.requireNonNull(rentalProcessor, "rentalProcessor");
+        this.executor = ValidationUtils.requireNonNull(executor, "executor");
+        this.parallelism = executor instanceof ForkJoinPool pool
+                ? pool.getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Checks out every request in the batch and waits for all of them to complete.
+     *
+     * @param requests The checkout requests.
+     *
+     * @return The result of each request, in the same order as the requests.
+     *
+     * @throws RequiredFieldNullException if the list of requests is null.
+     */
+    public List<CheckoutResult> checkoutAll(final List<CheckoutRequest> requests) {
+        ValidationUtils.requireNonNull(requests, "requests");
+
+        CheckoutRequest[] requestArray = requests.toArray(new CheckoutRequest[0]);
+        CheckoutResult[] results = new CheckoutResult[requestArray.length];
+
+        int chunkSize = Math.max(1, (requestArray.length + parallelism * CHUNKS_PER_WORKER - 1) / (parallelism * CHUNKS_PER_WORKER));
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+
+        for (int start = 0; start < requestArray.length; start += chunkSize) {
+            int from = start;
+            int to = Math.min(requestArray.length, start + chunkSize);
+
+            chunks.add(CompletableFuture.runAsync(() -> checkoutRange(requestArray, results, from, to), executor));
+        }
+
+        CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0])).join();
+
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Checks out the requests from the start index (inclusive) to the end index (exclusive), storing each
+     * result at the same index as its request.
+     */
+    private void checkoutRange(final CheckoutRequest[] requests,
+                               final CheckoutResult[] results,
+                               final int from,
+                               final int to) {
+        for (int i = from; i < to; i++) {
+            results[i] = checkout(requests[i]);
+        }
+    }
+
+    /**
+     * Checks out a single request without throwing for a rejected checkout.
+     */
+    private CheckoutResult checkout(final CheckoutRequest request) {
+        if (request == null) {
+            return new CheckoutResult.Failure(CheckoutError.REQUIRED_FIELD_NULL, "request");
+        }
+
+        return rentalProcessor.tryCheckout(request.toolCode(),
+                request.checkoutDate(),
+                request.rentalDuration(),
+                request.discount());
+    }
+}
@@ -0,0 +1,189 @@
+package churilla.mark.toolrental.logic;
+
+import churilla.mark.toolrental.model.ToolType;
+import churilla.mark.toolrental.utility.HolidayCalendar;
+import churilla.mark.toolrental.utility.LocalDateUtils;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+import static churilla.mark.toolrental.utility.LocalDateUtils.isHoliday;
+
+/**
+ * The ChargeableDayCalculator class determines how many days of a rental period a customer is charged for.
+ * <p>
+ * The rental period starts on the day after the checkout date and lasts for the rental duration. The number of
+ * chargeable days is calculated in constant time by counting the weekdays and weekend days in the period with week
+ * arithmetic, and then adjusting for the observed holidays that fall within it, which are counted from the
+ * precomputed {@link HolidayCalendar}. The original day-by-day calculation is kept as
+ * {@link #calculateByIteration(ToolType, LocalDate, int)} and serves as the reference implementation.
+ * </p>
+ */
+public class ChargeableDayCalculator {
+
+    /**
+     * Calculates the number of days during the rental period that are chargeable. The cost of this calculation
+     * does not depend on the rental duration.
+     *
+     * @param toolType The {@link ToolType} of the tool being rented.
+     * @param checkoutDate The date that the tool is being checked out. The first day of the rental is the day following
+     *                     the checkout date.
+     * @param rentalDuration The number of days that the tool is being rented.
+     *
+     * @return A number in days that the tool will be charged for, taking into account any days that tool is free.
+     *         If the rental duration is less than one, it is returned unchanged.
+     */
+    public static int calculate(final ToolType toolType, final LocalDate checkoutDate, final int rentalDuration) {
+        return calculate(toolType, checkoutDate, rentalDuration, HolidayCalendar.getDefault());
+    }
+
+    /**
+     * Calculates the number of days during the rental period that are chargeable, observing the holidays of the given
+     * calendar. The cost of this calculation does not depend on the rental duration.
+     *
+     * @param toolType The {@link ToolType} of the tool being rented.
+     * @param checkoutDate The date that the tool is being checked out. The first day of the rental is the day following
+     *                     the checkout date.
+     * @param rentalDuration The number of days that the tool is being rented.
+     * @param holidayCalendar The {@link HolidayCalendar} of the holidays that the tool may be free on.
+     *
+     * @return A number in days that the tool will be charged for, taking into account any days that tool is free.
+     *         If the rental duration is less than one, it is returned unchanged.
+     */
+    public static int calculate(final ToolType toolType,
+                                final LocalDate checkoutDate,
+                                final int rentalDuration,
+                                final HolidayCalendar holidayCalendar) {
+        if (rentalDuration < 1) {
+            return rentalDuration;
+        }
+
+        long firstDay = checkoutDate.toEpochDay() + 1;
+        long lastDay = checkoutDate.toEpochDay() + rentalDuration;
+
+        int weekendDays = (int) LocalDateUtils.countWeekendDays(firstDay, lastDay);
+        int weekdays = rentalDuration - weekendDays;
+
+        int chargeableDays = (toolType.hasWeekdayCharge() ? weekdays : 0)
+                + (toolType.hasWeekendCharge() ? weekendDays : 0);
+
+        // Holidays are only relevant when the tool is free on them. A holiday is then subtracted if it falls on a
+        // type of day (weekday or weekend) that would otherwise have been charged.
+        if (!toolType.hasHolidayCharge()) {
+            int weekendHolidays = holidayCalendar.countWeekendHolidays(firstDay, lastDay);
+            int weekdayHolidays = holidayCalendar.countHolidays(firstDay, lastDay) - weekendHolidays;
+
+            chargeableDays -= (toolType.hasWeekdayCharge() ? weekdayHolidays : 0)
+                    + (toolType.hasWeekendCharge() ? weekendHolidays : 0);
+        }
+
+        return chargeableDays;
+    }
+
+    /**
+     * Fills in the number of chargeable days of every rental duration from one day up to the length of the array minus
+     * one, all starting on the same checkout date. The calendar is walked once for the longest rental, keeping a
+     * running total, so the cost grows with the longest duration rather than with the sum of all durations.
+     *
+     * @param chargeMask The charge mask of the tool type, see {@link ToolType#getChargeMask()}.
+     * @param checkoutDate The date that the tool is being checked out. The first day of the rental is the day following
+     *                     the checkout date.
+     * @param chargeableDays The array to fill. Index {@code d} receives the chargeable days of a rental of {@code d}
+     *                       days; index zero receives zero.
+     */
+    public static void fillChargeableDays(final int chargeMask, final LocalDate checkoutDate, final int[] chargeableDays) {
+        fillChargeableDays(chargeMask, checkoutDate, chargeableDays, HolidayCalendar.getDefault());
+    }
+
+    /**
+     * Fills in the number of chargeable days of every rental duration from one day up to the length of the array minus
+     * one, all starting on the same checkout date, observing the holidays of the given calendar.
+     *
+     * @param chargeMask The charge mask of the tool type, see {@link ToolType#getChargeMask()}.
+     * @param checkoutDate The date that the tool is being checked out. The first day of the rental is the day following
+     *                     the checkout date.
+     * @param chargeableDays The array to fill. Index {@code d} receives the chargeable days of a rental of {@code d}
+     *                       days; index zero receives zero.
+     * @param holidayCalendar The {@link HolidayCalendar} of the holidays that the tool may be free on.
+     */
+    public static void fillChargeableDays(final int chargeMask,
+                                          final LocalDate checkoutDate,
+                                          final int[] chargeableDays,
+                                          final HolidayCalendar holidayCalendar) {
+        long checkoutDay = checkoutDate.toEpochDay();
+        boolean holidayCharge = (chargeMask & ToolType.HOLIDAY_CHARGE) != 0;
+
+        int total = 0;
+        if (chargeableDays.length > 0) {
+            chargeableDays[0] = 0;
+        }
+
+        for (int rentalDuration = 1; rentalDuration < chargeableDays.length; rentalDuration++) {
+            long epochDay = checkoutDay + rentalDuration;
+            int dayCharge = LocalDateUtils.isWeekend(epochDay) ? ToolType.WEEKEND_CHARGE : ToolType.WEEKDAY_CHARGE;
+
+            if ((chargeMask & dayCharge) != 0 && (holidayCharge || !holidayCalendar.isHoliday(epochDay))) {
+                total++;
+            }
+            chargeableDays[rentalDuration] = total;
+        }
+    }
+
+    /**
+     * Calculates the number of days during the rental period that are chargeable by checking each day individually.
+     * <p>
+     * This is the reference implementation for {@link #calculate(ToolType, LocalDate, int)}. Its cost grows with
+     * the rental duration, so it should only be used to verify the results of the constant time calculation.
+     * </p>
+     *
+     * @param toolType The {@link ToolType} of the tool being rented.
+     * @param checkoutDate The date that the tool is being checked out. The first day of the rental is the day following
+     *                     the checkout date.
+     * @param rentalDuration The number of days that the tool is being rented.
+     *
+     * @return A number in days that the tool will be charged for, taking into account any days that tool is free.
+     */
+    public static int calculateByIteration(final ToolType toolType, final LocalDate checkoutDate, final int rentalDuration) {
+        // Determine how many days of the rental duration will be charged (some tools are not charged on certain days).
+        // Rental charges start on the day after the checkout date, so skip the checkout date when calculating.
+        int chargeableDays = rentalDuration;
+        for (int i=1; i<=rentalDuration; i++) {
+            if (isToolFreeForDate(toolType, checkoutDate.plusDays(i))) {
+                chargeableDays--;
+            }
+        }
+
+        return chargeableDays;
+    }
+
+    /**
+     * Checks if the tool type should be free of charge for the given day.
+     *
+     * @param toolType The {@link ToolType} of the tool. This is used to determine which scenarios, if any,
+     *                 the tool is free or charge.
+     * @param date  The date to check.
+     *
+     * @return True if the tool should be free of charge on the given date, false if the customer should be charged.
+     */
+    private static boolean isToolFreeForDate(final ToolType toolType, final LocalDate date) {
+        // A tool is potentially free in the following scenarios:
+        // Weekdays (Mon - Fri), Weekends (Sat - Sun), specific holidays.
+
+        // First check if the tool is free for a holiday. If the date is a holiday, and the tool is free
+        // for holidays, then return true because checking for weekday / weekend is not necessary.
+        if (isHoliday(date) &&
+                !toolType.hasHolidayCharge()) {
+            return true;
+        }
+
+        // Next check if the tool is free on the weekends or weekdays.
+        if (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            // Check if the tool is free on weekends.
+            return !toolType.hasWeekendCharge();
+        }
+        else {
+            // Check if the tool is free on the weekdays.
+            return !toolType.hasWeekdayCharge();
+        }
+    }
+}
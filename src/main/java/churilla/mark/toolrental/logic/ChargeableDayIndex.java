@@ -0,0 +1,160 @@
+package churilla.mark.toolrental.logic;
+
+import churilla.mark.toolrental.model.ToolType;
+import churilla.mark.toolrental.utility.HolidayCalendar;
+import churilla.mark.toolrental.utility.LocalDateUtils;
+import churilla.mark.toolrental.utility.ValidationUtils;
+
+import java.time.LocalDate;
+
+/**
+ * Index of the chargeable days within a window of dates, for every charging policy a {@link ToolType} can have.
+ * <p>
+ * A tool type has three charge flags, so there are only eight possible charging policies (see
+ * {@link ToolType#getChargeMask()}). For each of them, the index stores a running total (prefix sum) of the
+ * chargeable days from the start of the window. The chargeable days of any rental period inside the window are
+ * then the difference of two array values.
+ * </p><p>
+ * The index is immutable once constructed and can be shared between threads.
+ * </p>
+ */
+public class ChargeableDayIndex {
+    private static final LocalDate DEFAULT_FIRST_DATE = LocalDate.of(2000, 1, 1);
+    private static final LocalDate DEFAULT_LAST_DATE = LocalDate.of(2099, 12, 31);
+
+    private final HolidayCalendar holidayCalendar;
+    private final long firstDay;
+    private final long lastDay;
+
+    // prefixSums[mask][i] holds the chargeable days for the charge mask from the first day up to (not including)
+    // the first day + i.
+    private final int[][] prefixSums;
+
+    /**
+     * Constructor. Builds the prefix sums of chargeable days for every charge mask within the window, observing the
+     * holidays of the {@link HolidayCalendar#getDefault() default calendar}.
+     *
+     * @param firstDate The first date of the window.
+     * @param lastDate The last date of the window (inclusive).
+     *
+     * @throws IllegalArgumentException if the last date is before the first date.
+     */
+    public ChargeableDayIndex(final LocalDate firstDate, final LocalDate lastDate) {
+        this(firstDate, lastDate, HolidayCalendar.getDefault());
+    }
+
+    /**
+     * Constructor. Builds the prefix sums of chargeable days for every charge mask within the window, observing the
+     * holidays of the given calendar.
+     *
+     * @param firstDate The first date of the window.
+     * @param lastDate The last date of the window (inclusive).
+     * @param holidayCalendar The {@link HolidayCalendar} of the holidays that tools may be free on.
+     *
+     * @throws IllegalArgumentException if the last date is before the first date.
+     */
+    public ChargeableDayIndex(final LocalDate firstDate, final LocalDate lastDate, final HolidayCalendar holidayCalendar) {
+        this.holidayCalendar = ValidationUtils.requireNonNull(holidayCalendar, "holidayCalendar");
+
+        if (lastDate.isBefore(firstDate)) {
+            throw new IllegalArgumentException(String.format("The index window %s - %s is invalid.", firstDate, lastDate));
+        }
+
+        this.firstDay = firstDate.toEpochDay();
+        this.lastDay = lastDate.toEpochDay();
+
+        int days = Math.toIntExact(lastDay - firstDay + 1);
+        prefixSums = new int[ToolType.CHARGE_MASK_COUNT][days + 1];
+        for (int i = 0; i < days; i++) {
+            long epochDay = firstDay + i;
+            boolean holiday = holidayCalendar.isHoliday(epochDay);
+            int dayCharge = LocalDateUtils.isWeekend(epochDay) ? ToolType.WEEKEND_CHARGE : ToolType.WEEKDAY_CHARGE;
+
+            for (int mask = 0; mask < ToolType.CHARGE_MASK_COUNT; mask++) {
+                boolean charged = (mask & dayCharge) != 0 && (!holiday || (mask & ToolType.HOLIDAY_CHARGE) != 0);
+                prefixSums[mask][i + 1] = prefixSums[mask][i] + (charged ? 1 : 0);
+            }
+        }
+    }
+
+    /**
+     * Returns the shared index, which covers the dates 2000-01-01 through 2099-12-31. It is built the first
+     * time it is requested.
+     *
+     * @return The default {@link ChargeableDayIndex}.
+     */
+    public static ChargeableDayIndex getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Returns the calendar of the holidays that the index observes. Rentals outside the window of the index should be
+     * calculated with the same calendar.
+     *
+     * @return The {@link HolidayCalendar} of the index.
+     */
+    public HolidayCalendar getHolidayCalendar() {
+        return holidayCalendar;
+    }
+
+    /**
+     * Determines if every chargeable day of the rental period falls inside the window of the index.
+     *
+     * @param checkoutDate The date that the tool is being checked out. The first day of the rental is the day following
+     *                     the checkout date.
+     * @param rentalDuration The number of days that the tool is being rented.
+     *
+     * @return True if the index can answer the rental period, false otherwise.
+     */
+    public boolean covers(final LocalDate checkoutDate, final int rentalDuration) {
+        long checkoutDay = checkoutDate.toEpochDay();
+
+        return rentalDuration >= 1 && checkoutDay + 1 >= firstDay && checkoutDay + rentalDuration <= lastDay;
+    }
+
+    /**
+     * Returns the number of chargeable days in the rental period. The rental period must be covered by the index,
+     * see {@link #covers(LocalDate, int)}.
+     *
+     * @param chargeMask The charge mask of the tool type, see {@link ToolType#getChargeMask()}.
+     * @param checkoutDate The date that the tool is being checked out. The first day of the rental is the day following
+     *                     the checkout date.
+     * @param rentalDuration The number of days that the tool is being rented.
+     *
+     * @return A number in days that the tool will be charged for, taking into account any days that tool is free.
+     */
+    public int getChargeableDays(final int chargeMask, final LocalDate checkoutDate, final int rentalDuration) {
+        int start = (int) (checkoutDate.toEpochDay() - firstDay);
+        int[] prefixSum = prefixSums[chargeMask];
+
+        // Charges start on the day after checkout, so the rental period is (start, start + duration].
+        return prefixSum[start + rentalDuration + 1] - prefixSum[start + 1];
+    }
+
+    /**
+     * Fills in the number of chargeable days of every rental duration from one day up to the length of the array minus
+     * one, all starting on the same checkout date. The longest rental period must be covered by the index, see
+     * {@link #covers(LocalDate, int)}.
+     *
+     * @param chargeMask The charge mask of the tool type, see {@link ToolType#getChargeMask()}.
+     * @param checkoutDate The date that the tool is being checked out.
+     * @param chargeableDays The array to fill. Index {@code d} receives the chargeable days of a rental of {@code d}
+     *                       days; index zero receives zero.
+     */
+    public void fillChargeableDays(final int chargeMask, final LocalDate checkoutDate, final int[] chargeableDays) {
+        int start = (int) (checkoutDate.toEpochDay() - firstDay);
+        int[] prefixSum = prefixSums[chargeMask];
+
+        // Every duration shares the same start, so each entry is one subtraction from the same slice of prefix sums.
+        for (int rentalDuration = 0; rentalDuration < chargeableDays.length; rentalDuration++) {
+            chargeableDays[rentalDuration] = prefixSum[start + rentalDuration + 1] - prefixSum[start + 1];
+        }
+    }
+
+    /**
+     * Holds the default index so it is only built when it is first used.
+     */
+    private static class DefaultHolder {
+        private static final ChargeableDayIndex INSTANCE = new ChargeableDayIndex(DEFAULT_FIRST_DATE, DEFAULT_LAST_DATE);
+    }
+}
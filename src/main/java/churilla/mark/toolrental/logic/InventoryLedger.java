@@ -0,0 +1,136 @@
+package churilla.mark.toolrental.logic;
+
+import churilla.mark.toolrental.exception.RequiredFieldNullException;
+import churilla.mark.toolrental.exception.ToolUnavailableException;
+import churilla.mark.toolrental.model.Reservation;
+import churilla.mark.toolrental.utility.ValidationUtils;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The InventoryLedger class records the active rentals of each tool and prevents the same tool from being rented
+ * twice for overlapping periods.
+ * <p>
+ * The rentals of each tool are held as sorted, non-overlapping ranges of epoch days, each guarded by a lock that
+ * belongs to that tool alone. Checking a new rental for conflicts and recording it happen under the tool's lock, so
+ * two overlapping checkouts of the same tool can never both succeed, while checkouts of different tools never wait
+ * for each other. The per-tool state is found through a {@link ConcurrentHashMap}, which does not lock on reads.
+ * </p>
+ */
+public class InventoryLedger {
+    private final Map<String, ToolRentals> rentalsByToolCode = new ConcurrentHashMap<>();
+
+    /**
+     * Records a reservation if the tool is free for the whole period.
+     *
+     * @param reservation The tool and the period to reserve.
+     *
+     * @throws RequiredFieldNullException if the reservation is null.
+     * @throws ToolUnavailableException if the period overlaps an existing reservation of the tool.
+     */
+    public void reserve(final Reservation reservation) {
+        ValidationUtils.requireNonNull(reservation, "reservation");
+
+        ToolRentals rentals = rentalsByToolCode.computeIfAbsent(reservation.toolCode(), toolCode -> new ToolRentals());
+        long start = reservation.startDate().toEpochDay();
+        long end = reservation.endDate().toEpochDay();
+
+        synchronized (rentals) {
+            Map.Entry<Long, Long> conflict = rentals.findOverlap(start, end);
+            if (conflict != null) {
+                throw new ToolUnavailableException(String.format("Tool code \"%s\" is already rented from %s to %s.",
+                        reservation.toolCode(), LocalDate.ofEpochDay(conflict.getKey()), LocalDate.ofEpochDay(conflict.getValue())));
+            }
+
+            rentals.ranges.put(start, end);
+        }
+    }
+
+    /**
+     * Removes a reservation, e.g. when the tool is returned or the rental is cancelled, so that the period can be
+     * rented again.
+     *
+     * @param reservation The reservation to remove. It must match a recorded reservation exactly.
+     *
+     * @return True if the reservation was removed, false if it was not recorded.
+     *
+     * @throws RequiredFieldNullException if the reservation is null.
+     */
+    public boolean release(final Reservation reservation) {
+        ValidationUtils.requireNonNull(reservation, "reservation");
+
+        ToolRentals rentals = rentalsByToolCode.get(reservation.toolCode());
+        if (rentals == null) {
+            return false;
+        }
+
+        synchronized (rentals) {
+            return rentals.ranges.remove(reservation.startDate().toEpochDay(), reservation.endDate().toEpochDay());
+        }
+    }
+
+    /**
+     * Determines if a tool is free for a whole period.
+     *
+     * @param toolCode The code of the tool.
+     * @param startDate The first day of the period.
+     * @param endDate The day after the last day of the period.
+     *
+     * @return True if no reservation of the tool overlaps the period.
+     *
+     * @throws RequiredFieldNullException if any argument is null.
+     */
+    public boolean isAvailable(final String toolCode, final LocalDate startDate, final LocalDate endDate) {
+        ValidationUtils.requireNonNull(toolCode, "toolCode");
+        ValidationUtils.requireNonNull(startDate, "startDate");
+        ValidationUtils.requireNonNull(endDate, "endDate");
+
+        ToolRentals rentals = rentalsByToolCode.get(toolCode);
+        if (rentals == null) {
+            return true;
+        }
+
+        synchronized (rentals) {
+            return rentals.findOverlap(startDate.toEpochDay(), endDate.toEpochDay()) == null;
+        }
+    }
+
+    /**
+     * Returns the number of reservations recorded for a tool.
+     *
+     * @param toolCode The code of the tool.
+     *
+     * @return The number of reservations.
+     */
+    public int getReservationCount(final String toolCode) {
+        ToolRentals rentals = rentalsByToolCode.get(toolCode);
+        if (rentals == null) {
+            return 0;
+        }
+
+        synchronized (rentals) {
+            return rentals.ranges.size();
+        }
+    }
+
+    /**
+     * The reservations of a single tool, as half-open ranges of epoch days keyed by their start. The ranges never
+     * overlap. Must only be used while holding the lock of the instance.
+     */
+    private static class ToolRentals {
+        private final TreeMap<Long, Long> ranges = new TreeMap<>();
+
+        /**
+         * Finds a range that overlaps [start, end). Since the ranges do not overlap each other, only the last range
+         * starting before the end of the period can reach into it.
+         */
+        Map.Entry<Long, Long> findOverlap(final long start, final long end) {
+            Map.Entry<Long, Long> candidate = ranges.lowerEntry(end);
+
+            return candidate != null && candidate.getValue() > start ? candidate : null;
+        }
+    }
+}
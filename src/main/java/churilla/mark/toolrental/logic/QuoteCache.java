@@ -0,0 +1,355 @@
+package churilla.mark.toolrental.logic;
+
+import churilla.mark.toolrental.model.HolidayRule;
+import churilla.mark.toolrental.model.RentableTool;
+import churilla.mark.toolrental.model.RentalAgreement;
+import churilla.mark.toolrental.model.ToolType;
+import churilla.mark.toolrental.utility.HolidayCalendar;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A size-bounded cache of rental prices, used by {@link RentalProcessor} in front of the chargeable day calculation
+ * and the pricing of an agreement.
+ * <p>
+ * The price of a rental depends only on the charging policy of the tool type (its daily charge and charge mask), the
+ * checkout date, the rental duration and the discount, so rentals of different tools with the same policy share an
+ * entry. A key is held as two {@code long}s: the daily charge in cents and the other values packed into one number.
+ * Entries are stored in primitive arrays, so a lookup does not allocate, and a hit skips both the calendar and the
+ * price calculation.
+ * </p><p>
+ * The cache is split into segments by the hash of the key, each guarded by its own lock. Within a segment, a key can
+ * only be held in one set of four slots. When a set is full, a slot that has not been used since the set was last
+ * searched for a victim is replaced (the CLOCK policy), so entries that keep being hit stay in the cache.
+ * </p><p>
+ * The chargeable days of a rental also depend on the holidays, which are not part of the key. Instead, a cache is
+ * bound to the holiday rules of the first {@link RentalProcessor} it is given to, and a processor whose
+ * {@link ChargeableDayIndex} uses different rules is rejected, so processors can only share a cache if they agree on
+ * every price.
+ * </p><p>
+ * Rentals that cannot be packed into a key (e.g. durations of more than 2,097,151 days) or that are priced with
+ * {@link java.math.BigDecimal} arithmetic are not cached.
+ * </p>
+ */
+public class QuoteCache {
+    private static final int WAYS = 4;
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_SLOTS_PER_SEGMENT = 64;
+
+    // Layout of the packed key: epoch day (32 bits) | rental duration (21 bits) | discount (7 bits) | mask (3 bits).
+    private static final int DURATION_BITS = 21;
+    private static final int MAX_PACKED_DURATION = (1 << DURATION_BITS) - 1;
+    private static final int DISCOUNT_SHIFT = 3;
+    private static final int DURATION_SHIFT = 10;
+    private static final int EPOCH_DAY_SHIFT = 32;
+
+    // A packed key is never -1, since its discount bits are at most 100 and so never all ones.
+    private static final long EMPTY = -1;
+
+    private final Segment[] segments;
+    private final int segmentMask;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    // The holiday rules that the cached prices were calculated with, or null until the cache is first used.
+    private final AtomicReference<List<HolidayRule>> holidayRules = new AtomicReference<>();
+
+    /**
+     * Statistics about the lookups answered by the cache.
+     *
+     * @param hitCount The number of lookups answered from the cache.
+     * @param missCount The number of lookups that were not in the cache.
+     * @param evictionCount The number of entries replaced to make room for new entries.
+     */
+    public record Stats(long hitCount, long missCount, long evictionCount) {
+
+        /**
+         * Returns the fraction of lookups that were answered from the cache.
+         *
+         * @return The hit rate between 0 and 1, or 0 if there have been no lookups.
+         */
+        public double hitRate() {
+            long lookupCount = hitCount + missCount;
+
+            return lookupCount == 0 ? 0 : (double) hitCount / lookupCount;
+        }
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param maximumSize The maximum number of prices held in the cache. It is rounded up to a multiple of four.
+     *
+     * @throws IllegalArgumentException if the maximum size is less than one.
+     */
+    public QuoteCache(final int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException(String.format("The maximum size must be at least one, but was %s.", maximumSize));
+        }
+
+        int segmentCount = Integer.highestOneBit(Math.max(1, Math.min(MAX_SEGMENTS, maximumSize / MIN_SLOTS_PER_SEGMENT)));
+        int setsPerSegment = Math.max(1, (maximumSize + segmentCount * WAYS - 1) / (segmentCount * WAYS));
+
+        this.segments = new Segment[segmentCount];
+        this.segmentMask = segmentCount - 1;
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(setsPerSegment);
+        }
+    }
+
+    /**
+     * Binds the cache to the holiday rules of a calendar. The first calendar sets the rules, and every later calendar
+     * must have equal rules.
+     *
+     * @param holidayCalendar The {@link HolidayCalendar} that the prices put in the cache are calculated with.
+     *
+     * @throws IllegalArgumentException if the cache is already bound to different holiday rules.
+     */
+    void bind(final HolidayCalendar holidayCalendar) {
+        List<HolidayRule> rules = holidayCalendar.getRules();
+        List<HolidayRule> boundRules = holidayRules.compareAndExchange(null, rules);
+
+        if (boundRules != null && !boundRules.equals(rules)) {
+            throw new IllegalArgumentException(String.format(
+                    "The quote cache holds prices for the holiday rules %s, which differ from %s.", boundRules, rules));
+        }
+    }
+
+    /**
+     * Returns the agreement for a rental from the cache, priced with the values of an earlier rental with the same
+     * charging policy, checkout date, duration and discount.
+     *
+     * @param tool The {@link RentableTool} that is being rented.
+     * @param checkoutDate The date when the rental begins.
+     * @param rentalDuration How many days the customer will have the tool.
+     * @param discount The percentage discount applied to the rental.
+     *
+     * @return The {@link RentalAgreement}, or null if the price of the rental is not in the cache.
+     */
+    public RentalAgreement get(final RentableTool tool, final LocalDate checkoutDate, final int rentalDuration, final int discount) {
+        ToolType toolType = tool.getToolType();
+        long rentalKey = packKey(toolType, checkoutDate, rentalDuration, discount);
+        if (rentalKey == EMPTY) {
+            return null;
+        }
+
+        long policyKey = toolType.getDailyChargeCents();
+        int hash = hash(policyKey, rentalKey);
+        Segment segment = segments[hash & segmentMask];
+
+        int chargeableDays;
+        long preDiscountCents;
+        long discountCents;
+
+        synchronized (segment) {
+            int slot = segment.find(hash, policyKey, rentalKey);
+            if (slot < 0) {
+                missCount.increment();
+                return null;
+            }
+
+            segment.referenced[slot] = true;
+            chargeableDays = segment.chargeableDays[slot];
+            preDiscountCents = segment.preDiscountCents[slot];
+            discountCents = segment.discountCents[slot];
+        }
+
+        hitCount.increment();
+        return new RentalAgreement(tool, rentalDuration, checkoutDate, chargeableDays, discount, preDiscountCents, discountCents);
+    }
+
+    /**
+     * Adds the price of an agreement to the cache, so that rentals with the same charging policy, checkout date,
+     * duration and discount are answered from the cache. Agreements that are not priced in cents are ignored.
+     *
+     * @param agreement The {@link RentalAgreement} to cache the price of.
+     */
+    public void put(final RentalAgreement agreement) {
+        ToolType toolType = agreement.getTool().getToolType();
+        long rentalKey = packKey(toolType, agreement.getCheckoutDate(), agreement.getRentalDuration(), agreement.getDiscount());
+        if (rentalKey == EMPTY || !agreement.isPricedInCents()) {
+            return;
+        }
+
+        long policyKey = toolType.getDailyChargeCents();
+        int hash = hash(policyKey, rentalKey);
+        Segment segment = segments[hash & segmentMask];
+
+        synchronized (segment) {
+            int slot = segment.find(hash, policyKey, rentalKey);
+            if (slot < 0) {
+                slot = segment.claim(hash);
+            }
+
+            segment.policyKeys[slot] = policyKey;
+            segment.rentalKeys[slot] = rentalKey;
+            segment.chargeableDays[slot] = agreement.getChargeableDays();
+            segment.preDiscountCents[slot] = agreement.getPreDiscountCents();
+            segment.discountCents[slot] = agreement.getDiscountCents();
+            segment.referenced[slot] = true;
+        }
+    }
+
+    /**
+     * Removes every entry from the cache.
+     */
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of prices held in the cache.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                for (long rentalKey : segment.rentalKeys) {
+                    size += rentalKey != EMPTY ? 1 : 0;
+                }
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * Returns a snapshot of the cache statistics.
+     *
+     * @return The current {@link Stats}.
+     */
+    public Stats getStats() {
+        return new Stats(hitCount.sum(), missCount.sum(), evictionCount.sum());
+    }
+
+    /**
+     * Packs the checkout date, rental duration, discount and charge mask into one number.
+     *
+     * @return The packed key, or {@link #EMPTY} if the values cannot be packed or the rental is invalid.
+     */
+    private static long packKey(final ToolType toolType, final LocalDate checkoutDate, final int rentalDuration, final int discount) {
+        long epochDay = checkoutDate.toEpochDay();
+
+        if (rentalDuration < RentalAgreement.MIN_RENTAL_DURATION || rentalDuration > MAX_PACKED_DURATION
+                || discount < RentalAgreement.MIN_DISCOUNT || discount > RentalAgreement.MAX_DISCOUNT
+                || epochDay != (int) epochDay || toolType.getDailyChargeCents() == Long.MIN_VALUE) {
+            return EMPTY;
+        }
+
+        return epochDay << EPOCH_DAY_SHIFT
+                | (long) rentalDuration << DURATION_SHIFT
+                | (long) discount << DISCOUNT_SHIFT
+                | toolType.getChargeMask();
+    }
+
+    /**
+     * Mixes the two halves of a key into a well-distributed hash.
+     */
+    private static int hash(final long policyKey, final long rentalKey) {
+        long h = policyKey * 0x9E3779B97F4A7C15L ^ rentalKey;
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+
+        return (int) h;
+    }
+
+    /**
+     * A set-associative table of cached prices. A segment must only be used while holding its lock.
+     */
+    private class Segment {
+        private final int setMask;
+        private final int setShift;
+        private final long[] policyKeys;
+        private final long[] rentalKeys;
+        private final int[] chargeableDays;
+        private final long[] preDiscountCents;
+        private final long[] discountCents;
+        private final boolean[] referenced;
+
+        // The next slot of each set to consider for replacement.
+        private final byte[] clockHands;
+
+        Segment(final int minimumSets) {
+            int sets = Integer.highestOneBit(minimumSets) == minimumSets ? minimumSets : Integer.highestOneBit(minimumSets) << 1;
+            int slots = sets * WAYS;
+
+            this.setMask = sets - 1;
+            this.setShift = Integer.numberOfTrailingZeros(MAX_SEGMENTS);
+            this.policyKeys = new long[slots];
+            this.rentalKeys = new long[slots];
+            this.chargeableDays = new int[slots];
+            this.preDiscountCents = new long[slots];
+            this.discountCents = new long[slots];
+            this.referenced = new boolean[slots];
+            this.clockHands = new byte[sets];
+            clear();
+        }
+
+        /**
+         * Returns the slot that holds the key, or -1 if the key is not in the segment.
+         */
+        int find(final int hash, final long policyKey, final long rentalKey) {
+            int first = firstSlot(hash);
+            for (int slot = first; slot < first + WAYS; slot++) {
+                if (rentalKeys[slot] == rentalKey && policyKeys[slot] == policyKey) {
+                    return slot;
+                }
+            }
+
+            return -1;
+        }
+
+        /**
+         * Returns a slot of the key's set to store a new entry in: an empty slot if there is one, or otherwise the
+         * first slot after the clock hand that has not been referenced since the hand last passed it.
+         */
+        int claim(final int hash) {
+            int first = firstSlot(hash);
+            for (int slot = first; slot < first + WAYS; slot++) {
+                if (rentalKeys[slot] == EMPTY) {
+                    return slot;
+                }
+            }
+
+            int set = first / WAYS;
+            int hand = clockHands[set];
+            while (referenced[first + hand]) {
+                referenced[first + hand] = false;
+                hand = (hand + 1) % WAYS;
+            }
+
+            clockHands[set] = (byte) ((hand + 1) % WAYS);
+            evictionCount.increment();
+
+            return first + hand;
+        }
+
+        /**
+         * Removes every entry from the segment.
+         */
+        void clear() {
+            Arrays.fill(rentalKeys, EMPTY);
+            Arrays.fill(referenced, false);
+        }
+
+        /**
+         * Returns the first slot of the set that holds the hash. The low bits of the hash select the segment, so the
+         * set is chosen from the bits above them.
+         */
+        private int firstSlot(final int hash) {
+            return ((hash >>> setShift) & setMask) * WAYS;
+        }
+    }
+}
@@ -1,16 +1,24 @@
 package churilla.mark.toolrental.logic;
 
 import churilla.mark.toolrental.exception.*;
+import churilla.mark.toolrental.metrics.CheckoutMetrics;
+import churilla.mark.toolrental.model.CheckoutError;
+import churilla.mark.toolrental.model.CheckoutResult;
+import churilla.mark.toolrental.model.PriceMatrix;
 import churilla.mark.toolrental.model.RentableTool;
 import churilla.mark.toolrental.model.RentalAgreement;
+import churilla.mark.toolrental.model.Reservation;
 import churilla.mark.toolrental.model.ToolType;
 import churilla.mark.toolrental.service.ToolService;
+import churilla.mark.toolrental.utility.PricingUtils;
 import churilla.mark.toolrental.utility.ValidationUtils;
 
-import java.time.DayOfWeek;
 import java.time.LocalDate;
-
-import static churilla.mark.toolrental.utility.LocalDateUtils.isHoliday;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * The RentalProcessor class handles the process of renting tools and creating rental agreements.
@@ -19,15 +27,96 @@ import static churilla.mark.toolrental.utility.LocalDateUtils.isHoliday;
  */
 public class RentalProcessor {
     private final ToolService toolService;
+    private final ChargeableDayIndex chargeableDayIndex;
+
+    // Records active rentals so that a tool cannot be rented twice at once, or null if rentals are not tracked.
+    private final InventoryLedger inventoryLedger;
+
+    // Records the latency and outcome of every checkout, or null if checkouts are not measured.
+    private final CheckoutMetrics checkoutMetrics;
+
+    // Holds the prices of earlier rentals so that repeated rentals skip the calendar and the pricing, or null if prices
+    // are not cached.
+    private final QuoteCache quoteCache;
+
+    /**
+     * The optional features of a {@link RentalProcessor}. A feature that is null is not used. Start from
+     * {@link #NONE} and add the features that are needed with the {@code with} methods.
+     *
+     * @param inventoryLedger The {@link InventoryLedger} that records active rentals, or null if rentals are not
+     *                        tracked.
+     * @param checkoutMetrics The {@link CheckoutMetrics} that checkouts are recorded in, or null if checkouts are not
+     *                        measured.
+     * @param quoteCache The {@link QuoteCache} that holds the prices of earlier rentals, or null if prices are not
+     *                   cached.
+     */
+    public record Options(InventoryLedger inventoryLedger, CheckoutMetrics checkoutMetrics, QuoteCache quoteCache) {
+
+        /** Options without any of the optional features. */
+        public static final Options NONE = new Options(null, null, null);
+
+        /**
+         * Returns these options with rentals recorded in the given ledger.
+         *
+         * @param inventoryLedger The {@link InventoryLedger} that records active rentals.
+         *
+         * @return The new options.
+         */
+        public Options withInventoryLedger(final InventoryLedger inventoryLedger) {
+            return new Options(ValidationUtils.requireNonNull(inventoryLedger, "inventoryLedger"), checkoutMetrics, quoteCache);
+        }
+
+        /**
+         * Returns these options with checkouts recorded in the given metrics.
+         *
+         * @param checkoutMetrics The {@link CheckoutMetrics} that checkouts are recorded in.
+         *
+         * @return The new options.
+         */
+        public Options withCheckoutMetrics(final CheckoutMetrics checkoutMetrics) {
+            return new Options(inventoryLedger, ValidationUtils.requireNonNull(checkoutMetrics, "checkoutMetrics"), quoteCache);
+        }
+
+        /**
+         * Returns these options with prices cached in the given cache.
+         *
+         * @param quoteCache The {@link QuoteCache} that holds the prices of earlier rentals.
+         *
+         * @return The new options.
+         */
+        public Options withQuoteCache(final QuoteCache quoteCache) {
+            return new Options(inventoryLedger, checkoutMetrics, ValidationUtils.requireNonNull(quoteCache, "quoteCache"));
+        }
+    }
 
     /**
      * Constructor. Creates a {@link ToolService} object, which reads in the tool data. If the service class cannot
      * read in the tool data for any reason it will throw a {@link ToolDataInitializationException}. If this occurs, the
      * program will not be able to function properly so a {@link FatalException} is thrown to the caller.
+     * <p>
+     * Chargeable days are looked up from the shared {@link ChargeableDayIndex#getDefault() default index}.
+     * </p>
      *
      * @throws FatalException if the tool service cannot be instantiated.
      */
     public RentalProcessor() throws FatalException {
+        this(ChargeableDayIndex.getDefault());
+    }
+
+    /**
+     * Constructor. Creates a {@link ToolService} object, which reads in the tool data, and looks up chargeable days
+     * from the given index. Rentals outside the window of the index are calculated with {@link ChargeableDayCalculator}.
+     *
+     * @param chargeableDayIndex The {@link ChargeableDayIndex} used to look up chargeable days.
+     *
+     * @throws FatalException if the tool service cannot be instantiated.
+     */
+    public RentalProcessor(final ChargeableDayIndex chargeableDayIndex) throws FatalException {
+        this.chargeableDayIndex = ValidationUtils.requireNonNull(chargeableDayIndex, "chargeableDayIndex");
+        this.inventoryLedger = null;
+        this.checkoutMetrics = null;
+        this.quoteCache = null;
+
         try {
             toolService = new ToolService();
         } catch (ToolDataInitializationException ex) {
@@ -36,7 +125,53 @@ public class RentalProcessor {
     }
 
     /**
-     * Checks out a tool for rent and creates the rental agreement.
+     * Constructor. Reads tools from the given {@link ToolService} and looks up chargeable days from the given index.
+     * Rentals outside the window of the index are calculated with {@link ChargeableDayCalculator}.
+     *
+     * @param toolService The {@link ToolService} that tools are read from.
+     * @param chargeableDayIndex The {@link ChargeableDayIndex} used to look up chargeable days.
+     */
+    public RentalProcessor(final ToolService toolService, final ChargeableDayIndex chargeableDayIndex) {
+        this(toolService, chargeableDayIndex, Options.NONE);
+    }
+
+    /**
+     * Constructor. Reads tools from the given {@link ToolService}, looks up chargeable days from the given index and
+     * enables the optional features given in the {@link Options}:
+     * <ul>
+     *     <li>An {@link InventoryLedger} records every rental, so that a tool that is already rented for part of a
+     *     rental period cannot be checked out.</li>
+     *     <li>{@link CheckoutMetrics} record the latency and outcome of every checkout.</li>
+     *     <li>A {@link QuoteCache} answers repeated rentals, so that a rental with the same charging policy, checkout
+     *     date, duration and discount as an earlier one is neither walked through the calendar nor priced again. The
+     *     cache can be shared with other processors whose indexes use the same holiday rules.</li>
+     * </ul>
+     * Rentals outside the window of the index are calculated with {@link ChargeableDayCalculator}.
+     *
+     * @param toolService The {@link ToolService} that tools are read from.
+     * @param chargeableDayIndex The {@link ChargeableDayIndex} used to look up chargeable days.
+     * @param options The optional features of the processor, e.g. {@code Options.NONE.withInventoryLedger(ledger)}.
+     *
+     * @throws IllegalArgumentException if the quote cache is already used with different holiday rules.
+     */
+    public RentalProcessor(final ToolService toolService,
+                           final ChargeableDayIndex chargeableDayIndex,
+                           final Options options) {
+        this.toolService = ValidationUtils.requireNonNull(toolService, "toolService");
+        this.chargeableDayIndex = ValidationUtils.requireNonNull(chargeableDayIndex, "chargeableDayIndex");
+        ValidationUtils.requireNonNull(options, "options");
+        this.inventoryLedger = options.inventoryLedger();
+        this.checkoutMetrics = options.checkoutMetrics();
+        this.quoteCache = options.quoteCache();
+
+        if (quoteCache != null) {
+            quoteCache.bind(chargeableDayIndex.getHolidayCalendar());
+        }
+    }
+
+    /**
+     * Checks out a tool for rent and creates the rental agreement. If the processor was created with
+     * {@link CheckoutMetrics}, the latency of the checkout, or the exception that rejected it, is recorded there.
      *
      * @param toolCode Determines which tool is being rented.
      * @param checkoutDate The date when the rental begins
@@ -51,74 +186,388 @@ public class RentalProcessor {
      *                                        is less than one.
      * @throws NegativeChargeableDaysException if the chargeable days is calculated to be less than zero.
      * @throws RequiredFieldNullException if any objects passed to the {@link RentalAgreement} are null.
+     * @throws ToolUnavailableException if rentals are recorded in an {@link InventoryLedger} and the tool is already
+     *                                  rented for part of the rental period.
      * @throws UnknownToolCodeException if the tool code is not recognized.
      */
     public RentalAgreement checkout(final String toolCode,
                                     final LocalDate checkoutDate,
                                     final int rentalDuration,
                                     final int discount) {
-        ValidationUtils.requireNonNull(toolCode, "toolCode");
-        ValidationUtils.requireNonNull(checkoutDate, "checkoutDate");
+        long startNanos = checkoutMetrics != null ? System.nanoTime() : 0;
+
+        try {
+            RentableTool tool = getRentableTool(toolCode, checkoutDate);
+            RentalAgreement agreement = createAgreement(tool, checkoutDate, rentalDuration, discount);
+            recordCheckout(toolCode, startNanos);
+
+            return agreement;
+        } catch (RuntimeException ex) {
+            recordFailure(toolCode, ex.getClass());
+            throw ex;
+        }
+    }
+
+    /**
+     * Checks out a tool for rent without throwing when the checkout is rejected. Invalid input, such as an unknown
+     * tool code, a discount outside 0 - 100 or a rental duration less than one, is detected before any exception is
+     * created, so rejecting a checkout costs little more than accepting one. Otherwise this method behaves like
+     * {@link #checkout(String, LocalDate, int, int)}, including the recording of {@link CheckoutMetrics}.
+     *
+     * @param toolCode Determines which tool is being rented.
+     * @param checkoutDate The date when the rental begins
+     * @param rentalDuration How many days the customer will have the tool.
+     * @param discount The percentage discount applied to the rental.
+     *
+     * @return A {@link CheckoutResult.Success} with the rental agreement, or a {@link CheckoutResult.Failure} with the
+     *         {@link CheckoutError} that rejected the checkout.
+     */
+    public CheckoutResult tryCheckout(final String toolCode,
+                                      final LocalDate checkoutDate,
+                                      final int rentalDuration,
+                                      final int discount) {
+        long startNanos = checkoutMetrics != null ? System.nanoTime() : 0;
 
-        RentableTool tool = toolService.getRentableTool(toolCode)
-                .orElseThrow(() -> new UnknownToolCodeException(String.format("Tool code \"%s\" not found.", toolCode)));
+        CheckoutResult result = evaluate(toolCode, checkoutDate, rentalDuration, discount, true);
+        if (result instanceof CheckoutResult.Failure failure) {
+            recordFailure(toolCode, failure.cause() != null ? failure.cause().getClass() : failure.error().getExceptionType());
+        } else {
+            recordCheckout(toolCode, startNanos);
+        }
 
-        int chargeableDays = calculateChargeableDays(tool, checkoutDate, rentalDuration);
+        return result;
+    }
 
-        return new RentalAgreement(tool, rentalDuration, checkoutDate, chargeableDays, discount);
+    /**
+     * Prices a rental without checking the tool out and without throwing when the rental is invalid. The result is
+     * the one that {@link #quote(String, LocalDate, int, int)} would return or the error it would throw for.
+     *
+     * @param toolCode Determines which tool is being rented.
+     * @param checkoutDate The date when the rental begins
+     * @param rentalDuration How many days the customer will have the tool.
+     * @param discount The percentage discount applied to the rental.
+     *
+     * @return A {@link CheckoutResult.Success} with the rental agreement, or a {@link CheckoutResult.Failure} with the
+     *         {@link CheckoutError} that rejected the rental.
+     */
+    public CheckoutResult tryQuote(final String toolCode,
+                                   final LocalDate checkoutDate,
+                                   final int rentalDuration,
+                                   final int discount) {
+        return evaluate(toolCode, checkoutDate, rentalDuration, discount, false);
     }
 
     /**
-     * Checks if the tool type should be free of charge for the given day.
+     * Creates the rental agreement for a checkout and reserves the tool. Called by
+     * {@link #checkout(String, LocalDate, int, int)} and {@link #tryCheckout(String, LocalDate, int, int)}, which
+     * record the call in the {@link CheckoutMetrics} if there are any; subclasses that do more work per checkout
+     * override this method so that the work is measured too.
      *
-     * @param toolType The {@link ToolType} of the tool. This is used to determine which scenarios, if any,
-     *                 the tool is free or charge.
-     * @param date  The date to check.
+     * @param tool The {@link RentableTool} that is being rented.
+     * @param checkoutDate The date when the rental begins
+     * @param rentalDuration How many days the customer will have the tool.
+     * @param discount The percentage discount applied to the rental.
+     *
+     * @return A {@link RentalAgreement} with details about the rental.
      *
-     * @return True if the tool should be free of charge on the given date, false if the customer should be charged.
+     * @see #checkout(String, LocalDate, int, int)
      */
-    private boolean isToolFreeForDate(final ToolType toolType, final LocalDate date) {
-        // A tool is potentially free in the following scenarios:
-        // Weekdays (Mon - Fri), Weekends (Sat - Sun), specific holidays.
+    protected RentalAgreement createAgreement(final RentableTool tool,
+                                              final LocalDate checkoutDate,
+                                              final int rentalDuration,
+                                              final int discount) {
+        RentalAgreement agreement = priceRental(tool, checkoutDate, rentalDuration, discount);
 
-        // First check if the tool is free for a holiday. If the date is a holiday, and the tool is free
-        // for holidays, then return true because checking for weekday / weekend is not necessary.
-        if (isHoliday(date) &&
-                !toolType.hasHolidayCharge()) {
-            return true;
+        // Reserve the tool only once the agreement is known to be valid, so a rejected checkout leaves no reservation.
+        if (inventoryLedger != null) {
+            inventoryLedger.reserve(Reservation.of(agreement));
         }
 
-        // Next check if the tool is free on the weekends or weekdays.
-        if (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) {
-            // Check if the tool is free on weekends.
-            return !toolType.hasWeekendCharge();
+        return agreement;
+    }
+
+    /**
+     * Prices a rental without checking the tool out. The returned agreement is the one that
+     * {@link #checkout(String, LocalDate, int, int)} would create, but the tool is not reserved, so a quote can be
+     * given for a tool that is already rented.
+     *
+     * @param toolCode Determines which tool is being rented.
+     * @param checkoutDate The date when the rental begins
+     * @param rentalDuration How many days the customer will have the tool.
+     * @param discount The percentage discount applied to the rental.
+     *
+     * @return A {@link RentalAgreement} with details about the rental.
+     *
+     * @throws DiscountPercentageRangeException if the discount percentage is not between 0 - 100 (inclusive).
+     * @throws InvalidRentalDurationException if the rental duration is less than one.
+     * @throws NegativeChargeableDaysException if the chargeable days is calculated to be less than zero.
+     * @throws RequiredFieldNullException if the tool code or checkout date is null.
+     * @throws UnknownToolCodeException if the tool code is not recognized.
+     */
+    public RentalAgreement quote(final String toolCode,
+                                 final LocalDate checkoutDate,
+                                 final int rentalDuration,
+                                 final int discount) {
+        return priceRental(getRentableTool(toolCode, checkoutDate), checkoutDate, rentalDuration, discount);
+    }
+
+    /**
+     * Prices every tool in the catalog for every rental duration from one day up to the maximum, without creating
+     * rental agreements or checking the tools out.
+     *
+     * @param checkoutDate The date when the rentals begin.
+     * @param maxDuration The longest rental duration to price.
+     * @param discount The percentage discount applied to every price.
+     *
+     * @return A {@link PriceMatrix} with one row per tool, ordered by tool code.
+     *
+     * @throws DiscountPercentageRangeException if the discount percentage is not between 0 - 100 (inclusive).
+     * @throws InvalidRentalDurationException if the maximum duration is less than one.
+     * @throws RequiredFieldNullException if the checkout date is null.
+     * @throws ArithmeticException if a price is too large to be held in cents.
+     *
+     * @see #quotePrices(List, LocalDate, int, int)
+     */
+    public PriceMatrix quotePrices(final LocalDate checkoutDate, final int maxDuration, final int discount) {
+        return fillPriceMatrix(toolService.getRentableTools(), checkoutDate, maxDuration, discount);
+    }
+
+    /**
+     * Prices the given tools for every rental duration from one day up to the maximum, without creating rental
+     * agreements or checking the tools out. Each price is the final price of the agreement that
+     * {@link #quote(String, LocalDate, int, int)} would create for the same rental.
+     * <p>
+     * The chargeable days of every duration are calculated in one pass over the calendar for each charging policy,
+     * and each {@link ToolType} is priced once, however many tools share it. The prices are calculated in cents.
+     * </p>
+     *
+     * @param toolCodes The codes of the tools to price, in the order of the rows of the matrix.
+     * @param checkoutDate The date when the rentals begin.
+     * @param maxDuration The longest rental duration to price.
+     * @param discount The percentage discount applied to every price.
+     *
+     * @return A {@link PriceMatrix} with one row per tool code.
+     *
+     * @throws DiscountPercentageRangeException if the discount percentage is not between 0 - 100 (inclusive).
+     * @throws InvalidRentalDurationException if the maximum duration is less than one.
+     * @throws RequiredFieldNullException if the list of tool codes, a tool code or the checkout date is null.
+     * @throws UnknownToolCodeException if a tool code is not recognized.
+     * @throws ArithmeticException if a price is too large to be held in cents.
+     */
+    public PriceMatrix quotePrices(final List<String> toolCodes,
+                                   final LocalDate checkoutDate,
+                                   final int maxDuration,
+                                   final int discount) {
+        ValidationUtils.requireNonNull(toolCodes, "toolCodes");
+        ValidationUtils.requireNonNull(checkoutDate, "checkoutDate");
+
+        List<RentableTool> tools = new ArrayList<>(toolCodes.size());
+        for (String toolCode : toolCodes) {
+            tools.add(getRentableTool(toolCode, checkoutDate));
         }
-        else {
-            // Check if the tool is free on the weekdays.
-            return !toolType.hasWeekdayCharge();
+
+        return fillPriceMatrix(tools, checkoutDate, maxDuration, discount);
+    }
+
+    /**
+     * Returns the statistics of the quote cache.
+     *
+     * @return The cache statistics, or empty if this processor does not cache prices.
+     */
+    public Optional<QuoteCache.Stats> getQuoteCacheStats() {
+        return quoteCache == null ? Optional.empty() : Optional.of(quoteCache.getStats());
+    }
+
+    /**
+     * Looks up the tool being rented, throwing if the tool code or checkout date is null or the tool is unknown.
+     */
+    private RentableTool getRentableTool(final String toolCode, final LocalDate checkoutDate) {
+        ValidationUtils.requireNonNull(toolCode, "toolCode");
+        ValidationUtils.requireNonNull(checkoutDate, "checkoutDate");
+
+        return toolService.getRentableTool(toolCode)
+                .orElseThrow(() -> new UnknownToolCodeException(CheckoutError.UNKNOWN_TOOL_CODE.message(toolCode)));
+    }
+
+    /**
+     * Creates the rental agreement for a tool that has been looked up, from the quote cache if the price of the rental
+     * is cached.
+     */
+    private RentalAgreement priceRental(final RentableTool tool,
+                                        final LocalDate checkoutDate,
+                                        final int rentalDuration,
+                                        final int discount) {
+        if (quoteCache != null) {
+            RentalAgreement cached = quoteCache.get(tool, checkoutDate, rentalDuration, discount);
+            if (cached != null) {
+                return cached;
+            }
         }
+
+        int chargeableDays = calculateChargeableDays(tool.getToolType(), checkoutDate, rentalDuration);
+        RentalAgreement agreement = new RentalAgreement(tool, rentalDuration, checkoutDate, chargeableDays, discount);
+
+        if (quoteCache != null) {
+            quoteCache.put(agreement);
+        }
+
+        return agreement;
     }
 
     /**
-     * Calculates the number of days during the rental period that are chargeable.
+     * Validates a rental in the same order as the throwing methods and, if it is valid, creates the agreement,
+     * reserving the tool when checking out. Exceptions thrown after validation, e.g. when the tool is already
+     * rented, are returned as failures.
+     */
+    private CheckoutResult evaluate(final String toolCode,
+                                    final LocalDate checkoutDate,
+                                    final int rentalDuration,
+                                    final int discount,
+                                    final boolean checkout) {
+        if (toolCode == null) {
+            return new CheckoutResult.Failure(CheckoutError.REQUIRED_FIELD_NULL, "toolCode");
+        }
+
+        if (checkoutDate == null) {
+            return new CheckoutResult.Failure(CheckoutError.REQUIRED_FIELD_NULL, "checkoutDate");
+        }
+
+        RentableTool tool = toolService.getRentableTool(toolCode).orElse(null);
+        if (tool == null) {
+            return new CheckoutResult.Failure(CheckoutError.UNKNOWN_TOOL_CODE, toolCode);
+        }
+
+        if (rentalDuration < RentalAgreement.MIN_RENTAL_DURATION) {
+            return new CheckoutResult.Failure(CheckoutError.INVALID_RENTAL_DURATION, rentalDuration);
+        }
+
+        if (discount < RentalAgreement.MIN_DISCOUNT || discount > RentalAgreement.MAX_DISCOUNT) {
+            return new CheckoutResult.Failure(CheckoutError.INVALID_DISCOUNT, discount);
+        }
+
+        try {
+            return new CheckoutResult.Success(checkout
+                    ? createAgreement(tool, checkoutDate, rentalDuration, discount)
+                    : priceRental(tool, checkoutDate, rentalDuration, discount));
+        } catch (RuntimeException ex) {
+            return new CheckoutResult.Failure(ex);
+        }
+    }
+
+    /**
+     * Fills a price matrix for the tools. The chargeable days are calculated once per charge mask and the prices once
+     * per tool type; tools that share a tool type copy its row.
+     */
+    private PriceMatrix fillPriceMatrix(final List<RentableTool> tools,
+                                        final LocalDate checkoutDate,
+                                        final int maxDuration,
+                                        final int discount) {
+        ValidationUtils.requireNonNull(checkoutDate, "checkoutDate");
+
+        if (maxDuration < RentalAgreement.MIN_RENTAL_DURATION) {
+            throw new InvalidRentalDurationException(CheckoutError.INVALID_RENTAL_DURATION.message(maxDuration));
+        }
+
+        if (discount < RentalAgreement.MIN_DISCOUNT || discount > RentalAgreement.MAX_DISCOUNT) {
+            throw new DiscountPercentageRangeException(CheckoutError.INVALID_DISCOUNT.message(discount));
+        }
+
+        boolean indexed = chargeableDayIndex.covers(checkoutDate, maxDuration);
+        int[][] chargeableDaysByMask = new int[ToolType.CHARGE_MASK_COUNT][];
+        Map<ToolType, Integer> rowsByToolType = new HashMap<>();
+        long[] finalPriceCents = new long[Math.multiplyExact(tools.size(), maxDuration)];
+        List<String> toolCodes = new ArrayList<>(tools.size());
+
+        for (int row = 0; row < tools.size(); row++) {
+            RentableTool tool = tools.get(row);
+            ToolType toolType = tool.getToolType();
+            toolCodes.add(tool.getToolCode());
+
+            Integer pricedRow = rowsByToolType.putIfAbsent(toolType, row);
+            if (pricedRow != null) {
+                System.arraycopy(finalPriceCents, pricedRow * maxDuration, finalPriceCents, row * maxDuration, maxDuration);
+                continue;
+            }
+
+            int chargeMask = toolType.getChargeMask();
+            int[] chargeableDays = chargeableDaysByMask[chargeMask];
+            if (chargeableDays == null) {
+                chargeableDays = new int[maxDuration + 1];
+                if (indexed) {
+                    chargeableDayIndex.fillChargeableDays(chargeMask, checkoutDate, chargeableDays);
+                } else {
+                    ChargeableDayCalculator.fillChargeableDays(chargeMask, checkoutDate, chargeableDays, chargeableDayIndex.getHolidayCalendar());
+                }
+                chargeableDaysByMask[chargeMask] = chargeableDays;
+            }
+
+            // Chargeable days never decrease with the duration, so the longest rental has the largest price.
+            long dailyChargeCents = toolType.getDailyChargeCents();
+            if (!PricingUtils.fitsInCents(dailyChargeCents, chargeableDays[maxDuration])) {
+                throw new ArithmeticException(String.format("The price of tool \"%s\" for %s days is too large to be held in cents.", tool.getToolCode(), maxDuration));
+            }
+
+            int offset = row * maxDuration - 1;
+            for (int rentalDuration = 1; rentalDuration <= maxDuration; rentalDuration++) {
+                long preDiscountCents = PricingUtils.calculatePreDiscountCents(dailyChargeCents, chargeableDays[rentalDuration]);
+                finalPriceCents[offset + rentalDuration] = preDiscountCents - PricingUtils.calculateDiscountCents(preDiscountCents, discount);
+            }
+        }
+
+        return new PriceMatrix(toolCodes, checkoutDate, maxDuration, discount, finalPriceCents);
+    }
+
+    /**
+     * Records a successful checkout that started at the given time, if checkouts are measured.
+     */
+    private void recordCheckout(final String toolCode, final long startNanos) {
+        if (checkoutMetrics != null) {
+            checkoutMetrics.recordCheckout(toolCode, System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Records a rejected checkout, if checkouts are measured.
+     */
+    private void recordFailure(final String toolCode, final Class<? extends RuntimeException> exceptionType) {
+        if (checkoutMetrics != null) {
+            checkoutMetrics.recordFailure(toolCode, exceptionType);
+        }
+    }
+
+    /**
+     * Records that the tool of a rental agreement has been returned, so that it can be rented again for the rest of
+     * the rental period. Does nothing if rentals are not recorded in an {@link InventoryLedger}.
+     *
+     * @param agreement The {@link RentalAgreement} created when the tool was checked out.
      *
-     * @param tool The tool being rented.
+     * @return True if the rental was removed from the ledger, false if it was not recorded.
+     *
+     * @throws RequiredFieldNullException if the agreement is null.
+     */
+    public boolean checkin(final RentalAgreement agreement) {
+        ValidationUtils.requireNonNull(agreement, "agreement");
+
+        return inventoryLedger != null && inventoryLedger.release(Reservation.of(agreement));
+    }
+
+    /**
+     * Calculates the number of days during the rental period that are chargeable. The days are read from the
+     * {@link ChargeableDayIndex} when the rental period falls inside its window, and calculated with the holiday
+     * calendar of the index otherwise.
+     *
+     * @param toolType The {@link ToolType} of the tool being rented.
      * @param checkoutDate The date that the tool is being checked out. The first day of the rental is the day following
      *                     the checkout date.
      * @param rentalDuration The number of days that the tool is being rented.
      *
      * @return A number in days that the tool will be charged for, taking into account any days that tool is free.
      */
-    private int calculateChargeableDays(final RentableTool tool, final LocalDate checkoutDate, final int rentalDuration) {
-        // Determine how many days of the rental duration will be charged (some tools are not charged on certain days).
-        // Rental charges start on the day after the checkout date, so skip the checkout date when calculating.
-        int chargeableDays = rentalDuration;
-        for (int i=1; i<=rentalDuration; i++) {
-            if (isToolFreeForDate(tool.getToolType(), checkoutDate.plusDays(i))) {
-                chargeableDays--;
-            }
+    private int calculateChargeableDays(final ToolType toolType, final LocalDate checkoutDate, final int rentalDuration) {
+        if (chargeableDayIndex.covers(checkoutDate, rentalDuration)) {
+            return chargeableDayIndex.getChargeableDays(toolType.getChargeMask(), checkoutDate, rentalDuration);
         }
 
-        return chargeableDays;
+        return ChargeableDayCalculator.calculate(toolType, checkoutDate, rentalDuration, chargeableDayIndex.getHolidayCalendar());
     }
 }
@@ -0,0 +1,228 @@
+package churilla.mark.toolrental.metrics;
+
+import churilla.mark.toolrental.exception.UnknownToolCodeException;
+import churilla.mark.toolrental.utility.ValidationUtils;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * Counts checkouts and failures by tool code and by exception type, and records the latency of successful checkouts
+ * in a {@link LatencyHistogram}. A {@link churilla.mark.toolrental.logic.RentalProcessor} created with a
+ * CheckoutMetrics object records every checkout in it.
+ * <p>
+ * Recording does not take locks. Counters are {@link LongAdder}s held in maps that only grow when a tool code or
+ * exception type is seen for the first time, so recording a checkout does not allocate once the counters exist.
+ * Failures of unknown tool codes are not counted by tool code, so that requests for made-up codes cannot grow the
+ * maps without bound.
+ * </p><p>
+ * The metrics are published over JMX with {@link #register(MBeanServer)}.
+ * </p>
+ */
+public class CheckoutMetrics implements CheckoutMetricsMXBean {
+    /**
+     * The name that {@link #register(MBeanServer)} publishes the metrics under.
+     */
+    public static final String OBJECT_NAME = "churilla.mark.toolrental:type=CheckoutMetrics";
+
+    private static final double NANOS_PER_MICRO = TimeUnit.MICROSECONDS.toNanos(1);
+
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final LongAdder checkoutCount = new LongAdder();
+    private final LongAdder failureCount = new LongAdder();
+    private final ConcurrentHashMap<String, ToolCounters> toolCounters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Class<?>, LongAdder> exceptionCounters = new ConcurrentHashMap<>();
+
+    /**
+     * The checkout and failure counts of one tool.
+     */
+    private static final class ToolCounters {
+        private final LongAdder checkoutCount = new LongAdder();
+        private final LongAdder failureCount = new LongAdder();
+    }
+
+    /**
+     * Records a checkout that created a rental agreement.
+     *
+     * @param toolCode The code of the tool that was checked out.
+     * @param latencyNanos How long the checkout took in nanoseconds.
+     */
+    public void recordCheckout(final String toolCode, final long latencyNanos) {
+        latencies.record(latencyNanos);
+        checkoutCount.increment();
+        countersFor(toolCode).checkoutCount.increment();
+    }
+
+    /**
+     * Records a checkout that was rejected with an exception.
+     *
+     * @param toolCode The code of the tool that was requested. May be null.
+     * @param exception The exception that rejected the checkout.
+     */
+    public void recordFailure(final String toolCode, final RuntimeException exception) {
+        recordFailure(toolCode, exception.getClass());
+    }
+
+    /**
+     * Records a checkout that was rejected, by the type of exception that reports the problem. Used for checkouts
+     * that were rejected without throwing.
+     *
+     * @param toolCode The code of the tool that was requested. May be null.
+     * @param exceptionType The type of exception that reports the problem, e.g. {@code UnknownToolCodeException}.
+     */
+    public void recordFailure(final String toolCode, final Class<? extends RuntimeException> exceptionType) {
+        failureCount.increment();
+
+        LongAdder exceptionCounter = exceptionCounters.get(exceptionType);
+        if (exceptionCounter == null) {
+            exceptionCounter = exceptionCounters.computeIfAbsent(exceptionType, type -> new LongAdder());
+        }
+        exceptionCounter.increment();
+
+        if (toolCode != null && !UnknownToolCodeException.class.isAssignableFrom(exceptionType)) {
+            countersFor(toolCode).failureCount.increment();
+        }
+    }
+
+    /**
+     * Returns a copy of the latencies of successful checkouts.
+     *
+     * @return The current {@link LatencyHistogram.Snapshot}.
+     */
+    public LatencyHistogram.Snapshot getLatencySnapshot() {
+        return latencies.snapshot();
+    }
+
+    /**
+     * Publishes the metrics under {@link #OBJECT_NAME}, replacing any metrics already published under that name.
+     *
+     * @param mBeanServer The server to register with, e.g.
+     *                    {@link java.lang.management.ManagementFactory#getPlatformMBeanServer()}.
+     *
+     * @return The name that the metrics were registered under.
+     *
+     * @throws JMException if the metrics cannot be registered.
+     */
+    public ObjectName register(final MBeanServer mBeanServer) throws JMException {
+        ValidationUtils.requireNonNull(mBeanServer, "mBeanServer");
+        ObjectName name = new ObjectName(OBJECT_NAME);
+
+        try {
+            mBeanServer.registerMBean(this, name);
+        } catch (InstanceAlreadyExistsException ex) {
+            try {
+                mBeanServer.unregisterMBean(name);
+            } catch (InstanceNotFoundException ignored) {
+                // Unregistered concurrently; register below.
+            }
+            mBeanServer.registerMBean(this, name);
+        }
+
+        return name;
+    }
+
+    @Override
+    public long getCheckoutCount() {
+        return checkoutCount.sum();
+    }
+
+    @Override
+    public long getFailureCount() {
+        return failureCount.sum();
+    }
+
+    @Override
+    public double getLatencyMeanMicros() {
+        return latencies.snapshot().getMeanNanos() / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getLatencyP50Micros() {
+        return latencies.snapshot().getValueAtPercentile(50) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getLatencyP90Micros() {
+        return latencies.snapshot().getValueAtPercentile(90) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getLatencyP99Micros() {
+        return latencies.snapshot().getValueAtPercentile(99) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getLatencyP999Micros() {
+        return latencies.snapshot().getValueAtPercentile(99.9) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getLatencyMaxMicros() {
+        return latencies.snapshot().getMaxNanos() / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public Map<String, Long> getCheckoutCountsByToolCode() {
+        return countsByToolCode(counters -> counters.checkoutCount.sum());
+    }
+
+    @Override
+    public Map<String, Long> getFailureCountsByToolCode() {
+        return countsByToolCode(counters -> counters.failureCount.sum());
+    }
+
+    @Override
+    public Map<String, Long> getFailureCountsByExceptionType() {
+        Map<String, Long> counts = new TreeMap<>();
+        exceptionCounters.forEach((type, counter) -> counts.put(type.getSimpleName(), counter.sum()));
+
+        return counts;
+    }
+
+    /**
+     * Clears the latencies and every counter. Checkouts recorded while the metrics are being reset may be kept or
+     * removed.
+     */
+    @Override
+    public void reset() {
+        latencies.reset();
+        checkoutCount.reset();
+        failureCount.reset();
+        toolCounters.clear();
+        exceptionCounters.clear();
+    }
+
+    /**
+     * Returns the counters of a tool, creating them the first time the tool is seen.
+     */
+    private ToolCounters countersFor(final String toolCode) {
+        ToolCounters counters = toolCounters.get(toolCode);
+
+        // Look up before computing, since computeIfAbsent may lock the bin even when the key is present.
+        return counters != null ? counters : toolCounters.computeIfAbsent(toolCode, code -> new ToolCounters());
+    }
+
+    /**
+     * Returns one count of every tool with a non-zero count, sorted by tool code.
+     */
+    private Map<String, Long> countsByToolCode(final ToLongFunction<ToolCounters> count) {
+        Map<String, Long> counts = new TreeMap<>();
+        toolCounters.forEach((toolCode, counters) -> {
+            long value = count.applyAsLong(counters);
+            if (value > 0) {
+                counts.put(toolCode, value);
+            }
+        });
+
+        return counts;
+    }
+}
@@ -0,0 +1,93 @@
+package churilla.mark.toolrental.metrics;
+
+import java.util.Map;
+
+/**
+ * The management interface of {@link CheckoutMetrics}, published over JMX by
+ * {@link CheckoutMetrics#register(javax.management.MBeanServer)}. Latencies are reported in microseconds.
+ */
+public interface CheckoutMetricsMXBean {
+
+    /**
+     * Returns the number of checkouts that created a rental agreement.
+     *
+     * @return The count of successful checkouts.
+     */
+    long getCheckoutCount();
+
+    /**
+     * Returns the number of checkouts that were rejected with an exception.
+     *
+     * @return The count of failed checkouts.
+     */
+    long getFailureCount();
+
+    /**
+     * Returns the mean latency of successful checkouts.
+     *
+     * @return The mean in microseconds.
+     */
+    double getLatencyMeanMicros();
+
+    /**
+     * Returns the median latency of successful checkouts.
+     *
+     * @return The 50th percentile in microseconds.
+     */
+    double getLatencyP50Micros();
+
+    /**
+     * Returns the 90th percentile latency of successful checkouts.
+     *
+     * @return The 90th percentile in microseconds.
+     */
+    double getLatencyP90Micros();
+
+    /**
+     * Returns the 99th percentile latency of successful checkouts.
+     *
+     * @return The 99th percentile in microseconds.
+     */
+    double getLatencyP99Micros();
+
+    /**
+     * Returns the 99.9th percentile latency of successful checkouts.
+     *
+     * @return The 99.9th percentile in microseconds.
+     */
+    double getLatencyP999Micros();
+
+    /**
+     * Returns the highest latency of a successful checkout.
+     *
+     * @return The maximum in microseconds.
+     */
+    double getLatencyMaxMicros();
+
+    /**
+     * Returns the number of successful checkouts of each tool.
+     *
+     * @return The counts keyed by tool code.
+     */
+    Map<String, Long> getCheckoutCountsByToolCode();
+
+    /**
+     * Returns the number of failed checkouts of each known tool. Checkouts of unknown tool codes are only counted by
+     * exception type.
+     *
+     * @return The counts keyed by tool code.
+     */
+    Map<String, Long> getFailureCountsByToolCode();
+
+    /**
+     * Returns the number of failed checkouts for each exception type.
+     *
+     * @return The counts keyed by the simple name of the exception class, e.g. {@code UnknownToolCodeException}.
+     */
+    Map<String, Long> getFailureCountsByExceptionType();
+
+    /**
+     * Clears the latencies and every counter.
+     */
+    void reset();
+}
@@ -0,0 +1,185 @@
+package churilla.mark.toolrental.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of latencies in nanoseconds, used to report latency percentiles.
+ * <p>
+ * Values are counted in log-linear buckets: every power of two is split into 32 buckets of equal width, and values
+ * below 64 have a bucket each. A percentile is therefore reported with a relative error of at most 1/32 (about 3%),
+ * while the whole range of a {@code long} fits in fewer than 2,000 buckets. Recording a value increments one bucket
+ * with an atomic add and does not allocate, so the histogram can stay enabled on the checkout path.
+ * </p><p>
+ * A {@link Snapshot} is read bucket by bucket without stopping writers, so a snapshot taken while values are being
+ * recorded may include some of them and not others.
+ * </p>
+ */
+public class LatencyHistogram {
+    // Each power of two from 2^6 upwards is split into 2^SUB_BUCKET_BITS buckets.
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+
+    // Values below this are counted exactly, one bucket per value.
+    private static final int LINEAR_LIMIT = SUB_BUCKET_COUNT << 1;
+    private static final int LINEAR_BITS = SUB_BUCKET_BITS + 1;
+    private static final int BUCKET_COUNT = LINEAR_LIMIT + (Long.SIZE - 1 - LINEAR_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * A point-in-time copy of the histogram.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+
+        private Snapshot(final long[] counts, final long totalNanos, final long maxNanos) {
+            long count = 0;
+            for (long bucketCount : counts) {
+                count += bucketCount;
+            }
+
+            this.counts = counts;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        /**
+         * Returns the number of recorded values.
+         *
+         * @return The count of values.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Returns the largest recorded value.
+         *
+         * @return The maximum in nanoseconds, or 0 if no values have been recorded.
+         */
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        /**
+         * Returns the mean of the recorded values.
+         *
+         * @return The mean in nanoseconds, or 0 if no values have been recorded.
+         */
+        public double getMeanNanos() {
+            return count == 0 ? 0 : (double) totalNanos / count;
+        }
+
+        /**
+         * Returns the value below or at which the given percentage of the recorded values fall. The value is the upper
+         * bound of the bucket that holds the percentile, but never more than the maximum.
+         *
+         * @param percentile The percentile between 0 and 100, e.g. {@code 99.9}.
+         *
+         * @return The value in nanoseconds, or 0 if no values have been recorded.
+         *
+         * @throws IllegalArgumentException if the percentile is not between 0 and 100.
+         */
+        public long getValueAtPercentile(final double percentile) {
+            if (!(percentile >= 0 && percentile <= 100)) {
+                throw new IllegalArgumentException(String.format("The percentile must be between 0 and 100, but was %s.", percentile));
+            }
+
+            if (count == 0) {
+                return 0;
+            }
+
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+            long seen = 0;
+            for (int index = 0; index < counts.length; index++) {
+                seen += counts[index];
+                if (seen >= rank) {
+                    return Math.min(highestValueOf(index), maxNanos);
+                }
+            }
+
+            return maxNanos;
+        }
+    }
+
+    /**
+     * Records a latency. Negative values, e.g. from a clock that went backwards, are recorded as zero.
+     *
+     * @param nanos The latency in nanoseconds.
+     */
+    public void record(final long nanos) {
+        long value = Math.max(0, nanos);
+
+        counts.incrementAndGet(indexOf(value));
+        totalNanos.add(value);
+
+        long max = maxNanos.get();
+        while (value > max && !maxNanos.compareAndSet(max, value)) {
+            max = maxNanos.get();
+        }
+    }
+
+    /**
+     * Returns a copy of the recorded values.
+     *
+     * @return The current {@link Snapshot}.
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            copy[index] = counts.get(index);
+        }
+
+        return new Snapshot(copy, totalNanos.sum(), maxNanos.get());
+    }
+
+    /**
+     * Removes every recorded value. Values recorded while the histogram is being reset may be kept or removed.
+     */
+    public void reset() {
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            counts.set(index, 0);
+        }
+
+        totalNanos.reset();
+        maxNanos.set(0);
+    }
+
+    /**
+     * Returns the bucket that counts the value.
+     */
+    private static int indexOf(final long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & SUB_BUCKET_MASK;
+
+        return LINEAR_LIMIT + (exponent - LINEAR_BITS) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * Returns the largest value counted by the bucket.
+     */
+    private static long highestValueOf(final int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+
+        int exponent = (index - LINEAR_LIMIT) / SUB_BUCKET_COUNT + LINEAR_BITS;
+        long subBucket = (index - LINEAR_LIMIT) % SUB_BUCKET_COUNT;
+        long lowestValue = (1L << exponent) | (subBucket << (exponent - SUB_BUCKET_BITS));
+
+        return lowestValue + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
@@ -0,0 +1,89 @@
+package churilla.mark.toolrental.model;
+
+import churilla.mark.toolrental.exception.*;
+
+/**
+ * The reasons a checkout can be rejected, reported by a {@link CheckoutResult.Failure}. Each error corresponds to the
+ * exception that the throwing checkout methods use for the same problem, and holds the message for it, so that both
+ * ways of checking out describe a problem in the same words.
+ */
+public enum CheckoutError {
+    UNKNOWN_TOOL_CODE(UnknownToolCodeException.class, "Tool code \"", "\" not found."),
+    INVALID_RENTAL_DURATION(InvalidRentalDurationException.class, "The rental duration ", " is invalid. Please re-enter a value of 1 or greater."),
+    INVALID_DISCOUNT(DiscountPercentageRangeException.class, "The value ", " for the discount percentage is invalid. Please provide a number between 0 and 100."),
+    NEGATIVE_CHARGEABLE_DAYS(NegativeChargeableDaysException.class, "Invalid calculation of chargeable days: ", ". Must be 0 or greater"),
+    REQUIRED_FIELD_NULL(RequiredFieldNullException.class, "Required field \"", "\" is null."),
+    TOOL_UNAVAILABLE(ToolUnavailableException.class, "", ""),
+    JOURNAL_UNAVAILABLE(JournalWriteException.class, "", ""),
+    INTERNAL_ERROR(RuntimeException.class, "", "");
+
+    private final Class<? extends RuntimeException> exceptionType;
+    private final String messagePrefix;
+    private final String messageSuffix;
+
+    CheckoutError(final Class<? extends RuntimeException> exceptionType, final String messagePrefix, final String messageSuffix) {
+        this.exceptionType = exceptionType;
+        this.messagePrefix = messagePrefix;
+        this.messageSuffix = messageSuffix;
+    }
+
+    /**
+     * Returns the error that corresponds to an exception thrown while checking out.
+     *
+     * @param exception The exception that rejected the checkout.
+     *
+     * @return The matching error, or {@link #INTERNAL_ERROR} if the exception does not report a known problem.
+     */
+    public static CheckoutError of(final RuntimeException exception) {
+        for (CheckoutError error : values()) {
+            if (error != INTERNAL_ERROR && error.exceptionType.isInstance(exception)) {
+                return error;
+            }
+        }
+
+        return INTERNAL_ERROR;
+    }
+
+    /**
+     * Returns the type of exception that the throwing checkout methods use for this error.
+     *
+     * @return The exception class.
+     */
+    public Class<? extends RuntimeException> getExceptionType() {
+        return exceptionType;
+    }
+
+    /**
+     * Returns the message that describes this error for the value that was rejected, e.g. the tool code or the
+     * discount. The message is built without {@link String#format}.
+     *
+     * @param value The rejected value.
+     *
+     * @return The message.
+     */
+    public String message(final Object value) {
+        return messagePrefix + value + messageSuffix;
+    }
+
+    /**
+     * Creates the exception that the throwing checkout methods use for this error, without a stack trace.
+     *
+     * @param value The rejected value, e.g. the tool code or the name of the field that is null.
+     *
+     * @return The exception.
+     */
+    public RuntimeException toException(final Object value) {
+        String message = message(value);
+
+        return switch (this) {
+            case UNKNOWN_TOOL_CODE -> new UnknownToolCodeException(message, false);
+            case INVALID_RENTAL_DURATION -> new InvalidRentalDurationException(message, false);
+            case INVALID_DISCOUNT -> new DiscountPercentageRangeException(message, false);
+            case NEGATIVE_CHARGEABLE_DAYS -> new NegativeChargeableDaysException(message, false);
+            case REQUIRED_FIELD_NULL -> new RequiredFieldNullException(String.valueOf(value), false);
+            case TOOL_UNAVAILABLE -> new ToolUnavailableException(message, false);
+            case JOURNAL_UNAVAILABLE -> new JournalWriteException(message);
+            case INTERNAL_ERROR -> new IllegalStateException(message);
+        };
+    }
+}
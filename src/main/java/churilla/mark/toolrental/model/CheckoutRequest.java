@@ -0,0 +1,15 @@
+package churilla.mark.toolrental.model;
+
+import java.time.LocalDate;
+
+/**
+ * An immutable request to check out a tool. It holds the same values that are passed to
+ * {@code RentalProcessor.checkout()} so that checkouts can be submitted in bulk.
+ *
+ * @param toolCode Determines which tool is being rented.
+ * @param checkoutDate The date when the rental begins.
+ * @param rentalDuration How many days the customer will have the tool.
+ * @param discount The percentage discount applied to the rental.
+ */
+public record CheckoutRequest(String toolCode, LocalDate checkoutDate, int rentalDuration, int discount) {
+}
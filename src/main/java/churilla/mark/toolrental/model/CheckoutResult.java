@@ -0,0 +1,82 @@
+package churilla.mark.toolrental.model;
+
+/**
+ * The outcome of a single checkout. A result is either a {@link Success} holding the {@link RentalAgreement} that
+ * was created, or a {@link Failure} holding the {@link CheckoutError} that prevented the checkout.
+ */
+public sealed interface CheckoutResult permits CheckoutResult.Success, CheckoutResult.Failure {
+
+    /**
+     * Specifies if the checkout succeeded.
+     *
+     * @return True if a rental agreement was created, false otherwise.
+     */
+    boolean isSuccess();
+
+    /**
+     * A checkout that created a rental agreement.
+     *
+     * @param agreement The {@link RentalAgreement} that was created.
+     */
+    record Success(RentalAgreement agreement) implements CheckoutResult {
+        @Override
+        public boolean isSuccess() {
+            return true;
+        }
+    }
+
+    /**
+     * A checkout that was rejected. A failure reported by a non-throwing checkout method holds the error and the
+     * value that was rejected, and only builds the message or the exception when it is asked for. A failure that was
+     * caught as an exception holds that exception.
+     *
+     * @param error The reason the checkout was rejected.
+     * @param rejectedValue The value that was rejected, e.g. the tool code or the discount, or null if it is not known.
+     * @param cause The exception that was thrown while checking out, or null if the checkout did not throw.
+     */
+    record Failure(CheckoutError error, Object rejectedValue, RuntimeException cause) implements CheckoutResult {
+
+        /**
+         * Constructor for a checkout that threw an exception, e.g. an {@code UnknownToolCodeException}.
+         *
+         * @param exception The exception that was thrown.
+         */
+        public Failure(final RuntimeException exception) {
+            this(CheckoutError.of(exception), null, exception);
+        }
+
+        /**
+         * Constructor for a checkout that was rejected without throwing.
+         *
+         * @param error The reason the checkout was rejected.
+         * @param rejectedValue The value that was rejected.
+         */
+        public Failure(final CheckoutError error, final Object rejectedValue) {
+            this(error, rejectedValue, null);
+        }
+
+        @Override
+        public boolean isSuccess() {
+            return false;
+        }
+
+        /**
+         * Returns a message detailing the problem, the same as the message of {@link #exception()}.
+         *
+         * @return The message.
+         */
+        public String message() {
+            return cause != null ? cause.getMessage() : error.message(rejectedValue);
+        }
+
+        /**
+         * Returns the exception that rejected the checkout. If the checkout did not throw, an exception of the type
+         * that the throwing checkout methods use for the error is created, without a stack trace.
+         *
+         * @return The exception.
+         */
+        public RuntimeException exception() {
+            return cause != null ? cause : error.toException(rejectedValue);
+        }
+    }
+}
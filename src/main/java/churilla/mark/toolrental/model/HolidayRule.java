@@ -0,0 +1,138 @@
+package churilla.mark.toolrental.model;
+
+import churilla.mark.toolrental.utility.LocalDateUtils;
+import churilla.mark.toolrental.utility.ValidationUtils;
+
+import java.time.DayOfWeek;
+import java.time.Month;
+
+/**
+ * A rule that decides the day a holiday is observed on in any year. The rules of a store are loaded from
+ * configuration (see {@code HolidayRuleReader}) and compiled into the tables of a {@code HolidayCalendar}, so a rule is
+ * only evaluated once per year of the calendar window.
+ * <p>
+ * There are three kinds of rules: a {@link FixedDate} such as July 4th, an {@link NthWeekdayOfMonth} such as the first
+ * Monday of September, and a {@link LastWeekdayOfMonth} such as the last Monday of May.
+ * </p>
+ */
+public sealed interface HolidayRule permits HolidayRule.FixedDate, HolidayRule.NthWeekdayOfMonth, HolidayRule.LastWeekdayOfMonth {
+
+    /**
+     * Returns the name of the holiday.
+     *
+     * @return The name, e.g. "Labor Day".
+     */
+    String name();
+
+    /**
+     * Returns the epoch day that the holiday is observed on in the given year. An observed day can fall in the
+     * previous or the next year, e.g. when January 1st is a Saturday and is observed on the Friday before.
+     *
+     * @param year The year of the holiday.
+     *
+     * @return The number of days from 1970-01-01 to the observed holiday.
+     */
+    long getObservedEpochDay(int year);
+
+    /**
+     * A holiday on the same date every year. If the date falls on a weekend and the holiday is observed on a weekday,
+     * it is moved to the Friday before a Saturday, or the Monday after a Sunday.
+     *
+     * @param name The name of the holiday.
+     * @param month The month of the holiday.
+     * @param dayOfMonth The day of the month of the holiday. February 29th is not supported.
+     * @param observedOnWeekday True if the holiday is moved to the closest weekday when it falls on a weekend.
+     */
+    record FixedDate(String name, Month month, int dayOfMonth, boolean observedOnWeekday) implements HolidayRule {
+
+        /**
+         * Constructor.
+         *
+         * @throws IllegalArgumentException if the day does not exist in the month in every year.
+         */
+        public FixedDate {
+            ValidationUtils.requireNonNull(name, "name");
+            ValidationUtils.requireNonNull(month, "month");
+
+            if (dayOfMonth < 1 || dayOfMonth > month.minLength()) {
+                throw new IllegalArgumentException(String.format("Day %s of %s does not exist in every year.", dayOfMonth, month));
+            }
+        }
+
+        @Override
+        public long getObservedEpochDay(final int year) {
+            long epochDay = LocalDateUtils.toEpochDay(year, month.getValue(), dayOfMonth);
+            if (!observedOnWeekday) {
+                return epochDay;
+            }
+
+            return switch (LocalDateUtils.getDayOfWeekIndex(epochDay)) {
+                case 5 -> epochDay - 1;
+                case 6 -> epochDay + 1;
+                default -> epochDay;
+            };
+        }
+    }
+
+    /**
+     * A holiday on the nth occurrence of a day of the week in a month, e.g. the fourth Thursday of November.
+     *
+     * @param name The name of the holiday.
+     * @param month The month of the holiday.
+     * @param dayOfWeek The day of the week of the holiday.
+     * @param week Which occurrence of the day of the week, from 1 to 4. Use a {@link LastWeekdayOfMonth} for the last
+     *             occurrence.
+     */
+    record NthWeekdayOfMonth(String name, Month month, DayOfWeek dayOfWeek, int week) implements HolidayRule {
+
+        /**
+         * Constructor.
+         *
+         * @throws IllegalArgumentException if the week is not between 1 and 4.
+         */
+        public NthWeekdayOfMonth {
+            ValidationUtils.requireNonNull(name, "name");
+            ValidationUtils.requireNonNull(month, "month");
+            ValidationUtils.requireNonNull(dayOfWeek, "dayOfWeek");
+
+            if (week < 1 || week > 4) {
+                throw new IllegalArgumentException(String.format("The week of the month must be between 1 and 4, but was %s.", week));
+            }
+        }
+
+        @Override
+        public long getObservedEpochDay(final int year) {
+            long firstOfMonth = LocalDateUtils.toEpochDay(year, month.getValue(), 1);
+            int daysToFirst = Math.floorMod(dayOfWeek.ordinal() - LocalDateUtils.getDayOfWeekIndex(firstOfMonth), 7);
+
+            return firstOfMonth + daysToFirst + (week - 1) * 7L;
+        }
+    }
+
+    /**
+     * A holiday on the last occurrence of a day of the week in a month, e.g. the last Monday of May.
+     *
+     * @param name The name of the holiday.
+     * @param month The month of the holiday.
+     * @param dayOfWeek The day of the week of the holiday.
+     */
+    record LastWeekdayOfMonth(String name, Month month, DayOfWeek dayOfWeek) implements HolidayRule {
+
+        /**
+         * Constructor.
+         */
+        public LastWeekdayOfMonth {
+            ValidationUtils.requireNonNull(name, "name");
+            ValidationUtils.requireNonNull(month, "month");
+            ValidationUtils.requireNonNull(dayOfWeek, "dayOfWeek");
+        }
+
+        @Override
+        public long getObservedEpochDay(final int year) {
+            long lastOfMonth = LocalDateUtils.toEpochDay(year, month.getValue(), month.length(LocalDateUtils.isLeapYear(year)));
+            int daysFromLast = Math.floorMod(LocalDateUtils.getDayOfWeekIndex(lastOfMonth) - dayOfWeek.ordinal(), 7);
+
+            return lastOfMonth - daysFromLast;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package churilla.mark.toolrental.model;
+
+import churilla.mark.toolrental.utility.PricingUtils;
+import churilla.mark.toolrental.utility.ValidationUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * The final prices of renting each of a list of tools for every duration from one day up to a maximum, all checked out
+ * on the same date with the same discount. The prices are held in cents in a single {@code long} array with one row
+ * per tool, and are the same as the final prices of the {@link RentalAgreement}s for the same rentals.
+ * <p>
+ * A price matrix is immutable and can be shared between threads.
+ * </p>
+ */
+public class PriceMatrix {
+    private final List<String> toolCodes;
+    private final LocalDate checkoutDate;
+    private final int maxDuration;
+    private final int discount;
+
+    // finalPriceCents[row * maxDuration + rentalDuration - 1] holds the price of the tool in the row.
+    private final long[] finalPriceCents;
+
+    /**
+     * Constructor. The array is used as it is, so it must not be changed afterwards.
+     *
+     * @param toolCodes The code of the tool in each row.
+     * @param checkoutDate The date that the rentals are checked out.
+     * @param maxDuration The longest rental duration in the matrix. Every row holds the durations from one to this.
+     * @param discount The discount rate (whole number percent) applied to every price.
+     * @param finalPriceCents The final prices in cents, row by row.
+     *
+     * @throws IllegalArgumentException if the number of prices does not match the tools and durations.
+     */
+    public PriceMatrix(final List<String> toolCodes,
+                       final LocalDate checkoutDate,
+                       final int maxDuration,
+                       final int discount,
+                       final long[] finalPriceCents) {
+        this.toolCodes = List.copyOf(ValidationUtils.requireNonNull(toolCodes, "toolCodes"));
+        this.checkoutDate = ValidationUtils.requireNonNull(checkoutDate, "checkoutDate");
+        this.finalPriceCents = ValidationUtils.requireNonNull(finalPriceCents, "finalPriceCents");
+        this.maxDuration = maxDuration;
+        this.discount = discount;
+
+        if (maxDuration < 1 || finalPriceCents.length != (long) this.toolCodes.size() * maxDuration) {
+            throw new IllegalArgumentException(String.format("Expected %s prices for %s tools and durations of 1 - %s days, but found %s.",
+                    (long) this.toolCodes.size() * maxDuration, this.toolCodes.size(), maxDuration, finalPriceCents.length));
+        }
+    }
+
+    /**
+     * Returns the code of the tool in each row.
+     *
+     * @return The tool codes, in row order.
+     */
+    public List<String> getToolCodes() {
+        return toolCodes;
+    }
+
+    /**
+     * Returns the date that the rentals are checked out.
+     *
+     * @return The checkout date.
+     */
+    public LocalDate getCheckoutDate() {
+        return checkoutDate;
+    }
+
+    /**
+     * Returns the longest rental duration in the matrix.
+     *
+     * @return The maximum duration in days.
+     */
+    public int getMaxDuration() {
+        return maxDuration;
+    }
+
+    /**
+     * Returns the discount rate applied to every price.
+     *
+     * @return The discount rate as a whole number percent.
+     */
+    public int getDiscount() {
+        return discount;
+    }
+
+    /**
+     * Returns the final price of renting the tool in a row for a number of days.
+     *
+     * @param row The row of the tool, the index of its code in {@link #getToolCodes()}.
+     * @param rentalDuration The rental duration, from one to the maximum duration.
+     *
+     * @return The final price in cents.
+     *
+     * @throws IndexOutOfBoundsException if the row or rental duration is outside the matrix.
+     */
+    public long getFinalPriceCents(final int row, final int rentalDuration) {
+        if (row < 0 || row >= toolCodes.size() || rentalDuration < 1 || rentalDuration > maxDuration) {
+            throw new IndexOutOfBoundsException(String.format("Row %s and duration %s are outside the matrix of %s rows and 1 - %s days.",
+                    row, rentalDuration, toolCodes.size(), maxDuration));
+        }
+
+        return finalPriceCents[row * maxDuration + rentalDuration - 1];
+    }
+
+    /**
+     * Returns the final price of renting the tool in a row for a number of days.
+     *
+     * @param row The row of the tool, the index of its code in {@link #getToolCodes()}.
+     * @param rentalDuration The rental duration, from one to the maximum duration.
+     *
+     * @return The final price with two decimal places.
+     *
+     * @throws IndexOutOfBoundsException if the row or rental duration is outside the matrix.
+     */
+    public BigDecimal getFinalPrice(final int row, final int rentalDuration) {
+        return PricingUtils.toDollars(getFinalPriceCents(row, rentalDuration));
+    }
+
+    /**
+     * Returns a copy of the final prices of every tool and duration.
+     *
+     * @return The final prices in cents, row by row, where the price of the tool in row {@code r} for {@code d}
+     *         days is at index {@code r * getMaxDuration() + d - 1}.
+     */
+    public long[] toArray() {
+        return finalPriceCents.clone();
+    }
+}
@@ -1,7 +1,6 @@
 package churilla.mark.toolrental.model;
 
 import churilla.mark.toolrental.utility.ValidationUtils;
-import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.util.Objects;
 
@@ -18,15 +17,15 @@ public class RentableTool {
     private final String brandName;
 
     /**
-     * Serializable / deserializable constructor.
+     * Constructor.
      *
      * @param toolCode The code used to uniquely identify the tool.
      * @param toolType {@link ToolType} to specify the type of tool. Used to determine the rental charge.
      * @param brandName The manufacturer / brand name.
      */
-    public RentableTool(@JsonProperty("toolCode") final String toolCode,
-                        @JsonProperty("toolType") final ToolType toolType,
-                        @JsonProperty("brandName") final String brandName) {
+    public RentableTool(final String toolCode,
+                        final ToolType toolType,
+                        final String brandName) {
         this.toolCode = ValidationUtils.requireNonNull(toolCode, "toolCode");
         this.toolType = ValidationUtils.requireNonNull(toolType, "toolType");
         this.brandName = ValidationUtils.requireNonNull(brandName, "brandName");
@@ -3,13 +3,12 @@ package churilla.mark.toolrental.model;
 import churilla.mark.toolrental.exception.DiscountPercentageRangeException;
 import churilla.mark.toolrental.exception.InvalidRentalDurationException;
 import churilla.mark.toolrental.exception.NegativeChargeableDaysException;
+import churilla.mark.toolrental.utility.PricingUtils;
+import churilla.mark.toolrental.utility.ReceiptRenderer;
 import churilla.mark.toolrental.utility.ValidationUtils;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.text.NumberFormat;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 
 /**
  * The RentalAgreement class is an immutable class that encapsulates the details of a rental agreement for a tool.
@@ -25,15 +24,32 @@ public class RentalAgreement {
     private final LocalDate rentalDueDate;
     private final int chargeableDays;
     private final int discount;
-    private final BigDecimal discountAmount;
-    private final BigDecimal preDiscountPrice;
-    private final BigDecimal finalPrice;
-
-    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("MM/dd/yy");
-    private static final NumberFormat CURRENCY_FORMAT = NumberFormat.getCurrencyInstance(new java.util.Locale("en", "us"));
-    private static final int MIN_DISCOUNT = 0;
-    private static final int MAX_DISCOUNT = 100;
-    private static final int MIN_RENTAL_DURATION = 1;
+    private final boolean pricedInCents;
+    private final long discountCents;
+    private final long preDiscountCents;
+    private final long finalPriceCents;
+
+    // The BigDecimal prices are created from the cents values the first time they are requested. They are immutable,
+    // so a race between threads can at worst create the same value twice.
+    private BigDecimal discountAmount;
+    private BigDecimal preDiscountPrice;
+    private BigDecimal finalPrice;
+
+    /**
+     * The lowest discount percentage that an agreement accepts.
+     */
+    public static final int MIN_DISCOUNT = 0;
+
+    /**
+     * The highest discount percentage that an agreement accepts.
+     */
+    public static final int MAX_DISCOUNT = 100;
+
+    /**
+     * The shortest rental duration in days that an agreement accepts.
+     */
+    public static final int MIN_RENTAL_DURATION = 1;
+
     private static final int MIN_CHARGEABLE_DAYS = 0;
 
     /**
@@ -54,39 +70,103 @@ public class RentalAgreement {
                            final int discount) {
         this.tool = ValidationUtils.requireNonNull(tool, "tool");
         this.checkoutDate = ValidationUtils.requireNonNull(checkoutDate, "checkoutDate");
+        validate(rentalDuration, chargeableDays, discount);
 
-        if (rentalDuration < MIN_RENTAL_DURATION) {
-            throw new InvalidRentalDurationException(String.format("The rental duration %s is invalid. Please re-enter a value of 1 or greater.", rentalDuration));
-        }
+        this.rentalDuration = rentalDuration;
+        this.chargeableDays = chargeableDays;
+        this.discount = discount;
 
-        if (discount < MIN_DISCOUNT || discount > MAX_DISCOUNT) {
-            throw new DiscountPercentageRangeException(String.format("The value %s for the discount percentage is invalid. Please provide a number between 0 and 100.", discount));
-        }
+        // Calculate the pre-discount price, the discount amount, and the final price. The prices are calculated in
+        // cents unless they are too large to be held in a long, in which case BigDecimal arithmetic is used.
+        ToolType toolType = tool.getToolType();
+        pricedInCents = PricingUtils.fitsInCents(toolType.getDailyChargeCents(), chargeableDays);
 
-        if (chargeableDays < MIN_CHARGEABLE_DAYS) {
-            throw new NegativeChargeableDaysException(String.format("Invalid calculation of chargeable days: %s. Must be 0 or greater", chargeableDays));
+        if (pricedInCents) {
+            preDiscountCents = PricingUtils.calculatePreDiscountCents(toolType.getDailyChargeCents(), chargeableDays);
+            discountCents = PricingUtils.calculateDiscountCents(preDiscountCents, discount);
+            finalPriceCents = preDiscountCents - discountCents;
+        } else {
+            preDiscountPrice = PricingUtils.calculatePreDiscountPrice(toolType.getDailyCharge(), chargeableDays);
+            discountAmount = PricingUtils.calculateDiscountAmount(preDiscountPrice, discount);
+            finalPrice = PricingUtils.calculateFinalPrice(preDiscountPrice, discountAmount);
+
+            preDiscountCents = 0;
+            discountCents = 0;
+            finalPriceCents = 0;
         }
 
+        rentalDueDate = checkoutDate.plusDays(rentalDuration);
+    }
+
+    /**
+     * Constructor for a rental that has already been priced in cents, e.g. by a quote cache that holds the prices of
+     * earlier rentals with the same tool type, checkout date, duration and discount. The prices are used as they are
+     * and are not calculated again, so they must be the prices that
+     * {@link #RentalAgreement(RentableTool, int, LocalDate, int, int)} calculates for the same values.
+     *
+     * @param tool  The {@link RentableTool} that is being rented.
+     * @param rentalDuration The duration in days of the rental.
+     * @param checkoutDate  The date that the rental was checked out. The rental charges start the day after.
+     * @param chargeableDays  The number of days that the customer will be charged.
+     * @param discount The discount rate (whole number percent) to apply to the final price.
+     * @param preDiscountCents The price of the rental in cents before the discount.
+     * @param discountCents The discount amount in cents.
+     */
+    public RentalAgreement(final RentableTool tool,
+                           final int rentalDuration,
+                           final LocalDate checkoutDate,
+                           final int chargeableDays,
+                           final int discount,
+                           final long preDiscountCents,
+                           final long discountCents) {
+        this.tool = ValidationUtils.requireNonNull(tool, "tool");
+        this.checkoutDate = ValidationUtils.requireNonNull(checkoutDate, "checkoutDate");
+        validate(rentalDuration, chargeableDays, discount);
+
         this.rentalDuration = rentalDuration;
         this.chargeableDays = chargeableDays;
         this.discount = discount;
+        this.pricedInCents = true;
+        this.preDiscountCents = preDiscountCents;
+        this.discountCents = discountCents;
+        this.finalPriceCents = preDiscountCents - discountCents;
+        this.rentalDueDate = checkoutDate.plusDays(rentalDuration);
+    }
 
-        BigDecimal discountPct = BigDecimal.valueOf(discount)
-                                           .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
-
-        // Calculate the pre-discount price, the discount amount, and the final price.
-        preDiscountPrice = tool.getToolType()
-                .getDailyCharge()
-                .multiply(BigDecimal.valueOf(chargeableDays))
-                .setScale(2, RoundingMode.HALF_UP);
+    /**
+     * Returns the tool that is being rented.
+     *
+     * @return The rented {@link RentableTool}.
+     */
+    public RentableTool getTool() {
+        return tool;
+    }
 
-        discountAmount = preDiscountPrice.multiply(discountPct)
-                                         .setScale(2, RoundingMode.HALF_UP);
+    /**
+     * Returns the duration of the rental.
+     *
+     * @return The number of days that the tool is rented for.
+     */
+    public int getRentalDuration() {
+        return rentalDuration;
+    }
 
-        finalPrice = preDiscountPrice.subtract(discountAmount)
-                                     .setScale(2, RoundingMode.HALF_UP);
+    /**
+     * Returns the date that the rental was checked out.
+     *
+     * @return The checkout date. Rental charges start the day after.
+     */
+    public LocalDate getCheckoutDate() {
+        return checkoutDate;
+    }
 
-        rentalDueDate = checkoutDate.plusDays(rentalDuration);
+    /**
+     * Returns the discount rate.
+     *
+     * @return The discount rate as a whole number percent.
+     */
+    public int getDiscount() {
+        return discount;
     }
 
     /**
@@ -104,7 +184,13 @@ public class RentalAgreement {
      * @return The amount that is subtracted to give the final price.
      */
     public BigDecimal getDiscountAmount() {
-        return discountAmount;
+        BigDecimal amount = discountAmount;
+        if (amount == null) {
+            amount = PricingUtils.toDollars(discountCents);
+            discountAmount = amount;
+        }
+
+        return amount;
     }
 
     /**
@@ -113,7 +199,13 @@ public class RentalAgreement {
      * @return The total price of the rental prior to having the discount applied.
      */
     public BigDecimal getPreDiscountPrice() {
-        return preDiscountPrice;
+        BigDecimal price = preDiscountPrice;
+        if (price == null) {
+            price = PricingUtils.toDollars(preDiscountCents);
+            preDiscountPrice = price;
+        }
+
+        return price;
     }
 
     /**
@@ -122,7 +214,53 @@ public class RentalAgreement {
      * @return The final price of the rental after the discount has been applied.
      */
     public BigDecimal getFinalPrice() {
-        return finalPrice;
+        BigDecimal price = finalPrice;
+        if (price == null) {
+            price = PricingUtils.toDollars(finalPriceCents);
+            finalPrice = price;
+        }
+
+        return price;
+    }
+
+    /**
+     * Returns the precalculated discount amount in cents.
+     *
+     * @return The amount in cents that is subtracted to give the final price.
+     * @throws ArithmeticException if the amount is too large to be held in a long.
+     */
+    public long getDiscountCents() {
+        return pricedInCents ? discountCents : toCents(discountAmount);
+    }
+
+    /**
+     * Returns the precalculated pre-discount price in cents.
+     *
+     * @return The total price of the rental in cents prior to having the discount applied.
+     * @throws ArithmeticException if the price is too large to be held in a long.
+     */
+    public long getPreDiscountCents() {
+        return pricedInCents ? preDiscountCents : toCents(preDiscountPrice);
+    }
+
+    /**
+     * Returns the precalculated final price of the rental in cents.
+     *
+     * @return The final price of the rental in cents after the discount has been applied.
+     * @throws ArithmeticException if the price is too large to be held in a long.
+     */
+    public long getFinalPriceCents() {
+        return pricedInCents ? finalPriceCents : toCents(finalPrice);
+    }
+
+    /**
+     * Specifies if the prices were calculated in cents. Prices that are too large to be held in cents are calculated
+     * with {@link BigDecimal} arithmetic instead.
+     *
+     * @return True if the prices are held in cents, false otherwise.
+     */
+    public boolean isPricedInCents() {
+        return pricedInCents;
     }
 
     /**
@@ -136,36 +274,36 @@ public class RentalAgreement {
 
     /**
      * Overridden toString() method. Prints out the details of the rental agreement in a formatted fashion.
+     * The text is produced by {@link ReceiptRenderer}, which can also write it directly into an {@link Appendable}.
      *
      * @return A formatted, human-readable string of the rental agreement.
      */
     @Override
     public String toString() {
-        return """
-        Tool code: %s
-        Tool type: %s
-        Brand: %s
-        Checkout date: %s
-        Rental duration: %s days
-        Due date: %s
-        Daily rental charge: %s
-        Charged days: %s days
-        Charge before discount: %s
-        Discount rate: %s%%
-        Total discount: %s
-        Final charge: %s
-        """
-        .formatted(tool.getToolCode(),
-                tool.getToolType().getName(),
-                tool.getBrandName(),
-                checkoutDate.format(DATE_TIME_FORMATTER),
-                rentalDuration,
-                rentalDueDate.format(DATE_TIME_FORMATTER),
-                CURRENCY_FORMAT.format(tool.getToolType().getDailyCharge()),
-                chargeableDays,
-                CURRENCY_FORMAT.format(preDiscountPrice),
-                discount,
-                CURRENCY_FORMAT.format(discountAmount),
-                CURRENCY_FORMAT.format(finalPrice));
+        return ReceiptRenderer.render(this);
+    }
+
+    /**
+     * Throws an exception if the rental duration, chargeable days or discount are outside their ranges.
+     */
+    private static void validate(final int rentalDuration, final int chargeableDays, final int discount) {
+        if (rentalDuration < MIN_RENTAL_DURATION) {
+            throw new InvalidRentalDurationException(CheckoutError.INVALID_RENTAL_DURATION.message(rentalDuration));
+        }
+
+        if (discount < MIN_DISCOUNT || discount > MAX_DISCOUNT) {
+            throw new DiscountPercentageRangeException(CheckoutError.INVALID_DISCOUNT.message(discount));
+        }
+
+        if (chargeableDays < MIN_CHARGEABLE_DAYS) {
+            throw new NegativeChargeableDaysException(CheckoutError.NEGATIVE_CHARGEABLE_DAYS.message(chargeableDays));
+        }
+    }
+
+    /**
+     * Converts a price with two decimal places to cents.
+     */
+    private static long toCents(final BigDecimal price) {
+        return price.unscaledValue().longValueExact();
     }
 }
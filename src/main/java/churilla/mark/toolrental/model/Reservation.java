@@ -0,0 +1,42 @@
+package churilla.mark.toolrental.model;
+
+import churilla.mark.toolrental.utility.ValidationUtils;
+
+import java.time.LocalDate;
+
+/**
+ * The period during which a tool is rented out, recorded in the inventory ledger. The tool leaves on the start date
+ * and is back on the end date, so the end date is not part of the reservation and a new rental may start on it.
+ *
+ * @param toolCode The code of the rented tool.
+ * @param startDate The first day of the reservation (the checkout date).
+ * @param endDate The day after the last day of the reservation (the due date).
+ */
+public record Reservation(String toolCode, LocalDate startDate, LocalDate endDate) {
+
+    /**
+     * Constructor.
+     *
+     * @throws IllegalArgumentException if the end date is not after the start date.
+     */
+    public Reservation {
+        ValidationUtils.requireNonNull(toolCode, "toolCode");
+        ValidationUtils.requireNonNull(startDate, "startDate");
+        ValidationUtils.requireNonNull(endDate, "endDate");
+
+        if (!endDate.isAfter(startDate)) {
+            throw new IllegalArgumentException(String.format("The end date %s must be after the start date %s.", endDate, startDate));
+        }
+    }
+
+    /**
+     * Creates the reservation of a rental agreement, from its checkout date to its due date.
+     *
+     * @param agreement The rental agreement.
+     *
+     * @return The reservation covering the rental period.
+     */
+    public static Reservation of(final RentalAgreement agreement) {
+        return new Reservation(agreement.getTool().getToolCode(), agreement.getCheckoutDate(), agreement.getRentalDueDate());
+    }
+}
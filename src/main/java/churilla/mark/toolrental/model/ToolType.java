@@ -1,12 +1,10 @@
 package churilla.mark.toolrental.model;
 
+import churilla.mark.toolrental.utility.ReceiptRenderer;
 import churilla.mark.toolrental.utility.ValidationUtils;
-import com.fasterxml.jackson.annotation.JsonCreator;
-import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.text.NumberFormat;
 import java.util.Objects;
 
 /**
@@ -16,15 +14,26 @@ import java.util.Objects;
 public class ToolType {
     private final String name;
     private final BigDecimal dailyCharge;
+    private final long dailyChargeCents;
     private final boolean hasWeekdayCharge;
     private final boolean hasWeekendCharge;
     private final boolean hasHolidayCharge;
+    private final int chargeMask;
 
-    // Formatter to display the currency values as US dollar strings.
-    private static final NumberFormat CURRENCY_FORMAT = NumberFormat.getCurrencyInstance(new java.util.Locale("en", "us"));
+    /** Bit set in the charge mask when the tool type is charged on weekdays. */
+    public static final int WEEKDAY_CHARGE = 1;
+
+    /** Bit set in the charge mask when the tool type is charged on weekends. */
+    public static final int WEEKEND_CHARGE = 2;
+
+    /** Bit set in the charge mask when the tool type is charged on observed holidays. */
+    public static final int HOLIDAY_CHARGE = 4;
+
+    /** The number of distinct charge masks (every combination of the three charge flags). */
+    public static final int CHARGE_MASK_COUNT = 8;
 
     /**
-     * Serializable / deserializable constructor.
+     * Constructor.
      *
      * @param name The name of the tool.
      * @param dailyCharge The amount this tool costs for each day it is rented.
@@ -32,18 +41,23 @@ public class ToolType {
      * @param hasWeekendCharge Whether to charge for this tool on a weekend.
      * @param hasHolidayCharge Whether to charge for this tool on an observed holiday.
      */
-    @JsonCreator
-    public ToolType(@JsonProperty("name") final String name,
-                    @JsonProperty("dailyCharge") final BigDecimal dailyCharge,
-                    @JsonProperty("hasWeekdayCharge") final boolean hasWeekdayCharge,
-                    @JsonProperty("hasWeekendCharge") final boolean hasWeekendCharge,
-                    @JsonProperty("hasHolidayCharge") final boolean hasHolidayCharge) {
+    public ToolType(final String name,
+                    final BigDecimal dailyCharge,
+                    final boolean hasWeekdayCharge,
+                    final boolean hasWeekendCharge,
+                    final boolean hasHolidayCharge) {
 
         this.name = ValidationUtils.requireNonNull(name, "name");
         this.dailyCharge = ValidationUtils.requireNonNull(dailyCharge, "dailyCharge").setScale(2, RoundingMode.HALF_UP);
+        this.dailyChargeCents = this.dailyCharge.unscaledValue().bitLength() < Long.SIZE
+                ? this.dailyCharge.unscaledValue().longValue()
+                : Long.MIN_VALUE;
         this.hasWeekdayCharge = hasWeekdayCharge;
         this.hasWeekendCharge = hasWeekendCharge;
         this.hasHolidayCharge = hasHolidayCharge;
+        this.chargeMask = (hasWeekdayCharge ? WEEKDAY_CHARGE : 0)
+                | (hasWeekendCharge ? WEEKEND_CHARGE : 0)
+                | (hasHolidayCharge ? HOLIDAY_CHARGE : 0);
     }
 
     //
@@ -68,6 +82,16 @@ public class ToolType {
         return dailyCharge;
     }
 
+    /**
+     * Returns the amount that the tool is charged for each day it is rented, in cents. The value is converted
+     * once when the tool type is created.
+     *
+     * @return The daily charge in cents, or {@link Long#MIN_VALUE} if the charge is too large to be held in a long.
+     */
+    public long getDailyChargeCents() {
+        return dailyChargeCents;
+    }
+
     /**
      * Specifies if this tool type has a daily charge applied during a weekday.
      *
@@ -95,23 +119,23 @@ public class ToolType {
         return hasHolidayCharge;
     }
 
+    /**
+     * Returns the charge flags of this tool type combined into a single value, using the {@link #WEEKDAY_CHARGE},
+     * {@link #WEEKEND_CHARGE} and {@link #HOLIDAY_CHARGE} bits. Tool types with the same mask are charged on
+     * exactly the same days.
+     *
+     * @return A value from 0 to 7 representing the charging policy of this tool type.
+     */
+    public int getChargeMask() {
+        return chargeMask;
+    }
+
     //
     // Overrides
     //
     @Override
     public String toString() {
-        return """
-                Name: %s
-                Daily charge: %s
-                Weekday charge: %s
-                Weekend charge: %s
-                Holiday charge: %s
-                """
-                .formatted(name,
-                       CURRENCY_FORMAT.format(dailyCharge),
-                       hasWeekdayCharge,
-                       hasWeekendCharge,
-                       hasHolidayCharge);
+        return ReceiptRenderer.render(this);
     }
 
     @Override
@@ -0,0 +1,93 @@
+package churilla.mark.toolrental.model;
+
+import churilla.mark.toolrental.utility.ValidationUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A pool of canonical {@link ToolType} instances (flyweights).
+ * <p>
+ * Many tools share the same type, but a catalog file stores a separate copy of the type with every tool. Interning
+ * each type as it is loaded replaces equal copies with a single shared instance, so the catalog only keeps one
+ * object per distinct type, along with the values precomputed by that type (its charge mask and its daily charge in
+ * cents). Types can be looked up by their field values, so a {@link ToolType} is only constructed the first time a
+ * value is seen. Types are compared the same way as {@link ToolType#equals(Object)}.
+ * </p><p>
+ * The pool is safe to use from many threads.
+ * </p>
+ */
+public class ToolTypePool {
+    private final Map<Key, ToolType> canonicalTypes = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the canonical instance of the tool type. The first instance interned for a given value becomes the
+     * canonical instance, and every equal type interned afterwards is replaced by it.
+     *
+     * @param toolType The tool type to intern.
+     *
+     * @return The shared {@link ToolType} equal to the given type.
+     */
+    public ToolType intern(final ToolType toolType) {
+        ValidationUtils.requireNonNull(toolType, "toolType");
+
+        ToolType canonical = canonicalTypes.putIfAbsent(Key.of(toolType), toolType);
+
+        return canonical != null ? canonical : toolType;
+    }
+
+    /**
+     * Returns the canonical instance of the tool type with the given values. A new {@link ToolType} is only
+     * constructed if the pool does not already hold an equal type.
+     *
+     * @param name The name of the tool.
+     * @param dailyCharge The amount this tool costs for each day it is rented.
+     * @param hasWeekdayCharge Whether to charge for this tool on a weekday.
+     * @param hasWeekendCharge Whether to charge for this tool on a weekend.
+     * @param hasHolidayCharge Whether to charge for this tool on an observed holiday.
+     *
+     * @return The shared {@link ToolType} with the given values.
+     */
+    public ToolType intern(final String name,
+                           final BigDecimal dailyCharge,
+                           final boolean hasWeekdayCharge,
+                           final boolean hasWeekendCharge,
+                           final boolean hasHolidayCharge) {
+        ValidationUtils.requireNonNull(name, "name");
+        ValidationUtils.requireNonNull(dailyCharge, "dailyCharge");
+
+        Key key = new Key(name, dailyCharge.setScale(2, RoundingMode.HALF_UP), hasWeekdayCharge, hasWeekendCharge, hasHolidayCharge);
+        ToolType canonical = canonicalTypes.get(key);
+
+        return canonical != null
+                ? canonical
+                : canonicalTypes.computeIfAbsent(key, k -> new ToolType(name, dailyCharge, hasWeekdayCharge, hasWeekendCharge, hasHolidayCharge));
+    }
+
+    /**
+     * Returns the number of distinct tool types in the pool.
+     *
+     * @return The number of canonical instances.
+     */
+    public int size() {
+        return canonicalTypes.size();
+    }
+
+    /**
+     * The values that identify a tool type. The daily charge is held at the scale used by {@link ToolType}, so keys
+     * are equal exactly when the types they describe are equal.
+     */
+    private record Key(String name,
+                       BigDecimal dailyCharge,
+                       boolean hasWeekdayCharge,
+                       boolean hasWeekendCharge,
+                       boolean hasHolidayCharge) {
+
+        static Key of(final ToolType toolType) {
+            return new Key(toolType.getName(), toolType.getDailyCharge(), toolType.hasWeekdayCharge(),
+                    toolType.hasWeekendCharge(), toolType.hasHolidayCharge());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package churilla.mark.toolrental.repository;
+
+import churilla.mark.toolrental.model.RentableTool;
+import churilla.mark.toolrental.utility.ValidationUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link ToolCatalog} that holds every tool in a map. The map is filled once when the catalog is created and is
+ * never modified afterwards. The tools are also indexed by the name of their tool type.
+ */
+public class InMemoryToolCatalog implements ToolCatalog {
+    private final Map<String, RentableTool> rentableToolMap;
+    private final List<RentableTool> allTools;
+    private final Map<String, List<RentableTool>> toolsByTypeName;
+
+    /**
+     * Constructor. The catalog takes ownership of the map, which must not be modified afterwards.
+     *
+     * @param rentableToolMap The tools in the catalog, keyed by tool code.
+     */
+    public InMemoryToolCatalog(final Map<String, RentableTool> rentableToolMap) {
+        this.rentableToolMap = ValidationUtils.requireNonNull(rentableToolMap, "rentableToolMap");
+
+        List<RentableTool> tools = new ArrayList<>(rentableToolMap.values());
+        tools.sort(Comparator.comparing(RentableTool::getToolCode));
+        this.allTools = Collections.unmodifiableList(tools);
+
+        Map<String, List<RentableTool>> byTypeName = new HashMap<>();
+        for (RentableTool tool : tools) {
+            byTypeName.computeIfAbsent(tool.getToolType().getName(), name -> new ArrayList<>()).add(tool);
+        }
+        byTypeName.replaceAll((name, typeTools) -> Collections.unmodifiableList(typeTools));
+        this.toolsByTypeName = byTypeName;
+    }
+
+    /**
+     * Reads a catalog from a stream in the ToolDb.json format. When a tool code appears more than once, the first
+     * tool with that code is kept.
+     *
+     * @param inputStream The stream containing the JSON array of tools. It is not closed by this method.
+     *
+     * @return The catalog that was read.
+     *
+     * @throws IOException if the stream cannot be read or does not contain a valid array of tools.
+     */
+    public static InMemoryToolCatalog read(final InputStream inputStream) throws IOException {
+        Map<String, RentableTool> rentableToolMap = new HashMap<>();
+
+        // Add each tool to the map as soon as it is parsed, using the tool code as the key.
+        ToolJsonReader.readTools(inputStream, tool -> rentableToolMap.putIfAbsent(tool.getToolCode(), tool));
+
+        return new InMemoryToolCatalog(rentableToolMap);
+    }
+
+    /**
+     * Reads a catalog from a file in the ToolDb.json format. When a tool code appears more than once, the first tool
+     * with that code is kept.
+     *
+     * @param toolFile The path of the JSON tool file.
+     *
+     * @return The catalog that was read.
+     *
+     * @throws IOException if the file cannot be read or does not contain a valid array of tools.
+     */
+    public static InMemoryToolCatalog read(final Path toolFile) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(toolFile)) {
+            return read(inputStream);
+        }
+    }
+
+    @Override
+    public RentableTool findByCode(final String toolCode) {
+        return rentableToolMap.get(toolCode);
+    }
+
+    @Override
+    public List<RentableTool> findAll() {
+        return allTools;
+    }
+
+    @Override
+    public List<RentableTool> findByTypeName(final String toolTypeName) {
+        return toolsByTypeName.getOrDefault(toolTypeName, List.of());
+    }
+
+    @Override
+    public int size() {
+        return rentableToolMap.size();
+    }
+}
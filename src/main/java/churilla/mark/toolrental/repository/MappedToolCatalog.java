@@ -0,0 +1,329 @@
+package churilla.mark.toolrental.repository;
+
+import churilla.mark.toolrental.exception.ToolDataInitializationException;
+import churilla.mark.toolrental.model.RentableTool;
+import churilla.mark.toolrental.model.ToolType;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A {@link ToolCatalog} that reads a binary catalog file, created by {@link ToolCatalogCompiler}, through a
+ * memory-mapped buffer.
+ * <p>
+ * Opening the catalog maps the file and only checks the header and the boundaries of the tables, so it takes the
+ * same time for any number of tools. Tool codes are resolved with a binary search directly on the mapped buffer, and
+ * the {@link RentableTool} and {@link ToolType} objects are only created the first time they are looked up. Each table
+ * entry is checked when it is read, so a corrupt entry is reported with a {@link ToolDataInitializationException}
+ * when it is first touched.
+ * </p><p>
+ * The file format (all values big-endian) is:
+ * </p>
+ * <pre>
+ * header:      int magic, int version, int typeCount, int toolCount,
+ *              int typeTableOffset, int toolTableOffset, int stringPoolOffset, int stringPoolLength
+ * type table:  typeCount entries of int nameOffset, int nameLength, long dailyChargeCents, int chargeMask
+ * tool table:  toolCount entries of int codeOffset, int codeLength, int brandOffset, int brandLength, int typeIndex,
+ *              sorted by the UTF-8 bytes of the tool code
+ * string pool: UTF-8 text referenced by the offsets above (relative to the start of the pool)
+ * </pre>
+ */
+public class MappedToolCatalog implements ToolCatalog {
+    static final int MAGIC = 0x54434154; // "TCAT"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int TYPE_ENTRY_SIZE = 20;
+    static final int TOOL_ENTRY_SIZE = 20;
+
+    // Returned by compareAscii() when the tool code contains characters that are not ASCII.
+    private static final int NOT_ASCII = Integer.MIN_VALUE;
+
+    private final ByteBuffer buffer;
+    private final int typeTableOffset;
+    private final int toolTableOffset;
+    private final int stringPoolOffset;
+    private final int stringPoolLength;
+    private final int toolCount;
+
+    // Objects created from the catalog, indexed the same as the type and tool tables. Entries stay null until the
+    // object is first requested.
+    private final AtomicReferenceArray<ToolType> toolTypes;
+    private final AtomicReferenceArray<RentableTool> tools;
+
+    /**
+     * Constructor. Reads the catalog from a buffer containing the binary catalog format.
+     *
+     * @param buffer The buffer holding the catalog, typically memory-mapped from a file.
+     *
+     * @throws IOException if the buffer does not contain a valid catalog.
+     */
+    public MappedToolCatalog(final ByteBuffer buffer) throws IOException {
+        this.buffer = buffer.asReadOnlyBuffer();
+
+        if (this.buffer.capacity() < HEADER_SIZE || this.buffer.getInt(0) != MAGIC) {
+            throw new IOException("The file is not a binary tool catalog.");
+        }
+
+        if (this.buffer.getInt(4) != VERSION) {
+            throw new IOException(String.format("Unsupported tool catalog version %s.", this.buffer.getInt(4)));
+        }
+
+        int typeCount = this.buffer.getInt(8);
+        this.toolCount = this.buffer.getInt(12);
+        this.typeTableOffset = this.buffer.getInt(16);
+        this.toolTableOffset = this.buffer.getInt(20);
+        this.stringPoolOffset = this.buffer.getInt(24);
+
+        this.stringPoolLength = this.buffer.getInt(28);
+        if (typeCount < 0 || toolCount < 0 || stringPoolLength < 0
+                || typeTableOffset < HEADER_SIZE
+                || typeTableOffset + (long) typeCount * TYPE_ENTRY_SIZE > toolTableOffset
+                || toolTableOffset + (long) toolCount * TOOL_ENTRY_SIZE > stringPoolOffset
+                || (long) stringPoolOffset + stringPoolLength != this.buffer.capacity()) {
+            throw new IOException("The tool catalog file is truncated or corrupt.");
+        }
+
+        this.toolTypes = new AtomicReferenceArray<>(typeCount);
+        this.tools = new AtomicReferenceArray<>(toolCount);
+    }
+
+    /**
+     * Opens a binary catalog file by memory-mapping it. Only the header is read; the tables are not read until tools
+     * are looked up.
+     *
+     * @param catalogFile The path of the catalog file created by {@link ToolCatalogCompiler}.
+     *
+     * @return The opened catalog.
+     *
+     * @throws IOException if the file cannot be mapped or is not a valid catalog.
+     */
+    public static MappedToolCatalog open(final Path catalogFile) throws IOException {
+        // The mapping remains valid after the channel is closed.
+        try (FileChannel channel = FileChannel.open(catalogFile, StandardOpenOption.READ)) {
+            return new MappedToolCatalog(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    @Override
+    public RentableTool findByCode(final String toolCode) {
+        int index = indexOf(toolCode);
+
+        return index < 0 ? null : getTool(index);
+    }
+
+    @Override
+    public List<RentableTool> findAll() {
+        List<RentableTool> allTools = new ArrayList<>(toolCount);
+        for (int index = 0; index < toolCount; index++) {
+            allTools.add(getTool(index));
+        }
+
+        return Collections.unmodifiableList(allTools);
+    }
+
+    @Override
+    public List<RentableTool> findByTypeName(final String toolTypeName) {
+        // Tool types are not sorted, but there are only a few of them. Find the matching types first, so that only
+        // the tools of those types are created.
+        byte[] encodedName = toolTypeName.getBytes(StandardCharsets.UTF_8);
+        boolean[] matchingTypes = new boolean[toolTypes.length()];
+        boolean anyMatch = false;
+
+        for (int typeIndex = 0; typeIndex < matchingTypes.length; typeIndex++) {
+            int entry = typeTableOffset + typeIndex * TYPE_ENTRY_SIZE;
+            checkString(entry);
+            matchingTypes[typeIndex] = compareBytes(stringPoolOffset + buffer.getInt(entry), buffer.getInt(entry + 4), encodedName) == 0;
+            anyMatch |= matchingTypes[typeIndex];
+        }
+
+        if (!anyMatch) {
+            return List.of();
+        }
+
+        List<RentableTool> typeTools = new ArrayList<>();
+        for (int index = 0; index < toolCount; index++) {
+            if (matchingTypes[getTypeIndex(index)]) {
+                typeTools.add(getTool(index));
+            }
+        }
+
+        return Collections.unmodifiableList(typeTools);
+    }
+
+    @Override
+    public int size() {
+        return toolCount;
+    }
+
+    /**
+     * Returns the tool at the given index of the tool table, creating it on first use.
+     */
+    private RentableTool getTool(final int index) {
+        RentableTool tool = tools.get(index);
+        if (tool == null) {
+            int entry = toolTableOffset + index * TOOL_ENTRY_SIZE;
+            tool = new RentableTool(readString(entry),
+                    getToolType(getTypeIndex(index)),
+                    readString(entry + 8));
+
+            // Another thread may have created the same tool. Keep whichever was stored first.
+            if (!tools.compareAndSet(index, null, tool)) {
+                tool = tools.get(index);
+            }
+        }
+
+        return tool;
+    }
+
+    /**
+     * Returns the tool type at the given index of the type table, creating it on first use.
+     */
+    private ToolType getToolType(final int index) {
+        ToolType toolType = toolTypes.get(index);
+        if (toolType == null) {
+            int entry = typeTableOffset + index * TYPE_ENTRY_SIZE;
+            int chargeMask = buffer.getInt(entry + 16);
+
+            toolType = new ToolType(readString(entry),
+                    BigDecimal.valueOf(buffer.getLong(entry + 8), 2),
+                    (chargeMask & ToolType.WEEKDAY_CHARGE) != 0,
+                    (chargeMask & ToolType.WEEKEND_CHARGE) != 0,
+                    (chargeMask & ToolType.HOLIDAY_CHARGE) != 0);
+
+            if (!toolTypes.compareAndSet(index, null, toolType)) {
+                toolType = toolTypes.get(index);
+            }
+        }
+
+        return toolType;
+    }
+
+    /**
+     * Finds the index of the tool code in the sorted tool table with a binary search.
+     *
+     * @return The index of the tool, or -1 if it is not in the catalog.
+     */
+    private int indexOf(final String toolCode) {
+        byte[] encodedCode = null;
+        int low = 0;
+        int high = toolCount - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = toolTableOffset + mid * TOOL_ENTRY_SIZE;
+            checkString(entry);
+            int codeOffset = stringPoolOffset + buffer.getInt(entry);
+            int codeLength = buffer.getInt(entry + 4);
+
+            int comparison = compareAscii(codeOffset, codeLength, toolCode);
+            if (comparison == NOT_ASCII) {
+                // Only codes outside of ASCII need to be encoded to compare them with the stored UTF-8 bytes.
+                if (encodedCode == null) {
+                    encodedCode = toolCode.getBytes(StandardCharsets.UTF_8);
+                }
+                comparison = compareBytes(codeOffset, codeLength, encodedCode);
+            }
+
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Compares the stored UTF-8 code with an ASCII tool code without encoding it. For ASCII text, comparing
+     * characters gives the same order as comparing the unsigned UTF-8 bytes.
+     */
+    private int compareAscii(final int offset, final int length, final String toolCode) {
+        int commonLength = Math.min(length, toolCode.length());
+
+        for (int i = 0; i < commonLength; i++) {
+            char c = toolCode.charAt(i);
+            if (c >= 0x80) {
+                return NOT_ASCII;
+            }
+
+            int difference = (buffer.get(offset + i) & 0xFF) - c;
+            if (difference != 0) {
+                return difference;
+            }
+        }
+
+        for (int i = commonLength; i < toolCode.length(); i++) {
+            if (toolCode.charAt(i) >= 0x80) {
+                return NOT_ASCII;
+            }
+        }
+
+        return Integer.compare(length, toolCode.length());
+    }
+
+    /**
+     * Compares the stored UTF-8 code with the UTF-8 bytes of a tool code, treating the bytes as unsigned.
+     */
+    private int compareBytes(final int offset, final int length, final byte[] encodedCode) {
+        int commonLength = Math.min(length, encodedCode.length);
+
+        for (int i = 0; i < commonLength; i++) {
+            int difference = (buffer.get(offset + i) & 0xFF) - (encodedCode[i] & 0xFF);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+
+        return Integer.compare(length, encodedCode.length);
+    }
+
+    /**
+     * Returns the type index of the tool at the given index of the tool table, checking that the type exists.
+     */
+    private int getTypeIndex(final int index) {
+        int typeIndex = buffer.getInt(toolTableOffset + index * TOOL_ENTRY_SIZE + 16);
+        if (typeIndex < 0 || typeIndex >= toolTypes.length()) {
+            throw new ToolDataInitializationException(
+                    String.format("Tool %s of the tool catalog has the invalid type index %s.", index, typeIndex));
+        }
+
+        return typeIndex;
+    }
+
+    /**
+     * Checks that the string whose offset and length are stored at the given position lies within the string pool.
+     */
+    private void checkString(final int position) {
+        int offset = buffer.getInt(position);
+        int length = buffer.getInt(position + 4);
+
+        if (offset < 0 || length < 0 || (long) offset + length > stringPoolLength) {
+            throw new ToolDataInitializationException(
+                    String.format("The string at %s of the tool catalog is outside the string pool.", position));
+        }
+    }
+
+    /**
+     * Reads the UTF-8 text whose offset and length are stored at the given position from the string pool.
+     */
+    private String readString(final int position) {
+        checkString(position);
+
+        byte[] bytes = new byte[buffer.getInt(position + 4)];
+        buffer.get(stringPoolOffset + buffer.getInt(position), bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
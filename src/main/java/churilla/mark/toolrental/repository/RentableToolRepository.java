@@ -0,0 +1,44 @@
+package churilla.mark.toolrental.repository;
+
+import churilla.mark.toolrental.model.RentableTool;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A source of rentable tool data that {@link churilla.mark.toolrental.service.ToolService} reads from.
+ * <p>
+ * {@link ToolRepository} reads the tools from a local catalog. Other implementations may read from a remote document
+ * store, in which case lookups can be slow and should be cached by the service. Implementations must be safe to use
+ * from many threads.
+ * </p>
+ */
+public interface RentableToolRepository {
+
+    /**
+     * Returns a tool based on the provided tool code.
+     *
+     * @param toolCode The unique identifier for the tool to retrieve.
+     *
+     * @return An Optional of the {@link RentableTool} associated with the code, or empty if the code is null or no
+     *         tool exists with the code.
+     */
+    Optional<RentableTool> getRentableToolByCode(String toolCode);
+
+    /**
+     * Returns every tool in the repository.
+     *
+     * @return An unmodifiable list of the tools, ordered by tool code.
+     */
+    List<RentableTool> getRentableTools();
+
+    /**
+     * Returns the tools whose tool type has the given name.
+     *
+     * @param toolTypeName The name of the tool type, e.g. "Jackhammer".
+     *
+     * @return An unmodifiable list of the matching tools, ordered by tool code. Empty if the name is null or no tool
+     *         has the type.
+     */
+    List<RentableTool> getRentableToolsByTypeName(String toolTypeName);
+}
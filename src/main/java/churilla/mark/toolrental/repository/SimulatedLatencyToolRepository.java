@@ -0,0 +1,75 @@
+package churilla.mark.toolrental.repository;
+
+import churilla.mark.toolrental.model.RentableTool;
+import churilla.mark.toolrental.utility.ValidationUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A {@link RentableToolRepository} that waits for a fixed time before each lookup, standing in for a remote document
+ * store. It is used to measure the effect of caching in {@link churilla.mark.toolrental.service.ToolService} without
+ * an external service.
+ */
+public class SimulatedLatencyToolRepository implements RentableToolRepository {
+    private final RentableToolRepository delegate;
+    private final long latencyNanos;
+    private final LongAdder lookupCount = new LongAdder();
+
+    /**
+     * Constructor.
+     *
+     * @param delegate The repository that answers the lookups.
+     * @param latency The time to wait before each lookup.
+     */
+    public SimulatedLatencyToolRepository(final RentableToolRepository delegate, final Duration latency) {
+        this.delegate = ValidationUtils.requireNonNull(delegate, "delegate");
+        this.latencyNanos = ValidationUtils.requireNonNull(latency, "latency").toNanos();
+    }
+
+    @Override
+    public Optional<RentableTool> getRentableToolByCode(final String toolCode) {
+        simulateLatency();
+
+        return delegate.getRentableToolByCode(toolCode);
+    }
+
+    @Override
+    public List<RentableTool> getRentableTools() {
+        simulateLatency();
+
+        return delegate.getRentableTools();
+    }
+
+    @Override
+    public List<RentableTool> getRentableToolsByTypeName(final String toolTypeName) {
+        simulateLatency();
+
+        return delegate.getRentableToolsByTypeName(toolTypeName);
+    }
+
+    /**
+     * Returns the number of lookups that have reached this repository.
+     *
+     * @return The number of lookups.
+     */
+    public long getLookupCount() {
+        return lookupCount.sum();
+    }
+
+    /**
+     * Counts the lookup and waits for the configured latency.
+     */
+    private void simulateLatency() {
+        lookupCount.increment();
+
+        // parkNanos may return early, so keep waiting until the full latency has passed.
+        long deadline = System.nanoTime() + latencyNanos;
+        for (long remaining = latencyNanos; remaining > 0; remaining = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
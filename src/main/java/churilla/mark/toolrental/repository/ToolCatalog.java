@@ -0,0 +1,48 @@
+package churilla.mark.toolrental.repository;
+
+import churilla.mark.toolrental.model.RentableTool;
+
+import java.util.List;
+
+/**
+ * A read-only collection of rentable tools, indexed by tool code. {@link ToolRepository} answers its lookups from a
+ * catalog, which may be held in memory ({@link InMemoryToolCatalog}) or read from a memory-mapped file
+ * ({@link MappedToolCatalog}).
+ * <p>
+ * Implementations must be immutable and safe to use from many threads.
+ * </p>
+ */
+public interface ToolCatalog {
+
+    /**
+     * Looks up a tool by its code.
+     *
+     * @param toolCode The unique code of the tool. Must not be null.
+     *
+     * @return The {@link RentableTool} with the given code, or null if the catalog does not contain it.
+     */
+    RentableTool findByCode(String toolCode);
+
+    /**
+     * Returns every tool in the catalog.
+     *
+     * @return An unmodifiable list of the tools, ordered by tool code.
+     */
+    List<RentableTool> findAll();
+
+    /**
+     * Returns the tools whose tool type has the given name.
+     *
+     * @param toolTypeName The name of the tool type, e.g. "Jackhammer". Must not be null.
+     *
+     * @return An unmodifiable list of the matching tools, ordered by tool code. Empty if no tool has the type.
+     */
+    List<RentableTool> findByTypeName(String toolTypeName);
+
+    /**
+     * Returns the number of tools in the catalog.
+     *
+     * @return The number of tools.
+     */
+    int size();
+}
@@ -0,0 +1,144 @@
+package churilla.mark.toolrental.repository;
+
+import churilla.mark.toolrental.model.RentableTool;
+import churilla.mark.toolrental.model.ToolType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compiles a tool catalog in the ToolDb.json format into the binary format read by {@link MappedToolCatalog}.
+ * <p>
+ * Tool types and strings that appear more than once are only stored once, and the tools are sorted by code so that
+ * they can be found with a binary search. When a tool code appears more than once, the first tool with that code is
+ * kept, the same as {@link ToolRepository}. The compiler can be run from the command line:
+ * </p>
+ * <pre>
+ * java -cp target/classes:&lt;dependencies&gt; churilla.mark.toolrental.repository.ToolCatalogCompiler ToolDb.json ToolDb.bin
+ * </pre>
+ */
+public class ToolCatalogCompiler {
+
+    /**
+     * Compiles the JSON catalog named by the first argument into the binary catalog named by the second argument.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: ToolCatalogCompiler <ToolDb.json> <output catalog file>");
+            System.exit(1);
+        }
+
+        try (InputStream inputStream = Files.newInputStream(Path.of(args[0]))) {
+            int toolCount = compile(inputStream, Path.of(args[1]));
+            System.out.printf("Compiled %s tools into %s%n", toolCount, args[1]);
+        }
+    }
+
+    /**
+     * Reads a JSON catalog from the stream and writes it to the output file in the binary catalog format.
+     *
+     * @param inputStream The stream containing the JSON array of tools. It is not closed by this method.
+     * @param outputFile The file to write. It is created or replaced.
+     *
+     * @return The number of tools written to the catalog.
+     *
+     * @throws IOException if the JSON cannot be read, a daily charge is too large to be held in cents, or the
+     *                     output file cannot be written.
+     */
+    public static int compile(final InputStream inputStream, final Path outputFile) throws IOException {
+        // Sort by the UTF-8 bytes of the tool code, which is the order used by the binary search.
+        Map<String, RentableTool> toolsByCode = new TreeMap<>(
+                (first, second) -> Arrays.compareUnsigned(first.getBytes(StandardCharsets.UTF_8), second.getBytes(StandardCharsets.UTF_8)));
+        ToolJsonReader.readTools(inputStream, tool -> toolsByCode.putIfAbsent(tool.getToolCode(), tool));
+
+        StringPool strings = new StringPool();
+        Map<ToolType, Integer> typeIndexes = new LinkedHashMap<>();
+        for (RentableTool tool : toolsByCode.values()) {
+            typeIndexes.putIfAbsent(tool.getToolType(), typeIndexes.size());
+        }
+
+        int typeTableOffset = MappedToolCatalog.HEADER_SIZE;
+        int toolTableOffset = typeTableOffset + typeIndexes.size() * MappedToolCatalog.TYPE_ENTRY_SIZE;
+        int stringPoolOffset = toolTableOffset + toolsByCode.size() * MappedToolCatalog.TOOL_ENTRY_SIZE;
+
+        ByteBuffer tables = ByteBuffer.allocate(stringPoolOffset);
+        tables.position(typeTableOffset);
+
+        for (ToolType toolType : typeIndexes.keySet()) {
+            if (toolType.getDailyChargeCents() == Long.MIN_VALUE) {
+                throw new IOException(String.format("The daily charge of tool type \"%s\" is too large for the binary catalog.", toolType.getName()));
+            }
+
+            strings.put(tables, toolType.getName());
+            tables.putLong(toolType.getDailyChargeCents());
+            tables.putInt(toolType.getChargeMask());
+        }
+
+        for (RentableTool tool : toolsByCode.values()) {
+            strings.put(tables, tool.getToolCode());
+            strings.put(tables, tool.getBrandName());
+            tables.putInt(typeIndexes.get(tool.getToolType()));
+        }
+
+        byte[] stringPool = strings.toByteArray();
+
+        tables.putInt(0, MappedToolCatalog.MAGIC);
+        tables.putInt(4, MappedToolCatalog.VERSION);
+        tables.putInt(8, typeIndexes.size());
+        tables.putInt(12, toolsByCode.size());
+        tables.putInt(16, typeTableOffset);
+        tables.putInt(20, toolTableOffset);
+        tables.putInt(24, stringPoolOffset);
+        tables.putInt(28, stringPool.length);
+        tables.rewind();
+
+        try (FileChannel channel = FileChannel.open(outputFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer pool = ByteBuffer.wrap(stringPool);
+            while (tables.hasRemaining() || pool.hasRemaining()) {
+                channel.write(new ByteBuffer[] {tables, pool});
+            }
+        }
+
+        return toolsByCode.size();
+    }
+
+    /**
+     * Collects the UTF-8 text of the catalog, storing each distinct string once.
+     */
+    private static class StringPool {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final Map<String, Integer> offsets = new HashMap<>();
+
+        /**
+         * Adds the string to the pool if needed, and writes its offset and length to the table.
+         */
+        void put(final ByteBuffer table, final String value) {
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            int offset = offsets.computeIfAbsent(value, key -> {
+                int start = bytes.size();
+                bytes.writeBytes(encoded);
+                return start;
+            });
+
+            table.putInt(offset);
+            table.putInt(encoded.length);
+        }
+
+        byte[] toByteArray() {
+            return bytes.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package churilla.mark.toolrental.repository;
+
+import churilla.mark.toolrental.utility.ValidationUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reloads the catalog of a {@link ToolRepository} when its JSON tool file changes.
+ * <p>
+ * Once started, the reloader checks the modification time and size of the file on a background thread at a fixed
+ * interval. When either has changed, the whole file is read into a new {@link InMemoryToolCatalog}, which is then
+ * published to the repository in a single reference swap. Lookups continue to use the previous catalog until the new
+ * one is complete. If the file cannot be read or is not valid, the previous catalog is kept and the failure is
+ * available from {@link #getLastFailure()}; the file is read again the next time it changes.
+ * </p><p>
+ * Polling is used rather than a {@link java.nio.file.WatchService} because a watch service reports changes to a
+ * directory rather than a file, and is itself implemented by polling on some platforms.
+ * </p>
+ */
+public class ToolCatalogReloader implements AutoCloseable {
+    private final ToolRepository repository;
+    private final Path toolFile;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    // The modification time and size of the file when it was last read, or null if it has not been read.
+    private volatile FileVersion loadedVersion;
+    private volatile Exception lastFailure;
+    private volatile long reloadCount;
+
+    /**
+     * Constructor. The file is assumed to be the one that the repository's current catalog was read from, so it is
+     * only read once it changes. Call {@link #reload()} to read it immediately.
+     *
+     * @param repository The {@link ToolRepository} whose catalog is replaced.
+     * @param toolFile The path of the JSON tool file to watch.
+     */
+    public ToolCatalogReloader(final ToolRepository repository, final Path toolFile) {
+        this.repository = ValidationUtils.requireNonNull(repository, "repository");
+        this.toolFile = ValidationUtils.requireNonNull(toolFile, "toolFile");
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tool-catalog-reloader");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            this.loadedVersion = FileVersion.read(toolFile);
+        } catch (IOException ex) {
+            this.loadedVersion = null;
+        }
+    }
+
+    /**
+     * Starts checking the file for changes in the background. A check that fails, including with an unexpected
+     * runtime exception, is recorded in {@link #getLastFailure()} and does not stop later checks.
+     *
+     * @param pollInterval The time between checks.
+     *
+     * @throws IllegalStateException if the reloader has already been started.
+     */
+    public void start(final Duration pollInterval) {
+        ValidationUtils.requireNonNull(pollInterval, "pollInterval");
+
+        if (!started.compareAndSet(false, true)) {
+            throw new IllegalStateException("The tool catalog reloader has already been started.");
+        }
+
+        long intervalNanos = pollInterval.toNanos();
+        scheduler.scheduleWithFixedDelay(this::poll, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Reads the file if it has changed since it was last read, and publishes the new catalog.
+     *
+     * @return True if a new catalog was published.
+     */
+    public boolean reloadIfChanged() {
+        FileVersion currentVersion;
+        try {
+            currentVersion = FileVersion.read(toolFile);
+        } catch (NoSuchFileException ex) {
+            // The file may be in the middle of being replaced. Check again on the next poll.
+            return false;
+        } catch (IOException ex) {
+            lastFailure = ex;
+            return false;
+        }
+
+        if (currentVersion.equals(loadedVersion)) {
+            return false;
+        }
+
+        return load(currentVersion);
+    }
+
+    /**
+     * Reads the file now, whether or not it has changed, and publishes the new catalog.
+     *
+     * @return True if a new catalog was published, false if the file could not be read.
+     */
+    public boolean reload() {
+        try {
+            return load(FileVersion.read(toolFile));
+        } catch (IOException ex) {
+            lastFailure = ex;
+            return false;
+        }
+    }
+
+    /**
+     * Returns the error from the most recent reload that failed, or null if no reload has failed. This is usually an
+     * {@link IOException} for a file that cannot be read or is not valid.
+     *
+     * @return The last failure.
+     */
+    public Exception getLastFailure() {
+        return lastFailure;
+    }
+
+    /**
+     * Returns the number of catalogs that have been published by this reloader.
+     *
+     * @return The number of successful reloads.
+     */
+    public long getReloadCount() {
+        return reloadCount;
+    }
+
+    /**
+     * Stops checking the file for changes. The repository keeps the catalog that was published last.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Runs one background check. A scheduled task that throws is never run again, so an unexpected exception is
+     * recorded instead of being thrown.
+     */
+    private void poll() {
+        try {
+            reloadIfChanged();
+        } catch (RuntimeException ex) {
+            lastFailure = ex;
+        }
+    }
+
+    /**
+     * Reads the catalog and publishes it. The version of the file is recorded before it is read, so a change made
+     * while the file is being read is picked up by the next check.
+     */
+    private synchronized boolean load(final FileVersion version) {
+        // Mark the version as seen even if it fails to load, so that a bad file is not read on every poll.
+        loadedVersion = version;
+
+        try {
+            repository.setCatalog(InMemoryToolCatalog.read(toolFile));
+        } catch (IOException ex) {
+            lastFailure = ex;
+            return false;
+        }
+
+        reloadCount++;
+        return true;
+    }
+
+    /**
+     * The modification time and size of a file, used to tell when it has changed.
+     */
+    private record FileVersion(FileTime lastModifiedTime, long size) {
+        static FileVersion read(final Path file) throws IOException {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+
+            return new FileVersion(attributes.lastModifiedTime(), attributes.size());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package churilla.mark.toolrental.repository;
+
+import churilla.mark.toolrental.model.RentableTool;
+import churilla.mark.toolrental.model.ToolType;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+import java.io.IOException;
+
+/**
+ * Jackson module that binds the catalog model ({@link RentableTool} and {@link ToolType}) with hand-written
+ * deserializers. The model classes carry no databind annotations, so a mapper without this module cannot read them;
+ * with it, databind never constructs them reflectively.
+ * <p>
+ * The application itself does not need a mapper: catalogs are loaded with {@link ToolJsonReader} and request bodies
+ * are decoded by {@link churilla.mark.toolrental.server.RentalJsonCodec}. The module is meant for code that embeds
+ * the catalog model in its own databind-mapped types.
+ * </p><p>
+ * The deserializers read the tokens themselves through {@link ToolJsonReader} and call the model constructors
+ * directly, so the tools read by an {@link ObjectMapper} are validated the same way as the tools read by
+ * {@link ToolJsonReader}, including the rejection of unknown properties. The module can be registered on any mapper,
+ * or the preconfigured mapper returned by {@link #getMapper()} can be shared.
+ * </p>
+ */
+public class ToolJsonModule extends SimpleModule {
+    /**
+     * Creates the module with the deserializers of the catalog model.
+     */
+    public ToolJsonModule() {
+        super(ToolJsonModule.class.getSimpleName());
+
+        addDeserializer(ToolType.class, new ToolTypeDeserializer());
+        addDeserializer(RentableTool.class, new RentableToolDeserializer());
+    }
+
+    /**
+     * Returns a mapper shared by the application, with this module registered. Creating a mapper is expensive, and
+     * a mapper caches the deserializers it looks up, so it is meant to be created once and reused. The mapper is
+     * thread-safe, but must not be reconfigured after it has been returned.
+     *
+     * @return The shared {@link ObjectMapper}.
+     */
+    public static ObjectMapper getMapper() {
+        return MapperHolder.MAPPER;
+    }
+
+    /**
+     * Holds the shared mapper, so it is only built when it is first used.
+     */
+    private static class MapperHolder {
+        private static final ObjectMapper MAPPER = JsonMapper.builder()
+                .addModule(new ToolJsonModule())
+                .build();
+    }
+
+    /**
+     * Reads a {@link ToolType} with {@link ToolJsonReader#readToolType(JsonParser)}.
+     */
+    private static class ToolTypeDeserializer extends StdDeserializer<ToolType> {
+        private ToolTypeDeserializer() {
+            super(ToolType.class);
+        }
+
+        @Override
+        public ToolType deserialize(final JsonParser parser, final DeserializationContext context) throws IOException {
+            return ToolJsonReader.readToolType(parser);
+        }
+    }
+
+    /**
+     * Reads a {@link RentableTool} with {@link ToolJsonReader#readRentableTool(JsonParser)}.
+     */
+    private static class RentableToolDeserializer extends StdDeserializer<RentableTool> {
+        private RentableToolDeserializer() {
+            super(RentableTool.class);
+        }
+
+        @Override
+        public RentableTool deserialize(final JsonParser parser, final DeserializationContext context) throws IOException {
+            return ToolJsonReader.readRentableTool(parser);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package churilla.mark.toolrental.repository;
+
+import churilla.mark.toolrental.exception.RequiredFieldNullException;
+import churilla.mark.toolrental.model.RentableTool;
+import churilla.mark.toolrental.model.ToolType;
+import churilla.mark.toolrental.model.ToolTypePool;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.function.Consumer;
+
+/**
+ * Reads tool data in the ToolDb.json format using the Jackson streaming API.
+ * <p>
+ * Each tool is handed to a consumer as soon as its JSON object has been parsed, so the memory used while reading
+ * does not depend on the number of tools in the file. Unknown properties and missing required values are reported
+ * as an {@link IOException}, the same as the databind {@code ObjectMapper} that this class replaces. Tool types
+ * are looked up in a {@link ToolTypePool} as they are read, so a type is only constructed the first time its value
+ * appears.
+ * </p>
+ */
+public class ToolJsonReader {
+    // JsonFactory is thread-safe and is meant to be shared. The caller owns the stream, so closing a parser must not
+    // close it.
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .disable(StreamReadFeature.AUTO_CLOSE_SOURCE)
+            .build();
+
+    /**
+     * Reads a JSON array of tools from the stream and passes each tool to the consumer in the order they appear.
+     * The stream is not closed by this method.
+     *
+     * @param inputStream The stream containing the JSON array.
+     * @param consumer Receives each tool as soon as it is read.
+     *
+     * @throws IOException if the stream cannot be read or does not contain a valid array of tools.
+     */
+    public static void readTools(final InputStream inputStream, final Consumer<RentableTool> consumer) throws IOException {
+        readTools(inputStream, new ToolTypePool(), consumer);
+    }
+
+    /**
+     * Reads a JSON array of tools from the stream and passes each tool to the consumer in the order they appear.
+     * The tool type of each tool is looked up in the given pool, so tools with equal types share a single
+     * {@link ToolType} instance, which is only constructed for the first of them. The stream is not closed by this
+     * method.
+     *
+     * @param inputStream The stream containing the JSON array.
+     * @param toolTypePool The pool that the tool types are looked up in.
+     * @param consumer Receives each tool as soon as it is read.
+     *
+     * @throws IOException if the stream cannot be read or does not contain a valid array of tools.
+     */
+    public static void readTools(final InputStream inputStream,
+                                 final ToolTypePool toolTypePool,
+                                 final Consumer<RentableTool> consumer) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(inputStream)) {
+            expect(parser, parser.nextToken(), JsonToken.START_ARRAY);
+
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                consumer.accept(readRentableTool(parser, toolTypePool));
+            }
+        }
+    }
+
+    /**
+     * Reads a single tool. The parser must be positioned on the {@code START_OBJECT} token of the tool, and is left
+     * on its {@code END_OBJECT} token.
+     *
+     * @param parser The parser to read from.
+     *
+     * @return The {@link RentableTool} that was read.
+     *
+     * @throws IOException if the object is not a valid tool.
+     */
+    public static RentableTool readRentableTool(final JsonParser parser) throws IOException {
+        return readRentableTool(parser, null);
+    }
+
+    /**
+     * Reads a single tool, taking its tool type from the given pool. The parser must be positioned on the
+     * {@code START_OBJECT} token of the tool, and is left on its {@code END_OBJECT} token.
+     *
+     * @param parser The parser to read from.
+     * @param toolTypePool The pool that the tool type is looked up in, or null to construct a new type.
+     *
+     * @return The {@link RentableTool} that was read.
+     *
+     * @throws IOException if the object is not a valid tool.
+     */
+    public static RentableTool readRentableTool(final JsonParser parser, final ToolTypePool toolTypePool) throws IOException {
+        expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+
+        String toolCode = null;
+        ToolType toolType = null;
+        String brandName = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            JsonToken value = parser.nextToken();
+
+            switch (fieldName) {
+                case "toolCode" -> toolCode = readString(parser, value);
+                case "toolType" -> toolType = value == JsonToken.VALUE_NULL ? null : readToolType(parser, toolTypePool);
+                case "brandName" -> brandName = readString(parser, value);
+                default -> throw unknownField(parser, fieldName, RentableTool.class);
+            }
+        }
+
+        try {
+            return new RentableTool(toolCode, toolType, brandName);
+        } catch (RequiredFieldNullException ex) {
+            throw new JsonParseException(parser, ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Reads a single tool type. The parser must be positioned on the {@code START_OBJECT} token of the tool type,
+     * and is left on its {@code END_OBJECT} token.
+     *
+     * @param parser The parser to read from.
+     *
+     * @return The {@link ToolType} that was read.
+     *
+     * @throws IOException if the object is not a valid tool type.
+     */
+    public static ToolType readToolType(final JsonParser parser) throws IOException {
+        return readToolType(parser, null);
+    }
+
+    /**
+     * Reads a single tool type, returning the instance held by the pool when it is given.
+     */
+    private static ToolType readToolType(final JsonParser parser, final ToolTypePool toolTypePool) throws IOException {
+        expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+
+        String name = null;
+        BigDecimal dailyCharge = null;
+        boolean hasWeekdayCharge = false;
+        boolean hasWeekendCharge = false;
+        boolean hasHolidayCharge = false;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            JsonToken value = parser.nextToken();
+
+            switch (fieldName) {
+                case "name" -> name = readString(parser, value);
+                case "dailyCharge" -> dailyCharge = readDecimal(parser, value);
+                case "hasWeekdayCharge" -> hasWeekdayCharge = readBoolean(parser, value);
+                case "hasWeekendCharge" -> hasWeekendCharge = readBoolean(parser, value);
+                case "hasHolidayCharge" -> hasHolidayCharge = readBoolean(parser, value);
+                default -> throw unknownField(parser, fieldName, ToolType.class);
+            }
+        }
+
+        try {
+            return toolTypePool != null
+                    ? toolTypePool.intern(name, dailyCharge, hasWeekdayCharge, hasWeekendCharge, hasHolidayCharge)
+                    : new ToolType(name, dailyCharge, hasWeekdayCharge, hasWeekendCharge, hasHolidayCharge);
+        } catch (RequiredFieldNullException ex) {
+            throw new JsonParseException(parser, ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Reads a string, or null for a JSON null. Any other value, e.g. an object, is rejected rather than being read
+     * as part of the enclosing object.
+     */
+    private static String readString(final JsonParser parser, final JsonToken value) throws IOException {
+        if (value != JsonToken.VALUE_STRING && value != JsonToken.VALUE_NULL) {
+            throw new JsonParseException(parser, String.format("Expected a string but found %s.", value));
+        }
+
+        return parser.getValueAsString();
+    }
+
+    /**
+     * Reads a boolean value, where a JSON null is read as false.
+     */
+    private static boolean readBoolean(final JsonParser parser, final JsonToken value) throws IOException {
+        return switch (value) {
+            case VALUE_TRUE -> true;
+            case VALUE_FALSE, VALUE_NULL -> false;
+            default -> throw new JsonParseException(parser, String.format("Expected a boolean but found %s.", value));
+        };
+    }
+
+    /**
+     * Reads a decimal value, which may be written as a JSON number or a string.
+     */
+    private static BigDecimal readDecimal(final JsonParser parser, final JsonToken value) throws IOException {
+        return switch (value) {
+            case VALUE_NULL -> null;
+            case VALUE_STRING -> {
+                try {
+                    yield new BigDecimal(parser.getText().trim());
+                } catch (NumberFormatException ex) {
+                    throw new JsonParseException(parser, String.format("Invalid decimal value \"%s\".", parser.getText()), ex);
+                }
+            }
+            default -> parser.getDecimalValue();
+        };
+    }
+
+    /**
+     * Throws an exception if the token is not the expected one.
+     */
+    private static void expect(final JsonParser parser, final JsonToken actual, final JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new JsonParseException(parser, String.format("Expected %s but found %s.", expected, actual));
+        }
+    }
+
+    /**
+     * Creates the exception reported for a property that is not part of the model.
+     */
+    private static JsonParseException unknownField(final JsonParser parser, final String fieldName, final Class<?> type) {
+        return new JsonParseException(parser, String.format("Unrecognized field \"%s\" for %s.", fieldName, type.getSimpleName()));
+    }
+}
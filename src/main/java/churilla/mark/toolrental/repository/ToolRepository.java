@@ -3,44 +3,113 @@ package churilla.mark.toolrental.repository;
 import churilla.mark.toolrental.exception.ToolDataInitializationException;
 import churilla.mark.toolrental.model.RentableTool;
 import churilla.mark.toolrental.utility.ResourceUtils;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import churilla.mark.toolrental.utility.ValidationUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Repository class that handles reading the ToolDb.json file and internally storing the values for lookup.
+ * <p>
+ * The tools are held in a {@link ToolCatalog}. By default the catalog is read from the ToolDb.json resource into
+ * memory, but a repository can also be created over a binary catalog file that is memory-mapped
+ * (see {@link #fromBinaryCatalog(Path)}) or over a JSON file (see {@link #fromFile(Path)}).
+ * </p><p>
+ * The catalog is an immutable snapshot that can be replaced while the repository is in use, e.g. by a
+ * {@link ToolCatalogReloader} when the tool file changes. Lookups read the current snapshot without locking, so they
+ * never block and never see a partially loaded catalog. A tool that has already been looked up is not affected by a
+ * later replacement, so a checkout in progress finishes with the tool it started with.
+ * </p>
  */
-public class ToolRepository {
-    // Internally used HashMap to store the rentable tool instances that are read in from the ToolDb.json file.
-    private final Map<String, RentableTool> rentableToolMap = new ConcurrentHashMap<>();
+public class ToolRepository implements RentableToolRepository {
+    // Snapshot of the catalog holding the rentable tool instances, keyed by tool code. The whole catalog is replaced
+    // at once by setCatalog().
+    private volatile ToolCatalog catalog;
 
     /**
-     * Constructor that attempts to read the values from the ToolDb.json list and place them into
-     * the internal storage map.
+     * Constructor that reads the tools from the ToolDb.json list into an {@link InMemoryToolCatalog}, which becomes
+     * the initial catalog snapshot. The file is read with {@link ToolJsonReader}, which streams the tools into the
+     * catalog one at a time.
      * <p>
- *     If any errors occur while trying to populate the map (e.g., the stream cannot be created) Then
+     * If any errors occur while trying to read the catalog (e.g., the stream cannot be created) then
      * a {@link ToolDataInitializationException} will be thrown back to the caller.
      * </p>
      */
     public ToolRepository() {
-        ObjectMapper mapper = new ObjectMapper();
-
         try (InputStream resourceStream = ResourceUtils.getResource("ToolDb.json")) {
-            List<RentableTool> rentableToolList = mapper.readValue(resourceStream, new TypeReference<>() {});
-
-            // Cycle through the list of tools and add each on to the map, using the tool code as the key.
-            rentableToolList.forEach(tool -> rentableToolMap.putIfAbsent(tool.getToolCode(), tool));
+            catalog = InMemoryToolCatalog.read(resourceStream);
         } catch (IOException ex) {
             throw new ToolDataInitializationException("Failed to initialize tool data from ToolDb.json.", ex);
         }
     }
 
+    /**
+     * Constructor that looks up tools in the given catalog.
+     *
+     * @param catalog The {@link ToolCatalog} containing the tools.
+     */
+    public ToolRepository(final ToolCatalog catalog) {
+        this.catalog = ValidationUtils.requireNonNull(catalog, "catalog");
+    }
+
+    /**
+     * Creates a repository over a binary catalog file created by {@link ToolCatalogCompiler}. The file is
+     * memory-mapped, so the repository is ready without reading the catalog, and tools are only loaded when they are
+     * looked up.
+     *
+     * @param catalogFile The path of the binary catalog file.
+     *
+     * @return The repository reading from the file.
+     *
+     * @throws ToolDataInitializationException if the file cannot be mapped or is not a valid catalog.
+     */
+    public static ToolRepository fromBinaryCatalog(final Path catalogFile) {
+        try {
+            return new ToolRepository(MappedToolCatalog.open(catalogFile));
+        } catch (IOException ex) {
+            throw new ToolDataInitializationException(String.format("Failed to initialize tool data from %s.", catalogFile), ex);
+        }
+    }
+
+    /**
+     * Creates a repository over a tool file in the ToolDb.json format. The file is read into memory once; use a
+     * {@link ToolCatalogReloader} to pick up later changes to the file.
+     *
+     * @param toolFile The path of the JSON tool file.
+     *
+     * @return The repository holding the tools from the file.
+     *
+     * @throws ToolDataInitializationException if the file cannot be read or does not contain a valid array of tools.
+     */
+    public static ToolRepository fromFile(final Path toolFile) {
+        try {
+            return new ToolRepository(InMemoryToolCatalog.read(toolFile));
+        } catch (IOException ex) {
+            throw new ToolDataInitializationException(String.format("Failed to initialize tool data from %s.", toolFile), ex);
+        }
+    }
+
+    /**
+     * Returns the catalog that lookups are currently answered from.
+     *
+     * @return The current {@link ToolCatalog} snapshot.
+     */
+    public ToolCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Replaces the catalog with a new snapshot. Lookups that start after this method returns use the new catalog.
+     *
+     * @param catalog The {@link ToolCatalog} to answer lookups from.
+     */
+    public void setCatalog(final ToolCatalog catalog) {
+        this.catalog = ValidationUtils.requireNonNull(catalog, "catalog");
+    }
+
     /**
      * Returns a tool based on the provide tool code.
      * <p>
@@ -51,11 +120,26 @@ public class ToolRepository {
      *
      * @return An Optional of the {@link RentableTool} associated with the code, or empty otherwise.
      */
+    @Override
     public Optional<RentableTool> getRentableToolByCode(final String toolCode) {
         if (toolCode == null) {
             return Optional.empty();
         }
 
-        return Optional.ofNullable(rentableToolMap.get(toolCode));
+        return Optional.ofNullable(catalog.findByCode(toolCode));
+    }
+
+    @Override
+    public List<RentableTool> getRentableTools() {
+        return catalog.findAll();
+    }
+
+    @Override
+    public List<RentableTool> getRentableToolsByTypeName(final String toolTypeName) {
+        if (toolTypeName == null) {
+            return List.of();
+        }
+
+        return catalog.findByTypeName(toolTypeName);
     }
 }
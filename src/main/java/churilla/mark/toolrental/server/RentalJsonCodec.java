@@ -0,0 +1,245 @@
+package churilla.mark.toolrental.server;
+
+import churilla.mark.toolrental.model.CheckoutRequest;
+import churilla.mark.toolrental.model.RentableTool;
+import churilla.mark.toolrental.model.RentalAgreement;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Reads and writes the JSON bodies of the {@link RentalServer} endpoints with the Jackson streaming API, so no
+ * reflection is used on the request path. Dates are written as ISO-8601 dates (e.g. {@code 2015-07-02}) and amounts
+ * as JSON numbers with two decimal places.
+ * <p>
+ * A checkout request is:
+ * </p>
+ * <pre>
+ * {"toolCode": "JAKR", "checkoutDate": "2015-07-02", "rentalDuration": 4, "discount": 50}
+ * </pre>
+ * <p>
+ * The discount is optional and defaults to zero. Unknown properties are rejected, the same as in
+ * {@link churilla.mark.toolrental.repository.ToolJsonReader}.
+ * </p>
+ */
+public class RentalJsonCodec {
+    // The caller owns the streams, so closing a parser or generator must not close them.
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .disable(StreamReadFeature.AUTO_CLOSE_SOURCE)
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+
+    /**
+     * Reads a checkout request. The stream is not closed by this method.
+     *
+     * @param inputStream The stream containing the JSON object.
+     *
+     * @return The {@link CheckoutRequest} that was read.
+     *
+     * @throws IOException if the stream cannot be read or does not contain a valid checkout request.
+     */
+    public static CheckoutRequest readCheckoutRequest(final InputStream inputStream) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(inputStream)) {
+            return readCheckoutRequest(parser);
+        }
+    }
+
+    /**
+     * Reads a checkout request from a range of an array, e.g. one line of a JSON Lines file.
+     *
+     * @param data The array containing the UTF-8 encoded JSON object.
+     * @param offset The index of the first byte of the object.
+     * @param length The number of bytes of the object.
+     *
+     * @return The {@link CheckoutRequest} that was read.
+     *
+     * @throws IOException if the bytes are not a valid checkout request.
+     */
+    public static CheckoutRequest readCheckoutRequest(final byte[] data, final int offset, final int length) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(data, offset, length)) {
+            return readCheckoutRequest(parser);
+        }
+    }
+
+    /**
+     * Writes a checkout request in the format read by {@link #readCheckoutRequest(InputStream)}. The stream is not
+     * closed by this method.
+     *
+     * @param request The request to write.
+     * @param outputStream The stream to write to.
+     *
+     * @throws IOException if the stream cannot be written.
+     */
+    public static void writeCheckoutRequest(final CheckoutRequest request, final OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(outputStream)) {
+            generator.writeStartObject();
+            generator.writeStringField("toolCode", request.toolCode());
+            generator.writeStringField("checkoutDate", request.checkoutDate().toString());
+            generator.writeNumberField("rentalDuration", request.rentalDuration());
+            generator.writeNumberField("discount", request.discount());
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Writes a rental agreement with the same values as its printed receipt. The stream is not closed by this
+     * method.
+     *
+     * @param agreement The agreement to write.
+     * @param outputStream The stream to write to.
+     *
+     * @throws IOException if the stream cannot be written.
+     */
+    public static void writeAgreement(final RentalAgreement agreement, final OutputStream outputStream) throws IOException {
+        RentableTool tool = agreement.getTool();
+
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(outputStream)) {
+            generator.writeStartObject();
+            generator.writeStringField("toolCode", tool.getToolCode());
+            generator.writeStringField("toolType", tool.getToolType().getName());
+            generator.writeStringField("brand", tool.getBrandName());
+            generator.writeStringField("checkoutDate", agreement.getCheckoutDate().toString());
+            generator.writeNumberField("rentalDuration", agreement.getRentalDuration());
+            generator.writeStringField("dueDate", agreement.getRentalDueDate().toString());
+            generator.writeNumberField("dailyCharge", tool.getToolType().getDailyCharge());
+            generator.writeNumberField("chargeableDays", agreement.getChargeableDays());
+            generator.writeNumberField("preDiscountCharge", agreement.getPreDiscountPrice());
+            generator.writeNumberField("discount", agreement.getDiscount());
+            generator.writeNumberField("discountAmount", agreement.getDiscountAmount());
+            generator.writeNumberField("finalCharge", agreement.getFinalPrice());
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Writes an error response. The stream is not closed by this method.
+     *
+     * @param error A short, stable name for the kind of error, e.g. {@code UNKNOWN_TOOL_CODE}.
+     * @param message A message detailing the problem that has occurred.
+     * @param outputStream The stream to write to.
+     *
+     * @throws IOException if the stream cannot be written.
+     */
+    public static void writeError(final String error, final String message, final OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(outputStream)) {
+            generator.writeStartObject();
+            generator.writeStringField("error", error);
+            generator.writeStringField("message", message);
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Writes the error of one line of a bulk rental file. The stream is not closed by this method.
+     *
+     * @param lineNumber The number of the line in the file, starting at one.
+     * @param error A short, stable name for the kind of error, e.g. {@code UNKNOWN_TOOL_CODE}.
+     * @param message A message detailing the problem that has occurred.
+     * @param outputStream The stream to write to.
+     *
+     * @throws IOException if the stream cannot be written.
+     */
+    public static void writeLineError(final long lineNumber,
+                                      final String error,
+                                      final String message,
+                                      final OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(outputStream)) {
+            generator.writeStartObject();
+            generator.writeNumberField("line", lineNumber);
+            generator.writeStringField("error", error);
+            generator.writeStringField("message", message);
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Reads a checkout request object from the parser.
+     */
+    private static CheckoutRequest readCheckoutRequest(final JsonParser parser) throws IOException {
+        expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+
+        String toolCode = null;
+        LocalDate checkoutDate = null;
+        Integer rentalDuration = null;
+        int discount = 0;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            JsonToken value = parser.nextToken();
+
+            switch (fieldName) {
+                case "toolCode" -> toolCode = readString(parser, value);
+                case "checkoutDate" -> checkoutDate = readDate(parser, value);
+                case "rentalDuration" -> rentalDuration = readInt(parser, value);
+                case "discount" -> discount = readInt(parser, value);
+                default -> throw new JsonParseException(parser, String.format("Unrecognized field \"%s\" for %s.", fieldName, CheckoutRequest.class.getSimpleName()));
+            }
+        }
+
+        if (toolCode == null || checkoutDate == null || rentalDuration == null) {
+            throw new JsonParseException(parser, "The fields \"toolCode\", \"checkoutDate\" and \"rentalDuration\" are required.");
+        }
+
+        if (parser.nextToken() != null) {
+            throw new JsonParseException(parser, String.format("Expected the end of the request but found %s.", parser.currentToken()));
+        }
+
+        return new CheckoutRequest(toolCode, checkoutDate, rentalDuration, discount);
+    }
+
+    /**
+     * Reads a string, or null for a JSON null.
+     */
+    private static String readString(final JsonParser parser, final JsonToken value) throws IOException {
+        if (value != JsonToken.VALUE_STRING && value != JsonToken.VALUE_NULL) {
+            throw new JsonParseException(parser, String.format("Expected a string but found %s.", value));
+        }
+
+        return parser.getValueAsString();
+    }
+
+    /**
+     * Reads a date in the ISO-8601 format.
+     */
+    private static LocalDate readDate(final JsonParser parser, final JsonToken value) throws IOException {
+        if (value != JsonToken.VALUE_STRING) {
+            throw new JsonParseException(parser, String.format("Expected a date string but found %s.", value));
+        }
+
+        try {
+            return LocalDate.parse(parser.getText());
+        } catch (DateTimeParseException ex) {
+            throw new JsonParseException(parser, String.format("Invalid date \"%s\". Please use the format yyyy-MM-dd.", parser.getText()), ex);
+        }
+    }
+
+    /**
+     * Reads a whole number that fits in an int.
+     */
+    private static int readInt(final JsonParser parser, final JsonToken value) throws IOException {
+        if (value != JsonToken.VALUE_NUMBER_INT || parser.getNumberType() != JsonParser.NumberType.INT) {
+            throw new JsonParseException(parser, String.format("Expected a whole number but found \"%s\".", parser.getText()));
+        }
+
+        return parser.getIntValue();
+    }
+
+    /**
+     * Throws an exception if the token is not the expected one.
+     */
+    private static void expect(final JsonParser parser, final JsonToken actual, final JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new JsonParseException(parser, String.format("Expected %s but found %s.", expected, actual));
+        }
+    }
+}
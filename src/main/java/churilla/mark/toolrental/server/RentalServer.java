@@ -0,0 +1,250 @@
+package churilla.mark.toolrental.server;
+
+import churilla.mark.toolrental.logic.RentalProcessor;
+import churilla.mark.toolrental.model.CheckoutError;
+import churilla.mark.toolrental.model.CheckoutRequest;
+import churilla.mark.toolrental.model.CheckoutResult;
+import churilla.mark.toolrental.utility.ValidationUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An HTTP server for the checkout logic, built on the JDK's {@link HttpServer}. Every request is handled by one
+ * shared {@link RentalProcessor}. The endpoints are:
+ * <ul>
+ *     <li>{@code POST /checkout}: checks out a tool and returns the rental agreement with status 201.</li>
+ *     <li>{@code POST /quote}: prices a rental without checking the tool out and returns the agreement with status
+ *     200.</li>
+ * </ul>
+ * <p>
+ * Both endpoints take a checkout request and return an agreement in the JSON format of {@link RentalJsonCodec}. A
+ * rejected request returns an error object with status 400 for invalid values, 404 for an unknown tool code and 409
+ * for a tool that is already rented. The error names are those of {@link CheckoutError}. Requests are handled with
+ * the non-throwing methods of the rental processor, so invalid requests do not create exceptions.
+ * </p><p>
+ * The server runs each request on the executor it is given. Handling a checkout mostly waits on I/O, e.g. on the
+ * journal of a {@link churilla.mark.toolrental.journal.JournaledRentalProcessor}, so
+ * {@link #newVirtualThreadExecutor()} is a good fit: it starts a virtual thread per request, so the number of
+ * requests in progress is not limited by the size of a thread pool.
+ * </p><p>
+ * The JDK server writes the response headers and body separately. Unless the JVM is started with
+ * {@code -Dsun.net.httpserver.nodelay=true}, Nagle's algorithm holds the body back until the client's delayed
+ * acknowledgement arrives, which adds about 40ms to every response. {@link churilla.mark.toolrental.Application}
+ * sets the property in server mode; an application that embeds the server should set it (see
+ * {@link #NODELAY_PROPERTY}) before the first {@link HttpServer} is created.
+ * </p>
+ */
+public class RentalServer implements AutoCloseable {
+    private static final int STATUS_OK = 200;
+    private static final int STATUS_CREATED = 201;
+    private static final int STATUS_BAD_REQUEST = 400;
+    private static final int STATUS_NOT_FOUND = 404;
+    private static final int STATUS_METHOD_NOT_ALLOWED = 405;
+    private static final int STATUS_CONFLICT = 409;
+    private static final int STATUS_INTERNAL_ERROR = 500;
+    private static final int STATUS_SERVICE_UNAVAILABLE = 503;
+
+    /** The system property that enables TCP_NODELAY on the connections of the JDK's {@link HttpServer}. */
+    public static final String NODELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+    private final RentalProcessor rentalProcessor;
+    private final HttpServer httpServer;
+    private final ExecutorService executor;
+
+    /**
+     * Constructor. Binds the server to the address; it does not accept requests until {@link #start()} is called.
+     *
+     * @param rentalProcessor The {@link RentalProcessor} that handles every request.
+     * @param address The address to listen on. A port of zero picks a free port (see {@link #getPort()}).
+     * @param executor The executor that runs the requests. It is shut down when the server is closed.
+     *
+     * @throws IOException if the server cannot be bound to the address.
+     */
+    public RentalServer(final RentalProcessor rentalProcessor,
+                        final InetSocketAddress address,
+                        final ExecutorService executor) throws IOException {
+        this.rentalProcessor = ValidationUtils.requireNonNull(rentalProcessor, "rentalProcessor");
+        this.executor = ValidationUtils.requireNonNull(executor, "executor");
+
+        httpServer = HttpServer.create(ValidationUtils.requireNonNull(address, "address"), 0);
+        httpServer.setExecutor(executor);
+        httpServer.createContext("/checkout", exchange -> handle(exchange, true));
+        httpServer.createContext("/quote", exchange -> handle(exchange, false));
+    }
+
+    /**
+     * Creates an executor that runs each task on a new virtual thread. Virtual threads are only available from
+     * Java 21; on an earlier runtime the executor runs each task on a pooled daemon platform thread instead.
+     *
+     * @return The executor.
+     */
+    public static ExecutorService newVirtualThreadExecutor() {
+        try {
+            // Looked up reflectively so the server still runs on the Java 17 baseline of the project.
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            return Executors.newCachedThreadPool(daemonThreadFactory("rental-server-"));
+        }
+    }
+
+    /**
+     * Specifies if {@link #newVirtualThreadExecutor()} runs tasks on virtual threads on this runtime.
+     *
+     * @return True if virtual threads are available, false otherwise.
+     */
+    public static boolean isVirtualThreadExecutorAvailable() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return Runtime.version().feature() >= 21;
+        } catch (NoSuchMethodException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates an executor with a fixed pool of daemon platform threads.
+     *
+     * @param threadCount The number of threads in the pool.
+     *
+     * @return The executor.
+     */
+    public static ExecutorService newPlatformThreadExecutor(final int threadCount) {
+        return Executors.newFixedThreadPool(threadCount, daemonThreadFactory("rental-server-"));
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        httpServer.start();
+    }
+
+    /**
+     * Returns the port that the server is listening on.
+     *
+     * @return The port number.
+     */
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    /**
+     * Stops the server, waiting up to a second for requests in progress to finish, and shuts down its executor.
+     */
+    @Override
+    public void close() {
+        httpServer.stop(1);
+        executor.shutdown();
+
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Handles a request to one of the endpoints.
+     */
+    private void handle(final HttpExchange exchange, final boolean checkout) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                sendError(exchange, STATUS_METHOD_NOT_ALLOWED, "METHOD_NOT_ALLOWED", "Only POST is supported.");
+                return;
+            }
+
+            CheckoutRequest request;
+            try (InputStream body = exchange.getRequestBody()) {
+                request = RentalJsonCodec.readCheckoutRequest(body);
+            } catch (IOException ex) {
+                sendError(exchange, STATUS_BAD_REQUEST, "INVALID_REQUEST", ex instanceof JsonProcessingException jsonException ? jsonException.getOriginalMessage() : ex.getMessage());
+                return;
+            }
+
+            ByteArrayOutputStream response = new ByteArrayOutputStream(512);
+            CheckoutResult result;
+            try {
+                result = checkout
+                        ? rentalProcessor.tryCheckout(request.toolCode(), request.checkoutDate(), request.rentalDuration(), request.discount())
+                        : rentalProcessor.tryQuote(request.toolCode(), request.checkoutDate(), request.rentalDuration(), request.discount());
+
+                if (result instanceof CheckoutResult.Success success) {
+                    RentalJsonCodec.writeAgreement(success.agreement(), response);
+                }
+            } catch (RuntimeException ex) {
+                // Without a response, the JDK server would drop the connection.
+                sendError(exchange, STATUS_INTERNAL_ERROR, CheckoutError.INTERNAL_ERROR.name(), "An unexpected error occurred.");
+                return;
+            }
+
+            if (result instanceof CheckoutResult.Failure failure) {
+                sendError(exchange, failure);
+                return;
+            }
+
+            send(exchange, checkout ? STATUS_CREATED : STATUS_OK, response);
+        }
+    }
+
+    /**
+     * Sends the error response for a checkout or quote that was rejected by the rental processor.
+     */
+    private static void sendError(final HttpExchange exchange, final CheckoutResult.Failure failure) throws IOException {
+        CheckoutError error = failure.error();
+
+        switch (error) {
+            case UNKNOWN_TOOL_CODE -> sendError(exchange, STATUS_NOT_FOUND, error.name(), failure.message());
+            case TOOL_UNAVAILABLE -> sendError(exchange, STATUS_CONFLICT, error.name(), failure.message());
+            case INVALID_RENTAL_DURATION, INVALID_DISCOUNT, REQUIRED_FIELD_NULL -> sendError(exchange, STATUS_BAD_REQUEST, error.name(), failure.message());
+            case JOURNAL_UNAVAILABLE -> sendError(exchange, STATUS_SERVICE_UNAVAILABLE, error.name(), failure.message());
+            case NEGATIVE_CHARGEABLE_DAYS, INTERNAL_ERROR -> sendError(exchange, STATUS_INTERNAL_ERROR, CheckoutError.INTERNAL_ERROR.name(), "An unexpected error occurred.");
+        }
+    }
+
+    /**
+     * Sends an error object with the given status.
+     */
+    private static void sendError(final HttpExchange exchange, final int status, final String error, final String message) throws IOException {
+        ByteArrayOutputStream response = new ByteArrayOutputStream(256);
+        RentalJsonCodec.writeError(error, message, response);
+        send(exchange, status, response);
+    }
+
+    /**
+     * Sends a JSON response body with the given status.
+     */
+    private static void send(final HttpExchange exchange, final int status, final ByteArrayOutputStream body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.size());
+
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            body.writeTo(responseBody);
+        }
+    }
+
+    /**
+     * Creates a factory for numbered daemon threads.
+     */
+    private static ThreadFactory daemonThreadFactory(final String namePrefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
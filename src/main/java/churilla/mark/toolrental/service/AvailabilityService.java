@@ -0,0 +1,98 @@
+package churilla.mark.toolrental.service;
+
+import churilla.mark.toolrental.exception.InvalidRentalDurationException;
+import churilla.mark.toolrental.exception.RequiredFieldNullException;
+import churilla.mark.toolrental.logic.InventoryLedger;
+import churilla.mark.toolrental.model.RentableTool;
+import churilla.mark.toolrental.utility.ValidationUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service class that finds the tools that are free to rent for a period, e.g. "which Jackhammers are free from July 2
+ * for 9 days?".
+ * <p>
+ * The candidate tools come from the {@link ToolService}, which keeps the tools indexed by the name of their tool type,
+ * so a query for one type only looks at tools of that type. Each candidate is then checked against its own sorted
+ * rentals in the {@link InventoryLedger}, which takes time logarithmic in the number of rentals of that tool rather
+ * than a scan of the rental history.
+ * </p>
+ */
+public class AvailabilityService {
+    private final ToolService toolService;
+    private final InventoryLedger inventoryLedger;
+
+    /**
+     * Constructor.
+     *
+     * @param toolService The {@link ToolService} that the tools are read from.
+     * @param inventoryLedger The {@link InventoryLedger} that records the active rentals.
+     */
+    public AvailabilityService(final ToolService toolService, final InventoryLedger inventoryLedger) {
+        this.toolService = ValidationUtils.requireNonNull(toolService, "toolService");
+        this.inventoryLedger = ValidationUtils.requireNonNull(inventoryLedger, "inventoryLedger");
+    }
+
+    /**
+     * Finds every tool that is free for a rental period. The period is the same as a checkout on the given date:
+     * the tool must be free from the checkout date until the due date.
+     *
+     * @param checkoutDate The date the rental would begin.
+     * @param rentalDuration The number of days the tool would be rented.
+     *
+     * @return The available tools, ordered by tool code.
+     *
+     * @throws InvalidRentalDurationException if the rental duration is less than one.
+     * @throws RequiredFieldNullException if the checkout date is null.
+     */
+    public List<RentableTool> findAvailableTools(final LocalDate checkoutDate, final int rentalDuration) {
+        return filterAvailable(toolService.getRentableTools(), checkoutDate, rentalDuration);
+    }
+
+    /**
+     * Finds the tools of a tool type that are free for a rental period. The period is the same as a checkout on the
+     * given date: the tool must be free from the checkout date until the due date.
+     *
+     * @param toolTypeName The name of the tool type, e.g. "Jackhammer".
+     * @param checkoutDate The date the rental would begin.
+     * @param rentalDuration The number of days the tool would be rented.
+     *
+     * @return The available tools of the type, ordered by tool code.
+     *
+     * @throws InvalidRentalDurationException if the rental duration is less than one.
+     * @throws RequiredFieldNullException if the tool type name or checkout date is null.
+     */
+    public List<RentableTool> findAvailableTools(final String toolTypeName,
+                                                 final LocalDate checkoutDate,
+                                                 final int rentalDuration) {
+        ValidationUtils.requireNonNull(toolTypeName, "toolTypeName");
+
+        return filterAvailable(toolService.getRentableToolsByTypeName(toolTypeName), checkoutDate, rentalDuration);
+    }
+
+    /**
+     * Keeps the tools that have no rental overlapping the period.
+     */
+    private List<RentableTool> filterAvailable(final List<RentableTool> candidates,
+                                               final LocalDate checkoutDate,
+                                               final int rentalDuration) {
+        ValidationUtils.requireNonNull(checkoutDate, "checkoutDate");
+
+        if (rentalDuration < 1) {
+            throw new InvalidRentalDurationException(String.format("The rental duration %s is invalid. Please re-enter a value of 1 or greater.", rentalDuration));
+        }
+
+        LocalDate dueDate = checkoutDate.plusDays(rentalDuration);
+        List<RentableTool> available = new ArrayList<>();
+
+        for (RentableTool tool : candidates) {
+            if (inventoryLedger.isAvailable(tool.getToolCode(), checkoutDate, dueDate)) {
+                available.add(tool);
+            }
+        }
+
+        return available;
+    }
+}
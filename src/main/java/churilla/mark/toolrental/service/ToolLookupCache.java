@@ -0,0 +1,243 @@
+package churilla.mark.toolrental.service;
+
+import churilla.mark.toolrental.model.RentableTool;
+import churilla.mark.toolrental.repository.RentableToolRepository;
+import churilla.mark.toolrental.utility.ValidationUtils;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * A size-bounded, read-through cache of tool lookups, used by {@link ToolService} in front of a slow
+ * {@link RentableToolRepository}.
+ * <p>
+ * The cache is split into segments by the hash of the tool code, and each segment is a least recently used (LRU) map
+ * guarded by its own lock, so lookups of different codes rarely contend. When a segment is full, its least recently
+ * used entry is evicted. Entries expire a fixed time after they were loaded, measured with an injectable clock.
+ * Unknown tool codes are cached as well (as an empty result), so repeated lookups of a code that does not exist do
+ * not reach the repository either.
+ * </p><p>
+ * A lookup that misses calls the repository without holding a lock, so a slow load never blocks lookups of other
+ * codes. Two threads that miss on the same code at the same time may both load it; the later result replaces the
+ * earlier one. Each segment counts its invalidations, and a load that overlaps an invalidation of its segment is
+ * returned but not cached, so an invalidation is never undone by a result that was loaded before it.
+ * </p>
+ */
+public class ToolLookupCache {
+    // Caches smaller than this are held in a single segment, so that they evict in exact LRU order.
+    private static final int MIN_ENTRIES_PER_SEGMENT = 16;
+    private static final int MAX_SEGMENTS = 16;
+
+    private final RentableToolRepository repository;
+    private final Segment[] segments;
+    private final int segmentMask;
+    private final long timeToLiveNanos;
+    private final LongSupplier nanoClock;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder expirationCount = new LongAdder();
+
+    /**
+     * Statistics about the lookups answered by the cache.
+     *
+     * @param hitCount The number of lookups answered from the cache.
+     * @param missCount The number of lookups that were loaded from the repository.
+     * @param evictionCount The number of entries removed to make room for new entries.
+     * @param expirationCount The number of entries removed because they were older than the time to live.
+     */
+    public record Stats(long hitCount, long missCount, long evictionCount, long expirationCount) {
+
+        /**
+         * Returns the fraction of lookups that were answered from the cache.
+         *
+         * @return The hit rate between 0 and 1, or 0 if there have been no lookups.
+         */
+        public double hitRate() {
+            long lookupCount = hitCount + missCount;
+
+            return lookupCount == 0 ? 0 : (double) hitCount / lookupCount;
+        }
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param repository The repository that tools are loaded from on a miss.
+     * @param maximumSize The maximum number of tool codes held in the cache.
+     * @param timeToLive How long an entry is used after it has been loaded.
+     * @param nanoClock The source of the current time in nanoseconds, e.g. {@code System::nanoTime}.
+     *
+     * @throws IllegalArgumentException if the maximum size is less than one or the time to live is not positive.
+     */
+    public ToolLookupCache(final RentableToolRepository repository,
+                           final int maximumSize,
+                           final Duration timeToLive,
+                           final LongSupplier nanoClock) {
+        this.repository = ValidationUtils.requireNonNull(repository, "repository");
+        this.nanoClock = ValidationUtils.requireNonNull(nanoClock, "nanoClock");
+        ValidationUtils.requireNonNull(timeToLive, "timeToLive");
+
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException(String.format("The maximum size must be at least one, but was %s.", maximumSize));
+        }
+
+        if (timeToLive.isNegative() || timeToLive.isZero()) {
+            throw new IllegalArgumentException(String.format("The time to live must be positive, but was %s.", timeToLive));
+        }
+
+        this.timeToLiveNanos = timeToLive.toNanos();
+
+        int segmentCount = Integer.highestOneBit(Math.max(1, Math.min(MAX_SEGMENTS, maximumSize / MIN_ENTRIES_PER_SEGMENT)));
+        this.segments = new Segment[segmentCount];
+        this.segmentMask = segmentCount - 1;
+
+        // Spread the remainder over the first segments so that the capacities add up to the maximum size.
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(maximumSize / segmentCount + (i < maximumSize % segmentCount ? 1 : 0));
+        }
+    }
+
+    /**
+     * Returns the tool for the code, from the cache if a live entry exists, or from the repository otherwise.
+     *
+     * @param toolCode The unique code of the tool. Must not be null.
+     *
+     * @return An Optional containing the {@link RentableTool}, or empty if the repository does not contain the code.
+     */
+    public Optional<RentableTool> get(final String toolCode) {
+        Segment segment = segmentFor(toolCode);
+        long generation;
+
+        synchronized (segment) {
+            generation = segment.generation;
+            Entry entry = segment.get(toolCode);
+            if (entry != null) {
+                if (nanoClock.getAsLong() - entry.expiresAt() < 0) {
+                    hitCount.increment();
+                    return entry.tool();
+                }
+
+                segment.remove(toolCode);
+                expirationCount.increment();
+            }
+        }
+
+        missCount.increment();
+        Optional<RentableTool> tool = repository.getRentableToolByCode(toolCode);
+
+        synchronized (segment) {
+            if (segment.generation == generation) {
+                segment.put(toolCode, new Entry(tool, nanoClock.getAsLong() + timeToLiveNanos));
+            }
+        }
+
+        return tool;
+    }
+
+    /**
+     * Removes the entry for a tool code, so that the next lookup loads it from the repository.
+     *
+     * @param toolCode The unique code of the tool.
+     */
+    public void invalidate(final String toolCode) {
+        Segment segment = segmentFor(toolCode);
+
+        synchronized (segment) {
+            segment.remove(toolCode);
+            segment.generation++;
+        }
+    }
+
+    /**
+     * Removes every entry from the cache.
+     */
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+                segment.generation++;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of entries in the cache, including entries that have expired but have not been removed yet.
+     *
+     * @return The number of cached tool codes.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * Returns the repository that tools are loaded from on a miss.
+     *
+     * @return The {@link RentableToolRepository} behind the cache.
+     */
+    public RentableToolRepository getRepository() {
+        return repository;
+    }
+
+    /**
+     * Returns a snapshot of the cache statistics.
+     *
+     * @return The current {@link Stats}.
+     */
+    public Stats getStats() {
+        return new Stats(hitCount.sum(), missCount.sum(), evictionCount.sum(), expirationCount.sum());
+    }
+
+    /**
+     * Returns the segment that holds the tool code.
+     */
+    private Segment segmentFor(final String toolCode) {
+        int hash = toolCode.hashCode();
+
+        return segments[(hash ^ (hash >>> 16)) & segmentMask];
+    }
+
+    /**
+     * A cached lookup result and the time at which it expires.
+     */
+    private record Entry(Optional<RentableTool> tool, long expiresAt) {
+    }
+
+    /**
+     * An access-ordered map that evicts its least recently used entry when it grows past its capacity. A segment
+     * must only be used while holding its lock.
+     */
+    private class Segment extends LinkedHashMap<String, Entry> {
+        private final int capacity;
+
+        // Incremented by every invalidation, so that a load can tell whether one happened while it was running.
+        private long generation;
+
+        Segment(final int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+            if (size() > capacity) {
+                evictionCount.increment();
+                return true;
+            }
+
+            return false;
+        }
+    }
+}
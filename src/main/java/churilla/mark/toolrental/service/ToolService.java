@@ -2,8 +2,12 @@ package churilla.mark.toolrental.service;
 
 import churilla.mark.toolrental.exception.ToolDataInitializationException;
 import churilla.mark.toolrental.model.RentableTool;
+import churilla.mark.toolrental.repository.RentableToolRepository;
 import churilla.mark.toolrental.repository.ToolRepository;
+import churilla.mark.toolrental.utility.ValidationUtils;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -15,7 +19,10 @@ import java.util.Optional;
  * </p>
  */
 public class ToolService {
-    private final ToolRepository toolRepo;
+    private final RentableToolRepository toolRepo;
+
+    // Read-through cache in front of the repository, or null if lookups go straight to the repository.
+    private final ToolLookupCache cache;
 
     /**
      * Constructor. Reads the values from the ToolDb.json file initializes the tool map using the tool codes as keys.
@@ -25,7 +32,42 @@ public class ToolService {
      * </p>
      */
     public ToolService() {
-        this.toolRepo = new ToolRepository();
+        this(new ToolRepository());
+    }
+
+    /**
+     * Constructor that reads tools from the given repository without caching, e.g. a {@link ToolRepository} over a
+     * tool file that is reloaded when it changes.
+     *
+     * @param toolRepo The {@link RentableToolRepository} that tools are read from.
+     */
+    public ToolService(final RentableToolRepository toolRepo) {
+        this.toolRepo = ValidationUtils.requireNonNull(toolRepo, "toolRepo");
+        this.cache = null;
+    }
+
+    /**
+     * Constructor that reads tools from the given repository through a {@link ToolLookupCache}. This should be used
+     * when lookups in the repository are slow, e.g. when it reads from a remote document store.
+     *
+     * @param toolRepo The {@link RentableToolRepository} that tools are read from.
+     * @param maximumCacheSize The maximum number of tool codes held in the cache.
+     * @param timeToLive How long a cached lookup is used before the tool is read from the repository again.
+     *
+     * @throws IllegalArgumentException if the maximum size is less than one or the time to live is not positive.
+     */
+    public ToolService(final RentableToolRepository toolRepo, final int maximumCacheSize, final Duration timeToLive) {
+        this(new ToolLookupCache(toolRepo, maximumCacheSize, timeToLive, System::nanoTime));
+    }
+
+    /**
+     * Constructor that reads tools through the given cache, from the repository that the cache loads from.
+     *
+     * @param cache The {@link ToolLookupCache} that tools are read through.
+     */
+    public ToolService(final ToolLookupCache cache) {
+        this.cache = ValidationUtils.requireNonNull(cache, "cache");
+        this.toolRepo = cache.getRepository();
     }
 
     /**
@@ -40,6 +82,42 @@ public class ToolService {
      * @return An Optional containing the {@link RentableTool} if found by the repository, or empty otherwise.
      */
     public Optional<RentableTool> getRentableTool(final String toolCode) {
-        return toolRepo.getRentableToolByCode(toolCode);
+        if (cache == null || toolCode == null) {
+            return toolRepo.getRentableToolByCode(toolCode);
+        }
+
+        return cache.get(toolCode);
+    }
+
+    /**
+     * Retrieves every {@link RentableTool} in the repository. The list is read from the repository on every call and
+     * is not cached.
+     *
+     * @return An unmodifiable list of the tools, ordered by tool code.
+     */
+    public List<RentableTool> getRentableTools() {
+        return toolRepo.getRentableTools();
+    }
+
+    /**
+     * Retrieves the {@link RentableTool} objects whose tool type has the given name. The list is read from the
+     * repository on every call and is not cached.
+     *
+     * @param toolTypeName The name of the tool type, e.g. "Jackhammer".
+     *
+     * @return An unmodifiable list of the matching tools, ordered by tool code. Empty if the name is null or no tool
+     *         has the type.
+     */
+    public List<RentableTool> getRentableToolsByTypeName(final String toolTypeName) {
+        return toolRepo.getRentableToolsByTypeName(toolTypeName);
+    }
+
+    /**
+     * Returns the statistics of the lookup cache.
+     *
+     * @return The cache statistics, or empty if this service does not cache lookups.
+     */
+    public Optional<ToolLookupCache.Stats> getCacheStats() {
+        return cache == null ? Optional.empty() : Optional.of(cache.getStats());
     }
 }
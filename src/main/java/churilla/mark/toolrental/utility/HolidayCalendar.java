@@ -0,0 +1,314 @@
+package churilla.mark.toolrental.utility;
+
+import churilla.mark.toolrental.exception.HolidayDataInitializationException;
+import churilla.mark.toolrental.model.HolidayRule;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.Month;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Calendar of the observed holidays, compiled once from a list of {@link HolidayRule}s for a window of years.
+ * <p>
+ * Every rule is evaluated once for each year of the window, and the observed holidays are stored in a dense table with
+ * one bit per day, next to a running count of the holidays before every 64 days. Checking whether a day is a holiday
+ * reads one bit, and counting the holidays between two days reads two counts and two words of the table, so neither
+ * depends on how many rules are configured. Days outside the window are still supported, but the rules are evaluated
+ * for those years on each call.
+ * </p><p>
+ * The default calendar is compiled from the rules in the HolidayRules.json resource, which recognizes Independence
+ * Day (July 4th, observed on the closest weekday) and Labor Day (the first Monday of September). Starting the JVM with
+ * {@code -Dchurilla.mark.toolrental.holidayRules=<file>} loads the rules of a store from a file instead.
+ * </p>
+ */
+public class HolidayCalendar {
+    /**
+     * The system property that names a file to load the holiday rules of the default calendar from.
+     */
+    public static final String RULES_PROPERTY = "churilla.mark.toolrental.holidayRules";
+
+    private static final String RULES_RESOURCE = "HolidayRules.json";
+
+    private static final int DEFAULT_FIRST_YEAR = 1900;
+    private static final int DEFAULT_LAST_YEAR = 2399;
+
+    private static final HolidayRule INDEPENDENCE_DAY = new HolidayRule.FixedDate("Independence Day", Month.JULY, 4, true);
+    private static final HolidayRule LABOR_DAY = new HolidayRule.NthWeekdayOfMonth("Labor Day", Month.SEPTEMBER, DayOfWeek.MONDAY, 1);
+
+    private final List<HolidayRule> rules;
+    private final long windowStart;
+    private final long windowEnd;
+
+    // Bit (day - windowStart) is set for every observed holiday within the window.
+    private final long[] holidays;
+
+    // Bit (day - windowStart) is set for every observed holiday within the window that falls on a Saturday or Sunday.
+    private final long[] weekendHolidays;
+
+    // holidayCounts[i] holds the number of holidays in the words of the table before word i.
+    private final int[] holidayCounts;
+    private final int[] weekendHolidayCounts;
+
+    /**
+     * Constructor. Compiles the configured holiday rules (see {@link #getConfiguredRules()}) for every year in the
+     * given window.
+     *
+     * @param firstYear The first year of the window.
+     * @param lastYear The last year of the window (inclusive).
+     *
+     * @throws IllegalArgumentException if the last year is before the first year.
+     * @throws HolidayDataInitializationException if the configured rules cannot be loaded.
+     */
+    public HolidayCalendar(final int firstYear, final int lastYear) {
+        this(firstYear, lastYear, getConfiguredRules());
+    }
+
+    /**
+     * Constructor. Compiles the given holiday rules for every year in the given window.
+     *
+     * @param firstYear The first year of the window.
+     * @param lastYear The last year of the window (inclusive).
+     * @param rules The rules of the holidays that are observed.
+     *
+     * @throws IllegalArgumentException if the last year is before the first year.
+     */
+    public HolidayCalendar(final int firstYear, final int lastYear, final List<HolidayRule> rules) {
+        if (lastYear < firstYear) {
+            throw new IllegalArgumentException(String.format("The holiday calendar window %s - %s is invalid.", firstYear, lastYear));
+        }
+
+        this.rules = List.copyOf(ValidationUtils.requireNonNull(rules, "rules"));
+        this.windowStart = LocalDateUtils.toEpochDay(firstYear, 1, 1);
+        this.windowEnd = LocalDateUtils.toEpochDay(lastYear + 1, 1, 1) - 1;
+
+        int words = Math.toIntExact((windowEnd - windowStart + 1 + 63) >>> 6);
+        this.holidays = new long[words];
+        this.weekendHolidays = new long[words];
+
+        // An observed holiday can move into the neighboring year, so the years on either side are evaluated as well.
+        for (int year = firstYear - 1; year <= lastYear + 1; year++) {
+            for (HolidayRule rule : this.rules) {
+                long epochDay = rule.getObservedEpochDay(year);
+
+                if (epochDay >= windowStart && epochDay <= windowEnd) {
+                    int offset = (int) (epochDay - windowStart);
+                    holidays[offset >>> 6] |= 1L << offset;
+
+                    if (LocalDateUtils.isWeekend(epochDay)) {
+                        weekendHolidays[offset >>> 6] |= 1L << offset;
+                    }
+                }
+            }
+        }
+
+        this.holidayCounts = runningCounts(holidays);
+        this.weekendHolidayCounts = runningCounts(weekendHolidays);
+    }
+
+    /**
+     * Returns the shared calendar, which covers the years 1900 through 2399 and observes the configured holiday rules.
+     * It is compiled the first time it is requested.
+     *
+     * @return The default {@link HolidayCalendar}.
+     *
+     * @throws HolidayDataInitializationException if the configured rules cannot be loaded.
+     */
+    public static HolidayCalendar getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Loads the configured holiday rules: from the file named by the {@value #RULES_PROPERTY} system property if it is
+     * set, and from the HolidayRules.json resource otherwise.
+     *
+     * @return The configured rules.
+     *
+     * @throws HolidayDataInitializationException if the rules cannot be read.
+     */
+    public static List<HolidayRule> getConfiguredRules() {
+        String rulesFile = System.getProperty(RULES_PROPERTY);
+
+        try (InputStream inputStream = rulesFile == null ? ResourceUtils.getResource(RULES_RESOURCE) : Files.newInputStream(Path.of(rulesFile))) {
+            return HolidayRuleReader.readRules(inputStream);
+        } catch (IOException ex) {
+            throw new HolidayDataInitializationException(String.format("An error occurred while reading the holiday rules from %s.",
+                    rulesFile == null ? RULES_RESOURCE : rulesFile), ex);
+        }
+    }
+
+    /**
+     * Returns the rules of the holidays that are observed.
+     *
+     * @return An unmodifiable list of the rules.
+     */
+    public List<HolidayRule> getRules() {
+        return rules;
+    }
+
+    /**
+     * Determines if the given epoch day is an observed holiday.
+     *
+     * @param epochDay The epoch day to check.
+     *
+     * @return True if the day is an observed holiday, false otherwise.
+     */
+    public boolean isHoliday(final long epochDay) {
+        if (epochDay >= windowStart && epochDay <= windowEnd) {
+            int offset = (int) (epochDay - windowStart);
+
+            return (holidays[offset >>> 6] & (1L << offset)) != 0;
+        }
+
+        // An observed holiday can move into the neighboring year, so the years on either side are checked as well.
+        int year = LocalDateUtils.getYear(epochDay);
+        for (HolidayRule rule : rules) {
+            for (int ruleYear = year - 1; ruleYear <= year + 1; ruleYear++) {
+                if (rule.getObservedEpochDay(ruleYear) == epochDay) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Counts the observed holidays between two epoch days (inclusive).
+     *
+     * @param firstEpochDay The first day of the range.
+     * @param lastEpochDay The last day of the range.
+     *
+     * @return The number of holidays in the range, or zero if the last day is before the first day.
+     */
+    public int countHolidays(final long firstEpochDay, final long lastEpochDay) {
+        return count(holidays, holidayCounts, firstEpochDay, lastEpochDay, false);
+    }
+
+    /**
+     * Counts the observed holidays between two epoch days (inclusive) that fall on a Saturday or Sunday.
+     *
+     * @param firstEpochDay The first day of the range.
+     * @param lastEpochDay The last day of the range.
+     *
+     * @return The number of weekend holidays in the range, or zero if the last day is before the first day.
+     */
+    public int countWeekendHolidays(final long firstEpochDay, final long lastEpochDay) {
+        return count(weekendHolidays, weekendHolidayCounts, firstEpochDay, lastEpochDay, true);
+    }
+
+    /**
+     * Returns the epoch day of the Labor Day holiday (the first Monday of September) for the given year.
+     *
+     * @param year The year to calculate the holiday for.
+     *
+     * @return The epoch day that Labor Day falls on.
+     */
+    public static long getLaborDay(final int year) {
+        return LABOR_DAY.getObservedEpochDay(year);
+    }
+
+    /**
+     * Returns the epoch day that the Independence Day holiday is observed on for the given year. July 4th is moved to
+     * the previous Friday if it falls on a Saturday, or the following Monday if it falls on a Sunday.
+     *
+     * @param year The year to calculate the holiday for.
+     *
+     * @return The epoch day that Independence Day is observed on.
+     */
+    public static long getObservedIndependenceDay(final int year) {
+        return INDEPENDENCE_DAY.getObservedEpochDay(year);
+    }
+
+    /**
+     * Counts the days of the table that fall in the range. The part of the range inside the window is answered from
+     * the running counts, and any part outside the window is calculated year by year.
+     */
+    private int count(final long[] table, final int[] counts, final long firstEpochDay, final long lastEpochDay, final boolean weekendOnly) {
+        if (lastEpochDay < firstEpochDay) {
+            return 0;
+        }
+
+        int count = 0;
+
+        long first = Math.max(firstEpochDay, windowStart);
+        long last = Math.min(lastEpochDay, windowEnd);
+        if (first <= last) {
+            count += countBefore(table, counts, (int) (last - windowStart + 1)) - countBefore(table, counts, (int) (first - windowStart));
+        }
+
+        if (firstEpochDay < windowStart) {
+            count += countOutsideWindow(firstEpochDay, Math.min(lastEpochDay, windowStart - 1), weekendOnly);
+        }
+
+        if (lastEpochDay > windowEnd) {
+            count += countOutsideWindow(Math.max(firstEpochDay, windowEnd + 1), lastEpochDay, weekendOnly);
+        }
+
+        return count;
+    }
+
+    /**
+     * Counts the holidays in a range by evaluating the rules for each year in the range. A day that more than one
+     * rule falls on is only counted once, the same as in the table.
+     */
+    private int countOutsideWindow(final long firstEpochDay, final long lastEpochDay, final boolean weekendOnly) {
+        int count = 0;
+        int lastYear = LocalDateUtils.getYear(lastEpochDay);
+        long[] days = new long[rules.size()];
+
+        // An observed holiday can move into the neighboring year, so the years on either side are evaluated as well.
+        for (int year = LocalDateUtils.getYear(firstEpochDay) - 1; year <= lastYear + 1; year++) {
+            for (int i = 0; i < days.length; i++) {
+                days[i] = rules.get(i).getObservedEpochDay(year);
+            }
+            Arrays.sort(days);
+
+            for (int i = 0; i < days.length; i++) {
+                long epochDay = days[i];
+
+                if ((i == 0 || days[i - 1] != epochDay)
+                        && epochDay >= firstEpochDay && epochDay <= lastEpochDay
+                        && (!weekendOnly || LocalDateUtils.isWeekend(epochDay))) {
+                    count++;
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns the number of days set in the table before the given offset from the start of the window.
+     */
+    private static int countBefore(final long[] table, final int[] counts, final int offset) {
+        int word = offset >>> 6;
+        int bit = offset & 63;
+
+        return bit == 0 ? counts[word] : counts[word] + Long.bitCount(table[word] & ((1L << bit) - 1));
+    }
+
+    /**
+     * Returns the running count of the days set in the table before each word, with one more entry for the end of
+     * the table.
+     */
+    private static int[] runningCounts(final long[] table) {
+        int[] counts = new int[table.length + 1];
+        for (int i = 0; i < table.length; i++) {
+            counts[i + 1] = counts[i] + Long.bitCount(table[i]);
+        }
+
+        return counts;
+    }
+
+    /**
+     * Holds the default calendar so the rules are only loaded when it is first used.
+     */
+    private static class DefaultHolder {
+        private static final HolidayCalendar INSTANCE = new HolidayCalendar(DEFAULT_FIRST_YEAR, DEFAULT_LAST_YEAR);
+    }
+}
@@ -0,0 +1,167 @@
+package churilla.mark.toolrental.utility;
+
+import churilla.mark.toolrental.exception.RequiredFieldNullException;
+import churilla.mark.toolrental.model.HolidayRule;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.DayOfWeek;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads holiday rules in the HolidayRules.json format using the Jackson streaming API.
+ * <p>
+ * The file holds a JSON array of rule objects. Every rule has a {@code name}, a {@code type} and a {@code month}
+ * (e.g. {@code "JULY"}); the other properties depend on the type:
+ * </p>
+ * <ul>
+ *     <li>{@code fixedDate}: {@code dayOfMonth} and, optionally, {@code observedOnWeekday} (default false).</li>
+ *     <li>{@code nthWeekdayOfMonth}: {@code dayOfWeek} (e.g. {@code "MONDAY"}) and {@code week} (1 - 4).</li>
+ *     <li>{@code lastWeekdayOfMonth}: {@code dayOfWeek}.</li>
+ * </ul>
+ * <p>
+ * Unknown properties, unknown types, invalid values and values of the wrong JSON type (e.g. a string for
+ * {@code observedOnWeekday}) are reported as an {@link IOException}.
+ * </p>
+ */
+public class HolidayRuleReader {
+    // JsonFactory is thread-safe and is meant to be shared. The caller owns the stream, so closing a parser must not
+    // close it.
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .disable(StreamReadFeature.AUTO_CLOSE_SOURCE)
+            .build();
+
+    /**
+     * Reads a JSON array of holiday rules from the stream. The stream is not closed by this method.
+     *
+     * @param inputStream The stream containing the JSON array.
+     *
+     * @return The rules in the order they appear.
+     *
+     * @throws IOException if the stream cannot be read or does not contain a valid array of rules.
+     */
+    public static List<HolidayRule> readRules(final InputStream inputStream) throws IOException {
+        List<HolidayRule> rules = new ArrayList<>();
+
+        try (JsonParser parser = JSON_FACTORY.createParser(inputStream)) {
+            expect(parser, parser.nextToken(), JsonToken.START_ARRAY);
+
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                rules.add(readRule(parser));
+            }
+        }
+
+        return rules;
+    }
+
+    /**
+     * Reads a single rule. The parser must be positioned on the {@code START_OBJECT} token of the rule, and is left on
+     * its {@code END_OBJECT} token.
+     */
+    private static HolidayRule readRule(final JsonParser parser) throws IOException {
+        expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+
+        String name = null;
+        String type = null;
+        Month month = null;
+        DayOfWeek dayOfWeek = null;
+        int dayOfMonth = 0;
+        int week = 0;
+        boolean observedOnWeekday = false;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            JsonToken value = parser.nextToken();
+
+            switch (fieldName) {
+                case "name" -> name = readString(parser, value);
+                case "type" -> type = readString(parser, value);
+                case "month" -> month = readEnum(parser, value, Month.class);
+                case "dayOfWeek" -> dayOfWeek = readEnum(parser, value, DayOfWeek.class);
+                case "dayOfMonth" -> dayOfMonth = readInt(parser, value);
+                case "week" -> week = readInt(parser, value);
+                case "observedOnWeekday" -> observedOnWeekday = readBoolean(parser, value);
+                default -> throw new JsonParseException(parser, String.format("Unrecognized field \"%s\" for %s.", fieldName, HolidayRule.class.getSimpleName()));
+            }
+        }
+
+        try {
+            return switch (ValidationUtils.requireNonNull(type, "type")) {
+                case "fixedDate" -> new HolidayRule.FixedDate(name, month, dayOfMonth, observedOnWeekday);
+                case "nthWeekdayOfMonth" -> new HolidayRule.NthWeekdayOfMonth(name, month, dayOfWeek, week);
+                case "lastWeekdayOfMonth" -> new HolidayRule.LastWeekdayOfMonth(name, month, dayOfWeek);
+                default -> throw new JsonParseException(parser, String.format("Unknown holiday rule type \"%s\".", type));
+            };
+        } catch (RequiredFieldNullException | IllegalArgumentException ex) {
+            throw new JsonParseException(parser, ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Reads the name of an enum constant, e.g. {@code "MONDAY"}.
+     */
+    private static <E extends Enum<E>> E readEnum(final JsonParser parser,
+                                                  final JsonToken token,
+                                                  final Class<E> type) throws IOException {
+        String value = readString(parser, token);
+        if (value == null) {
+            return null;
+        }
+
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            throw new JsonParseException(parser, String.format("Invalid %s value \"%s\".", type.getSimpleName(), value), ex);
+        }
+    }
+
+    /**
+     * Reads a string, or null for a JSON null. Any other value, e.g. an object, is rejected rather than being read
+     * as part of the rule.
+     */
+    private static String readString(final JsonParser parser, final JsonToken value) throws IOException {
+        if (value != JsonToken.VALUE_STRING && value != JsonToken.VALUE_NULL) {
+            throw new JsonParseException(parser, String.format("Expected a string but found %s.", value));
+        }
+
+        return parser.getValueAsString();
+    }
+
+    /**
+     * Reads an integer value, where a JSON null is read as zero.
+     */
+    private static int readInt(final JsonParser parser, final JsonToken value) throws IOException {
+        return switch (value) {
+            case VALUE_NUMBER_INT -> parser.getIntValue();
+            case VALUE_NULL -> 0;
+            default -> throw new JsonParseException(parser, String.format("Expected an integer but found %s.", value));
+        };
+    }
+
+    /**
+     * Reads a boolean value, where a JSON null is read as false.
+     */
+    private static boolean readBoolean(final JsonParser parser, final JsonToken value) throws IOException {
+        return switch (value) {
+            case VALUE_TRUE -> true;
+            case VALUE_FALSE, VALUE_NULL -> false;
+            default -> throw new JsonParseException(parser, String.format("Expected a boolean but found %s.", value));
+        };
+    }
+
+    /**
+     * Throws an exception if the token is not the expected one.
+     */
+    private static void expect(final JsonParser parser, final JsonToken actual, final JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new JsonParseException(parser, String.format("Expected %s but found %s.", expected, actual));
+        }
+    }
+}
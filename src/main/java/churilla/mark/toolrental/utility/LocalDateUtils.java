@@ -2,21 +2,28 @@ package churilla.mark.toolrental.utility;
 
 import churilla.mark.toolrental.exception.RequiredFieldNullException;
 
-import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.Month;
 
 /**
  * Utility class that provides static methods for working with {@link LocalDate} objects.
  * <p>
  * The functionality currently offers methods to determine if a given {@link LocalDate} falls on one of the
- * recognized holidays.
+ * recognized holidays, and to count weekend days in a range of epoch days without visiting each day.
+ * The holiday checks are a thin facade over the precomputed tables in {@link HolidayCalendar}.
  * </p>
  */
 public class LocalDateUtils {
+    private static final int DAYS_PER_WEEK = 7;
+
+    // Index of Saturday when the days of the week are numbered from Monday (0) to Sunday (6).
+    private static final int WEEKEND_START_INDEX = 5;
+
+    // Number of days from 0000-01-01 to 1970-01-01, used to convert a calendar date to an epoch day.
+    private static final long DAYS_0000_TO_1970 = 719528L;
 
     /**
-     * Determines if the given date falls on either the Labor Day holiday or the Independence Day holiday.
+     * Determines if the given date falls on one of the holidays of the {@link HolidayCalendar#getDefault() default
+     * calendar}, which by default are the Labor Day holiday and the Independence Day holiday.
      *
      * @param date The date to compare against.
      *
@@ -27,7 +34,7 @@ public class LocalDateUtils {
             throw new RequiredFieldNullException("date", "The date parameter in isHoliday() must not be null");
         }
 
-        return (isLaborDayHoliday(date) || isIndependenceDayHoliday(date));
+        return HolidayCalendar.getDefault().isHoliday(date.toEpochDay());
     }
 
     /**
@@ -42,16 +49,7 @@ public class LocalDateUtils {
             throw new RequiredFieldNullException("date", "The date parameter in isLaborDayHoliday() must not be null");
         }
 
-        // If the date is not in September, or if it is not a Monday,
-        // then it cannot be Labor Day.
-        if (date.getMonth() != Month.SEPTEMBER ||
-                date.getDayOfWeek() != DayOfWeek.MONDAY) {
-            return false;
-        }
-
-        // The date is on a Monday in September, so subtract 7 days (one week) to see if the date ends up in September,
-        // or August. If it is September then this cannot be the first Monday and therefore is not Labor Day.
-        return date.minusDays(7).getMonth() == Month.AUGUST;
+        return date.toEpochDay() == HolidayCalendar.getLaborDay(date.getYear());
     }
 
     /**
@@ -68,22 +66,150 @@ public class LocalDateUtils {
             throw new RequiredFieldNullException("date", "The date parameter in isIndependenceDayHoliday() must not be null");
         }
 
-        // If the July 4th holiday has already occurred (July 5th is the latest possible date), no need to continue.
-        if (date.isAfter(LocalDate.of(date.getYear(), 7, 5))) {
-            return false;
+        return date.toEpochDay() == HolidayCalendar.getObservedIndependenceDay(date.getYear());
+    }
+
+    /**
+     * Returns the date of the Labor Day holiday (the first Monday of September) for the given year.
+     *
+     * @param year The year to calculate the holiday for.
+     *
+     * @return The date that Labor Day falls on.
+     */
+    public static LocalDate getLaborDay(final int year) {
+        return LocalDate.ofEpochDay(HolidayCalendar.getLaborDay(year));
+    }
+
+    /**
+     * Returns the date that the Independence Day holiday is observed on for the given year. July 4th is moved to the
+     * closest weekday when it falls on a weekend.
+     *
+     * @param year The year to calculate the holiday for.
+     *
+     * @return The date that Independence Day is observed on.
+     */
+    public static LocalDate getObservedIndependenceDay(final int year) {
+        return LocalDate.ofEpochDay(HolidayCalendar.getObservedIndependenceDay(year));
+    }
+
+    /**
+     * Determines if the given epoch day (days since 1970-01-01) falls on a Saturday or Sunday.
+     *
+     * @param epochDay The epoch day to check.
+     *
+     * @return True if the day is on a weekend, false otherwise.
+     */
+    public static boolean isWeekend(final long epochDay) {
+        return getDayOfWeekIndex(epochDay) >= WEEKEND_START_INDEX;
+    }
+
+    /**
+     * Counts the Saturdays and Sundays between two epoch days (inclusive) using week arithmetic, so the cost
+     * does not depend on the length of the range.
+     *
+     * @param firstEpochDay The first day of the range.
+     * @param lastEpochDay The last day of the range.
+     *
+     * @return The number of weekend days in the range, or zero if the last day is before the first day.
+     */
+    public static long countWeekendDays(final long firstEpochDay, final long lastEpochDay) {
+        if (lastEpochDay < firstEpochDay) {
+            return 0;
         }
 
-        // Calculate which day the holiday will be observed on. Start by assuming it will be on the 4th.
-        LocalDate observedHolidayDate = LocalDate.of(date.getYear(), 7, 4);
+        long totalDays = lastEpochDay - firstEpochDay + 1;
+        int startIndex = getDayOfWeekIndex(firstEpochDay);
+        int remainingDays = (int) (totalDays % DAYS_PER_WEEK);
 
-        // If it falls on Saturday, subtract a day and set it to Friday
-        // If it falls on Sunday, add a day to set to Monday.
-        switch(observedHolidayDate.getDayOfWeek()) {
-            case SATURDAY -> observedHolidayDate = observedHolidayDate.minusDays(1);
-            case SUNDAY ->  observedHolidayDate = observedHolidayDate.plusDays(1);
+        // Every full week contains exactly two weekend days. The remaining partial week is counted by comparing
+        // how many weekend days occur before the start and end positions of a repeating Monday-based week.
+        return (totalDays / DAYS_PER_WEEK) * 2
+                + weekendDaysBefore(startIndex + remainingDays)
+                - weekendDaysBefore(startIndex);
+    }
+
+    /**
+     * Returns a zero-based index for the day of the week, where Monday is 0 and Sunday is 6.
+     *
+     * @param epochDay The epoch day to check.
+     *
+     * @return The index of the day of the week, matching {@code DayOfWeek.getValue() - 1}.
+     */
+    public static int getDayOfWeekIndex(final long epochDay) {
+        // The epoch (1970-01-01) was a Thursday, which is why the day is offset by three.
+        return Math.floorMod(epochDay + 3, DAYS_PER_WEEK);
+    }
+
+    /**
+     * Converts a calendar date to an epoch day without creating a {@link LocalDate}. The values are not validated,
+     * so the caller is responsible for passing a real date.
+     *
+     * @param year The year of the date.
+     * @param month The month of the date, from 1 (January) to 12 (December).
+     * @param dayOfMonth The day of the month, starting at 1.
+     *
+     * @return The number of days since 1970-01-01 (negative for earlier dates).
+     */
+    public static long toEpochDay(final int year, final int month, final int dayOfMonth) {
+        // Same calculation as LocalDate.toEpochDay().
+        long y = year;
+        long total = 365 * y;
+
+        if (y >= 0) {
+            total += (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        } else {
+            total -= y / -4 - y / -100 + y / -400;
+        }
+
+        total += (367L * month - 362) / 12;
+        total += dayOfMonth - 1;
+
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
         }
 
-        // Check if the date passed in falls on the observed holiday date.
-        return date.equals(observedHolidayDate);
+        return total - DAYS_0000_TO_1970;
+    }
+
+    /**
+     * Returns the year that the given epoch day falls in without creating a {@link LocalDate}.
+     *
+     * @param epochDay The epoch day to check.
+     *
+     * @return The year that the day falls in.
+     */
+    public static int getYear(final long epochDay) {
+        // Estimate the year from the average length of a Gregorian year, then correct the estimate by at most a year.
+        int year = (int) Math.floorDiv(epochDay * 400, 146097) + 1970;
+
+        if (toEpochDay(year, 1, 1) > epochDay) {
+            year--;
+        } else if (toEpochDay(year + 1, 1, 1) <= epochDay) {
+            year++;
+        }
+
+        return year;
+    }
+
+    /**
+     * Determines if the given year is a leap year in the ISO calendar.
+     *
+     * @param year The year to check.
+     *
+     * @return True if the year is a leap year, false otherwise.
+     */
+    public static boolean isLeapYear(final long year) {
+        return ((year & 3) == 0) && ((year % 100) != 0 || (year % 400) == 0);
+    }
+
+    /**
+     * Counts the weekend days that occur before the given position in a repeating Monday-based week.
+     * Positions range from 0 to 13 (two weeks).
+     */
+    private static long weekendDaysBefore(final int position) {
+        return (position / DAYS_PER_WEEK) * 2L + Math.max(0, (position % DAYS_PER_WEEK) - WEEKEND_START_INDEX);
     }
 }
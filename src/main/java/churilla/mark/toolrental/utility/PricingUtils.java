@@ -0,0 +1,120 @@
+package churilla.mark.toolrental.utility;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Utility class that calculates rental prices.
+ * <p>
+ * Prices are calculated in whole cents held in a {@code long}, which gives exactly the same results as the
+ * {@link BigDecimal} calculation (two decimal places, rounded HALF_UP) without creating any objects. The
+ * {@link BigDecimal} methods are kept for amounts that are too large to be held in cents.
+ * </p>
+ */
+public class PricingUtils {
+    private static final int CURRENCY_SCALE = 2;
+    private static final int PERCENT = 100;
+
+    // The largest pre-discount price, in cents, that can be multiplied by a discount percentage and then rounded
+    // (by adding half a cent) without overflow.
+    private static final long MAX_PRE_DISCOUNT_CENTS = (Long.MAX_VALUE - PERCENT / 2) / PERCENT;
+
+    /**
+     * Determines if the price of a rental can be calculated in cents without overflowing a {@code long}.
+     *
+     * @param dailyChargeCents The daily charge in cents.
+     * @param chargeableDays The number of days that are charged.
+     *
+     * @return True if the cents methods can be used, false if the {@link BigDecimal} methods are required.
+     */
+    public static boolean fitsInCents(final long dailyChargeCents, final int chargeableDays) {
+        if (dailyChargeCents == Long.MIN_VALUE || chargeableDays < 0) {
+            return false;
+        }
+
+        return Math.abs(dailyChargeCents) <= MAX_PRE_DISCOUNT_CENTS / Math.max(1, chargeableDays);
+    }
+
+    /**
+     * Calculates the price of a rental before the discount is applied.
+     *
+     * @param dailyChargeCents The daily charge in cents.
+     * @param chargeableDays The number of days that are charged.
+     *
+     * @return The pre-discount price in cents.
+     */
+    public static long calculatePreDiscountCents(final long dailyChargeCents, final int chargeableDays) {
+        return dailyChargeCents * chargeableDays;
+    }
+
+    /**
+     * Calculates the discount amount for a price, rounded to the nearest cent with ties rounded away from zero
+     * (HALF_UP).
+     *
+     * @param preDiscountCents The price before the discount, in cents.
+     * @param discount The discount rate as a whole number percent (0 - 100).
+     *
+     * @return The discount amount in cents.
+     */
+    public static long calculateDiscountCents(final long preDiscountCents, final int discount) {
+        // The product is in hundredths of a cent. Add half a cent to the magnitude before dividing so that
+        // the truncating division rounds HALF_UP.
+        long hundredthsOfCents = preDiscountCents * discount;
+        long roundedMagnitude = (Math.abs(hundredthsOfCents) + PERCENT / 2) / PERCENT;
+
+        return hundredthsOfCents < 0 ? -roundedMagnitude : roundedMagnitude;
+    }
+
+    /**
+     * Converts an amount in cents to a {@link BigDecimal} with two decimal places.
+     *
+     * @param cents The amount in cents.
+     *
+     * @return The amount in dollars.
+     */
+    public static BigDecimal toDollars(final long cents) {
+        return BigDecimal.valueOf(cents, CURRENCY_SCALE);
+    }
+
+    /**
+     * Calculates the price of a rental before the discount is applied, using {@link BigDecimal} arithmetic.
+     *
+     * @param dailyCharge The daily charge.
+     * @param chargeableDays The number of days that are charged.
+     *
+     * @return The pre-discount price with two decimal places.
+     */
+    public static BigDecimal calculatePreDiscountPrice(final BigDecimal dailyCharge, final int chargeableDays) {
+        return dailyCharge.multiply(BigDecimal.valueOf(chargeableDays))
+                          .setScale(CURRENCY_SCALE, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Calculates the discount amount for a price, using {@link BigDecimal} arithmetic.
+     *
+     * @param preDiscountPrice The price before the discount.
+     * @param discount The discount rate as a whole number percent (0 - 100).
+     *
+     * @return The discount amount with two decimal places.
+     */
+    public static BigDecimal calculateDiscountAmount(final BigDecimal preDiscountPrice, final int discount) {
+        BigDecimal discountPct = BigDecimal.valueOf(discount)
+                                           .divide(BigDecimal.valueOf(PERCENT), CURRENCY_SCALE, RoundingMode.HALF_UP);
+
+        return preDiscountPrice.multiply(discountPct)
+                               .setScale(CURRENCY_SCALE, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Calculates the final price of a rental, using {@link BigDecimal} arithmetic.
+     *
+     * @param preDiscountPrice The price before the discount.
+     * @param discountAmount The discount amount.
+     *
+     * @return The final price with two decimal places.
+     */
+    public static BigDecimal calculateFinalPrice(final BigDecimal preDiscountPrice, final BigDecimal discountAmount) {
+        return preDiscountPrice.subtract(discountAmount)
+                               .setScale(CURRENCY_SCALE, RoundingMode.HALF_UP);
+    }
+}
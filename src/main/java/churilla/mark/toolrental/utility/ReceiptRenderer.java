@@ -0,0 +1,269 @@
+package churilla.mark.toolrental.utility;
+
+import churilla.mark.toolrental.model.RentableTool;
+import churilla.mark.toolrental.model.RentalAgreement;
+import churilla.mark.toolrental.model.ToolType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Utility class that renders rental agreements and tool types as human-readable text.
+ * <p>
+ * The text is written directly into an {@link Appendable} (e.g., a {@link StringBuilder} or
+ * {@link java.nio.CharBuffer}). Currency amounts are written as US dollars (e.g., {@code $1,234.56}) and dates as
+ * {@code MM/dd/yy}, producing the same text as {@link NumberFormat#getCurrencyInstance(Locale)} and
+ * {@code DateTimeFormatter.ofPattern("MM/dd/yy")} without parsing a format string or sharing a formatter. The
+ * class holds no mutable state, so it is safe to use from many threads at once.
+ * </p>
+ */
+public class ReceiptRenderer {
+    // The two-digit text of every number from 00 to 99, used to write dates and cents without any arithmetic on
+    // strings.
+    private static final char[] TWO_DIGITS = new char[200];
+
+    static {
+        for (int i = 0; i < 100; i++) {
+            TWO_DIGITS[i * 2] = (char) ('0' + i / 10);
+            TWO_DIGITS[i * 2 + 1] = (char) ('0' + i % 10);
+        }
+    }
+
+    /**
+     * Renders the rental agreement as text.
+     *
+     * @param agreement The {@link RentalAgreement} to render.
+     *
+     * @return A formatted, human-readable string of the rental agreement.
+     */
+    public static String render(final RentalAgreement agreement) {
+        StringBuilder builder = new StringBuilder(320);
+        appendRentalAgreement(agreement, builder);
+
+        return builder.toString();
+    }
+
+    /**
+     * Renders the tool type as text.
+     *
+     * @param toolType The {@link ToolType} to render.
+     *
+     * @return A formatted, human-readable string of the tool type.
+     */
+    public static String render(final ToolType toolType) {
+        StringBuilder builder = new StringBuilder(128);
+        appendToolType(toolType, builder);
+
+        return builder.toString();
+    }
+
+    /**
+     * Writes the rental agreement into a {@link StringBuilder}.
+     *
+     * @param agreement The {@link RentalAgreement} to render.
+     * @param builder The builder that the text is appended to.
+     */
+    public static void appendRentalAgreement(final RentalAgreement agreement, final StringBuilder builder) {
+        try {
+            appendRentalAgreement(agreement, (Appendable) builder);
+        } catch (IOException ex) {
+            // A StringBuilder never throws an IOException.
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Writes the rental agreement into an {@link Appendable}.
+     *
+     * @param agreement The {@link RentalAgreement} to render.
+     * @param out The destination that the text is appended to.
+     *
+     * @throws IOException if the destination cannot be written to.
+     */
+    public static void appendRentalAgreement(final RentalAgreement agreement, final Appendable out) throws IOException {
+        RentableTool tool = agreement.getTool();
+        ToolType toolType = tool.getToolType();
+
+        out.append("Tool code: ").append(tool.getToolCode()).append('\n');
+        out.append("Tool type: ").append(toolType.getName()).append('\n');
+        out.append("Brand: ").append(tool.getBrandName()).append('\n');
+        out.append("Checkout date: ");
+        appendDate(agreement.getCheckoutDate(), out);
+        out.append('\n');
+        out.append("Rental duration: ");
+        appendLong(agreement.getRentalDuration(), out);
+        out.append(" days\n");
+        out.append("Due date: ");
+        appendDate(agreement.getRentalDueDate(), out);
+        out.append('\n');
+        out.append("Daily rental charge: ");
+        appendCurrency(toolType, out);
+        out.append('\n');
+        out.append("Charged days: ");
+        appendLong(agreement.getChargeableDays(), out);
+        out.append(" days\n");
+        out.append("Charge before discount: ");
+        appendCurrency(agreement.getPreDiscountPrice(), out);
+        out.append('\n');
+        out.append("Discount rate: ");
+        appendLong(agreement.getDiscount(), out);
+        out.append("%\n");
+        out.append("Total discount: ");
+        appendCurrency(agreement.getDiscountAmount(), out);
+        out.append('\n');
+        out.append("Final charge: ");
+        appendCurrency(agreement.getFinalPrice(), out);
+        out.append('\n');
+    }
+
+    /**
+     * Writes the tool type into a {@link StringBuilder}.
+     *
+     * @param toolType The {@link ToolType} to render.
+     * @param builder The builder that the text is appended to.
+     */
+    public static void appendToolType(final ToolType toolType, final StringBuilder builder) {
+        try {
+            builder.append("Name: ").append(toolType.getName()).append('\n');
+            builder.append("Daily charge: ");
+            appendCurrency(toolType, builder);
+            builder.append('\n');
+            builder.append("Weekday charge: ").append(toolType.hasWeekdayCharge()).append('\n');
+            builder.append("Weekend charge: ").append(toolType.hasWeekendCharge()).append('\n');
+            builder.append("Holiday charge: ").append(toolType.hasHolidayCharge()).append('\n');
+        } catch (IOException ex) {
+            // A StringBuilder never throws an IOException.
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Writes an amount in cents as US dollars, e.g. {@code -$1,234.56}.
+     *
+     * @param cents The amount in cents.
+     * @param out The destination that the text is appended to.
+     *
+     * @throws IOException if the destination cannot be written to.
+     */
+    public static void appendCurrency(final long cents, final Appendable out) throws IOException {
+        if (cents == Long.MIN_VALUE) {
+            appendCurrency(PricingUtils.toDollars(cents), out);
+            return;
+        }
+
+        if (cents < 0) {
+            out.append('-');
+        }
+
+        long magnitude = Math.abs(cents);
+        long dollars = magnitude / 100;
+        int remainder = (int) (magnitude % 100);
+
+        out.append('$');
+
+        // Write the dollars in groups of three digits separated by commas. Only the first group is not zero padded.
+        long divisor = 1;
+        while (dollars / divisor >= 1000) {
+            divisor *= 1000;
+        }
+
+        appendLong(dollars / divisor, out);
+        while (divisor > 1) {
+            divisor /= 1000;
+            int group = (int) ((dollars / divisor) % 1000);
+
+            out.append(',').append((char) ('0' + group / 100));
+            appendTwoDigits(group % 100, out);
+        }
+
+        out.append('.');
+        appendTwoDigits(remainder, out);
+    }
+
+    /**
+     * Writes an amount as US dollars, e.g. {@code -$1,234.56}. Amounts with two decimal places that fit in a long
+     * number of cents are written without creating any objects.
+     *
+     * @param amount The amount in dollars.
+     * @param out The destination that the text is appended to.
+     *
+     * @throws IOException if the destination cannot be written to.
+     */
+    public static void appendCurrency(final BigDecimal amount, final Appendable out) throws IOException {
+        if (amount.scale() == 2 && amount.unscaledValue().bitLength() < Long.SIZE) {
+            appendCurrency(amount.unscaledValue().longValue(), out);
+            return;
+        }
+
+        // Amounts that cannot be held in cents are rare, so a new formatter is created for each one rather than
+        // sharing a formatter that is not thread-safe.
+        out.append(NumberFormat.getCurrencyInstance(Locale.US).format(amount));
+    }
+
+    /**
+     * Writes a date in the {@code MM/dd/yy} format. The year is written as the last two digits of the year of era,
+     * the same as {@code DateTimeFormatter.ofPattern("MM/dd/yy")}.
+     *
+     * @param date The date to write.
+     * @param out The destination that the text is appended to.
+     *
+     * @throws IOException if the destination cannot be written to.
+     */
+    public static void appendDate(final LocalDate date, final Appendable out) throws IOException {
+        int year = date.getYear();
+        int yearOfEra = year >= 1 ? year : 1 - year;
+
+        appendTwoDigits(date.getMonthValue(), out);
+        out.append('/');
+        appendTwoDigits(date.getDayOfMonth(), out);
+        out.append('/');
+        appendTwoDigits(yearOfEra % 100, out);
+    }
+
+    /**
+     * Writes the daily charge of a tool type, using the cents value that was converted when the type was created.
+     */
+    private static void appendCurrency(final ToolType toolType, final Appendable out) throws IOException {
+        if (toolType.getDailyChargeCents() != Long.MIN_VALUE) {
+            appendCurrency(toolType.getDailyChargeCents(), out);
+        } else {
+            appendCurrency(toolType.getDailyCharge(), out);
+        }
+    }
+
+    /**
+     * Writes a number from 0 to 99 as two digits.
+     */
+    private static void appendTwoDigits(final int value, final Appendable out) throws IOException {
+        out.append(TWO_DIGITS[value * 2]).append(TWO_DIGITS[value * 2 + 1]);
+    }
+
+    /**
+     * Writes a whole number in decimal without creating a string.
+     */
+    private static void appendLong(final long value, final Appendable out) throws IOException {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                out.append(Long.toString(value));
+                return;
+            }
+
+            out.append('-');
+            appendLong(-value, out);
+            return;
+        }
+
+        long divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+
+        for (; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + (value / divisor) % 10));
+        }
+    }
+}
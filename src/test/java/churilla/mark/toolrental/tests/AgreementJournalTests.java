@@ -0,0 +1,314 @@
+package churilla.mark.toolrental.tests;
+
+import churilla.mark.toolrental.exception.JournalWriteException;
+import churilla.mark.toolrental.exception.RequiredFieldNullException;
+import churilla.mark.toolrental.exception.ToolUnavailableException;
+import churilla.mark.toolrental.journal.AgreementJournal;
+import churilla.mark.toolrental.journal.FsyncPolicy;
+import churilla.mark.toolrental.journal.JournalRecord;
+import churilla.mark.toolrental.journal.JournaledRentalProcessor;
+import churilla.mark.toolrental.logic.ChargeableDayIndex;
+import churilla.mark.toolrental.logic.InventoryLedger;
+import churilla.mark.toolrental.logic.RentalProcessor;
+import churilla.mark.toolrental.metrics.CheckoutMetrics;
+import churilla.mark.toolrental.model.RentalAgreement;
+import churilla.mark.toolrental.model.Reservation;
+import churilla.mark.toolrental.service.ToolService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AgreementJournalTests {
+    private static final LocalDate JULY_2 = LocalDate.of(2015, 7, 2);
+
+    private final RentalProcessor rentalProcessor = new RentalProcessor(new ToolService(), ChargeableDayIndex.getDefault());
+
+    @TempDir
+    Path tempDir;
+
+    private List<RentalAgreement> createAgreements(final int count) {
+        String[] toolCodes = {"CHNS", "JAKD", "JAKR", "LADW"};
+
+        return IntStream.range(0, count)
+                .mapToObj(i -> rentalProcessor.checkout(toolCodes[i % toolCodes.length], JULY_2.plusDays(i), 1 + i % 9, i % 101))
+                .toList();
+    }
+
+    private static List<JournalRecord> readAll(final Path journalDirectory) throws IOException {
+        List<JournalRecord> records = new ArrayList<>();
+        AgreementJournal.read(journalDirectory, records::add);
+
+        return records;
+    }
+
+    private static RentalAgreement checkoutAt(final List<JournalRecord> records, final int index) {
+        return assertInstanceOf(JournalRecord.Checkout.class, records.get(index)).agreement();
+    }
+
+    private static Path lastSegment(final Path journalDirectory) throws IOException {
+        try (Stream<Path> files = Files.list(journalDirectory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".log")).max(Comparator.naturalOrder()).orElseThrow();
+        }
+    }
+
+    private static long countFiles(final Path journalDirectory, final String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(journalDirectory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(suffix)).count();
+        }
+    }
+
+    @Test
+    void givenConcurrentAppends_whenReadingJournal_thenEveryAgreementIsReadBack() throws IOException {
+        Path journalDirectory = tempDir.resolve("journal");
+        List<RentalAgreement> agreements = createAgreements(500);
+
+        try (AgreementJournal journal = AgreementJournal.open(journalDirectory, FsyncPolicy.always())) {
+            List<CompletableFuture<Long>> futures = agreements.parallelStream().map(journal::append).toList();
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        }
+
+        List<JournalRecord> records = readAll(journalDirectory);
+        assertEquals(agreements.size(), records.size());
+
+        // Records are read in sequence order, and every agreement is read back with the same values.
+        List<String> expected = agreements.stream().map(RentalAgreement::toString).sorted().toList();
+        List<String> actual = records.stream().map(record -> ((JournalRecord.Checkout) record).agreement().toString()).sorted().toList();
+        assertEquals(expected, actual);
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(i + 1, records.get(i).sequence());
+        }
+    }
+
+    @Test
+    void givenReopenedJournal_whenAppending_thenSequenceContinues() throws IOException {
+        Path journalDirectory = tempDir.resolve("journal");
+        List<RentalAgreement> agreements = createAgreements(3);
+
+        try (AgreementJournal journal = AgreementJournal.open(journalDirectory, FsyncPolicy.every(Duration.ofMillis(5)))) {
+            assertEquals(1L, journal.append(agreements.get(0)).join());
+            assertEquals(2L, journal.append(agreements.get(1)).join());
+        }
+
+        try (AgreementJournal journal = AgreementJournal.open(journalDirectory, FsyncPolicy.none())) {
+            assertEquals(3L, journal.append(agreements.get(2)).join());
+        }
+
+        assertEquals(3, readAll(journalDirectory).size());
+        assertEquals(agreements.get(2).toString(), checkoutAt(readAll(journalDirectory), 2).toString());
+    }
+
+    @Test
+    void givenTornRecordAtEnd_whenReadingAndReopening_thenTornRecordIsDiscarded() throws IOException {
+        Path journalDirectory = tempDir.resolve("journal");
+        List<RentalAgreement> agreements = createAgreements(2);
+
+        try (AgreementJournal journal = AgreementJournal.open(journalDirectory, FsyncPolicy.always())) {
+            journal.append(agreements.get(0)).join();
+        }
+
+        Path segment = lastSegment(journalDirectory);
+        long validLength = Files.size(segment);
+        Files.write(segment, new byte[] {0, 0, 0, 40, 1, 2, 3, 4, 1, 0, 0}, StandardOpenOption.APPEND);
+        assertEquals(1, readAll(journalDirectory).size());
+
+        try (AgreementJournal journal = AgreementJournal.open(journalDirectory, FsyncPolicy.always())) {
+            assertEquals(validLength, Files.size(segment));
+            assertEquals(2L, journal.append(agreements.get(1)).join());
+        }
+
+        assertEquals(2, readAll(journalDirectory).size());
+    }
+
+    @Test
+    void givenClosedJournal_whenAppending_thenFailsWith_JournalWriteException() throws IOException {
+        AgreementJournal journal = AgreementJournal.open(tempDir.resolve("journal"), FsyncPolicy.always());
+        journal.close();
+
+        CompletionException ex = assertThrows(CompletionException.class, () -> journal.append(createAgreements(1).get(0)).join());
+        assertInstanceOf(JournalWriteException.class, ex.getCause());
+    }
+
+    @Test
+    void givenAppendsRacingWithClose_whenClosing_thenEveryAppendIsCompleted() throws Exception {
+        RentalAgreement agreement = createAgreements(1).get(0);
+
+        for (int round = 0; round < 20; round++) {
+            AgreementJournal journal = AgreementJournal.open(tempDir.resolve("journal-" + round), FsyncPolicy.none());
+            List<CompletableFuture<Long>> futures = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch started = new CountDownLatch(4);
+            List<Thread> appenders = new ArrayList<>();
+
+            for (int i = 0; i < 4; i++) {
+                Thread appender = new Thread(() -> {
+                    started.countDown();
+                    for (int j = 0; j < 2000; j++) {
+                        futures.add(journal.append(agreement));
+                    }
+                });
+                appender.start();
+                appenders.add(appender);
+            }
+
+            started.await();
+            journal.close();
+            for (Thread appender : appenders) {
+                appender.join();
+            }
+
+            // Every append is either written or rejected; none is left waiting.
+            for (CompletableFuture<Long> future : futures) {
+                assertTrue(future.isDone());
+            }
+        }
+    }
+
+    @Test
+    void givenOptionsWithoutLedger_whenCreatingJournaledProcessor_thenThrows_RequiredFieldNullException() throws IOException {
+        try (AgreementJournal journal = AgreementJournal.open(tempDir.resolve("journal"), FsyncPolicy.none())) {
+            assertThrows(RequiredFieldNullException.class, () -> new JournaledRentalProcessor(new ToolService(), ChargeableDayIndex.getDefault(),
+                    journal, RentalProcessor.Options.NONE.withCheckoutMetrics(new CheckoutMetrics())));
+            assertThrows(RequiredFieldNullException.class, () -> new JournaledRentalProcessor(new ToolService(), ChargeableDayIndex.getDefault(), null, journal));
+        }
+    }
+
+    @Test
+    void givenJournaledProcessor_whenCheckingOut_thenAgreementIsJournaledBeforeItIsReturned() throws IOException {
+        Path journalDirectory = tempDir.resolve("journal");
+        InventoryLedger ledger = new InventoryLedger();
+        AgreementJournal journal = AgreementJournal.open(journalDirectory, FsyncPolicy.always());
+        JournaledRentalProcessor processor = new JournaledRentalProcessor(new ToolService(), ChargeableDayIndex.getDefault(), ledger, journal);
+
+        RentalAgreement agreement = processor.checkout("JAKR", JULY_2, 9, 0);
+        assertEquals(agreement.toString(), checkoutAt(readAll(journalDirectory), 0).toString());
+
+        // Once the journal is closed, a checkout fails and does not keep its reservation.
+        journal.close();
+        assertThrows(JournalWriteException.class, () -> processor.checkout("LADW", JULY_2, 3, 10));
+        assertEquals(0, ledger.getReservationCount("LADW"));
+    }
+
+    @Test
+    void givenSnapshotAndTail_whenReopening_thenActiveRentalsAreRecovered() throws IOException {
+        Path journalDirectory = tempDir.resolve("journal");
+        List<RentalAgreement> agreements = createAgreements(40);
+
+        // Segments of about three records, and a snapshot every ten records.
+        try (AgreementJournal journal = AgreementJournal.open(journalDirectory, FsyncPolicy.none(), 300, 10)) {
+            for (int i = 0; i < agreements.size(); i++) {
+                journal.append(agreements.get(i)).join();
+                if (i % 4 == 0) {
+                    journal.appendReturn(Reservation.of(agreements.get(i))).join();
+                }
+            }
+            journal.append(agreements.get(0)).join();
+        }
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 1; i < agreements.size(); i++) {
+            if (i % 4 != 0) {
+                expected.add(agreements.get(i).toString());
+            }
+        }
+        expected.add(agreements.get(0).toString());
+
+        try (AgreementJournal journal = AgreementJournal.open(journalDirectory, FsyncPolicy.none(), 300, 10)) {
+            assertEquals(51, journal.getLastSequence());
+            assertEquals(expected, journal.getActiveAgreements().stream().map(RentalAgreement::toString).toList());
+            assertEquals(52L, journal.append(agreements.get(1)).join());
+        }
+
+        // Segments covered by the fallback snapshot have been deleted, so only the later records remain.
+        List<JournalRecord> records = readAll(journalDirectory);
+        assertTrue(records.size() < 52);
+        assertEquals(52, records.get(records.size() - 1).sequence());
+        assertTrue(countFiles(journalDirectory, ".snap") <= 2);
+    }
+
+    @Test
+    void givenDamagedNewestSnapshot_whenReopening_thenOlderSnapshotAndSegmentsAreUsed() throws IOException {
+        Path journalDirectory = tempDir.resolve("journal");
+        List<RentalAgreement> agreements = createAgreements(6);
+
+        try (AgreementJournal journal = AgreementJournal.open(journalDirectory, FsyncPolicy.always())) {
+            journal.append(agreements.get(0)).join();
+            journal.append(agreements.get(1)).join();
+            assertEquals(2L, journal.snapshot().join());
+            journal.append(agreements.get(2)).join();
+            journal.appendReturn(Reservation.of(agreements.get(0))).join();
+            assertEquals(4L, journal.snapshot().join());
+            journal.append(agreements.get(3)).join();
+        }
+
+        Path newestSnapshot;
+        try (Stream<Path> files = Files.list(journalDirectory)) {
+            newestSnapshot = files.filter(file -> file.getFileName().toString().endsWith(".snap")).max(Comparator.naturalOrder()).orElseThrow();
+        }
+        byte[] bytes = Files.readAllBytes(newestSnapshot);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(newestSnapshot, bytes);
+
+        try (AgreementJournal journal = AgreementJournal.open(journalDirectory, FsyncPolicy.always())) {
+            assertEquals(5, journal.getLastSequence());
+            assertEquals(List.of(agreements.get(1).toString(), agreements.get(2).toString(), agreements.get(3).toString()),
+                    journal.getActiveAgreements().stream().map(RentalAgreement::toString).toList());
+        }
+    }
+
+    @Test
+    void givenManySegments_whenReopeningWithoutSnapshot_thenSegmentsAreReplayedInOrder() throws IOException {
+        Path journalDirectory = tempDir.resolve("journal");
+        List<RentalAgreement> agreements = createAgreements(200);
+
+        try (AgreementJournal journal = AgreementJournal.open(journalDirectory, FsyncPolicy.none(), 1000, Long.MAX_VALUE)) {
+            agreements.forEach(agreement -> journal.append(agreement).join());
+        }
+
+        assertTrue(countFiles(journalDirectory, ".log") > 10);
+        assertEquals(0, countFiles(journalDirectory, ".snap"));
+
+        try (AgreementJournal journal = AgreementJournal.open(journalDirectory, FsyncPolicy.none(), 1000, Long.MAX_VALUE)) {
+            assertEquals(200, journal.getLastSequence());
+            assertEquals(agreements.stream().map(RentalAgreement::toString).sorted().toList(),
+                    journal.getActiveAgreements().stream().map(RentalAgreement::toString).sorted().toList());
+        }
+    }
+
+    @Test
+    void givenJournaledProcessor_whenRestarting_thenActiveRentalsAreReservedAgain() throws IOException {
+        Path journalDirectory = tempDir.resolve("journal");
+
+        try (AgreementJournal journal = AgreementJournal.open(journalDirectory, FsyncPolicy.always())) {
+            JournaledRentalProcessor processor = new JournaledRentalProcessor(new ToolService(), ChargeableDayIndex.getDefault(), new InventoryLedger(), journal);
+            RentalAgreement returned = processor.checkout("JAKR", JULY_2, 9, 0);
+            processor.checkout("LADW", JULY_2, 3, 10);
+            assertTrue(processor.checkin(returned));
+        }
+
+        try (AgreementJournal journal = AgreementJournal.open(journalDirectory, FsyncPolicy.always())) {
+            InventoryLedger ledger = new InventoryLedger();
+            JournaledRentalProcessor processor = new JournaledRentalProcessor(new ToolService(), ChargeableDayIndex.getDefault(), ledger, journal);
+
+            assertEquals(1, ledger.getReservationCount("LADW"));
+            assertEquals(0, ledger.getReservationCount("JAKR"));
+            assertThrows(ToolUnavailableException.class, () -> processor.checkout("LADW", JULY_2.plusDays(1), 3, 0));
+            assertDoesNotThrow(() -> processor.checkout("JAKR", JULY_2, 9, 0));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package churilla.mark.toolrental.tests;
+
+import churilla.mark.toolrental.analytics.AgreementStore;
+import churilla.mark.toolrental.logic.ChargeableDayIndex;
+import churilla.mark.toolrental.logic.RentalProcessor;
+import churilla.mark.toolrental.model.RentalAgreement;
+import churilla.mark.toolrental.service.ToolService;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AgreementStoreTests {
+    private static final String[] TOOL_CODES = {"CHNS", "JAKD", "JAKR", "LADW"};
+
+    private final RentalProcessor processor = new RentalProcessor(new ToolService(), ChargeableDayIndex.getDefault());
+
+    @Test
+    void givenAgreements_whenAggregating_thenGroupsMatchObjectTotals() {
+        List<RentalAgreement> agreements = createAgreements(20_000);
+        AgreementStore store = new AgreementStore();
+        store.addAll(agreements);
+
+        assertEquals(agreements.size(), store.size());
+        assertGroups(agreements, store, AgreementStore.GroupBy.TOOL_CODE, a -> a.getTool().getToolCode(),
+                AgreementStore.Measure.FINAL_PRICE_CENTS, RentalAgreement::getFinalPriceCents);
+        assertGroups(agreements, store, AgreementStore.GroupBy.TOOL_TYPE, a -> a.getTool().getToolType().getName(),
+                AgreementStore.Measure.PRE_DISCOUNT_CENTS, RentalAgreement::getPreDiscountCents);
+        assertGroups(agreements, store, AgreementStore.GroupBy.BRAND, a -> a.getTool().getBrandName(),
+                AgreementStore.Measure.DISCOUNT_CENTS, RentalAgreement::getDiscountCents);
+        assertGroups(agreements, store, AgreementStore.GroupBy.CHECKOUT_MONTH, a -> YearMonth.from(a.getCheckoutDate()).toString(),
+                AgreementStore.Measure.CHARGEABLE_DAYS, RentalAgreement::getChargeableDays);
+        assertGroups(agreements, store, AgreementStore.GroupBy.DISCOUNT_BAND,
+                a -> a.getDiscount() == 100 ? "100%" : String.format("%s-%s%%", a.getDiscount() / 10 * 10, a.getDiscount() / 10 * 10 + 9),
+                AgreementStore.Measure.RENTAL_DURATION, RentalAgreement::getRentalDuration);
+    }
+
+    @Test
+    void givenManyAgreements_whenAggregatingInParallel_thenResultMatchesSequentialScan() {
+        AgreementStore store = new AgreementStore();
+        store.addAll(createAgreements(300_000));
+
+        for (AgreementStore.GroupBy groupBy : AgreementStore.GroupBy.values()) {
+            assertEquals(store.aggregate(groupBy, AgreementStore.Measure.FINAL_PRICE_CENTS),
+                    store.aggregate(groupBy, AgreementStore.Measure.FINAL_PRICE_CENTS, ForkJoinPool.commonPool()));
+        }
+
+        AgreementStore.Group chainsaws = store.aggregate(AgreementStore.GroupBy.TOOL_TYPE, AgreementStore.Measure.RENTAL_DURATION).get(0);
+        assertEquals("Chainsaw", chainsaws.key());
+        assertEquals((double) chainsaws.sum() / chainsaws.count(), chainsaws.average());
+    }
+
+    @Test
+    void givenEmptyStore_whenAggregating_thenNoGroupsAreReturned() {
+        AgreementStore store = new AgreementStore();
+
+        for (AgreementStore.GroupBy groupBy : AgreementStore.GroupBy.values()) {
+            assertEquals(List.of(), store.aggregate(groupBy, AgreementStore.Measure.FINAL_PRICE_CENTS));
+            assertEquals(List.of(), store.aggregate(groupBy, AgreementStore.Measure.FINAL_PRICE_CENTS, ForkJoinPool.commonPool()));
+        }
+    }
+
+    private List<RentalAgreement> createAgreements(final int count) {
+        List<RentalAgreement> agreements = new ArrayList<>(count);
+        LocalDate firstDate = LocalDate.of(2014, 11, 3);
+
+        for (int i = 0; i < count; i++) {
+            agreements.add(processor.quote(TOOL_CODES[i % TOOL_CODES.length], firstDate.plusDays(i % 731), 1 + i % 17, i % 101));
+        }
+
+        return agreements;
+    }
+
+    /**
+     * Totals the agreements with a map, in the order the keys are first seen, and compares the totals with the store.
+     */
+    private static void assertGroups(final List<RentalAgreement> agreements,
+                                     final AgreementStore store,
+                                     final AgreementStore.GroupBy groupBy,
+                                     final Function<RentalAgreement, String> key,
+                                     final AgreementStore.Measure measure,
+                                     final ToLongFunction<RentalAgreement> value) {
+        Map<String, long[]> totals = new LinkedHashMap<>();
+        for (RentalAgreement agreement : agreements) {
+            long[] total = totals.computeIfAbsent(key.apply(agreement), k -> new long[2]);
+            total[0]++;
+            total[1] += value.applyAsLong(agreement);
+        }
+
+        List<AgreementStore.Group> groups = store.aggregate(groupBy, measure);
+        assertEquals(totals.size(), groups.size());
+        for (AgreementStore.Group group : groups) {
+            assertArrayEquals(totals.get(group.key()), new long[] {group.count(), group.sum()}, group::key);
+        }
+    }
+}
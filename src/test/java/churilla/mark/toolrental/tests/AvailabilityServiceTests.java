@@ -0,0 +1,87 @@
+package churilla.mark.toolrental.tests;
+
+import churilla.mark.toolrental.exception.InvalidRentalDurationException;
+import churilla.mark.toolrental.logic.ChargeableDayIndex;
+import churilla.mark.toolrental.logic.InventoryLedger;
+import churilla.mark.toolrental.logic.RentalProcessor;
+import churilla.mark.toolrental.model.RentableTool;
+import churilla.mark.toolrental.repository.MappedToolCatalog;
+import churilla.mark.toolrental.repository.ToolCatalogCompiler;
+import churilla.mark.toolrental.repository.ToolRepository;
+import churilla.mark.toolrental.service.AvailabilityService;
+import churilla.mark.toolrental.service.ToolService;
+import churilla.mark.toolrental.utility.ResourceUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AvailabilityServiceTests {
+    private static final LocalDate JULY_2 = LocalDate.of(2015, 7, 2);
+
+    private RentalProcessor processor;
+    private AvailabilityService availabilityService;
+
+    @TempDir
+    Path tempDir;
+
+    private static List<String> toolCodes(final List<RentableTool> tools) {
+        return tools.stream().map(RentableTool::getToolCode).toList();
+    }
+
+    @BeforeEach
+    void setup() {
+        ToolService toolService = new ToolService();
+        InventoryLedger ledger = new InventoryLedger();
+
+        processor = new RentalProcessor(toolService, ChargeableDayIndex.getDefault(), RentalProcessor.Options.NONE.withInventoryLedger(ledger));
+        availabilityService = new AvailabilityService(toolService, ledger);
+    }
+
+    @Test
+    void givenNoRentals_whenSearchingByType_thenEveryToolOfTypeIsAvailable() {
+        assertEquals(List.of("JAKD", "JAKR"), toolCodes(availabilityService.findAvailableTools("Jackhammer", JULY_2, 9)));
+        assertEquals(List.of("CHNS", "JAKD", "JAKR", "LADW"), toolCodes(availabilityService.findAvailableTools(JULY_2, 9)));
+        assertTrue(availabilityService.findAvailableTools("Drill", JULY_2, 9).isEmpty());
+    }
+
+    @Test
+    void givenOverlappingRental_whenSearching_thenRentedToolIsExcluded() {
+        processor.checkout("JAKR", JULY_2.plusDays(3), 4, 0);
+
+        assertEquals(List.of("JAKD"), toolCodes(availabilityService.findAvailableTools("Jackhammer", JULY_2, 9)));
+        assertEquals(List.of("CHNS", "JAKD", "LADW"), toolCodes(availabilityService.findAvailableTools(JULY_2, 9)));
+
+        // The rental ends on the day the search period begins, so the tool is available again.
+        assertEquals(List.of("JAKD", "JAKR"), toolCodes(availabilityService.findAvailableTools("Jackhammer", JULY_2.plusDays(7), 2)));
+        assertEquals(List.of("JAKD", "JAKR"), toolCodes(availabilityService.findAvailableTools("Jackhammer", JULY_2, 3)));
+    }
+
+    @Test
+    void givenInvalidDuration_whenSearching_thenThrows_InvalidRentalDurationException() {
+        assertThrows(InvalidRentalDurationException.class, () -> availabilityService.findAvailableTools("Jackhammer", JULY_2, 0));
+    }
+
+    @Test
+    void givenBinaryCatalog_whenListingTools_thenMatchesJsonRepository() throws IOException {
+        Path catalogFile = tempDir.resolve("ToolDb.bin");
+        try (InputStream stream = ResourceUtils.getResource("ToolDb.json")) {
+            ToolCatalogCompiler.compile(stream, catalogFile);
+        }
+
+        ToolRepository jsonRepository = new ToolRepository();
+        ToolRepository mappedRepository = new ToolRepository(MappedToolCatalog.open(catalogFile));
+
+        assertEquals(jsonRepository.getRentableTools(), mappedRepository.getRentableTools());
+        for (String toolTypeName : new String[] {"Jackhammer", "Ladder", "Chainsaw", "Drill"}) {
+            assertEquals(jsonRepository.getRentableToolsByTypeName(toolTypeName), mappedRepository.getRentableToolsByTypeName(toolTypeName), toolTypeName);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package churilla.mark.toolrental.tests;
+
+import churilla.mark.toolrental.exception.*;
+import churilla.mark.toolrental.logic.BatchRentalProcessor;
+import churilla.mark.toolrental.logic.RentalProcessor;
+import churilla.mark.toolrental.model.CheckoutRequest;
+import churilla.mark.toolrental.model.CheckoutResult;
+import churilla.mark.toolrental.model.RentalAgreement;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class BatchRentalProcessorTests {
+    private RentalProcessor rentalProcessor;
+
+    @BeforeAll
+    void setup() {
+        try {
+            rentalProcessor = new RentalProcessor();
+        } catch (FatalException ex) {
+            throw new RuntimeException("An error occurred when initializing RentalProcessor object", ex);
+        }
+    }
+
+    @Test
+    void givenValidAndInvalidRequests_whenCheckingOutBatch_thenEachFailureIsReportedInPlace() {
+        List<CheckoutRequest> requests = List.of(
+                new CheckoutRequest("JAKR", LocalDate.of(2015, 9, 3), 5, 101),
+                new CheckoutRequest("LADW", LocalDate.of(2020, 7, 2), 3, 10),
+                new CheckoutRequest("BOBC", LocalDate.of(2020, 7, 2), 15, 25),
+                new CheckoutRequest("CHNS", LocalDate.of(2015, 7, 2), 5, 25)
+        );
+
+        List<CheckoutResult> results = new BatchRentalProcessor(rentalProcessor).checkoutAll(requests);
+
+        assertEquals(4, results.size());
+        assertInstanceOf(DiscountPercentageRangeException.class, ((CheckoutResult.Failure) results.get(0)).exception());
+        assertEquals(2, ((CheckoutResult.Success) results.get(1)).agreement().getChargeableDays());
+        assertInstanceOf(UnknownToolCodeException.class, ((CheckoutResult.Failure) results.get(2)).exception());
+        assertEquals(3, ((CheckoutResult.Success) results.get(3)).agreement().getChargeableDays());
+    }
+
+    @Test
+    void givenLargeBatch_whenCheckingOutOnCustomPool_thenResultsMatchSequentialCheckouts() {
+        String[] toolCodes = {"CHNS", "JAKD", "JAKR", "LADW"};
+        List<CheckoutRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            requests.add(new CheckoutRequest(toolCodes[i % toolCodes.length], LocalDate.of(2015, 1, 1).plusDays(i), 1 + i % 30, i % 100));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<CheckoutResult> results = new BatchRentalProcessor(rentalProcessor, pool).checkoutAll(requests);
+
+            for (int i = 0; i < requests.size(); i++) {
+                CheckoutRequest request = requests.get(i);
+                RentalAgreement expected = rentalProcessor.checkout(request.toolCode(), request.checkoutDate(), request.rentalDuration(), request.discount());
+                RentalAgreement actual = ((CheckoutResult.Success) results.get(i)).agreement();
+
+                assertEquals(expected.getFinalPrice(), actual.getFinalPrice());
+                assertEquals(expected.getRentalDueDate(), actual.getRentalDueDate());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void givenNullRequest_whenCheckingOutOnExecutor_thenRequiredFieldNullExceptionIsReported() {
+        List<CheckoutRequest> requests = new ArrayList<>();
+        requests.add(null);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<CheckoutResult> results = new BatchRentalProcessor(rentalProcessor, executor).checkoutAll(requests);
+
+            assertFalse(results.get(0).isSuccess());
+            assertInstanceOf(RequiredFieldNullException.class, ((CheckoutResult.Failure) results.get(0)).exception());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void givenEmptyBatch_whenCheckingOut_thenNoResultsAreReturned() {
+        assertTrue(new BatchRentalProcessor(rentalProcessor).checkoutAll(List.of()).isEmpty());
+    }
+}
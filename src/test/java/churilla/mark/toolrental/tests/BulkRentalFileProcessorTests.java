@@ -0,0 +1,136 @@
+package churilla.mark.toolrental.tests;
+
+import churilla.mark.toolrental.bulk.BulkRentalFileProcessor;
+import churilla.mark.toolrental.bulk.RecordFormat;
+import churilla.mark.toolrental.logic.ChargeableDayIndex;
+import churilla.mark.toolrental.logic.RentalProcessor;
+import churilla.mark.toolrental.model.CheckoutRequest;
+import churilla.mark.toolrental.model.CheckoutResult;
+import churilla.mark.toolrental.server.RentalJsonCodec;
+import churilla.mark.toolrental.service.ToolService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkRentalFileProcessorTests {
+    private static final String[] TOOL_CODES = {"CHNS", "JAKD", "JAKR", "LADW", "NOPE"};
+
+    private final RentalProcessor rentalProcessor = new RentalProcessor(new ToolService(), ChargeableDayIndex.getDefault());
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void givenJsonLinesFile_whenProcessing_thenResultsAreWrittenInInputOrder() throws IOException {
+        List<String> lines = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+
+        for (int i = 0; i < 5000; i++) {
+            CheckoutRequest request = new CheckoutRequest(TOOL_CODES[i % TOOL_CODES.length], LocalDate.of(2015, 7, 1).plusDays(i % 400), i % 13, i % 110);
+            ByteArrayOutputStream json = new ByteArrayOutputStream();
+            RentalJsonCodec.writeCheckoutRequest(request, json);
+            lines.add(json.toString(StandardCharsets.UTF_8));
+            expected.add(expectedOutput(i + 1, request));
+        }
+
+        // Small batches and a short queue make the batches overtake each other while they are priced.
+        BulkRentalFileProcessor processor = new BulkRentalFileProcessor(rentalProcessor, ForkJoinPool.commonPool(), 7, 3, 256);
+        Path input = directory.resolve("requests.jsonl");
+        Path output = directory.resolve("agreements.jsonl");
+        Files.write(input, lines, StandardCharsets.UTF_8);
+
+        BulkRentalFileProcessor.Summary summary = processor.process(input, output);
+
+        assertEquals(expected, Files.readAllLines(output, StandardCharsets.UTF_8));
+        assertEquals(5000, summary.lineCount());
+        assertEquals(5000, summary.agreementCount() + summary.errorCount());
+        assertEquals(expected.stream().filter(line -> line.startsWith("{\"toolCode\"")).count(), summary.agreementCount());
+    }
+
+    @Test
+    void givenInvalidLines_whenProcessing_thenEachLineReportsItsError() throws IOException {
+        String longLine = "{\"toolCode\": \"" + "X".repeat(300) + "\", \"checkoutDate\": \"2015-07-02\", \"rentalDuration\": 5}";
+        String content = "{\"toolCode\": \"JAKR\", \"checkoutDate\": \"2015-09-03\", \"rentalDuration\": 5, \"discount\": 0}\r\n"
+                + "\n"
+                + "{\"toolCode\": \"JAKR\", \"checkoutDate\": \"09/03/15\", \"rentalDuration\": 5}\n"
+                + longLine + "\n"
+                + "not json\n"
+                + "{\"toolCode\": \"LADW\", \"checkoutDate\": \"2020-07-02\", \"rentalDuration\": 3, \"discount\": 10}";
+
+        BulkRentalFileProcessor processor = new BulkRentalFileProcessor(rentalProcessor, ForkJoinPool.commonPool(), 2, 1, 256);
+        Path input = directory.resolve("requests.jsonl");
+        Path output = directory.resolve("agreements.jsonl");
+        Files.writeString(input, content, StandardCharsets.UTF_8);
+
+        BulkRentalFileProcessor.Summary summary = processor.process(input, output);
+        List<String> results = Files.readAllLines(output, StandardCharsets.UTF_8);
+
+        assertEquals(new BulkRentalFileProcessor.Summary(6, 2, 3), summary);
+        assertEquals(5, results.size());
+        assertTrue(results.get(0).contains("\"chargeableDays\":2"));
+        assertTrue(results.get(1).startsWith("{\"line\":3,\"error\":\"INVALID_RECORD\",\"message\":\"Invalid date \\\"09/03/15\\\""));
+        assertEquals("{\"line\":4,\"error\":\"INVALID_RECORD\",\"message\":\"The line is longer than 256 bytes.\"}", results.get(2));
+        assertTrue(results.get(3).startsWith("{\"line\":5,\"error\":\"INVALID_RECORD\""));
+        assertTrue(results.get(4).contains("\"toolCode\":\"LADW\""));
+    }
+
+    @Test
+    void givenCsvFile_whenProcessing_thenHeaderIsSkippedAndRowsArePriced() throws IOException {
+        String content = "toolCode,checkoutDate,rentalDuration,discount\n"
+                + "JAKR,2015-09-03,5,101\n"
+                + "CHNS,2015-07-02,5,25\n"
+                + "LADW,2020-07-02,3\n"
+                + "JAKR,2015-07-02,five,0\n";
+
+        Path input = directory.resolve("requests.csv");
+        Path output = directory.resolve("agreements.jsonl");
+        Files.writeString(input, content, StandardCharsets.UTF_8);
+
+        BulkRentalFileProcessor.Summary summary = new BulkRentalFileProcessor(rentalProcessor).process(input, output);
+        List<String> results = Files.readAllLines(output, StandardCharsets.UTF_8);
+
+        assertEquals(RecordFormat.CSV, RecordFormat.of(input));
+        assertEquals(new BulkRentalFileProcessor.Summary(5, 2, 2), summary);
+        assertEquals(expectedOutput(2, new CheckoutRequest("JAKR", LocalDate.of(2015, 9, 3), 5, 101)), results.get(0));
+        assertEquals(expectedOutput(3, new CheckoutRequest("CHNS", LocalDate.of(2015, 7, 2), 5, 25)), results.get(1));
+        assertEquals(expectedOutput(4, new CheckoutRequest("LADW", LocalDate.of(2020, 7, 2), 3, 0)), results.get(2));
+        assertEquals("{\"line\":5,\"error\":\"INVALID_RECORD\",\"message\":\"Expected a whole number but found \\\"five\\\".\"}", results.get(3));
+    }
+
+    @Test
+    void givenMissingFileOrInvalidSizes_whenProcessing_thenThrows() {
+        BulkRentalFileProcessor processor = new BulkRentalFileProcessor(rentalProcessor);
+
+        assertThrows(NoSuchFileException.class, () -> processor.process(directory.resolve("missing.jsonl"), directory.resolve("out.jsonl")));
+        assertThrows(IllegalArgumentException.class, () -> new BulkRentalFileProcessor(rentalProcessor, ForkJoinPool.commonPool(), 0, 1, 1));
+    }
+
+    /**
+     * Returns the output line expected for a request, by quoting it directly.
+     */
+    private String expectedOutput(final long lineNumber, final CheckoutRequest request) throws IOException {
+        CheckoutResult result = rentalProcessor.tryQuote(request.toolCode(), request.checkoutDate(), request.rentalDuration(), request.discount());
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+
+        if (result instanceof CheckoutResult.Success success) {
+            RentalJsonCodec.writeAgreement(success.agreement(), json);
+        } else {
+            CheckoutResult.Failure failure = (CheckoutResult.Failure) result;
+            RentalJsonCodec.writeLineError(lineNumber, failure.error().name(), failure.message(), json);
+        }
+
+        return json.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,72 @@
+package churilla.mark.toolrental.tests;
+
+import churilla.mark.toolrental.logic.ChargeableDayCalculator;
+import churilla.mark.toolrental.model.ToolType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ChargeableDayCalculatorTests {
+
+    /**
+     * Creates one tool type for each combination of the weekday, weekend and holiday charge flags.
+     */
+    private static List<ToolType> allChargePolicies() {
+        List<ToolType> toolTypes = new ArrayList<>();
+        for (int mask = 0; mask < 8; mask++) {
+            toolTypes.add(new ToolType("FAKE" + mask, BigDecimal.valueOf(1.99),
+                    (mask & 1) != 0, (mask & 2) != 0, (mask & 4) != 0));
+        }
+
+        return toolTypes;
+    }
+
+    @Test
+    void givenShortRentals_whenCalculatingChargeableDays_thenMatchesIterativeCalculation() {
+        LocalDate start = LocalDate.of(2014, 1, 1);
+        LocalDate end = LocalDate.of(2016, 12, 31);
+
+        for (ToolType toolType : allChargePolicies()) {
+            for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+                for (int duration = 1; duration <= 40; duration++) {
+                    assertEquals(
+                            ChargeableDayCalculator.calculateByIteration(toolType, date, duration),
+                            ChargeableDayCalculator.calculate(toolType, date, duration),
+                            () -> String.format("Mismatch for %s", toolType.getName())
+                    );
+                }
+            }
+        }
+    }
+
+    @Test
+    void givenLongRentals_whenCalculatingChargeableDays_thenMatchesIterativeCalculation() {
+        LocalDate start = LocalDate.of(2014, 1, 1);
+        LocalDate end = LocalDate.of(2016, 12, 31);
+        int[] durations = {364, 365, 366, 367, 730, 1000, 1827};
+
+        for (ToolType toolType : allChargePolicies()) {
+            for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(5)) {
+                for (int duration : durations) {
+                    assertEquals(
+                            ChargeableDayCalculator.calculateByIteration(toolType, date, duration),
+                            ChargeableDayCalculator.calculate(toolType, date, duration)
+                    );
+                }
+            }
+        }
+    }
+
+    @Test
+    void givenRentalDurationLessThanOne_whenCalculatingChargeableDays_thenDurationIsReturned() {
+        ToolType toolType = new ToolType("FAKE", BigDecimal.valueOf(1.99), true, true, true);
+
+        assertEquals(0, ChargeableDayCalculator.calculate(toolType, LocalDate.of(2020, 7, 2), 0));
+        assertEquals(-1, ChargeableDayCalculator.calculate(toolType, LocalDate.of(2020, 7, 2), -1));
+    }
+}
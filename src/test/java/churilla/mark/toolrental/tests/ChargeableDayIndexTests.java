@@ -0,0 +1,61 @@
+package churilla.mark.toolrental.tests;
+
+import churilla.mark.toolrental.exception.FatalException;
+import churilla.mark.toolrental.logic.ChargeableDayCalculator;
+import churilla.mark.toolrental.logic.ChargeableDayIndex;
+import churilla.mark.toolrental.logic.RentalProcessor;
+import churilla.mark.toolrental.model.RentalAgreement;
+import churilla.mark.toolrental.model.ToolType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChargeableDayIndexTests {
+
+    private final ChargeableDayIndex index = new ChargeableDayIndex(LocalDate.of(2014, 1, 1), LocalDate.of(2016, 12, 31));
+
+    @Test
+    void givenEveryChargeMask_whenRentalIsInsideWindow_thenMatchesCalculator() {
+        for (int mask = 0; mask < ToolType.CHARGE_MASK_COUNT; mask++) {
+            ToolType toolType = new ToolType("FAKE", BigDecimal.valueOf(1.99),
+                    (mask & ToolType.WEEKDAY_CHARGE) != 0,
+                    (mask & ToolType.WEEKEND_CHARGE) != 0,
+                    (mask & ToolType.HOLIDAY_CHARGE) != 0);
+            assertEquals(mask, toolType.getChargeMask());
+
+            for (LocalDate date = LocalDate.of(2013, 12, 31); date.getYear() < 2016; date = date.plusDays(3)) {
+                for (int duration = 1; duration <= 400; duration += 7) {
+                    if (index.covers(date, duration)) {
+                        assertEquals(
+                                ChargeableDayCalculator.calculate(toolType, date, duration),
+                                index.getChargeableDays(mask, date, duration)
+                        );
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void givenRentalAtWindowEdges_whenCheckingCoverage_thenOnlyFullyCoveredRentalsAreAccepted() {
+        assertTrue(index.covers(LocalDate.of(2013, 12, 31), 1));
+        assertFalse(index.covers(LocalDate.of(2013, 12, 30), 5));
+        assertTrue(index.covers(LocalDate.of(2016, 12, 30), 1));
+        assertFalse(index.covers(LocalDate.of(2016, 12, 30), 2));
+        assertFalse(index.covers(LocalDate.of(2015, 7, 2), 0));
+    }
+
+    @Test
+    void givenRentalOutsideWindow_whenCheckingOut_thenChargeableDaysAreCalculated() throws FatalException {
+        RentalProcessor rentalProcessor = new RentalProcessor(index);
+
+        RentalAgreement inside = rentalProcessor.checkout("JAKR", LocalDate.of(2015, 7, 2), 9, 0);
+        RentalAgreement outside = rentalProcessor.checkout("JAKR", LocalDate.of(2020, 7, 2), 4, 50);
+
+        assertEquals(5, inside.getChargeableDays());
+        assertEquals(1, outside.getChargeableDays());
+    }
+}
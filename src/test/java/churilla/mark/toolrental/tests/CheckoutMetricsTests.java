@@ -0,0 +1,101 @@
+package churilla.mark.toolrental.tests;
+
+import churilla.mark.toolrental.exception.DiscountPercentageRangeException;
+import churilla.mark.toolrental.exception.ToolUnavailableException;
+import churilla.mark.toolrental.exception.UnknownToolCodeException;
+import churilla.mark.toolrental.logic.ChargeableDayIndex;
+import churilla.mark.toolrental.logic.InventoryLedger;
+import churilla.mark.toolrental.logic.RentalProcessor;
+import churilla.mark.toolrental.metrics.CheckoutMetrics;
+import churilla.mark.toolrental.metrics.LatencyHistogram;
+import churilla.mark.toolrental.service.ToolService;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CheckoutMetricsTests {
+    private static final LocalDate JULY_2 = LocalDate.of(2015, 7, 2);
+
+    @Test
+    void givenRecordedLatencies_whenReadingPercentiles_thenValuesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.record(micros * 1_000);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(10_000, snapshot.getCount());
+        assertEquals(10_000_000, snapshot.getMaxNanos());
+        assertEquals(5_000_500, snapshot.getMeanNanos(), 1e-6);
+
+        // Each bucket spans 1/32 of its power of two, so a percentile is at most about 3% above the exact value.
+        assertEquals(5_000_000, snapshot.getValueAtPercentile(50), 5_000_000 / 32.0);
+        assertEquals(9_900_000, snapshot.getValueAtPercentile(99), 9_900_000 / 32.0);
+        assertTrue(snapshot.getValueAtPercentile(99) >= 9_900_000);
+        assertEquals(10_000_000, snapshot.getValueAtPercentile(100));
+
+        // Small values are counted exactly.
+        histogram.reset();
+        histogram.record(7);
+        histogram.record(-3);
+        assertEquals(7, histogram.snapshot().getValueAtPercentile(100));
+        assertEquals(0, histogram.snapshot().getValueAtPercentile(50));
+        assertThrows(IllegalArgumentException.class, () -> histogram.snapshot().getValueAtPercentile(101));
+    }
+
+    @Test
+    void givenCheckoutsAndFailures_whenProcessing_thenCountsAreRecordedByToolAndExceptionType() {
+        CheckoutMetrics metrics = new CheckoutMetrics();
+        RentalProcessor processor = new RentalProcessor(new ToolService(), ChargeableDayIndex.getDefault(), RentalProcessor.Options.NONE.withInventoryLedger(new InventoryLedger()).withCheckoutMetrics(metrics));
+
+        processor.checkout("LADW", JULY_2, 3, 10);
+        processor.checkout("CHNS", JULY_2, 5, 0);
+        assertThrows(ToolUnavailableException.class, () -> processor.checkout("LADW", JULY_2, 2, 0));
+        assertThrows(DiscountPercentageRangeException.class, () -> processor.checkout("CHNS", JULY_2.plusDays(10), 5, 101));
+        assertThrows(UnknownToolCodeException.class, () -> processor.checkout("NOPE", JULY_2, 5, 0));
+
+        assertEquals(2, metrics.getCheckoutCount());
+        assertEquals(3, metrics.getFailureCount());
+        assertEquals(2, metrics.getLatencySnapshot().getCount());
+        assertEquals(Map.of("CHNS", 1L, "LADW", 1L), metrics.getCheckoutCountsByToolCode());
+        assertEquals(Map.of("CHNS", 1L, "LADW", 1L), metrics.getFailureCountsByToolCode());
+        assertEquals(Map.of("DiscountPercentageRangeException", 1L, "ToolUnavailableException", 1L, "UnknownToolCodeException", 1L),
+                metrics.getFailureCountsByExceptionType());
+
+        metrics.reset();
+        assertEquals(0, metrics.getCheckoutCount());
+        assertTrue(metrics.getFailureCountsByExceptionType().isEmpty());
+        assertEquals(0, metrics.getLatencyP99Micros());
+    }
+
+    @Test
+    void givenRegisteredMetrics_whenReadingOverJmx_thenAttributesAreExposed() throws Exception {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        CheckoutMetrics metrics = new CheckoutMetrics();
+        ObjectName name = metrics.register(mBeanServer);
+
+        try {
+            metrics.recordCheckout("JAKR", 250_000);
+            metrics.recordFailure("JAKR", new ToolUnavailableException("Rented."));
+
+            assertEquals(1L, mBeanServer.getAttribute(name, "CheckoutCount"));
+            assertEquals(1L, mBeanServer.getAttribute(name, "FailureCount"));
+            assertEquals(250.0, (double) mBeanServer.getAttribute(name, "LatencyMaxMicros"), 1e-9);
+            assertEquals(1, ((TabularData) mBeanServer.getAttribute(name, "CheckoutCountsByToolCode")).size());
+
+            // Registering again replaces the published metrics.
+            CheckoutMetrics replacement = new CheckoutMetrics();
+            replacement.register(mBeanServer);
+            assertEquals(0L, mBeanServer.getAttribute(name, "CheckoutCount"));
+        } finally {
+            mBeanServer.unregisterMBean(name);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package churilla.mark.toolrental.tests;
+
+import churilla.mark.toolrental.exception.DiscountPercentageRangeException;
+import churilla.mark.toolrental.exception.RequiredFieldNullException;
+import churilla.mark.toolrental.exception.UnknownToolCodeException;
+import churilla.mark.toolrental.logic.ChargeableDayIndex;
+import churilla.mark.toolrental.logic.InventoryLedger;
+import churilla.mark.toolrental.logic.RentalProcessor;
+import churilla.mark.toolrental.metrics.CheckoutMetrics;
+import churilla.mark.toolrental.model.CheckoutError;
+import churilla.mark.toolrental.model.CheckoutResult;
+import churilla.mark.toolrental.service.ToolService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CheckoutResultTests {
+    private static final LocalDate JULY_2 = LocalDate.of(2015, 7, 2);
+
+    private InventoryLedger ledger;
+    private CheckoutMetrics metrics;
+    private RentalProcessor processor;
+
+    @BeforeEach
+    void setup() {
+        ledger = new InventoryLedger();
+        metrics = new CheckoutMetrics();
+        processor = new RentalProcessor(new ToolService(), ChargeableDayIndex.getDefault(), RentalProcessor.Options.NONE.withInventoryLedger(ledger).withCheckoutMetrics(metrics));
+    }
+
+    @Test
+    void givenInvalidInput_whenTryingCheckout_thenFailureMatchesThrownException() {
+        assertRejected(CheckoutError.UNKNOWN_TOOL_CODE, "NOPE", JULY_2, 5, 0);
+        assertRejected(CheckoutError.INVALID_RENTAL_DURATION, "JAKR", JULY_2, 0, 0);
+        assertRejected(CheckoutError.INVALID_DISCOUNT, "JAKR", JULY_2, 5, 101);
+        assertRejected(CheckoutError.REQUIRED_FIELD_NULL, null, JULY_2, 5, 0);
+        assertRejected(CheckoutError.REQUIRED_FIELD_NULL, "JAKR", null, 5, 0);
+
+        // An unknown tool code is reported before an invalid discount, the same as when checking out.
+        assertRejected(CheckoutError.UNKNOWN_TOOL_CODE, "NOPE", JULY_2, 5, 101);
+
+        assertEquals(0, ledger.getReservationCount("JAKR"));
+        assertEquals(12, metrics.getFailureCount());
+        assertEquals(Map.of("DiscountPercentageRangeException", 2L, "InvalidRentalDurationException", 2L,
+                "RequiredFieldNullException", 4L, "UnknownToolCodeException", 4L), metrics.getFailureCountsByExceptionType());
+    }
+
+    @Test
+    void givenValidInput_whenTryingCheckoutAndQuote_thenAgreementIsReturned() {
+        CheckoutResult quote = processor.tryQuote("LADW", JULY_2, 3, 10);
+        CheckoutResult checkout = processor.tryCheckout("LADW", JULY_2, 3, 10);
+
+        assertTrue(quote.isSuccess());
+        assertTrue(checkout.isSuccess());
+        assertEquals(((CheckoutResult.Success) quote).agreement().getFinalPrice(), ((CheckoutResult.Success) checkout).agreement().getFinalPrice());
+        assertEquals(1, ledger.getReservationCount("LADW"));
+        assertEquals(1, metrics.getCheckoutCount());
+
+        // The tool is now rented, so the same checkout is rejected by the ledger but can still be quoted.
+        CheckoutResult.Failure unavailable = (CheckoutResult.Failure) processor.tryCheckout("LADW", JULY_2, 3, 10);
+        assertEquals(CheckoutError.TOOL_UNAVAILABLE, unavailable.error());
+        assertNotNull(unavailable.cause());
+        assertTrue(processor.tryQuote("LADW", JULY_2, 3, 10).isSuccess());
+        assertEquals(Map.of("LADW", 1L), metrics.getFailureCountsByToolCode());
+    }
+
+    @Test
+    void givenFailureWithoutCause_whenCreatingException_thenExceptionHasNoStackTrace() {
+        CheckoutResult.Failure failure = (CheckoutResult.Failure) processor.tryCheckout("JAKR", JULY_2, 5, 101);
+
+        RuntimeException exception = failure.exception();
+        assertInstanceOf(DiscountPercentageRangeException.class, exception);
+        assertEquals(failure.message(), exception.getMessage());
+        assertEquals(0, exception.getStackTrace().length);
+
+        RequiredFieldNullException nullField = (RequiredFieldNullException) new CheckoutResult.Failure(CheckoutError.REQUIRED_FIELD_NULL, "toolCode").exception();
+        assertEquals("toolCode", nullField.getRequiredFieldName());
+        assertEquals(0, nullField.getStackTrace().length);
+
+        assertEquals(0, new UnknownToolCodeException("Tool code \"NOPE\" not found.", false).getStackTrace().length);
+        assertTrue(new UnknownToolCodeException("Tool code \"NOPE\" not found.", true).getStackTrace().length > 0);
+    }
+
+    @Test
+    void givenCaughtException_whenCreatingFailure_thenErrorIsDerivedFromExceptionType() {
+        assertEquals(CheckoutError.UNKNOWN_TOOL_CODE, new CheckoutResult.Failure(new UnknownToolCodeException("Unknown.")).error());
+        assertEquals(CheckoutError.INTERNAL_ERROR, new CheckoutResult.Failure(new IllegalStateException("Broken.")).error());
+    }
+
+    private void assertRejected(final CheckoutError error,
+                                final String toolCode,
+                                final LocalDate checkoutDate,
+                                final int rentalDuration,
+                                final int discount) {
+        CheckoutResult result = processor.tryCheckout(toolCode, checkoutDate, rentalDuration, discount);
+        RuntimeException thrown = assertThrows(error.getExceptionType(), () -> processor.checkout(toolCode, checkoutDate, rentalDuration, discount));
+
+        CheckoutResult.Failure failure = assertInstanceOf(CheckoutResult.Failure.class, result);
+        assertEquals(error, failure.error());
+        assertNull(failure.cause());
+        assertEquals(thrown.getMessage(), failure.message());
+    }
+}
@@ -0,0 +1,85 @@
+package churilla.mark.toolrental.tests;
+
+import churilla.mark.toolrental.utility.HolidayCalendar;
+import churilla.mark.toolrental.utility.LocalDateUtils;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.temporal.TemporalAdjusters;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HolidayCalendarTests {
+
+    /**
+     * Determines if a date is a holiday using java.time directly, independently of the holiday calendar.
+     */
+    private static boolean isHolidayUsingJavaTime(final LocalDate date) {
+        LocalDate laborDay = LocalDate.of(date.getYear(), Month.SEPTEMBER, 1)
+                .with(TemporalAdjusters.firstInMonth(DayOfWeek.MONDAY));
+
+        LocalDate independenceDay = LocalDate.of(date.getYear(), Month.JULY, 4);
+        if (independenceDay.getDayOfWeek() == DayOfWeek.SATURDAY) {
+            independenceDay = independenceDay.minusDays(1);
+        } else if (independenceDay.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            independenceDay = independenceDay.plusDays(1);
+        }
+
+        return date.equals(laborDay) || date.equals(independenceDay);
+    }
+
+    @Test
+    void givenDatesInsideAndOutsideWindow_whenCheckingForHoliday_thenMatchesJavaTime() {
+        HolidayCalendar calendar = new HolidayCalendar(2000, 2010);
+
+        for (LocalDate date = LocalDate.of(1995, 1, 1); date.getYear() < 2016; date = date.plusDays(1)) {
+            assertEquals(isHolidayUsingJavaTime(date), calendar.isHoliday(date.toEpochDay()), date::toString);
+        }
+    }
+
+    @Test
+    void givenRangesAcrossWindowEdges_whenCountingHolidays_thenMatchesDayByDayCount() {
+        HolidayCalendar calendar = new HolidayCalendar(2000, 2010);
+        LocalDate start = LocalDate.of(1998, 6, 1);
+
+        for (int offset = 0; offset < 5000; offset += 37) {
+            for (int length = 0; length < 900; length += 29) {
+                LocalDate first = start.plusDays(offset);
+                LocalDate last = first.plusDays(length);
+
+                int expected = 0;
+                for (LocalDate date = first; !date.isAfter(last); date = date.plusDays(1)) {
+                    if (isHolidayUsingJavaTime(date)) {
+                        expected++;
+                    }
+                }
+
+                assertEquals(expected, calendar.countHolidays(first.toEpochDay(), last.toEpochDay()));
+                assertEquals(0, calendar.countWeekendHolidays(first.toEpochDay(), last.toEpochDay()));
+            }
+        }
+    }
+
+    @Test
+    void givenLastDayBeforeFirstDay_whenCountingHolidays_thenReturnsZero() {
+        long epochDay = LocalDate.of(2015, 7, 3).toEpochDay();
+
+        assertEquals(0, HolidayCalendar.getDefault().countHolidays(epochDay, epochDay - 1));
+    }
+
+    @Test
+    void givenInvalidWindow_whenCreatingCalendar_thenThrows_IllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new HolidayCalendar(2020, 2019));
+    }
+
+    @Test
+    void givenEpochDays_whenConvertingWithoutLocalDate_thenMatchesJavaTime() {
+        for (LocalDate date = LocalDate.of(-5, 1, 1); date.getYear() < 2500; date = date.plusDays(3)) {
+            assertEquals(date.toEpochDay(), LocalDateUtils.toEpochDay(date.getYear(), date.getMonthValue(), date.getDayOfMonth()));
+            assertEquals(date.getYear(), LocalDateUtils.getYear(date.toEpochDay()));
+            assertEquals(date.getDayOfWeek().getValue() - 1, LocalDateUtils.getDayOfWeekIndex(date.toEpochDay()));
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package churilla.mark.toolrental.tests;
+
+import churilla.mark.toolrental.logic.ChargeableDayIndex;
+import churilla.mark.toolrental.logic.RentalProcessor;
+import churilla.mark.toolrental.model.HolidayRule;
+import churilla.mark.toolrental.service.ToolService;
+import churilla.mark.toolrental.utility.HolidayCalendar;
+import churilla.mark.toolrental.utility.HolidayRuleReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HolidayRuleTests {
+    private static final List<HolidayRule> STORE_RULES = List.of(
+            new HolidayRule.FixedDate("New Year's Day", Month.JANUARY, 1, true),
+            new HolidayRule.NthWeekdayOfMonth("Martin Luther King Jr. Day", Month.JANUARY, DayOfWeek.MONDAY, 3),
+            new HolidayRule.LastWeekdayOfMonth("Memorial Day", Month.MAY, DayOfWeek.MONDAY),
+            new HolidayRule.FixedDate("Independence Day", Month.JULY, 4, true),
+            new HolidayRule.NthWeekdayOfMonth("Labor Day", Month.SEPTEMBER, DayOfWeek.MONDAY, 1),
+            new HolidayRule.NthWeekdayOfMonth("Thanksgiving", Month.NOVEMBER, DayOfWeek.THURSDAY, 4),
+            new HolidayRule.FixedDate("Christmas Eve", Month.DECEMBER, 24, false),
+            new HolidayRule.FixedDate("Christmas Day", Month.DECEMBER, 25, true));
+
+    /**
+     * Determines if a date is one of the store holidays using java.time directly, independently of the rules.
+     */
+    private static boolean isStoreHolidayUsingJavaTime(final LocalDate date) {
+        for (int year = date.getYear() - 1; year <= date.getYear() + 1; year++) {
+            List<LocalDate> holidays = List.of(
+                    observed(LocalDate.of(year, 1, 1)),
+                    LocalDate.of(year, 1, 1).with(TemporalAdjusters.dayOfWeekInMonth(3, DayOfWeek.MONDAY)),
+                    LocalDate.of(year, 5, 1).with(TemporalAdjusters.lastInMonth(DayOfWeek.MONDAY)),
+                    observed(LocalDate.of(year, 7, 4)),
+                    LocalDate.of(year, 9, 1).with(TemporalAdjusters.firstInMonth(DayOfWeek.MONDAY)),
+                    LocalDate.of(year, 11, 1).with(TemporalAdjusters.dayOfWeekInMonth(4, DayOfWeek.THURSDAY)),
+                    LocalDate.of(year, 12, 24),
+                    observed(LocalDate.of(year, 12, 25)));
+
+            if (holidays.contains(date)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static LocalDate observed(final LocalDate date) {
+        return switch (date.getDayOfWeek()) {
+            case SATURDAY -> date.minusDays(1);
+            case SUNDAY -> date.plusDays(1);
+            default -> date;
+        };
+    }
+
+    @Test
+    void givenStoreRules_whenCheckingForHolidayInsideAndOutsideWindow_thenMatchesJavaTime() {
+        HolidayCalendar calendar = new HolidayCalendar(2000, 2010, STORE_RULES);
+
+        for (LocalDate date = LocalDate.of(1995, 1, 1); date.getYear() < 2016; date = date.plusDays(1)) {
+            assertEquals(isStoreHolidayUsingJavaTime(date), calendar.isHoliday(date.toEpochDay()), date::toString);
+        }
+
+        // New Year's Day 2011 is a Saturday, so it is observed on the last day of the window.
+        assertTrue(calendar.isHoliday(LocalDate.of(2010, 12, 31).toEpochDay()));
+    }
+
+    @Test
+    void givenStoreRules_whenCountingHolidays_thenMatchesDayByDayCount() {
+        HolidayCalendar calendar = new HolidayCalendar(2000, 2010, STORE_RULES);
+        LocalDate start = LocalDate.of(1998, 6, 1);
+
+        for (int offset = 0; offset < 5000; offset += 37) {
+            for (int length = 0; length < 900; length += 29) {
+                LocalDate first = start.plusDays(offset);
+                LocalDate last = first.plusDays(length);
+
+                int expected = 0;
+                int expectedOnWeekend = 0;
+                for (LocalDate date = first; !date.isAfter(last); date = date.plusDays(1)) {
+                    if (isStoreHolidayUsingJavaTime(date)) {
+                        expected++;
+                        expectedOnWeekend += date.getDayOfWeek().getValue() >= 6 ? 1 : 0;
+                    }
+                }
+
+                assertEquals(expected, calendar.countHolidays(first.toEpochDay(), last.toEpochDay()));
+                assertEquals(expectedOnWeekend, calendar.countWeekendHolidays(first.toEpochDay(), last.toEpochDay()));
+            }
+        }
+    }
+
+    @Test
+    void givenRulesOnSameDay_whenCountingHolidays_thenDayIsCountedOnce() {
+        // Christmas Eve 2010 is a Friday, so it is also the day that Christmas Day is observed on.
+        HolidayCalendar calendar = new HolidayCalendar(2000, 2010, STORE_RULES);
+        long christmasEve = LocalDate.of(2010, 12, 24).toEpochDay();
+        long christmasEve2021 = LocalDate.of(2021, 12, 24).toEpochDay();
+
+        assertEquals(1, calendar.countHolidays(christmasEve, christmasEve));
+        assertEquals(1, calendar.countHolidays(christmasEve2021, christmasEve2021));
+    }
+
+    @Test
+    void givenRulesJson_whenReading_thenRulesAreCreated() throws IOException {
+        String json = """
+                [
+                  { "name": "New Year's Day", "type": "fixedDate", "month": "JANUARY", "dayOfMonth": 1, "observedOnWeekday": true },
+                  { "name": "Thanksgiving", "type": "nthWeekdayOfMonth", "month": "november", "dayOfWeek": "THURSDAY", "week": 4 },
+                  { "name": "Memorial Day", "type": "lastWeekdayOfMonth", "month": "MAY", "dayOfWeek": "MONDAY" }
+                ]
+                """;
+
+        assertEquals(List.of(STORE_RULES.get(0), STORE_RULES.get(5), STORE_RULES.get(2)), read(json));
+        assertEquals(List.of("Independence Day", "Labor Day"), HolidayCalendar.getConfiguredRules().stream().map(HolidayRule::name).toList());
+    }
+
+    @Test
+    void givenInvalidRulesJson_whenReading_thenThrows_IOException() {
+        assertThrows(IOException.class, () -> read("[{ \"name\": \"Leap Day\", \"type\": \"fixedDate\", \"month\": \"FEBRUARY\", \"dayOfMonth\": 29 }]"));
+        assertThrows(IOException.class, () -> read("[{ \"name\": \"Fifth\", \"type\": \"nthWeekdayOfMonth\", \"month\": \"MAY\", \"dayOfWeek\": \"MONDAY\", \"week\": 5 }]"));
+        assertThrows(IOException.class, () -> read("[{ \"name\": \"Easter\", \"type\": \"lunar\", \"month\": \"APRIL\" }]"));
+        assertThrows(IOException.class, () -> read("[{ \"name\": \"Bad\", \"type\": \"fixedDate\", \"month\": \"SMARCH\", \"dayOfMonth\": 1 }]"));
+        assertThrows(IOException.class, () -> read("[{ \"type\": \"lastWeekdayOfMonth\", \"month\": \"MAY\", \"dayOfWeek\": \"MONDAY\" }]"));
+        assertThrows(IOException.class, () -> read("[{ \"name\": \"Bad\", \"type\": \"fixedDate\", \"month\": \"MAY\", \"dayOfMonth\": 1, \"color\": \"red\" }]"));
+    }
+
+    @Test
+    void givenWronglyTypedRuleField_whenReading_thenThrows_IOException() {
+        assertThrows(IOException.class, () -> read("[{ \"name\": \"Bad\", \"type\": \"fixedDate\", \"month\": \"JULY\", \"dayOfMonth\": 4, \"observedOnWeekday\": \"yes\" }]"));
+        assertThrows(IOException.class, () -> read("[{ \"name\": \"Bad\", \"type\": \"nthWeekdayOfMonth\", \"month\": \"MAY\", \"dayOfWeek\": \"MONDAY\", \"week\": true }]"));
+        assertThrows(IOException.class, () -> read("[{ \"name\": \"Bad\", \"type\": \"fixedDate\", \"month\": \"JULY\", \"dayOfMonth\": \"4\" }]"));
+        assertThrows(IOException.class, () -> read("[{ \"name\": {\"type\": \"fixedDate\"}, \"type\": \"fixedDate\", \"month\": \"JULY\", \"dayOfMonth\": 4 }]"));
+        assertThrows(IOException.class, () -> read("[{ \"name\": \"Bad\", \"type\": \"lastWeekdayOfMonth\", \"month\": [\"MAY\"], \"dayOfWeek\": \"MONDAY\" }]"));
+    }
+
+    @Test
+    void givenStoreCalendar_whenCheckingOut_thenStoreHolidaysAreFree() {
+        HolidayCalendar calendar = new HolidayCalendar(2000, 2099, STORE_RULES);
+        ChargeableDayIndex index = new ChargeableDayIndex(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 12, 31), calendar);
+        RentalProcessor storeProcessor = new RentalProcessor(new ToolService(), index);
+        RentalProcessor defaultProcessor = new RentalProcessor(new ToolService(), ChargeableDayIndex.getDefault());
+
+        // Jackhammers are free on holidays, and Thanksgiving 2020 is on Thursday 11/26.
+        assertEquals(5, defaultProcessor.checkout("JAKR", LocalDate.of(2020, 11, 22), 7, 0).getChargeableDays());
+        assertEquals(4, storeProcessor.checkout("JAKR", LocalDate.of(2020, 11, 22), 7, 0).getChargeableDays());
+
+        // A rental outside the window of the index is calculated with the same calendar.
+        assertEquals(4, storeProcessor.checkout("JAKR", LocalDate.of(2021, 11, 21), 7, 0).getChargeableDays());
+        assertEquals(4, storeProcessor.quotePrices(List.of("JAKR"), LocalDate.of(2021, 11, 21), 7, 0).getFinalPriceCents(0, 7) / 299);
+    }
+
+    private static List<HolidayRule> read(final String json) throws IOException {
+        return HolidayRuleReader.readRules(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
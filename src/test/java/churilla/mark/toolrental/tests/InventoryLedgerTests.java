@@ -0,0 +1,123 @@
+package churilla.mark.toolrental.tests;
+
+import churilla.mark.toolrental.exception.DiscountPercentageRangeException;
+import churilla.mark.toolrental.exception.ToolUnavailableException;
+import churilla.mark.toolrental.logic.ChargeableDayIndex;
+import churilla.mark.toolrental.logic.InventoryLedger;
+import churilla.mark.toolrental.logic.RentalProcessor;
+import churilla.mark.toolrental.model.RentalAgreement;
+import churilla.mark.toolrental.model.Reservation;
+import churilla.mark.toolrental.service.ToolService;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InventoryLedgerTests {
+    private static final LocalDate JULY_2 = LocalDate.of(2015, 7, 2);
+
+    @Test
+    void givenOverlappingReservation_whenReserving_thenThrows_ToolUnavailableException() {
+        InventoryLedger ledger = new InventoryLedger();
+        ledger.reserve(new Reservation("LADW", JULY_2, JULY_2.plusDays(5)));
+
+        assertThrows(ToolUnavailableException.class, () -> ledger.reserve(new Reservation("LADW", JULY_2.minusDays(3), JULY_2.plusDays(1))));
+        assertThrows(ToolUnavailableException.class, () -> ledger.reserve(new Reservation("LADW", JULY_2.plusDays(4), JULY_2.plusDays(9))));
+        assertThrows(ToolUnavailableException.class, () -> ledger.reserve(new Reservation("LADW", JULY_2.plusDays(1), JULY_2.plusDays(2))));
+        assertThrows(ToolUnavailableException.class, () -> ledger.reserve(new Reservation("LADW", JULY_2.minusDays(1), JULY_2.plusDays(6))));
+        assertEquals(1, ledger.getReservationCount("LADW"));
+    }
+
+    @Test
+    void givenAdjacentReservationsOrOtherTools_whenReserving_thenReservationsAreRecorded() {
+        InventoryLedger ledger = new InventoryLedger();
+        ledger.reserve(new Reservation("LADW", JULY_2, JULY_2.plusDays(5)));
+
+        // The tool is back on the due date, so it can be rented again from that day.
+        ledger.reserve(new Reservation("LADW", JULY_2.plusDays(5), JULY_2.plusDays(7)));
+        ledger.reserve(new Reservation("LADW", JULY_2.minusDays(2), JULY_2));
+        ledger.reserve(new Reservation("CHNS", JULY_2, JULY_2.plusDays(5)));
+
+        assertEquals(3, ledger.getReservationCount("LADW"));
+        assertEquals(1, ledger.getReservationCount("CHNS"));
+        assertFalse(ledger.isAvailable("LADW", JULY_2.minusDays(1), JULY_2.plusDays(10)));
+        assertTrue(ledger.isAvailable("LADW", JULY_2.plusDays(7), JULY_2.plusDays(10)));
+        assertTrue(ledger.isAvailable("JAKR", JULY_2, JULY_2.plusDays(10)));
+    }
+
+    @Test
+    void givenReleasedReservation_whenReservingSamePeriod_thenReservationIsRecorded() {
+        InventoryLedger ledger = new InventoryLedger();
+        Reservation reservation = new Reservation("JAKD", JULY_2, JULY_2.plusDays(4));
+
+        ledger.reserve(reservation);
+        assertFalse(ledger.release(new Reservation("JAKD", JULY_2, JULY_2.plusDays(3))));
+        assertTrue(ledger.release(reservation));
+        assertFalse(ledger.release(reservation));
+
+        ledger.reserve(reservation);
+        assertEquals(1, ledger.getReservationCount("JAKD"));
+    }
+
+    @Test
+    void givenConcurrentOverlappingCheckouts_whenReserving_thenOnlyOneSucceedsPerTool() throws Exception {
+        InventoryLedger ledger = new InventoryLedger();
+        int threadCount = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            List<Future<Boolean>> attempts = new ArrayList<>();
+            for (int i = 0; i < threadCount * 4; i++) {
+                String toolCode = i % 2 == 0 ? "LADW" : "CHNS";
+                Reservation reservation = new Reservation(toolCode, JULY_2.plusDays(i % 3), JULY_2.plusDays(5 + i % 3));
+
+                attempts.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        ledger.reserve(reservation);
+                        return true;
+                    } catch (ToolUnavailableException ex) {
+                        return false;
+                    }
+                }));
+            }
+
+            start.countDown();
+
+            int successes = 0;
+            for (Future<Boolean> attempt : attempts) {
+                successes += attempt.get() ? 1 : 0;
+            }
+
+            assertEquals(2, successes);
+            assertEquals(1, ledger.getReservationCount("LADW"));
+            assertEquals(1, ledger.getReservationCount("CHNS"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void givenProcessorWithLedger_whenCheckingOutRentedTool_thenThrows_ToolUnavailableException() {
+        InventoryLedger ledger = new InventoryLedger();
+        RentalProcessor processor = new RentalProcessor(new ToolService(), ChargeableDayIndex.getDefault(), RentalProcessor.Options.NONE.withInventoryLedger(ledger));
+
+        RentalAgreement agreement = processor.checkout("LADW", JULY_2, 3, 10);
+        assertThrows(ToolUnavailableException.class, () -> processor.checkout("LADW", JULY_2.plusDays(2), 3, 0));
+
+        // A checkout rejected for another reason does not reserve the tool.
+        assertThrows(DiscountPercentageRangeException.class, () -> processor.checkout("CHNS", JULY_2, 3, 101));
+        assertEquals(0, ledger.getReservationCount("CHNS"));
+
+        assertTrue(processor.checkin(agreement));
+        assertDoesNotThrow(() -> processor.checkout("LADW", JULY_2.plusDays(2), 3, 0));
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 
 import java.time.LocalDate;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -59,4 +60,36 @@ public class LocalDateUtilsTests {
     void givenNonHolidayDate_whenCheckingForAllHolidays_thenReturnsFalse() {
         assertFalse(LocalDateUtils.isHoliday(LocalDate.of(2015, 3, 15)));
     }
+
+    @Test
+    void givenJuly4thOnSaturday_whenGettingObservedIndependenceDay_thenReturnsFriday() {
+        assertEquals(LocalDate.of(2015, 7, 3), LocalDateUtils.getObservedIndependenceDay(2015));
+    }
+
+    @Test
+    void givenYear_whenGettingLaborDay_thenReturnsFirstMondayInSept() {
+        assertEquals(LocalDate.of(2015, 9, 7), LocalDateUtils.getLaborDay(2015));
+    }
+
+    @Test
+    void givenRangeOfDays_whenCountingWeekendDays_thenMatchesDayByDayCount() {
+        LocalDate start = LocalDate.of(2015, 6, 1);
+
+        for (int length = 0; length < 30; length++) {
+            long expected = 0;
+            for (int i = 0; i < length; i++) {
+                if (LocalDateUtils.isWeekend(start.plusDays(i).toEpochDay())) {
+                    expected++;
+                }
+            }
+
+            assertEquals(expected, LocalDateUtils.countWeekendDays(start.toEpochDay(), start.toEpochDay() + length - 1));
+        }
+    }
+
+    @Test
+    void givenSaturdayAndMonday_whenCheckingForWeekend_thenOnlySaturdayIsWeekend() {
+        assertTrue(LocalDateUtils.isWeekend(LocalDate.of(2015, 7, 4).toEpochDay()));
+        assertFalse(LocalDateUtils.isWeekend(LocalDate.of(2015, 7, 6).toEpochDay()));
+    }
 }
@@ -0,0 +1,143 @@
+package churilla.mark.toolrental.tests;
+
+import churilla.mark.toolrental.exception.ToolDataInitializationException;
+import churilla.mark.toolrental.model.RentableTool;
+import churilla.mark.toolrental.repository.MappedToolCatalog;
+import churilla.mark.toolrental.repository.ToolCatalogCompiler;
+import churilla.mark.toolrental.repository.ToolRepository;
+import churilla.mark.toolrental.utility.ResourceUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedToolCatalogTests {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void givenCompiledToolDb_whenLookingUpTools_thenMatchesJsonRepository() throws IOException {
+        Path catalogFile = tempDir.resolve("ToolDb.bin");
+        try (InputStream stream = ResourceUtils.getResource("ToolDb.json")) {
+            assertEquals(4, ToolCatalogCompiler.compile(stream, catalogFile));
+        }
+
+        ToolRepository jsonRepository = new ToolRepository();
+        ToolRepository mappedRepository = ToolRepository.fromBinaryCatalog(catalogFile);
+
+        for (String toolCode : new String[] {"CHNS", "JAKD", "JAKR", "LADW", "ABCD", "", "CHN", "CHNSS"}) {
+            assertEquals(jsonRepository.getRentableToolByCode(toolCode), mappedRepository.getRentableToolByCode(toolCode), toolCode);
+        }
+    }
+
+    @Test
+    void givenSharedToolType_whenLookingUpTools_thenTypeIsCreatedOnceAndToolsAreCached() throws IOException {
+        Path catalogFile = tempDir.resolve("ToolDb.bin");
+        try (InputStream stream = ResourceUtils.getResource("ToolDb.json")) {
+            ToolCatalogCompiler.compile(stream, catalogFile);
+        }
+
+        MappedToolCatalog catalog = MappedToolCatalog.open(catalogFile);
+        RentableTool jakd = catalog.findByCode("JAKD");
+        RentableTool jakr = catalog.findByCode("JAKR");
+
+        assertSame(jakd.getToolType(), jakr.getToolType());
+        assertSame(jakd, catalog.findByCode("JAKD"));
+    }
+
+    @Test
+    void givenLargeCatalogWithDuplicatesAndUnicode_whenLookingUpTools_thenEveryCodeIsFound() throws IOException {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 10_000; i++) {
+            json.append(String.format("{\"toolCode\": \"T%05d\", \"toolType\": {\"name\": \"Type%s\", \"dailyCharge\": %s.99, \"hasWeekdayCharge\": true}, \"brandName\": \"Brand%s\"},",
+                    i, i % 12, i % 12, i % 50));
+        }
+        json.append("{\"toolCode\": \"T00000\", \"toolType\": {\"name\": \"Duplicate\", \"dailyCharge\": 1}, \"brandName\": \"Duplicate\"},");
+        json.append("{\"toolCode\": \"SÄGE\", \"toolType\": {\"name\": \"Säge\", \"dailyCharge\": 1.25}, \"brandName\": \"Stihl\"}]");
+
+        Path catalogFile = tempDir.resolve("Large.bin");
+        assertEquals(10_001, ToolCatalogCompiler.compile(new ByteArrayInputStream(json.toString().getBytes(StandardCharsets.UTF_8)), catalogFile));
+
+        MappedToolCatalog catalog = MappedToolCatalog.open(catalogFile);
+        for (int i = 0; i < 10_000; i++) {
+            RentableTool tool = catalog.findByCode(String.format("T%05d", i));
+
+            assertNotNull(tool);
+            assertEquals("Brand" + (i % 50), tool.getBrandName());
+            assertEquals("Type" + (i % 12), tool.getToolType().getName());
+        }
+
+        assertEquals("Säge", catalog.findByCode("SÄGE").getToolType().getName());
+        assertNull(catalog.findByCode("T10000"));
+        assertNull(catalog.findByCode("SÄG"));
+    }
+
+    @Test
+    void givenFileThatIsNotACatalog_whenOpening_thenThrows_ToolDataInitializationException() throws IOException {
+        Path catalogFile = tempDir.resolve("NotACatalog.bin");
+        Files.writeString(catalogFile, "This is not a binary tool catalog file.");
+
+        assertThrows(ToolDataInitializationException.class, () -> ToolRepository.fromBinaryCatalog(catalogFile));
+    }
+
+    @Test
+    void givenCorruptTableBoundaries_whenOpening_thenThrows_IOException() throws IOException {
+        byte[] valid = compileToolDb();
+
+        // The type table overlaps the header.
+        assertThrows(IOException.class, () -> new MappedToolCatalog(corrupt(valid, 16, 8)));
+        assertEquals(4, new MappedToolCatalog(ByteBuffer.wrap(valid)).findAll().size());
+    }
+
+    @Test
+    void givenCorruptEntries_whenLookingUpTools_thenThrows_ToolDataInitializationException() throws IOException {
+        byte[] valid = compileToolDb();
+        ByteBuffer header = ByteBuffer.wrap(valid);
+        int typeTableOffset = header.getInt(16);
+        int toolTableOffset = header.getInt(20);
+
+        // A tool code lies outside the string pool, a brand has a negative length, a tool names a type that does not
+        // exist, and a type name lies outside the string pool. Opening only checks the header, so each entry is
+        // reported when it is read.
+        MappedToolCatalog badCode = new MappedToolCatalog(corrupt(valid, toolTableOffset, 1_000_000));
+        MappedToolCatalog badBrand = new MappedToolCatalog(corrupt(valid, toolTableOffset + 12, -1));
+        MappedToolCatalog badTypeIndex = new MappedToolCatalog(corrupt(valid, toolTableOffset + 16, header.getInt(8)));
+        MappedToolCatalog badTypeName = new MappedToolCatalog(corrupt(valid, typeTableOffset, 1_000_000));
+
+        assertThrows(ToolDataInitializationException.class, () -> badCode.findAll());
+        assertThrows(ToolDataInitializationException.class, () -> badBrand.findAll());
+        assertThrows(ToolDataInitializationException.class, () -> badTypeIndex.findAll());
+        assertThrows(ToolDataInitializationException.class, () -> badTypeIndex.findByTypeName("Ladder"));
+        assertThrows(ToolDataInitializationException.class, () -> badTypeName.findByTypeName("Ladder"));
+        assertThrows(ToolDataInitializationException.class, () -> badCode.findByCode("CHNS"));
+        assertEquals("LADW", badCode.findByCode("LADW").getToolCode());
+    }
+
+    /**
+     * Compiles ToolDb.json and returns the bytes of the binary catalog.
+     */
+    private byte[] compileToolDb() throws IOException {
+        Path catalogFile = tempDir.resolve("ToolDb.bin");
+        try (InputStream stream = ResourceUtils.getResource("ToolDb.json")) {
+            ToolCatalogCompiler.compile(stream, catalogFile);
+        }
+
+        return Files.readAllBytes(catalogFile);
+    }
+
+    /**
+     * Returns a copy of the catalog with the int at the given position replaced.
+     */
+    private static ByteBuffer corrupt(final byte[] catalog, final int position, final int value) {
+        return ByteBuffer.wrap(catalog.clone()).putInt(position, value);
+    }
+}
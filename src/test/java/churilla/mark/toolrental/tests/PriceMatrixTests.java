@@ -0,0 +1,62 @@
+package churilla.mark.toolrental.tests;
+
+import churilla.mark.toolrental.exception.DiscountPercentageRangeException;
+import churilla.mark.toolrental.exception.InvalidRentalDurationException;
+import churilla.mark.toolrental.exception.UnknownToolCodeException;
+import churilla.mark.toolrental.logic.ChargeableDayIndex;
+import churilla.mark.toolrental.logic.RentalProcessor;
+import churilla.mark.toolrental.model.PriceMatrix;
+import churilla.mark.toolrental.service.ToolService;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PriceMatrixTests {
+    private final RentalProcessor processor = new RentalProcessor(new ToolService(), ChargeableDayIndex.getDefault());
+
+    @Test
+    void givenCatalog_whenQuotingPrices_thenEveryCellMatchesQuote() {
+        // The last date is outside the default index, so its chargeable days are calculated by walking the calendar.
+        for (LocalDate checkoutDate : List.of(LocalDate.of(2015, 7, 2), LocalDate.of(2020, 8, 30), LocalDate.of(2150, 6, 28))) {
+            for (int discount : new int[] {0, 10, 55}) {
+                PriceMatrix matrix = processor.quotePrices(checkoutDate, 30, discount);
+
+                assertEquals(List.of("CHNS", "JAKD", "JAKR", "LADW"), matrix.getToolCodes());
+                for (int row = 0; row < matrix.getToolCodes().size(); row++) {
+                    for (int duration = 1; duration <= 30; duration++) {
+                        assertEquals(processor.quote(matrix.getToolCodes().get(row), checkoutDate, duration, discount).getFinalPrice(),
+                                matrix.getFinalPrice(row, duration));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void givenToolsSharingType_whenQuotingPrices_thenRowsAreEqual() {
+        PriceMatrix matrix = processor.quotePrices(List.of("JAKR", "LADW", "JAKD", "JAKR"), LocalDate.of(2015, 9, 3), 7, 0);
+
+        // Both jackhammers have the same tool type, so their rows hold the same prices.
+        for (int duration = 1; duration <= 7; duration++) {
+            assertEquals(matrix.getFinalPriceCents(0, duration), matrix.getFinalPriceCents(2, duration));
+            assertEquals(matrix.getFinalPriceCents(0, duration), matrix.getFinalPriceCents(3, duration));
+        }
+
+        // Labor Day 2015 is on 9/7, so a jackhammer checked out on 9/3 is charged for 9/4 and 9/8 only in five days.
+        assertEquals(598, matrix.getFinalPriceCents(0, 5));
+        assertEquals(4 * 7, matrix.toArray().length);
+        assertThrows(IndexOutOfBoundsException.class, () -> matrix.getFinalPriceCents(0, 8));
+    }
+
+    @Test
+    void givenInvalidArguments_whenQuotingPrices_thenThrows() {
+        LocalDate checkoutDate = LocalDate.of(2015, 7, 2);
+
+        assertThrows(InvalidRentalDurationException.class, () -> processor.quotePrices(checkoutDate, 0, 10));
+        assertThrows(DiscountPercentageRangeException.class, () -> processor.quotePrices(checkoutDate, 30, 101));
+        assertThrows(UnknownToolCodeException.class, () -> processor.quotePrices(List.of("JAKR", "NOPE"), checkoutDate, 30, 10));
+    }
+}
@@ -0,0 +1,95 @@
+package churilla.mark.toolrental.tests;
+
+import churilla.mark.toolrental.model.RentableTool;
+import churilla.mark.toolrental.model.RentalAgreement;
+import churilla.mark.toolrental.model.ToolType;
+import churilla.mark.toolrental.utility.PricingUtils;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PricingUtilsTests {
+
+    /**
+     * Compares every price calculated in cents against the BigDecimal calculation.
+     */
+    private static void assertCentsMatchBigDecimal(final long dailyChargeCents, final int chargeableDays, final int discount) {
+        assertTrue(PricingUtils.fitsInCents(dailyChargeCents, chargeableDays));
+
+        BigDecimal preDiscountPrice = PricingUtils.calculatePreDiscountPrice(PricingUtils.toDollars(dailyChargeCents), chargeableDays);
+        BigDecimal discountAmount = PricingUtils.calculateDiscountAmount(preDiscountPrice, discount);
+        BigDecimal finalPrice = PricingUtils.calculateFinalPrice(preDiscountPrice, discountAmount);
+
+        long preDiscountCents = PricingUtils.calculatePreDiscountCents(dailyChargeCents, chargeableDays);
+        long discountCents = PricingUtils.calculateDiscountCents(preDiscountCents, discount);
+
+        assertEquals(preDiscountPrice, PricingUtils.toDollars(preDiscountCents));
+        assertEquals(discountAmount, PricingUtils.toDollars(discountCents));
+        assertEquals(finalPrice, PricingUtils.toDollars(preDiscountCents - discountCents));
+    }
+
+    @Test
+    void givenAllSmallChargesDaysAndDiscounts_whenPricingInCents_thenMatchesBigDecimalPricing() {
+        for (long dailyChargeCents = -50; dailyChargeCents <= 500; dailyChargeCents++) {
+            for (int chargeableDays = 0; chargeableDays <= 40; chargeableDays++) {
+                for (int discount = 0; discount <= 100; discount++) {
+                    assertCentsMatchBigDecimal(dailyChargeCents, chargeableDays, discount);
+                }
+            }
+        }
+    }
+
+    @Test
+    void givenRandomLargeCharges_whenPricingInCents_thenMatchesBigDecimalPricing() {
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            long dailyChargeCents = random.nextInt(10_000_000);
+            int chargeableDays = random.nextInt(100_000);
+
+            assertCentsMatchBigDecimal(dailyChargeCents, chargeableDays, random.nextInt(101));
+        }
+    }
+
+    @Test
+    void givenLargestChargeThatFitsInCents_whenPricingInCents_thenMatchesBigDecimalPricing() {
+        long maxCents = (Long.MAX_VALUE - 50) / 100;
+
+        assertFalse(PricingUtils.fitsInCents(maxCents + 1, 1));
+        assertFalse(PricingUtils.fitsInCents(-maxCents - 1, 1));
+        for (int discount : new int[] {0, 1, 50, 99, 100}) {
+            assertCentsMatchBigDecimal(maxCents, 1, discount);
+            assertCentsMatchBigDecimal(-maxCents, 1, discount);
+        }
+    }
+
+    @Test
+    void givenChargeTooLargeForCents_whenCreatingAgreement_thenBigDecimalPricingIsUsed() {
+        BigDecimal dailyCharge = new BigDecimal("1000000000000000000.00");
+        RentableTool tool = new RentableTool("HUGE", new ToolType("Huge", dailyCharge, true, true, true), "FAKE");
+
+        RentalAgreement agreement = new RentalAgreement(tool, 3, LocalDate.of(2015, 7, 2), 3, 10);
+
+        assertFalse(PricingUtils.fitsInCents(tool.getToolType().getDailyChargeCents(), 3));
+        assertEquals(new BigDecimal("3000000000000000000.00"), agreement.getPreDiscountPrice());
+        assertEquals(new BigDecimal("300000000000000000.00"), agreement.getDiscountAmount());
+        assertEquals(new BigDecimal("2700000000000000000.00"), agreement.getFinalPrice());
+        assertThrows(ArithmeticException.class, agreement::getFinalPriceCents);
+    }
+
+    @Test
+    void givenAgreement_whenReadingCents_thenMatchesBigDecimalPrices() {
+        RentableTool tool = new RentableTool("FAKE", new ToolType("Fake", BigDecimal.valueOf(2.99), true, false, false), "FAKE");
+
+        RentalAgreement agreement = new RentalAgreement(tool, 4, LocalDate.of(2020, 7, 2), 1, 50);
+
+        assertEquals(299, agreement.getPreDiscountCents());
+        assertEquals(150, agreement.getDiscountCents());
+        assertEquals(149, agreement.getFinalPriceCents());
+        assertEquals(new BigDecimal("1.49"), agreement.getFinalPrice());
+    }
+}
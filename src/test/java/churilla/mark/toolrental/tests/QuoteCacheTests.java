@@ -0,0 +1,104 @@
+package churilla.mark.toolrental.tests;
+
+import churilla.mark.toolrental.exception.DiscountPercentageRangeException;
+import churilla.mark.toolrental.exception.InvalidRentalDurationException;
+import churilla.mark.toolrental.logic.ChargeableDayIndex;
+import churilla.mark.toolrental.logic.QuoteCache;
+import churilla.mark.toolrental.logic.RentalProcessor;
+import churilla.mark.toolrental.model.HolidayRule;
+import churilla.mark.toolrental.model.RentalAgreement;
+import churilla.mark.toolrental.service.ToolService;
+import churilla.mark.toolrental.utility.HolidayCalendar;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QuoteCacheTests {
+    private final RentalProcessor uncachedProcessor = new RentalProcessor(new ToolService(), ChargeableDayIndex.getDefault());
+
+    @Test
+    void givenRepeatedRentals_whenCheckingOut_thenCachedAgreementsMatchUncached() {
+        QuoteCache cache = new QuoteCache(1024);
+        RentalProcessor processor = new RentalProcessor(new ToolService(), ChargeableDayIndex.getDefault(), RentalProcessor.Options.NONE.withQuoteCache(cache));
+
+        for (int pass = 0; pass < 2; pass++) {
+            for (String toolCode : List.of("CHNS", "JAKD", "JAKR", "LADW")) {
+                for (LocalDate checkoutDate : List.of(LocalDate.of(2015, 7, 2), LocalDate.of(2020, 9, 3), LocalDate.of(2150, 6, 28))) {
+                    for (int rentalDuration : new int[] {1, 5, 9}) {
+                        RentalAgreement expected = uncachedProcessor.checkout(toolCode, checkoutDate, rentalDuration, 20);
+                        RentalAgreement actual = processor.checkout(toolCode, checkoutDate, rentalDuration, 20);
+
+                        assertEquals(toolCode, actual.getTool().getToolCode());
+                        assertEquals(expected.getRentalDueDate(), actual.getRentalDueDate());
+                        assertEquals(expected.getChargeableDays(), actual.getChargeableDays());
+                        assertEquals(expected.getPreDiscountPrice(), actual.getPreDiscountPrice());
+                        assertEquals(expected.getDiscountAmount(), actual.getDiscountAmount());
+                        assertEquals(expected.getFinalPrice(), actual.getFinalPrice());
+                        assertEquals(expected.toString(), actual.toString());
+                    }
+                }
+            }
+        }
+
+        // Both jackhammers have the same tool type, so the second jackhammer of each pass is answered from the cache.
+        QuoteCache.Stats stats = processor.getQuoteCacheStats().orElseThrow();
+        assertEquals(27, stats.missCount());
+        assertEquals(45, stats.hitCount());
+        assertEquals(0, stats.evictionCount());
+        assertEquals(45.0 / 72, stats.hitRate());
+        assertEquals(27, cache.size());
+        assertTrue(uncachedProcessor.getQuoteCacheStats().isEmpty());
+    }
+
+    @Test
+    void givenMoreRentalsThanMaximumSize_whenCaching_thenOldEntriesAreEvicted() {
+        QuoteCache cache = new QuoteCache(8);
+        RentalProcessor processor = new RentalProcessor(new ToolService(), ChargeableDayIndex.getDefault(), RentalProcessor.Options.NONE.withQuoteCache(cache));
+
+        LocalDate checkoutDate = LocalDate.of(2015, 7, 2);
+        for (int rentalDuration = 1; rentalDuration <= 100; rentalDuration++) {
+            assertEquals(uncachedProcessor.quote("LADW", checkoutDate, rentalDuration, 0).getFinalPrice(),
+                    processor.quote("LADW", checkoutDate, rentalDuration, 0).getFinalPrice());
+        }
+
+        assertEquals(8, cache.size());
+        assertEquals(92, cache.getStats().evictionCount());
+
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+        assertNull(cache.get(processor.quote("LADW", checkoutDate, 100, 0).getTool(), checkoutDate, 1, 0));
+    }
+
+    @Test
+    void givenInvalidRental_whenCheckingOutWithCache_thenThrows() {
+        RentalProcessor processor = new RentalProcessor(new ToolService(), ChargeableDayIndex.getDefault(), RentalProcessor.Options.NONE.withQuoteCache(new QuoteCache(64)));
+        LocalDate checkoutDate = LocalDate.of(2015, 7, 2);
+
+        processor.checkout("JAKR", checkoutDate, 5, 10);
+        assertThrows(DiscountPercentageRangeException.class, () -> processor.checkout("JAKR", checkoutDate, 5, 101));
+        assertThrows(InvalidRentalDurationException.class, () -> processor.checkout("JAKR", checkoutDate, 0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new QuoteCache(0));
+    }
+
+    @Test
+    void givenCacheSharedByProcessors_whenHolidayRulesDiffer_thenThrows_IllegalArgumentException() {
+        QuoteCache cache = new QuoteCache(64);
+        ToolService toolService = new ToolService();
+        new RentalProcessor(toolService, ChargeableDayIndex.getDefault(), RentalProcessor.Options.NONE.withQuoteCache(cache));
+
+        // A different window over the same rules gives the same prices, so the cache can be shared.
+        ChargeableDayIndex sameRules = new ChargeableDayIndex(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 12, 31),
+                new HolidayCalendar(2000, 2099));
+        assertDoesNotThrow(() -> new RentalProcessor(toolService, sameRules, RentalProcessor.Options.NONE.withQuoteCache(cache)));
+
+        List<HolidayRule> storeRules = List.of(new HolidayRule.NthWeekdayOfMonth("Thanksgiving", Month.NOVEMBER, DayOfWeek.THURSDAY, 4));
+        ChargeableDayIndex otherRules = new ChargeableDayIndex(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 12, 31),
+                new HolidayCalendar(2000, 2099, storeRules));
+        assertThrows(IllegalArgumentException.class, () -> new RentalProcessor(toolService, otherRules, RentalProcessor.Options.NONE.withQuoteCache(cache)));
+    }
+}
@@ -0,0 +1,138 @@
+package churilla.mark.toolrental.tests;
+
+import churilla.mark.toolrental.model.RentableTool;
+import churilla.mark.toolrental.model.RentalAgreement;
+import churilla.mark.toolrental.model.ToolType;
+import churilla.mark.toolrental.utility.ReceiptRenderer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.CharBuffer;
+import java.text.NumberFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReceiptRendererTests {
+
+    /**
+     * Renders a rental agreement the way RentalAgreement.toString() originally did, using a format string and a
+     * NumberFormat.
+     */
+    private static String renderWithFormatters(final RentalAgreement agreement) {
+        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("MM/dd/yy");
+        NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(new Locale("en", "us"));
+
+        return """
+        Tool code: %s
+        Tool type: %s
+        Brand: %s
+        Checkout date: %s
+        Rental duration: %s days
+        Due date: %s
+        Daily rental charge: %s
+        Charged days: %s days
+        Charge before discount: %s
+        Discount rate: %s%%
+        Total discount: %s
+        Final charge: %s
+        """
+        .formatted(agreement.getTool().getToolCode(),
+                agreement.getTool().getToolType().getName(),
+                agreement.getTool().getBrandName(),
+                agreement.getCheckoutDate().format(dateFormatter),
+                agreement.getRentalDuration(),
+                agreement.getRentalDueDate().format(dateFormatter),
+                currencyFormat.format(agreement.getTool().getToolType().getDailyCharge()),
+                agreement.getChargeableDays(),
+                currencyFormat.format(agreement.getPreDiscountPrice()),
+                agreement.getDiscount(),
+                currencyFormat.format(agreement.getDiscountAmount()),
+                currencyFormat.format(agreement.getFinalPrice()));
+    }
+
+    /**
+     * Renders a tool type the way ToolType.toString() originally did.
+     */
+    private static String renderWithFormatters(final ToolType toolType) {
+        return """
+                Name: %s
+                Daily charge: %s
+                Weekday charge: %s
+                Weekend charge: %s
+                Holiday charge: %s
+                """
+                .formatted(toolType.getName(),
+                        NumberFormat.getCurrencyInstance(new Locale("en", "us")).format(toolType.getDailyCharge()),
+                        toolType.hasWeekdayCharge(),
+                        toolType.hasWeekendCharge(),
+                        toolType.hasHolidayCharge());
+    }
+
+    private static List<RentalAgreement> randomAgreements(final int count) {
+        Random random = new Random(7);
+        List<RentalAgreement> agreements = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            long dailyChargeCents = random.nextInt(4) == 0 ? random.nextLong() / 1_000_000 : random.nextInt(100_000) - 1_000;
+            ToolType type = new ToolType("Type" + i, BigDecimal.valueOf(dailyChargeCents, 2),
+                    random.nextBoolean(), random.nextBoolean(), random.nextBoolean());
+            RentableTool tool = new RentableTool("T" + i, type, "Brand" + i);
+            LocalDate checkoutDate = LocalDate.ofEpochDay(random.nextInt(5_000_000) - 2_500_000);
+            int rentalDuration = 1 + random.nextInt(1000);
+
+            agreements.add(new RentalAgreement(tool, rentalDuration, checkoutDate, random.nextInt(rentalDuration + 1), random.nextInt(101)));
+        }
+
+        return agreements;
+    }
+
+    @Test
+    void givenRandomAgreements_whenRendering_thenMatchesFormatStringOutput() {
+        for (RentalAgreement agreement : randomAgreements(20_000)) {
+            assertEquals(renderWithFormatters(agreement), agreement.toString());
+        }
+    }
+
+    @Test
+    void givenRandomToolTypes_whenRendering_thenMatchesFormatStringOutput() {
+        for (RentalAgreement agreement : randomAgreements(2_000)) {
+            ToolType toolType = agreement.getTool().getToolType();
+
+            assertEquals(renderWithFormatters(toolType), toolType.toString());
+        }
+
+        ToolType huge = new ToolType("Huge", new BigDecimal("123456789012345678901.5"), true, true, true);
+        assertEquals(renderWithFormatters(huge), huge.toString());
+    }
+
+    @Test
+    void givenCharBuffer_whenAppendingAgreement_thenBufferHoldsReceipt() throws IOException {
+        RentalAgreement agreement = randomAgreements(1).get(0);
+        CharBuffer buffer = CharBuffer.allocate(1024);
+
+        ReceiptRenderer.appendRentalAgreement(agreement, buffer);
+        buffer.flip();
+
+        assertEquals(agreement.toString(), buffer.toString());
+    }
+
+    @Test
+    void givenManyThreads_whenRenderingConcurrently_thenEveryReceiptIsCorrect() {
+        List<RentalAgreement> agreements = randomAgreements(2_000);
+        List<String> expected = agreements.stream().map(ReceiptRendererTests::renderWithFormatters).toList();
+
+        IntStream.range(0, 8).parallel().forEach(pass -> {
+            for (int i = 0; i < agreements.size(); i++) {
+                assertEquals(expected.get(i), ReceiptRenderer.render(agreements.get(i)));
+            }
+        });
+    }
+}
@@ -0,0 +1,167 @@
+package churilla.mark.toolrental.tests;
+
+import churilla.mark.toolrental.logic.ChargeableDayIndex;
+import churilla.mark.toolrental.logic.InventoryLedger;
+import churilla.mark.toolrental.logic.RentalProcessor;
+import churilla.mark.toolrental.model.CheckoutRequest;
+import churilla.mark.toolrental.model.CheckoutResult;
+import churilla.mark.toolrental.server.RentalJsonCodec;
+import churilla.mark.toolrental.server.RentalServer;
+import churilla.mark.toolrental.service.ToolService;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RentalServerTests {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private InventoryLedger ledger;
+    private RentalServer server;
+
+    @BeforeAll
+    static void enableNoDelay() {
+        System.setProperty(RentalServer.NODELAY_PROPERTY, "true");
+    }
+
+    @BeforeEach
+    void startServer() throws IOException {
+        ledger = new InventoryLedger();
+        RentalProcessor rentalProcessor = new RentalProcessor(new ToolService(), ChargeableDayIndex.getDefault(), RentalProcessor.Options.NONE.withInventoryLedger(ledger));
+
+        server = new RentalServer(rentalProcessor, new InetSocketAddress("127.0.0.1", 0), RentalServer.newVirtualThreadExecutor());
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.close();
+    }
+
+    private HttpResponse<String> post(final String path, final String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + path))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void givenValidRequest_whenCheckingOut_thenAgreementIsReturned() throws Exception {
+        HttpResponse<String> response = post("/checkout", "{\"toolCode\": \"JAKR\", \"checkoutDate\": \"2020-07-02\", \"rentalDuration\": 4, \"discount\": 50}");
+
+        assertEquals(201, response.statusCode());
+        JsonNode agreement = OBJECT_MAPPER.readTree(response.body());
+        assertEquals("JAKR", agreement.get("toolCode").asText());
+        assertEquals("2020-07-06", agreement.get("dueDate").asText());
+        assertEquals(1, agreement.get("chargeableDays").asInt());
+        assertEquals("1.49", agreement.get("finalCharge").decimalValue().toPlainString());
+        assertEquals(1, ledger.getReservationCount("JAKR"));
+
+        // The tool is now rented, so an overlapping checkout is rejected but can still be quoted.
+        assertEquals(409, post("/checkout", "{\"toolCode\": \"JAKR\", \"checkoutDate\": \"2020-07-03\", \"rentalDuration\": 2}").statusCode());
+        assertEquals(200, post("/quote", "{\"toolCode\": \"JAKR\", \"checkoutDate\": \"2020-07-03\", \"rentalDuration\": 2}").statusCode());
+        assertEquals(1, ledger.getReservationCount("JAKR"));
+    }
+
+    @Test
+    void givenInvalidRequests_whenPosting_thenErrorsAreReturned() throws Exception {
+        HttpResponse<String> unknownTool = post("/quote", "{\"toolCode\": \"NOPE\", \"checkoutDate\": \"2020-07-02\", \"rentalDuration\": 4}");
+        assertEquals(404, unknownTool.statusCode());
+        assertEquals("UNKNOWN_TOOL_CODE", OBJECT_MAPPER.readTree(unknownTool.body()).get("error").asText());
+
+        HttpResponse<String> badDiscount = post("/quote", "{\"toolCode\": \"JAKR\", \"checkoutDate\": \"2015-09-03\", \"rentalDuration\": 5, \"discount\": 101}");
+        assertEquals(400, badDiscount.statusCode());
+        assertEquals("INVALID_DISCOUNT", OBJECT_MAPPER.readTree(badDiscount.body()).get("error").asText());
+
+        assertEquals(400, post("/checkout", "{\"toolCode\": \"JAKR\"}").statusCode());
+        assertEquals(400, post("/checkout", "not json").statusCode());
+
+        HttpResponse<String> get = httpClient.send(HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + "/quote")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(405, get.statusCode());
+    }
+
+    @Test
+    void givenProcessorThatThrows_whenPosting_thenInternalErrorIsReturned() throws Exception {
+        RentalProcessor failingProcessor = new RentalProcessor(new ToolService(), ChargeableDayIndex.getDefault()) {
+            @Override
+            public CheckoutResult tryQuote(final String toolCode, final LocalDate checkoutDate, final int rentalDuration, final int discount) {
+                throw new IllegalStateException("The catalog is unavailable.");
+            }
+        };
+
+        try (RentalServer failingServer = new RentalServer(failingProcessor, new InetSocketAddress("127.0.0.1", 0), RentalServer.newVirtualThreadExecutor())) {
+            failingServer.start();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + failingServer.getPort() + "/quote"))
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"toolCode\": \"JAKR\", \"checkoutDate\": \"2020-07-02\", \"rentalDuration\": 4}"))
+                    .build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(500, response.statusCode());
+            assertEquals("INTERNAL_ERROR", OBJECT_MAPPER.readTree(response.body()).get("error").asText());
+        }
+    }
+
+    @Test
+    void givenConcurrentCheckoutsOfOneTool_whenPosting_thenOnlyOneSucceeds() throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<Integer>> statuses = clients.invokeAll(Collections.nCopies(16, () ->
+                    post("/checkout", "{\"toolCode\": \"LADW\", \"checkoutDate\": \"2020-07-02\", \"rentalDuration\": 3}").statusCode()));
+
+            int created = 0;
+            for (Future<Integer> status : statuses) {
+                int statusCode = status.get();
+                assertTrue(statusCode == 201 || statusCode == 409);
+                created += statusCode == 201 ? 1 : 0;
+            }
+
+            assertEquals(1, created);
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    @Test
+    void givenCheckoutRequest_whenWrittenAndRead_thenSameRequestIsReturned() throws IOException {
+        CheckoutRequest request = new CheckoutRequest("CHNS", LocalDate.of(2015, 7, 2), 5, 25);
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        RentalJsonCodec.writeCheckoutRequest(request, json);
+
+        assertEquals(request, RentalJsonCodec.readCheckoutRequest(new ByteArrayInputStream(json.toByteArray())));
+        assertThrows(JsonParseException.class, () -> RentalJsonCodec.readCheckoutRequest(
+                new ByteArrayInputStream("{\"toolCode\": \"CHNS\", \"checkoutDate\": \"07/02/15\", \"rentalDuration\": 5}".getBytes(StandardCharsets.UTF_8))));
+        assertThrows(JsonParseException.class, () -> RentalJsonCodec.readCheckoutRequest(
+                new ByteArrayInputStream("{\"toolCode\": \"CHNS\", \"checkoutDate\": \"2015-07-02\", \"rentalDuration\": 5, \"extra\": 1}".getBytes(StandardCharsets.UTF_8))));
+
+        // A structured value is not flattened into the request, and nothing may follow the object.
+        assertThrows(JsonParseException.class, () -> RentalJsonCodec.readCheckoutRequest(new ByteArrayInputStream(
+                "{\"toolCode\": {\"toolCode\": \"JAKR\", \"checkoutDate\": \"2015-07-02\", \"rentalDuration\": 4}}".getBytes(StandardCharsets.UTF_8))));
+        assertThrows(JsonParseException.class, () -> RentalJsonCodec.readCheckoutRequest(new ByteArrayInputStream(
+                "{\"toolCode\": \"CHNS\", \"checkoutDate\": \"2015-07-02\", \"rentalDuration\": 5} {}".getBytes(StandardCharsets.UTF_8))));
+    }
+}
@@ -0,0 +1,144 @@
+package churilla.mark.toolrental.tests;
+
+import churilla.mark.toolrental.exception.ToolDataInitializationException;
+import churilla.mark.toolrental.model.RentableTool;
+import churilla.mark.toolrental.repository.ToolCatalog;
+import churilla.mark.toolrental.repository.ToolCatalogReloader;
+import churilla.mark.toolrental.repository.ToolRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ToolCatalogReloaderTests {
+    private static final String ORIGINAL_TOOLS = """
+            [{"toolCode": "LADW", "toolType": {"name": "Ladder", "dailyCharge": 1.99, "hasWeekdayCharge": true}, "brandName": "Werner"}]
+            """;
+    private static final String UPDATED_TOOLS = """
+            [
+              {"toolCode": "LADW", "toolType": {"name": "Ladder", "dailyCharge": 2.49, "hasWeekdayCharge": true}, "brandName": "Werner"},
+              {"toolCode": "CHNS", "toolType": {"name": "Chainsaw", "dailyCharge": 1.49, "hasWeekdayCharge": true}, "brandName": "Stihl"}
+            ]
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Replaces the file in a single step, the same as most editors and deployment tools.
+     */
+    private void replace(final Path toolFile, final String json) throws IOException {
+        Path staged = Files.writeString(tempDir.resolve("staged.json"), json);
+        Files.move(staged, toolFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Test
+    void givenChangedToolFile_whenReloadingIfChanged_thenNewCatalogIsPublished() throws IOException {
+        Path toolFile = Files.writeString(tempDir.resolve("ToolDb.json"), ORIGINAL_TOOLS);
+        ToolRepository repository = ToolRepository.fromFile(toolFile);
+
+        try (ToolCatalogReloader reloader = new ToolCatalogReloader(repository, toolFile)) {
+            assertFalse(reloader.reloadIfChanged());
+
+            RentableTool before = repository.getRentableToolByCode("LADW").orElseThrow();
+            replace(toolFile, UPDATED_TOOLS);
+
+            assertTrue(reloader.reloadIfChanged());
+            assertEquals(1, reloader.getReloadCount());
+            assertEquals(new BigDecimal("2.49"), repository.getRentableToolByCode("LADW").orElseThrow().getToolType().getDailyCharge());
+            assertTrue(repository.getRentableToolByCode("CHNS").isPresent());
+
+            // A tool looked up before the reload keeps the values it was read with.
+            assertEquals(new BigDecimal("1.99"), before.getToolType().getDailyCharge());
+        }
+    }
+
+    @Test
+    void givenInvalidToolFile_whenReloading_thenPreviousCatalogIsKept() throws IOException {
+        Path toolFile = Files.writeString(tempDir.resolve("ToolDb.json"), ORIGINAL_TOOLS);
+        ToolRepository repository = ToolRepository.fromFile(toolFile);
+        ToolCatalog original = repository.getCatalog();
+
+        try (ToolCatalogReloader reloader = new ToolCatalogReloader(repository, toolFile)) {
+            replace(toolFile, "[{\"toolCode\": \"LADW\"");
+
+            assertFalse(reloader.reloadIfChanged());
+            assertNotNull(reloader.getLastFailure());
+            assertSame(original, repository.getCatalog());
+            assertTrue(repository.getRentableToolByCode("LADW").isPresent());
+
+            // The bad version is not read again until the file changes.
+            assertFalse(reloader.reloadIfChanged());
+
+            replace(toolFile, UPDATED_TOOLS);
+            assertTrue(reloader.reloadIfChanged());
+            assertEquals(2, repository.getCatalog().size());
+        }
+    }
+
+    @Test
+    void givenStartedReloader_whenToolFileChanges_thenCatalogIsReloadedInBackground() throws Exception {
+        Path toolFile = Files.writeString(tempDir.resolve("ToolDb.json"), ORIGINAL_TOOLS);
+        ToolRepository repository = ToolRepository.fromFile(toolFile);
+
+        try (ToolCatalogReloader reloader = new ToolCatalogReloader(repository, toolFile)) {
+            reloader.start(Duration.ofMillis(10));
+            replace(toolFile, UPDATED_TOOLS);
+
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (repository.getRentableToolByCode("CHNS").isEmpty() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertTrue(repository.getRentableToolByCode("CHNS").isPresent());
+        }
+    }
+
+    @Test
+    void givenReloadThatThrows_whenPolling_thenFailureIsRecordedAndPollingContinues() throws Exception {
+        Path toolFile = Files.writeString(tempDir.resolve("ToolDb.json"), ORIGINAL_TOOLS);
+        AtomicInteger publishCount = new AtomicInteger();
+        ToolRepository repository = new ToolRepository(ToolRepository.fromFile(toolFile).getCatalog()) {
+            @Override
+            public void setCatalog(final ToolCatalog catalog) {
+                if (publishCount.incrementAndGet() == 1) {
+                    throw new IllegalStateException("The first catalog cannot be published.");
+                }
+                super.setCatalog(catalog);
+            }
+        };
+
+        try (ToolCatalogReloader reloader = new ToolCatalogReloader(repository, toolFile)) {
+            reloader.start(Duration.ofMillis(10));
+            assertThrows(IllegalStateException.class, () -> reloader.start(Duration.ofMillis(10)));
+
+            replace(toolFile, UPDATED_TOOLS + "\n");
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (reloader.getLastFailure() == null && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertInstanceOf(IllegalStateException.class, reloader.getLastFailure());
+
+            // The failure did not stop the polling, so the next change is still published.
+            replace(toolFile, UPDATED_TOOLS);
+            while (repository.getRentableToolByCode("CHNS").isEmpty() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(repository.getRentableToolByCode("CHNS").isPresent());
+            assertEquals(1, reloader.getReloadCount());
+        }
+    }
+
+    @Test
+    void givenMissingToolFile_whenCreatingRepositoryFromFile_thenThrows_ToolDataInitializationException() {
+        assertThrows(ToolDataInitializationException.class, () -> ToolRepository.fromFile(tempDir.resolve("missing.json")));
+    }
+}
@@ -0,0 +1,70 @@
+package churilla.mark.toolrental.tests;
+
+import churilla.mark.toolrental.model.RentableTool;
+import churilla.mark.toolrental.model.ToolType;
+import churilla.mark.toolrental.repository.ToolJsonModule;
+import churilla.mark.toolrental.repository.ToolJsonReader;
+import churilla.mark.toolrental.utility.ResourceUtils;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ToolJsonModuleTests {
+    private static final TypeReference<List<RentableTool>> TOOL_LIST = new TypeReference<>() {};
+
+    @Test
+    void givenToolDbFile_whenReadingWithSharedMapper_thenMatchesStreamingResult() throws IOException {
+        List<RentableTool> expected = new ArrayList<>();
+        try (InputStream stream = ResourceUtils.getResource("ToolDb.json")) {
+            ToolJsonReader.readTools(stream, expected::add);
+        }
+
+        List<RentableTool> actual;
+        try (InputStream stream = ResourceUtils.getResource("ToolDb.json")) {
+            actual = ToolJsonModule.getMapper().readValue(stream, TOOL_LIST);
+        }
+
+        assertEquals(expected, actual);
+        assertSame(ToolJsonModule.getMapper(), ToolJsonModule.getMapper());
+    }
+
+    @Test
+    void givenToolsNestedInOtherValues_whenReadingWithSharedMapper_thenToolsAndNullsAreRead() throws IOException {
+        String json = """
+                {
+                  "LADW": {"toolCode": "LADW", "toolType": {"name": "Ladder", "dailyCharge": "1.99", "hasWeekdayCharge": true, "hasWeekendCharge": true}, "brandName": "Werner"},
+                  "NONE": null
+                }
+                """;
+
+        Map<String, RentableTool> tools = ToolJsonModule.getMapper().readValue(json, new TypeReference<>() {});
+        ToolType toolType = ToolJsonModule.getMapper().readValue("{\"name\": \"Ladder\", \"dailyCharge\": 1.99, \"hasWeekdayCharge\": true, \"hasWeekendCharge\": true}", ToolType.class);
+
+        assertEquals(new RentableTool("LADW", new ToolType("Ladder", new BigDecimal("1.99"), true, true, false), "Werner"), tools.get("LADW"));
+        assertTrue(tools.containsKey("NONE"));
+        assertNull(tools.get("NONE"));
+        assertEquals(tools.get("LADW").getToolType(), toolType);
+    }
+
+    @Test
+    void givenInvalidTools_whenReadingWithSharedMapper_thenThrows() {
+        ObjectMapper mapper = ToolJsonModule.getMapper();
+
+        IOException unknown = assertThrows(IOException.class, () -> mapper.readValue(
+                "{\"toolCode\": \"LADW\", \"toolType\": {\"name\": \"Ladder\", \"dailyCharge\": 1.99, \"color\": \"red\"}, \"brandName\": \"Werner\"}",
+                RentableTool.class));
+        assertTrue(unknown.getMessage().contains("Unrecognized field \"color\" for ToolType"));
+
+        assertThrows(IOException.class, () -> mapper.readValue("{\"toolCode\": \"LADW\", \"brandName\": \"Werner\"}", RentableTool.class));
+        assertThrows(IOException.class, () -> mapper.readValue("[\"LADW\"]", TOOL_LIST));
+    }
+}
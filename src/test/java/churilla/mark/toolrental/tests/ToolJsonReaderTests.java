@@ -0,0 +1,146 @@
+package churilla.mark.toolrental.tests;
+
+import churilla.mark.toolrental.model.RentableTool;
+import churilla.mark.toolrental.model.ToolType;
+import churilla.mark.toolrental.model.ToolTypePool;
+import churilla.mark.toolrental.repository.ToolJsonReader;
+import churilla.mark.toolrental.utility.ResourceUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ToolJsonReaderTests {
+
+    private static List<RentableTool> read(final String json) throws IOException {
+        List<RentableTool> tools = new ArrayList<>();
+        ToolJsonReader.readTools(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), tools::add);
+
+        return tools;
+    }
+
+    @Test
+    void givenToolDbFile_whenReadingWithStreamingApi_thenEveryToolIsRead() throws IOException {
+        ToolType jackhammer = new ToolType("Jackhammer", new BigDecimal("2.99"), true, false, false);
+        List<RentableTool> expected = List.of(
+                new RentableTool("CHNS", new ToolType("Chainsaw", new BigDecimal("1.49"), true, false, true), "Stihl"),
+                new RentableTool("JAKD", jackhammer, "DeWalt"),
+                new RentableTool("JAKR", jackhammer, "Ridgid"),
+                new RentableTool("LADW", new ToolType("Ladder", new BigDecimal("1.99"), true, true, false), "Werner"));
+
+        List<RentableTool> actual = new ArrayList<>();
+        try (InputStream stream = ResourceUtils.getResource("ToolDb.json")) {
+            ToolJsonReader.readTools(stream, actual::add);
+        }
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void givenDuplicateToolCodes_whenLoadingWithPutIfAbsent_thenFirstToolIsKept() throws IOException {
+        String json = """
+                [
+                  {"toolCode": "DUPE", "toolType": {"name": "First", "dailyCharge": 1.00}, "brandName": "A"},
+                  {"toolCode": "DUPE", "toolType": {"name": "Second", "dailyCharge": "2.50", "hasWeekdayCharge": true}, "brandName": "B"}
+                ]
+                """;
+
+        Map<String, RentableTool> map = new LinkedHashMap<>();
+        read(json).forEach(tool -> map.putIfAbsent(tool.getToolCode(), tool));
+
+        assertEquals(1, map.size());
+        assertEquals("First", map.get("DUPE").getToolType().getName());
+        assertEquals(new BigDecimal("2.50"), read(json).get(1).getToolType().getDailyCharge());
+    }
+
+    @Test
+    void givenUnknownField_whenReadingTools_thenThrows_IOException() {
+        assertThrows(IOException.class, () -> read("""
+                [{"toolCode": "FAKE", "color": "red", "toolType": {"name": "Fake", "dailyCharge": 1.00}, "brandName": "A"}]
+                """));
+    }
+
+    @Test
+    void givenMissingRequiredField_whenReadingTools_thenThrows_IOException() {
+        assertThrows(IOException.class, () -> read("""
+                [{"toolCode": "FAKE", "toolType": {"name": "Fake"}, "brandName": "A"}]
+                """));
+    }
+
+    @Test
+    void givenStructuredValueForScalarField_whenReadingTools_thenThrows_IOException() {
+        // The nested fields must not be read as fields of the tool itself.
+        assertThrows(IOException.class, () -> read("""
+                [{"toolCode": {"toolCode": "FAKE", "toolType": {"name": "Fake", "dailyCharge": 1.00}, "brandName": "A"}}]
+                """));
+        assertThrows(IOException.class, () -> read("""
+                [{"toolCode": "FAKE", "toolType": {"name": ["Fake"], "dailyCharge": 1.00}, "brandName": "A"}]
+                """));
+        assertThrows(IOException.class, () -> read("""
+                [{"toolCode": "FAKE", "toolType": {"name": "Fake", "dailyCharge": 1.00, "hasWeekdayCharge": {"x": true}}, "brandName": "A"}]
+                """));
+    }
+
+    @Test
+    void givenTruncatedFile_whenReadingTools_thenThrows_IOException() {
+        assertThrows(IOException.class, () -> read("[{\"toolCode\": \"FAKE\""));
+    }
+
+    @Test
+    void givenEqualToolTypesWithDifferentScales_whenReadingTools_thenToolTypeIsInterned() throws IOException {
+        List<RentableTool> tools = read("""
+                [
+                  {"toolCode": "AAAA", "toolType": {"name": "Ladder", "dailyCharge": 1.99, "hasWeekdayCharge": true}, "brandName": "A"},
+                  {"toolCode": "BBBB", "toolType": {"name": "Ladder", "dailyCharge": "1.990", "hasWeekdayCharge": true}, "brandName": "B"},
+                  {"toolCode": "CCCC", "toolType": {"name": "Ladder", "dailyCharge": 1.99, "hasWeekendCharge": true}, "brandName": "C"}
+                ]
+                """);
+
+        assertSame(tools.get(0).getToolType(), tools.get(1).getToolType());
+        assertNotSame(tools.get(0).getToolType(), tools.get(2).getToolType());
+    }
+
+    @Test
+    void givenSharedPool_whenReadingTwoFiles_thenToolTypesAreSharedAcrossFiles() throws IOException {
+        String json = """
+                [{"toolCode": "LADW", "toolType": {"name": "Ladder", "dailyCharge": 1.99}, "brandName": "Werner"}]
+                """;
+        ToolTypePool pool = new ToolTypePool();
+        List<RentableTool> tools = new ArrayList<>();
+
+        for (int i = 0; i < 2; i++) {
+            ToolJsonReader.readTools(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), pool, tools::add);
+        }
+
+        assertNotSame(tools.get(0), tools.get(1));
+        assertSame(tools.get(0).getToolType(), tools.get(1).getToolType());
+        assertEquals(1, pool.size());
+    }
+
+    @Test
+    void givenPooledToolType_whenReadingTools_thenPooledInstanceIsReturned() throws IOException {
+        ToolTypePool pool = new ToolTypePool();
+        ToolType ladder = pool.intern(new ToolType("Ladder", new BigDecimal("1.99"), true, false, false));
+        List<RentableTool> tools = new ArrayList<>();
+
+        ToolJsonReader.readTools(new ByteArrayInputStream("""
+                [{"toolCode": "LADW", "toolType": {"name": "Ladder", "dailyCharge": "1.990", "hasWeekdayCharge": true}, "brandName": "Werner"}]
+                """.getBytes(StandardCharsets.UTF_8)), pool, tools::add);
+
+        assertSame(ladder, tools.get(0).getToolType());
+        assertSame(ladder, pool.intern("Ladder", new BigDecimal("1.99"), true, false, false));
+        assertEquals(1, pool.size());
+        assertThrows(IOException.class, () -> ToolJsonReader.readTools(new ByteArrayInputStream("""
+                [{"toolCode": "LADW", "toolType": {"dailyCharge": 1.99}, "brandName": "Werner"}]
+                """.getBytes(StandardCharsets.UTF_8)), pool, tools::add));
+    }
+}
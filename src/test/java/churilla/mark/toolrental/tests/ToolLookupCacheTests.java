@@ -0,0 +1,146 @@
+package churilla.mark.toolrental.tests;
+
+import churilla.mark.toolrental.model.RentableTool;
+import churilla.mark.toolrental.repository.SimulatedLatencyToolRepository;
+import churilla.mark.toolrental.repository.ToolRepository;
+import churilla.mark.toolrental.service.ToolLookupCache;
+import churilla.mark.toolrental.service.ToolService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ToolLookupCacheTests {
+    private static final ToolRepository TOOL_REPOSITORY = new ToolRepository();
+
+    private final AtomicLong clock = new AtomicLong();
+    private SimulatedLatencyToolRepository backend;
+
+    @BeforeEach
+    void setup() {
+        backend = new SimulatedLatencyToolRepository(TOOL_REPOSITORY, Duration.ZERO);
+    }
+
+    private ToolLookupCache createCache(final int maximumSize) {
+        return new ToolLookupCache(backend, maximumSize, Duration.ofMinutes(5), clock::get);
+    }
+
+    @Test
+    void givenRepeatedLookups_whenReadingThroughCache_thenRepositoryIsReadOnce() {
+        ToolService service = new ToolService(createCache(10));
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("Stihl", service.getRentableTool("CHNS").orElseThrow().getBrandName());
+            assertTrue(service.getRentableTool("ABCD").isEmpty());
+        }
+
+        assertEquals(2, backend.getLookupCount());
+        assertEquals(new ToolLookupCache.Stats(4, 2, 0, 0), service.getCacheStats().orElseThrow());
+        assertEquals(4.0 / 6, service.getCacheStats().orElseThrow().hitRate(), 1e-9);
+    }
+
+    @Test
+    void givenFullCache_whenLoadingNewCode_thenLeastRecentlyUsedEntryIsEvicted() {
+        ToolLookupCache cache = createCache(2);
+
+        cache.get("CHNS");
+        cache.get("JAKD");
+        cache.get("CHNS");
+        cache.get("LADW");
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getStats().evictionCount());
+
+        cache.get("CHNS");
+        assertEquals(3, backend.getLookupCount());
+
+        cache.get("JAKD");
+        assertEquals(4, backend.getLookupCount());
+    }
+
+    @Test
+    void givenExpiredEntry_whenLookingUp_thenToolIsLoadedAgain() {
+        ToolLookupCache cache = createCache(10);
+
+        Optional<RentableTool> first = cache.get("JAKR");
+        clock.addAndGet(Duration.ofMinutes(5).toNanos() - 1);
+        assertSame(first, cache.get("JAKR"));
+        assertEquals(1, backend.getLookupCount());
+
+        clock.incrementAndGet();
+        assertEquals(first, cache.get("JAKR"));
+        assertEquals(2, backend.getLookupCount());
+        assertEquals(1, cache.getStats().expirationCount());
+    }
+
+    @Test
+    void givenInvalidatedEntry_whenLookingUp_thenToolIsLoadedAgain() {
+        ToolLookupCache cache = createCache(10);
+
+        cache.get("LADW");
+        cache.invalidate("LADW");
+        cache.get("LADW");
+        cache.invalidateAll();
+
+        assertEquals(2, backend.getLookupCount());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void givenInvalidationDuringLoad_whenLoadFinishes_thenStaleResultIsNotCached() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch invalidated = new CountDownLatch(1);
+        AtomicInteger loadCount = new AtomicInteger();
+        ToolRepository slowRepository = new ToolRepository(TOOL_REPOSITORY.getCatalog()) {
+            @Override
+            public Optional<RentableTool> getRentableToolByCode(final String toolCode) {
+                if (loadCount.incrementAndGet() == 1) {
+                    loading.countDown();
+                    try {
+                        invalidated.await();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.getRentableToolByCode(toolCode);
+            }
+        };
+        ToolLookupCache cache = new ToolLookupCache(slowRepository, 10, Duration.ofMinutes(5), clock::get);
+
+        CompletableFuture<Optional<RentableTool>> firstLookup = CompletableFuture.supplyAsync(() -> cache.get("CHNS"));
+        loading.await();
+        cache.invalidate("CHNS");
+        invalidated.countDown();
+
+        assertTrue(firstLookup.get().isPresent());
+        assertEquals(0, cache.size());
+
+        cache.get("CHNS");
+        cache.get("CHNS");
+        assertEquals(2, loadCount.get());
+    }
+
+    @Test
+    void givenUncachedServiceOrNullCode_whenLookingUp_thenRepositoryIsReadDirectly() {
+        ToolService uncached = new ToolService(backend);
+        ToolService cached = new ToolService(createCache(10));
+
+        assertTrue(uncached.getCacheStats().isEmpty());
+        assertTrue(uncached.getRentableTool("CHNS").isPresent());
+        assertTrue(cached.getRentableTool(null).isEmpty());
+        assertEquals(2, backend.getLookupCount());
+    }
+
+    @Test
+    void givenInvalidSettings_whenCreatingCache_thenThrows_IllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> createCache(0));
+        assertThrows(IllegalArgumentException.class, () -> new ToolLookupCache(backend, 1, Duration.ZERO, clock::get));
+    }
+}
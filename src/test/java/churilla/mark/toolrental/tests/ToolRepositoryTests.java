@@ -35,4 +35,12 @@ public class ToolRepositoryTests {
 
         assertFalse(tool.isPresent());
     }
+
+    @Test
+    void givenToolsWithIdenticalToolTypes_whenRepositoryIsLoaded_thenToolTypeInstanceIsShared() {
+        RentableTool dewalt = repo.getRentableToolByCode("JAKD").orElseThrow();
+        RentableTool ridgid = repo.getRentableToolByCode("JAKR").orElseThrow();
+
+        assertSame(dewalt.getToolType(), ridgid.getToolType());
+    }
 }